@@ -0,0 +1,141 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.haedcom.access.application.acceso.AccesoMetrics.AttemptResult;
+import com.haedcom.access.application.acceso.AccesoMetrics.DbPhase;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.events.ComandoDispositivoEmitido;
+import com.haedcom.access.domain.events.DecisionAccesoTomada;
+import com.haedcom.access.domain.events.IntentoAccesoRegistrado;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Costo de las métricas de un intento de acceso (attempt + flow, decisión y motivo, engine, fases
+ * de base de datos, publicación de tres eventos y comandos), sin el resto del flujo.
+ *
+ * <ul>
+ * <li>{@link #facade()}: {@link AccesoMetrics} (meters pre-registrados en arrays).</li>
+ * <li>{@link #cachedByStringKey()}: esquema anterior, {@code ConcurrentHashMap} con clave
+ * {@code name|tag=value} construida por medición.</li>
+ * </ul>
+ *
+ * <p>
+ * Con {@code -prof gc}, {@code gc.alloc.rate.norm} de {@link #facade()} debe ser ~0 B/op.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccesoMetricsBenchmark {
+
+    private AccesoMetrics metrics;
+    private LegacyMetrics legacy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        metrics = new AccesoMetrics(new SimpleMeterRegistry());
+        legacy = new LegacyMetrics(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public long facade() {
+        long start = metrics.start();
+        metrics.engine(start);
+        metrics.commandExpected();
+        metrics.decision(TipoResultadoDecision.PERMITIR, "ALLOW");
+        metrics.db(DbPhase.PERSIST_INTENTO, start);
+        metrics.db(DbPhase.PERSIST_DECISION, start);
+        metrics.db(DbPhase.PERSIST_COMANDO, start);
+        metrics.commandEmitted();
+        metrics.publish(IntentoAccesoRegistrado.class, start);
+        metrics.publish(DecisionAccesoTomada.class, start);
+        metrics.publish(ComandoDispositivoEmitido.class, start);
+        metrics.db(DbPhase.FLUSH, start);
+        metrics.attempt(AttemptResult.OK, start);
+        return start;
+    }
+
+    @Benchmark
+    public long cachedByStringKey() {
+        long start = System.nanoTime();
+        legacy.timer("access_engine_seconds", null, null).record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        legacy.counter("access_commands_expected_total").increment();
+        legacy.counter("access_decisions_total", "result", "PERMITIR").increment();
+        legacy.counter("access_decision_reasons_total", "bucket", "other").increment();
+        legacy.timer("access_db_seconds", "phase", "persist_intento").record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        legacy.timer("access_db_seconds", "phase", "persist_decision").record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        legacy.timer("access_db_seconds", "phase", "persist_comando").record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        legacy.counter("access_commands_emitted_total").increment();
+        legacy.timer("access_publish_seconds", "event",
+                IntentoAccesoRegistrado.class.getSimpleName()).record(elapsed(start),
+                        TimeUnit.NANOSECONDS);
+        legacy.timer("access_publish_seconds", "event",
+                DecisionAccesoTomada.class.getSimpleName()).record(elapsed(start),
+                        TimeUnit.NANOSECONDS);
+        legacy.timer("access_publish_seconds", "event",
+                ComandoDispositivoEmitido.class.getSimpleName()).record(elapsed(start),
+                        TimeUnit.NANOSECONDS);
+        legacy.timer("access_db_seconds", "phase", "flush").record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        legacy.counter("access_attempts_total", "result", "ok").increment();
+        legacy.timer("access_flow_seconds", "result", "ok").record(elapsed(start),
+                TimeUnit.NANOSECONDS);
+        return start;
+    }
+
+    private static long elapsed(long start) {
+        return System.nanoTime() - start;
+    }
+
+    /** Réplica del esquema anterior de {@code AccesoService} (caché por clave String). */
+    private static final class LegacyMetrics {
+
+        private final MeterRegistry registry;
+        private final ConcurrentMap<String, Counter> counterCache = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Timer> timerCache = new ConcurrentHashMap<>();
+
+        LegacyMetrics(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        Timer timer(String name, String tag, String value) {
+            String key = (tag == null) ? name : name + "|" + tag + "=" + value;
+            return timerCache.computeIfAbsent(key, k -> {
+                Timer.Builder b = Timer.builder(name).publishPercentileHistogram(true);
+                return (tag == null ? b : b.tag(tag, value)).register(registry);
+            });
+        }
+
+        Counter counter(String name, String... tags) {
+            StringBuilder key = new StringBuilder(name);
+            for (int i = 0; i < tags.length; i += 2) {
+                key.append('|').append(tags[i]).append('=').append(tags[i + 1]);
+            }
+            return counterCache.computeIfAbsent(key.toString(),
+                    k -> Counter.builder(name).tags(tags).register(registry));
+        }
+    }
+}
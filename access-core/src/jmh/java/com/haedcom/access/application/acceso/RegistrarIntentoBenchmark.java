@@ -0,0 +1,405 @@
+package com.haedcom.access.application.acceso;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import com.haedcom.access.application.acceso.AccesoService.EvaluacionIntento;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.application.acceso.IntentoBatchService.ResultadoIntentoLote;
+import com.haedcom.access.application.acceso.decision.ReglaAccesoCandidatesProvider;
+import com.haedcom.access.application.acceso.decision.ReglaAccesoIndexProvider;
+import com.haedcom.access.application.acceso.decision.RuleBasedDecisionEngineV2;
+import com.haedcom.access.application.acceso.sujeto.SujetoAccesoResolver;
+import com.haedcom.access.bench.BenchmarkEvents;
+import com.haedcom.access.bench.EmbeddedDatabase;
+import com.haedcom.access.bench.FixedZoneProvider;
+import com.haedcom.access.domain.enums.TipoAccionAcceso;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.OutboxDomainEventPublisher;
+import com.haedcom.access.domain.model.Area;
+import com.haedcom.access.domain.model.CatalogoMotivoDecision;
+import com.haedcom.access.domain.model.Dispositivo;
+import com.haedcom.access.domain.model.Organizacion;
+import com.haedcom.access.domain.model.ReglaAcceso;
+import com.haedcom.access.domain.model.Residente;
+import com.haedcom.access.domain.repo.CatalogoMotivoDecisionRepository;
+import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
+import com.haedcom.access.domain.repo.DecisionAccesoRepository;
+import com.haedcom.access.domain.repo.DispositivoRepository;
+import com.haedcom.access.domain.repo.IntentoAccesoRepository;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import com.haedcom.access.domain.repo.ReglaAccesoRepository;
+import com.haedcom.access.domain.repo.RepositoryBinding;
+import com.haedcom.access.domain.repo.ResidenteRepository;
+import com.haedcom.access.domain.repo.VisitantePreautorizadoRepository;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBulkhead;
+import com.haedcom.access.infrastructure.outbox.InstanceIdProvider;
+import com.haedcom.access.infrastructure.outbox.OutboxDispatcher;
+import com.haedcom.access.infrastructure.outbox.OutboxWakeup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * {@link AccesoService#registrarIntento} de extremo a extremo contra PostgreSQL embebido: intento
+ * nuevo (idempotencia, dispositivo, reglas, decisión, comando y tres eventos al outbox) con
+ * commit real.
+ *
+ * <ul>
+ * <li>{@code mode=direct}: una transacción por intento (camino por defecto).</li>
+ * <li>{@code mode=groupCommit}: {@link IntentoGroupCommitWriter} (evaluación en transacción de
+ * lectura y escritura agrupada por lotes).</li>
+ * <li>{@code idempotencyCache}: con {@link IdempotenciaCache} el intento nuevo omite el
+ * {@code SELECT} de idempotencia y {@link #reintento()} se responde desde el LRU.</li>
+ * <li>{@link #registrarLote()}: {@link IntentoBatchService} con {@value #LOTE} intentos por
+ * invocación (resultado normalizado por intento); independiente de {@code mode}.</li>
+ * <li>{@link #workerThreads()} y {@link #virtualThreads()}: {@value #GATEWAYS} gateways
+ * concurrentes (hilos de JMH que envían un intento y esperan la respuesta) contra un pool de
+ * workers del tamaño por defecto de Quarkus o contra virtual threads con
+ * {@link DatasourceBulkhead} (permisos = {@value #POOL} conexiones).</li>
+ * </ul>
+ *
+ * <p>
+ * Se mide con un hilo y con 16 concurrentes ({@code Throughput} y percentiles de
+ * {@code SampleTime}). El wakeup del outbox queda deshabilitado: el benchmark mide el camino de
+ * escritura, no el despacho.
+ * </p>
+ *
+ * <p>
+ * Requiere ejecutarse con un usuario no root (initdb).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RegistrarIntentoBenchmark {
+
+    private static final String CREDENCIAL = "10203040";
+    private static final int REGLAS = 20;
+    private static final int RETRY_KEYS = 1_000;
+    static final int LOTE = 200;
+    static final int POOL = 32;
+    static final int GATEWAYS = 1_000;
+
+    @Param({"direct", "groupCommit"})
+    public String mode;
+
+    /** {@link IdempotenciaCache} habilitada (LRU + filtro de Bloom) o SELECT por intento. */
+    @Param({"true", "false"})
+    public boolean idempotencyCache;
+
+    private EmbeddedDatabase db;
+    private AccesoService service;
+    private IntentoGroupCommitWriter writer;
+    private IntentoBatchService batch;
+    private ExecutorService workers;
+    private ExecutorService virtuales;
+    private DatasourceBulkhead bulkhead;
+    private UUID orgId;
+    private UUID areaId;
+    private UUID dispositivoId;
+    private final AtomicLong seq = new AtomicLong();
+    private final AtomicLong retrySeq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = EmbeddedDatabase.start(POOL);
+        EntityManager em = db.entityManager();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Clock clock = Clock.system(ZoneOffset.UTC);
+
+        seed(em);
+
+        OutboxEventRepository outboxRepo =
+                RepositoryBinding.bind(new OutboxEventRepository(), em);
+        OutboxWakeup wakeup = new OutboxWakeup(mock(OutboxDispatcher.class), outboxRepo,
+                mock(TransactionSynchronizationRegistry.class), new InstanceIdProvider("bench"),
+                registry, false, false, "outbox_event", 20);
+
+        SujetoAccesoResolver resolver = new SujetoAccesoResolver(
+                RepositoryBinding.bind(new ResidenteRepository(), em),
+                RepositoryBinding.bind(new VisitantePreautorizadoRepository(), em), clock, registry,
+                List.of(TipoMetodoAutenticacion.TARJETA));
+        db.inTx(() -> {
+            resolver.loadAll();
+            return null;
+        });
+
+        // sin JTA: las claves escritas pasan al LRU de inmediato
+        TransactionSynchronizationRegistry noTx = mock(TransactionSynchronizationRegistry.class);
+        when(noTx.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        IntentoAccesoRepository intentoRepo =
+                RepositoryBinding.bind(new IntentoAccesoRepository(), em);
+        IdempotenciaCache idempotencia = new IdempotenciaCache(intentoRepo, noTx, clock, registry,
+                idempotencyCache, 200_000, 0.01, 50_000, Duration.ofMinutes(10),
+                Duration.ofHours(24), 2_000_000);
+        db.inTx(() -> {
+            idempotencia.precargar();
+            return null;
+        });
+
+        RuleBasedDecisionEngineV2 engine = new RuleBasedDecisionEngineV2(
+                new ReglaAccesoIndexProvider(new ReglaAccesoCandidatesProvider(
+                        RepositoryBinding.bind(new ReglaAccesoRepository(), em), clock, registry,
+                        Duration.ofMinutes(30), Duration.ofMinutes(25)), clock, registry,
+                        Duration.ofMinutes(30)),
+                new FixedZoneProvider(ZoneOffset.UTC), clock);
+
+        DeviceSnapshotCache deviceCache = new DeviceSnapshotCache(
+                RepositoryBinding.bind(new DispositivoRepository(), em), clock, registry, true,
+                Duration.ofMinutes(10));
+
+        CatalogoMotivoDecisionRepository motivoRepo =
+                RepositoryBinding.bind(new CatalogoMotivoDecisionRepository(), em);
+        CatalogoMotivos catalogoMotivos = new CatalogoMotivos(motivoRepo, clock, registry);
+        db.inTx(catalogoMotivos::recargar);
+
+        service = new TxAccesoService(db, deviceCache,
+                intentoRepo, RepositoryBinding.bind(new DecisionAccesoRepository(), em),
+                RepositoryBinding.bind(new ComandoDispositivoRepository(), em), motivoRepo,
+                catalogoMotivos, engine,
+                resolver, new OutboxDomainEventPublisher(outboxRepo,
+                        BenchmarkEvents.objectMapper(), clock, wakeup),
+                idempotencia, clock, registry);
+
+        virtuales = Executors.newVirtualThreadPerTaskExecutor();
+        writer = new IntentoGroupCommitWriter(service, registry, virtuales, true, 2, 200, 10_000,
+                5_000);
+        batch = new IntentoBatchService(service, registry, LOTE, 10_000);
+
+        // default de quarkus.thread-pool.max-threads
+        workers = Executors.newFixedThreadPool(
+                Math.max(8 * Runtime.getRuntime().availableProcessors(), 200));
+        bulkhead = new DatasourceBulkhead(registry, true, 0, POOL, Duration.ofSeconds(30));
+
+        for (int i = 0; i < RETRY_KEYS; i++) {
+            service.registrarIntento(orgId, request("retry-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writer.shutdown();
+        workers.shutdownNow();
+        virtuales.shutdownNow();
+        db.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RegistrarIntentoResult registrar() {
+        return registrarNuevo();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RegistrarIntentoResult registrarConcurrente() {
+        return registrarNuevo();
+    }
+
+    /**
+     * Reintento del gateway con una clave ya registrada (hit de idempotencia).
+     */
+    @Benchmark
+    @Threads(1)
+    public RegistrarIntentoResult reintento() {
+        RegistrarIntentoRequest req =
+                request("retry-" + (int) (retrySeq.getAndIncrement() % RETRY_KEYS));
+        return "groupCommit".equals(mode) ? writer.registrar(orgId, req)
+                : service.registrarIntento(orgId, req);
+    }
+
+    /**
+     * Reenvío de un buffer del gateway: {@value #LOTE} intentos nuevos en un solo lote.
+     */
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(LOTE)
+    public List<ResultadoIntentoLote> registrarLote() {
+        List<RegistrarIntentoRequest> reqs = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            reqs.add(request("bench-" + seq.incrementAndGet()));
+        }
+        return batch.registrar(orgId, reqs);
+    }
+
+    /**
+     * Request de un gateway atendido por un worker thread (modo por defecto de Quarkus REST).
+     */
+    @Benchmark
+    @Threads(GATEWAYS)
+    public RegistrarIntentoResult workerThreads() throws Exception {
+        return workers.submit(this::registrarNuevo).get();
+    }
+
+    /**
+     * Request de un gateway atendido por un virtual thread ({@code @RunOnVirtualThread} +
+     * {@code @DatasourceBound}).
+     */
+    @Benchmark
+    @Threads(GATEWAYS)
+    public RegistrarIntentoResult virtualThreads() throws Exception {
+        return virtuales.submit(() -> {
+            boolean permiso = bulkhead.acquire();
+            try {
+                return registrarNuevo();
+            } finally {
+                if (permiso) {
+                    bulkhead.release();
+                }
+            }
+        }).get();
+    }
+
+    private RegistrarIntentoResult registrarNuevo() {
+        RegistrarIntentoRequest req = request("bench-" + seq.incrementAndGet());
+        return "groupCommit".equals(mode) ? writer.registrar(orgId, req)
+                : service.registrarIntento(orgId, req);
+    }
+
+    private RegistrarIntentoRequest request(String claveIdempotencia) {
+        return new RegistrarIntentoRequest(dispositivoId, areaId, TipoDireccionPaso.ENTRADA,
+                TipoMetodoAutenticacion.TARJETA, CREDENCIAL, null, claveIdempotencia, null, null);
+    }
+
+    /**
+     * Tenant con un área, un dispositivo, un residente, {@link #REGLAS} reglas (solo la de menor
+     * prioridad aplica y emite comando) y el catálogo de motivos del motor.
+     */
+    private void seed(EntityManager em) {
+        db.inTx(() -> {
+            Organizacion org = Organizacion.crear(UUID.randomUUID(), "Bench", "ACTIVO");
+            em.persist(org);
+            Area area = Area.crear(org, "Acceso principal", null);
+            em.persist(area);
+
+            Dispositivo d = new Dispositivo();
+            d.setIdDispositivo(UUID.randomUUID());
+            d.setOrganizacionTenant(org);
+            d.setAreaReferencia(area);
+            d.setNombre("Torniquete 1");
+            d.setModelo("M1");
+            d.setIdentificadorExterno("bench-dev-1");
+            d.setEstadoActivo(true);
+            em.persist(d);
+
+            em.persist(Residente.crear(org, "Residente Bench", TipoDocumentoIdentidad.CC,
+                    CREDENCIAL, null, null, null));
+
+            // De mayor prioridad pero para SALIDA: se recorren y no aplican
+            for (int i = 0; i < REGLAS - 1; i++) {
+                em.persist(ReglaAcceso.crear(org.getIdOrganizacion(), area.getIdArea(),
+                        TipoSujetoAcceso.RESIDENTE, d.getIdDispositivo(), TipoDireccionPaso.SALIDA,
+                        null, TipoAccionAcceso.DENEGAR, null, null, null, null, 200 + i, null));
+            }
+            em.persist(ReglaAcceso.crear(org.getIdOrganizacion(), area.getIdArea(),
+                    TipoSujetoAcceso.RESIDENTE, d.getIdDispositivo(), null, null,
+                    TipoAccionAcceso.PERMITIR, null, null, null, null, 100, "Bienvenido"));
+
+            for (String codigo : List.of(RuleBasedDecisionEngineV2.MOTIVO_DEVICE_INACTIVE,
+                    RuleBasedDecisionEngineV2.MOTIVO_SUBJECT_UNKNOWN,
+                    RuleBasedDecisionEngineV2.MOTIVO_POLICY_ERROR,
+                    RuleBasedDecisionEngineV2.MOTIVO_ALLOW_DEFAULT,
+                    RuleBasedDecisionEngineV2.MOTIVO_NO_MATCHING_RULE,
+                    RuleBasedDecisionEngineV2.MOTIVO_RULE_ALLOW,
+                    RuleBasedDecisionEngineV2.MOTIVO_RULE_DENY,
+                    RuleBasedDecisionEngineV2.MOTIVO_RULE_REQUIRE_AUTH,
+                    RuleBasedDecisionEngineV2.MOTIVO_RULE_WAIT_CONTROL)) {
+                em.persist(new CatalogoMotivoDecision(codigo, codigo));
+            }
+
+            orgId = org.getIdOrganizacion();
+            areaId = area.getIdArea();
+            dispositivoId = d.getIdDispositivo();
+            return null;
+        });
+    }
+
+    /**
+     * {@link AccesoService} con las fronteras transaccionales que en la aplicación pone el
+     * interceptor de {@code @Transactional}.
+     */
+    static final class TxAccesoService extends AccesoService {
+
+        private final EmbeddedDatabase db;
+
+        TxAccesoService(EmbeddedDatabase db, DeviceSnapshotCache deviceCache,
+                IntentoAccesoRepository intentoRepo, DecisionAccesoRepository decisionRepo,
+                ComandoDispositivoRepository comandoRepo,
+                CatalogoMotivoDecisionRepository motivoRepo, CatalogoMotivos catalogoMotivos,
+                RuleBasedDecisionEngineV2 engine, SujetoAccesoResolver sujetoResolver,
+                OutboxDomainEventPublisher publisher, IdempotenciaCache idempotencia, Clock clock,
+                MeterRegistry registry) {
+            super(deviceCache, intentoRepo, decisionRepo, comandoRepo, motivoRepo,
+                    catalogoMotivos, engine, sujetoResolver, publisher, idempotencia, clock,
+                    registry);
+            this.db = db;
+        }
+
+        @Override
+        public RegistrarIntentoResult registrarIntento(UUID orgId,
+                RegistrarIntentoRequest req) {
+            return db.inTx(() -> super.registrarIntento(orgId, req));
+        }
+
+        @Override
+        public IntentoPendiente prepararIntento(UUID orgId, RegistrarIntentoRequest req) {
+            return db.inTx(() -> super.prepararIntento(orgId, req));
+        }
+
+        @Override
+        public List<EvaluacionIntento> prepararLote(UUID orgId,
+                List<RegistrarIntentoRequest> reqs) {
+            return db.inTx(() -> super.prepararLote(orgId, reqs));
+        }
+
+        @Override
+        public Optional<RegistrarIntentoResult> resultadoExistente(UUID orgId,
+                RegistrarIntentoRequest req) {
+            return db.inNewTx(() -> super.resultadoExistente(orgId, req));
+        }
+
+        @Override
+        public void persistirLote(List<IntentoPendiente> lote) {
+            db.inNewTx(() -> {
+                super.persistirLote(lote);
+                return null;
+            });
+        }
+    }
+}
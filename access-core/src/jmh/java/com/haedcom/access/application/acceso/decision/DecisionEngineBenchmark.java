@@ -0,0 +1,159 @@
+package com.haedcom.access.application.acceso.decision;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.haedcom.access.application.acceso.decision.model.DecisionContext;
+import com.haedcom.access.application.acceso.decision.model.DecisionOutput;
+import com.haedcom.access.application.acceso.decision.model.DeviceSnapshot;
+import com.haedcom.access.bench.FixedZoneProvider;
+import com.haedcom.access.domain.enums.TipoAccionAcceso;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.model.ReglaAcceso;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Evaluación de {@link RuleBasedDecisionEngineV2} contra conjuntos sintéticos de reglas.
+ *
+ * <p>
+ * Todas las reglas caen en la misma clave {@code (orgId, areaId, RESIDENTE)}, de modo que el
+ * índice compilado tiene {@code rules} entradas. Los casos:
+ * </p>
+ * <ul>
+ * <li>{@code matchLowestPriority}: solo la regla de menor prioridad aplica (recorre el índice
+ * completo y retorna la última).</li>
+ * <li>{@code noMatch}: ninguna regla aplica (peor caso: recorrido completo + NO_MATCHING_RULE).</li>
+ * <li>{@code matchFirst}: la regla de mayor prioridad aplica (mejor caso).</li>
+ * </ul>
+ *
+ * <p>
+ * El índice se compila en el setup; el benchmark mide solo {@code evaluate}, que no debería
+ * asignar más allá del {@link DecisionOutput} y el {@code OffsetDateTime} de la decisión.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionEngineBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int rules;
+
+    /** Si {@code true}, la mitad de las reglas define ventana horaria local. */
+    @Param({"false", "true"})
+    public boolean localWindows;
+
+    private RuleBasedDecisionEngineV2 engine;
+    private DecisionContext ctxMatchLast;
+    private DecisionContext ctxMatchFirst;
+    private DecisionContext ctxNoMatch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        UUID orgId = UUID.randomUUID();
+        UUID areaId = UUID.randomUUID();
+        UUID targetDevice = UUID.randomUUID();
+        UUID firstDevice = UUID.randomUUID();
+        UUID unknownDevice = UUID.randomUUID();
+
+        List<ReglaAcceso> reglas = syntheticRules(orgId, areaId, targetDevice, firstDevice);
+        Clock clock = Clock.fixed(Instant.parse("2026-03-18T14:30:00Z"), ZoneOffset.UTC);
+        ReglaAccesoCandidatesProvider candidates = new ReglaAccesoCandidatesProvider(null, clock,
+                new SimpleMeterRegistry(), Duration.ofMinutes(30), Duration.ZERO) {
+            @Override
+            public List<ReglaAcceso> activeRulesBase(UUID o, UUID a, TipoSujetoAcceso t) {
+                return reglas;
+            }
+        };
+
+        engine = new RuleBasedDecisionEngineV2(new ReglaAccesoIndexProvider(candidates, clock,
+                new SimpleMeterRegistry(), Duration.ofMinutes(30)),
+                new FixedZoneProvider(ZoneId.of("America/Santiago")), clock);
+
+        ctxMatchLast = ctx(orgId, areaId, targetDevice);
+        ctxMatchFirst = ctx(orgId, areaId, firstDevice);
+        ctxNoMatch = ctx(orgId, areaId, unknownDevice);
+
+        // Compila el índice fuera de la medición
+        engine.evaluate(ctxNoMatch);
+    }
+
+    @Benchmark
+    public DecisionOutput matchLowestPriority() {
+        return engine.evaluate(ctxMatchLast);
+    }
+
+    @Benchmark
+    public DecisionOutput matchFirst() {
+        return engine.evaluate(ctxMatchFirst);
+    }
+
+    @Benchmark
+    public DecisionOutput noMatch() {
+        return engine.evaluate(ctxNoMatch);
+    }
+
+    /**
+     * Reglas para dispositivos "ajenos" con prioridades 200..(200+rules), más una regla de
+     * prioridad mínima para {@code targetDevice} y una de prioridad máxima para
+     * {@code firstDevice}.
+     */
+    private List<ReglaAcceso> syntheticRules(UUID orgId, UUID areaId, UUID targetDevice,
+            UUID firstDevice) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        TipoDireccionPaso[] dirs = TipoDireccionPaso.values();
+        TipoMetodoAutenticacion[] metodos = TipoMetodoAutenticacion.values();
+        OffsetDateTime desde = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        OffsetDateTime hasta = OffsetDateTime.parse("2027-01-01T00:00:00Z");
+
+        List<ReglaAcceso> out = new ArrayList<>(rules);
+        int fillers = Math.max(0, rules - 2);
+        for (int i = 0; i < fillers; i++) {
+            boolean window = localWindows && (i & 1) == 0;
+            out.add(ReglaAcceso.crear(orgId, areaId, TipoSujetoAcceso.RESIDENTE,
+                    UUID.randomUUID(), rnd.nextBoolean() ? dirs[rnd.nextInt(dirs.length)] : null,
+                    rnd.nextBoolean() ? metodos[rnd.nextInt(metodos.length)] : null,
+                    TipoAccionAcceso.DENEGAR, desde, hasta,
+                    window ? LocalTime.of(22, 0) : null, window ? LocalTime.of(6, 0) : null,
+                    200 + i, "filler-" + i));
+        }
+        out.add(ReglaAcceso.crear(orgId, areaId, TipoSujetoAcceso.RESIDENTE, targetDevice, null,
+                null, TipoAccionAcceso.PERMITIR, null, null, null, null, 1, "target"));
+        out.add(ReglaAcceso.crear(orgId, areaId, TipoSujetoAcceso.RESIDENTE, firstDevice, null,
+                null, TipoAccionAcceso.PERMITIR, null, null, null, null, 1_000_000, "first"));
+        return out;
+    }
+
+    private static DecisionContext ctx(UUID orgId, UUID areaId, UUID deviceId) {
+        return new DecisionContext(orgId, UUID.randomUUID(), deviceId, areaId,
+                TipoDireccionPaso.ENTRADA, TipoMetodoAutenticacion.TARJETA,
+                TipoSujetoAcceso.RESIDENTE,
+                new DeviceSnapshot(deviceId, orgId, areaId, "bench", "M1", null, true));
+    }
+}
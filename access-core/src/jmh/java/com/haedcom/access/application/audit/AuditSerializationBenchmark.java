@@ -0,0 +1,50 @@
+package com.haedcom.access.application.audit;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.haedcom.access.bench.BenchmarkEvents;
+import com.haedcom.access.domain.repo.AuditLogRepository;
+
+/**
+ * Traducción evento → {@code AuditLog} de {@link AuditIngestService} (payload JSON, eventKey y
+ * campos del registro), sin la inserción.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditSerializationBenchmark {
+
+    private AuditIngestService service;
+    private Object[] events;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // toAuditLog no toca el repositorio
+        service = new AuditIngestService(new AuditLogRepository(), BenchmarkEvents.objectMapper());
+        UUID orgId = UUID.randomUUID();
+        events = new Object[] {BenchmarkEvents.intentoRegistrado(orgId),
+                BenchmarkEvents.decisionTomada(orgId), BenchmarkEvents.comandoEmitido(orgId)};
+    }
+
+    @Benchmark
+    public void toAuditLog(Blackhole bh) {
+        for (Object e : events) {
+            bh.consume(service.toAuditLog(e));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.haedcom.access.bench;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
+import com.haedcom.access.domain.enums.TipoComandoDispositivo;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.ComandoDispositivoEmitido;
+import com.haedcom.access.domain.events.DecisionAccesoTomada;
+import com.haedcom.access.domain.events.IntentoAccesoRegistrado;
+
+/**
+ * Fixtures compartidos por los benchmarks: {@link ObjectMapper} equivalente al de Quarkus y los
+ * tres eventos que emite un {@code registrarIntento} típico.
+ */
+public final class BenchmarkEvents {
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * {@link ObjectMapper} con la configuración por defecto de {@code quarkus-jackson} (módulos
+     * del classpath, fechas ISO-8601, sin fallar por propiedades desconocidas).
+     */
+    public static ObjectMapper objectMapper() {
+        return JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+    }
+
+    public static IntentoAccesoRegistrado intentoRegistrado(UUID orgId) {
+        return new IntentoAccesoRegistrado(orgId, UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), TipoDireccionPaso.ENTRADA, TipoMetodoAutenticacion.TARJETA,
+                TipoSujetoAcceso.RESIDENTE, "gw-1:req-123456",
+                OffsetDateTime.parse("2026-03-18T14:30:00Z"));
+    }
+
+    public static DecisionAccesoTomada decisionTomada(UUID orgId) {
+        return new DecisionAccesoTomada(orgId, UUID.randomUUID(), UUID.randomUUID(),
+                TipoResultadoDecision.PERMITIR, "RULE_MATCH_ALLOW", "Acceso permitido por regla",
+                OffsetDateTime.parse("2026-03-18T14:30:00.015Z"), null);
+    }
+
+    public static ComandoDispositivoEmitido comandoEmitido(UUID orgId) {
+        return new ComandoDispositivoEmitido(orgId, UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), TipoComandoDispositivo.ABRIR_PUERTA, "Bienvenido",
+                EstadoComandoDispositivo.ENVIADO, "gw-1:req-123456:cmd",
+                OffsetDateTime.parse("2026-03-18T14:30:00.020Z"), "bench-dev-1");
+    }
+}
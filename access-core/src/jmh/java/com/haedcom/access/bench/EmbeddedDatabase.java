@@ -0,0 +1,227 @@
+package com.haedcom.access.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import com.haedcom.access.domain.model.Area;
+import com.haedcom.access.domain.model.AuditLog;
+import com.haedcom.access.domain.model.AutorizacionVisita;
+import com.haedcom.access.domain.model.CatalogoMotivoDecision;
+import com.haedcom.access.domain.model.ComandoDispositivo;
+import com.haedcom.access.domain.model.DecisionAcceso;
+import com.haedcom.access.domain.model.Dispositivo;
+import com.haedcom.access.domain.model.GrupoResidentes;
+import com.haedcom.access.domain.model.GrupoVisitantes;
+import com.haedcom.access.domain.model.IntentoAcceso;
+import com.haedcom.access.domain.model.Organizacion;
+import com.haedcom.access.domain.model.OutboxEvent;
+import com.haedcom.access.domain.model.PersonaVisita;
+import com.haedcom.access.domain.model.ReglaAcceso;
+import com.haedcom.access.domain.model.Residente;
+import com.haedcom.access.domain.model.Visita;
+import com.haedcom.access.domain.model.VisitantePreautorizado;
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceConfiguration;
+import jakarta.persistence.PersistenceUnitTransactionType;
+
+/**
+ * PostgreSQL embebido (binarios de zonky, sin contenedor) con Hibernate en modo standalone para
+ * los benchmarks de extremo a extremo.
+ *
+ * <ul>
+ * <li>El esquema lo genera Hibernate a partir de las entidades, igual que en la aplicación.</li>
+ * <li>El pool es Agroal, como en Quarkus; la URL lleva {@code reWriteBatchedInserts=true}.</li>
+ * <li>{@link #entityManager()} es un proxy que delega en el {@link EntityManager} de la transacción
+ * del hilo actual (equivalente al EntityManager transaccional que inyecta Quarkus en los
+ * repositorios).</li>
+ * <li>{@link #inTx(Supplier)} / {@link #inNewTx(Supplier)} reemplazan a
+ * {@code @Transactional} / {@code REQUIRES_NEW}.</li>
+ * </ul>
+ *
+ * <p>
+ * initdb no se ejecuta como root: correr los benchmarks de base de datos con un usuario normal.
+ * </p>
+ */
+public final class EmbeddedDatabase implements AutoCloseable {
+
+    private static final List<Class<?>> ENTITIES = List.of(Organizacion.class, Area.class,
+            Dispositivo.class, Residente.class, GrupoResidentes.class, VisitantePreautorizado.class,
+            GrupoVisitantes.class, Visita.class, PersonaVisita.class, AutorizacionVisita.class,
+            ReglaAcceso.class, IntentoAcceso.class, DecisionAcceso.class,
+            CatalogoMotivoDecision.class, ComandoDispositivo.class, OutboxEvent.class,
+            AuditLog.class);
+
+    private static final String USER = "postgres";
+
+    private final EmbeddedPostgres postgres;
+    private final AgroalDataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final ThreadLocal<EntityManager> current = new ThreadLocal<>();
+    private final EntityManager proxy;
+
+    private EmbeddedDatabase(EmbeddedPostgres postgres, AgroalDataSource dataSource,
+            EntityManagerFactory emf) {
+        this.postgres = postgres;
+        this.dataSource = dataSource;
+        this.emf = emf;
+        this.proxy = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[] {EntityManager.class}, (p, method, args) -> {
+                    EntityManager em = current.get();
+                    if (em == null) {
+                        throw new IllegalStateException(
+                                "Sin transacción activa en el hilo para " + method.getName());
+                    }
+                    try {
+                        return method.invoke(em, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Inicia PostgreSQL y crea el esquema.
+     *
+     * @param poolSize conexiones máximas del pool
+     * @return base lista para usar
+     */
+    public static EmbeddedDatabase start(int poolSize) {
+        EmbeddedPostgres pg;
+        try {
+            pg = EmbeddedPostgres.builder().setServerConfig("fsync", "on")
+                    .setServerConfig("synchronous_commit", "on")
+                    .setServerConfig("max_connections", "" + Math.max(50, poolSize * 2)).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo iniciar PostgreSQL embebido", e);
+        }
+
+        String url = pg.getJdbcUrl(USER, USER) + "&reWriteBatchedInserts=true";
+        AgroalDataSource ds;
+        try {
+            ds = AgroalDataSource.from(new AgroalDataSourceConfigurationSupplier()
+                    .connectionPoolConfiguration(cp -> cp.maxSize(poolSize)
+                            .connectionFactoryConfiguration(cf -> cf.jdbcUrl(url)
+                                    .principal(new NamePrincipal(USER))
+                                    .credential(new SimplePassword(USER)))));
+        } catch (SQLException e) {
+            closeQuietly(pg);
+            throw new IllegalStateException("No se pudo crear el pool", e);
+        }
+
+        PersistenceConfiguration cfg = new PersistenceConfiguration("bench")
+                .provider("org.hibernate.jpa.HibernatePersistenceProvider")
+                .transactionType(PersistenceUnitTransactionType.RESOURCE_LOCAL)
+                .property(PersistenceConfiguration.SCHEMAGEN_DATABASE_ACTION, "drop-and-create")
+                .property("jakarta.persistence.nonJtaDataSource", ds)
+                .property("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .property("hibernate.order_inserts", "true");
+        ENTITIES.forEach(cfg::managedClass);
+
+        return new EmbeddedDatabase(pg, ds, cfg.createEntityManagerFactory());
+    }
+
+    /**
+     * @return EntityManager del hilo actual (para inyectar en repositorios)
+     */
+    public EntityManager entityManager() {
+        return proxy;
+    }
+
+    /**
+     * Ejecuta dentro de la transacción del hilo; si no hay una, la crea (semántica
+     * {@code REQUIRED}).
+     */
+    public <T> T inTx(Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+        return inNewTx(work);
+    }
+
+    /**
+     * Ejecuta en una transacción nueva, suspendiendo la del hilo si existe (semántica
+     * {@code REQUIRES_NEW}).
+     */
+    public <T> T inNewTx(Supplier<T> work) {
+        Objects.requireNonNull(work, "work es obligatorio");
+        EntityManager suspended = current.get();
+        EntityManager em = emf.createEntityManager();
+        current.set(em);
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            T r = work.get();
+            tx.commit();
+            return r;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+            if (suspended != null) {
+                current.set(suspended);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta SQL con autocommit (DDL, cargas masivas, scripts).
+     */
+    public void execute(String sql) {
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            c.setAutoCommit(true);
+            st.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("SQL falló: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ejecuta un script SQL completo (p.ej. {@code infra/db/*.sql}).
+     */
+    public void executeScript(Path script) {
+        try {
+            execute(Files.readString(script));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + script, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            emf.close();
+        } finally {
+            dataSource.close();
+            closeQuietly(postgres);
+        }
+    }
+
+    private static void closeQuietly(EmbeddedPostgres pg) {
+        try {
+            pg.close();
+        } catch (IOException ignored) {
+            // benchmark: se descarta el directorio temporal igualmente
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.haedcom.access.bench;
+
+import java.time.ZoneId;
+import java.util.UUID;
+import com.haedcom.access.application.time.TenantZoneProvider;
+
+/**
+ * {@link TenantZoneProvider} con una zona fija (sin consultas ni caché).
+ *
+ * @param zone zona de todos los tenants/áreas
+ */
+public record FixedZoneProvider(ZoneId zone) implements TenantZoneProvider {
+
+    @Override
+    public ZoneId zoneFor(UUID orgId, UUID areaId) {
+        return zone;
+    }
+
+    @Override
+    public void invalidateOrg(UUID orgId) {
+        // sin caché
+    }
+
+    @Override
+    public void invalidateArea(UUID orgId, UUID areaId) {
+        // sin caché
+    }
+}
@@ -0,0 +1,155 @@
+package com.haedcom.access.domain.events;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.access.bench.BenchmarkEvents;
+
+/**
+ * Trabajo en CPU de {@link OutboxDomainEventPublisher#publish(Object)} sin la base de datos:
+ * extracción de metadata del evento y serialización del payload.
+ *
+ * <ul>
+ * <li>{@code metadataLegacyReflection}: heurística previa a {@link DomainEventMetadata}
+ * ({@code getMethod} + {@code invoke} en cada publicación). Se conserva aquí solo como
+ * referencia.</li>
+ * <li>{@code metadataTyped}: {@link DomainEventMetadata} sobre eventos {@link DomainEvent}.</li>
+ * <li>{@code serializePayload}: {@code ObjectMapper.writeValueAsString} de los tres eventos de un
+ * intento.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboxPublishBenchmark {
+
+    private static final String AGG_UNKNOWN = DomainEvent.AGGREGATE_UNKNOWN;
+
+    private ObjectMapper objectMapper;
+    private Object[] events;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        objectMapper = BenchmarkEvents.objectMapper();
+        UUID orgId = UUID.randomUUID();
+        events = new Object[] {BenchmarkEvents.intentoRegistrado(orgId),
+                BenchmarkEvents.decisionTomada(orgId), BenchmarkEvents.comandoEmitido(orgId)};
+        DomainEventMetadata.preload();
+    }
+
+    @Benchmark
+    public void metadataLegacyReflection(Blackhole bh) {
+        for (Object e : events) {
+            bh.consume(legacyOrgId(e));
+            bh.consume(legacyAggregateType(e));
+            bh.consume(legacyAggregateId(e));
+            bh.consume(e.getClass().getName());
+        }
+    }
+
+    @Benchmark
+    public void metadataTyped(Blackhole bh) {
+        for (Object e : events) {
+            DomainEventMetadata meta = DomainEventMetadata.of(e);
+            bh.consume(meta.orgId(e));
+            bh.consume(meta.aggregateType(e));
+            bh.consume(meta.aggregateId(e));
+            bh.consume(meta.eventType());
+        }
+    }
+
+    @Benchmark
+    public void serializePayload(Blackhole bh) throws JsonProcessingException {
+        for (Object e : events) {
+            bh.consume(objectMapper.writeValueAsString(e));
+        }
+    }
+
+    // -------------------------
+    // Heurística histórica (baseline)
+    // -------------------------
+
+    private static UUID legacyOrgId(Object event) {
+        try {
+            Object v = event.getClass().getMethod("orgId").invoke(event);
+            if (v instanceof UUID id) {
+                return id;
+            }
+            throw new IllegalArgumentException(
+                    "Evento orgId() no retorna UUID: " + event.getClass());
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Evento sin orgId(): " + event.getClass(), e);
+        }
+    }
+
+    private static String legacyAggregateType(Object event) {
+        if (hasMethod(event, "idComando")) {
+            return "ComandoDispositivo";
+        }
+        if (hasMethod(event, "idIntento")) {
+            return "IntentoAcceso";
+        }
+        if (hasMethod(event, "idDecision")) {
+            return "DecisionAcceso";
+        }
+        if (hasMethod(event, "idRegla")) {
+            return "ReglaAcceso";
+        }
+        if (hasMethod(event, "idSujeto")) {
+            return "SujetoAcceso";
+        }
+        return AGG_UNKNOWN;
+    }
+
+    private static String legacyAggregateId(Object event) {
+        Object id = tryInvoke(event, "idComando");
+        if (id == null) {
+            id = tryInvoke(event, "idIntento");
+        }
+        if (id == null) {
+            id = tryInvoke(event, "idDecision");
+        }
+        if (id == null) {
+            id = tryInvoke(event, "idRegla");
+        }
+        if (id == null) {
+            id = tryInvoke(event, "idSujeto");
+        }
+        return (id != null) ? id.toString() : AGG_UNKNOWN;
+    }
+
+    private static boolean hasMethod(Object event, String name) {
+        try {
+            event.getClass().getMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Object tryInvoke(Object event, String name) {
+        try {
+            return event.getClass().getMethod(name).invoke(event);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.haedcom.access.domain.repo;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.haedcom.access.bench.EmbeddedDatabase;
+import com.haedcom.access.domain.model.OutboxEvent;
+
+/**
+ * Latencia del claim del outbox ({@link OutboxEventRepository#findPendingReadyForUpdateSkipLocked})
+ * según el volumen de {@code PUBLISHED} retenido, con la tabla simple que genera Hibernate y con
+ * la tabla particionada por día de {@code infra/db/outbox_event_partitioning.sql}.
+ *
+ * <p>
+ * El backlog vivo es fijo (500 {@code PENDING}); los {@code PUBLISHED} se reparten en los últimos
+ * 7 días (la retención por defecto). El script se busca en
+ * {@code -Dhaedcom.bench.partition-script} o, por defecto, relativo al módulo.
+ * </p>
+ *
+ * <p>
+ * Requiere ejecutarse con un usuario no root (initdb).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboxClaimBenchmark {
+
+    private static final int PENDING = 500;
+    private static final int CLAIM_BATCH = 50;
+    private static final int RETENTION_DAYS = 7;
+
+    @Param({"0", "100000", "1000000"})
+    public int publishedRows;
+
+    @Param({"plain", "partitioned"})
+    public String layout;
+
+    private EmbeddedDatabase db;
+    private OutboxEventRepository repo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = EmbeddedDatabase.start(4);
+        repo = RepositoryBinding.bind(new OutboxEventRepository(), db.entityManager());
+
+        if ("partitioned".equals(layout)) {
+            db.executeScript(Path.of(System.getProperty("haedcom.bench.partition-script",
+                    "../infra/db/outbox_event_partitioning.sql")));
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            db.inTx(() -> {
+                for (int d = RETENTION_DAYS; d > 0; d--) {
+                    repo.createDailyPartition(today.minusDays(d));
+                }
+                return null;
+            });
+        }
+
+        // payload es @Lob (oid en PostgreSQL): todas las filas comparten un large object
+        db.execute("""
+                insert into outbox_event (id_evento, id_organizacion, event_type, aggregate_type,
+                    aggregate_id, payload, status, attempts, created_at_utc, published_at_utc)
+                select gen_random_uuid(), gen_random_uuid(), 'bench.Evento', 'Bench', g::text,
+                    p.oid, 'PUBLISHED', 1, ts, ts
+                  from (select g, now() - (g %% (%d * 86400)) * interval '1 second' as ts
+                          from generate_series(1, %d) g) s,
+                       (select lo_from_bytea(0, convert_to('{"bench":true}', 'UTF8')) as oid) p
+                """.formatted(RETENTION_DAYS, publishedRows));
+        db.execute("""
+                insert into outbox_event (id_evento, id_organizacion, event_type, aggregate_type,
+                    aggregate_id, payload, status, attempts, created_at_utc)
+                select gen_random_uuid(), gen_random_uuid(), 'bench.Evento', 'Bench', g::text,
+                    p.oid, 'PENDING', 0, now() - g * interval '1 millisecond'
+                  from generate_series(1, %d) g,
+                       (select lo_from_bytea(0, convert_to('{"bench":true}', 'UTF8')) as oid) p
+                """.formatted(PENDING));
+        db.execute("analyze outbox_event");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Claim de un lote (la transacción termina sin modificar filas, así el backlog no cambia).
+     */
+    @Benchmark
+    public List<OutboxEvent> claimBatch() {
+        return db.inTx(() -> repo.findPendingReadyForUpdateSkipLocked(CLAIM_BATCH, 300));
+    }
+}
@@ -0,0 +1,23 @@
+package com.haedcom.access.domain.repo;
+
+import java.util.Objects;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Asigna el {@link EntityManager} a repositorios creados fuera de CDI (benchmarks).
+ */
+public final class RepositoryBinding {
+
+    private RepositoryBinding() {
+    }
+
+    /**
+     * @param repo repositorio recién construido
+     * @param em EntityManager (típicamente el proxy transaccional del benchmark)
+     * @return el mismo repositorio
+     */
+    public static <R extends BaseRepository<?, ?>> R bind(R repo, EntityManager em) {
+        repo.em = Objects.requireNonNull(em, "em es obligatorio");
+        return repo;
+    }
+}
@@ -1,9 +1,26 @@
 package com.haedcom.access.api.acceso;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.haedcom.access.application.acceso.AccesoService;
 import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
 import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.application.acceso.IntentoBatchService;
+import com.haedcom.access.application.acceso.IntentoBatchService.ResultadoIntentoLote;
+import com.haedcom.access.application.acceso.IntentoGroupCommitWriter;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBulkhead;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -13,6 +30,8 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 /**
  * Recurso REST para el registro de intentos de acceso.
@@ -27,20 +46,53 @@ import jakarta.ws.rs.core.MediaType;
  * </p>
  *
  * <p>
- * Es idempotente mediante {@code claveIdempotencia}.
+ * Es idempotente mediante {@code claveIdempotencia}. Si la escritura choca con
+ * {@code ux_intento_idempotencia_org} (la clave la registró otro nodo o un reintento concurrente),
+ * se responde con el resultado del intento original.
+ * </p>
+ *
+ * <p>
+ * Con {@code haedcom.access.group-commit.enabled=true} la escritura se agrupa con otros intentos
+ * ({@link IntentoGroupCommitWriter}); la respuesta se envía igualmente después del commit.
+ * </p>
+ *
+ * <p>
+ * {@code POST /intentos/lote} recibe muchos intentos (array JSON o NDJSON en streaming) y los
+ * procesa por chunks en transacciones compartidas ({@link IntentoBatchService}); responde un
+ * resultado por intento en el mismo orden.
+ * </p>
+ *
+ * <p>
+ * Se ejecuta en virtual threads ({@code quarkus.virtual-threads.enabled}, {@code false} vuelve a
+ * los worker threads); la concurrencia sobre el datasource la acota {@link DatasourceBulkhead}.
  * </p>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/accesos")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class AccesoResource {
 
+    /** Media type de NDJSON (un objeto JSON por línea). */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final AccesoService accesoService;
+    private final IntentoGroupCommitWriter groupCommit;
+    private final IntentoBatchService batchService;
+    private final ObjectMapper objectMapper;
+    private final DatasourceBulkhead bulkhead;
 
     @Inject
-    public AccesoResource(AccesoService accesoService) {
+    public AccesoResource(AccesoService accesoService, IntentoGroupCommitWriter groupCommit,
+            IntentoBatchService batchService, ObjectMapper objectMapper,
+            DatasourceBulkhead bulkhead) {
         this.accesoService = accesoService;
+        this.groupCommit = groupCommit;
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -55,6 +107,125 @@ public class AccesoResource {
     public RegistrarIntentoResult registrarIntento(@PathParam("orgId") UUID orgId,
             @Valid RegistrarIntentoRequest request) {
 
-        return accesoService.registrarIntento(orgId, request);
+        try {
+            if (groupCommit.isEnabled()) {
+                return groupCommit.registrar(orgId, request);
+            }
+            return accesoService.registrarIntento(orgId, request);
+        } catch (RuntimeException e) {
+            if (!AccesoService.esConflictoIdempotencia(e)) {
+                throw e;
+            }
+            return accesoService.resultadoExistente(orgId, request).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Registra un lote de intentos enviado como array JSON.
+     *
+     * @param orgId tenant
+     * @param requests intentos en orden
+     * @return un resultado por intento, en el mismo orden
+     */
+    @POST
+    @Path("/intentos/lote")
+    public List<ResultadoIntentoLote> registrarLote(@PathParam("orgId") UUID orgId,
+            @Valid List<RegistrarIntentoRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("El lote de intentos es obligatorio");
+        }
+        return batchService.registrar(orgId, requests);
+    }
+
+    /**
+     * Registra un lote de intentos en NDJSON (un intento por línea).
+     *
+     * <p>
+     * El cuerpo se lee a medida que se procesa y los resultados se escriben en NDJSON, en orden,
+     * cada vez que un chunk hace commit. Una línea que no es JSON válido produce un resultado
+     * {@code BAD_REQUEST} en su posición sin afectar al resto.
+     * </p>
+     *
+     * <p>
+     * El lote se procesa al escribir la respuesta, después de que el método retorna y
+     * {@link DatasourceBound} devuelve su permiso: el {@link StreamingOutput} toma el suyo propio.
+     * </p>
+     *
+     * @param orgId tenant
+     * @param body cuerpo NDJSON
+     * @return resultados en NDJSON
+     */
+    @POST
+    @Path("/intentos/lote")
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(APPLICATION_NDJSON)
+    public Response registrarLoteNdjson(@PathParam("orgId") UUID orgId, InputStream body) {
+        StreamingOutput stream = out -> {
+            boolean permiso = bulkhead.acquire();
+            try {
+                BufferedReader reader =
+                        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                batchService.registrar(orgId, new NdjsonIterator(reader), r -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(r));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.flush();
+            } finally {
+                if (permiso) {
+                    bulkhead.release();
+                }
+            }
+        };
+        return Response.ok(stream, APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Itera las líneas no vacías de un cuerpo NDJSON; una línea inválida se entrega como
+     * {@code null}.
+     */
+    private final class NdjsonIterator implements Iterator<RegistrarIntentoRequest> {
+
+        private final BufferedReader reader;
+        private String next;
+
+        NdjsonIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        next = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public RegistrarIntentoRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = next;
+            next = null;
+            try {
+                return objectMapper.readValue(line, RegistrarIntentoRequest.class);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
     }
 }
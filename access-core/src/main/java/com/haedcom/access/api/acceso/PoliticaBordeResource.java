@@ -0,0 +1,97 @@
+package com.haedcom.access.api.acceso;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import com.haedcom.access.application.acceso.borde.PoliticaBorde;
+import com.haedcom.access.application.acceso.borde.PoliticaBordeService;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Operación interna: snapshot de la política de acceso de un tenant para el
+ * {@code device-gateway} ({@link PoliticaBorde}).
+ *
+ * <p>
+ * Responde con {@code ETag} igual a la versión del snapshot; si el gateway envía
+ * {@code If-None-Match} con la versión que ya tiene y no hubo cambios, responde {@code 304}.
+ * {@code If-None-Match} admite {@code *} y listas separadas por comas; la comparación es débil
+ * (un {@code W/} delante del tag se ignora), como corresponde a un {@code GET}.
+ * </p>
+ *
+ * <p>
+ * Igual que {@link ReconciliacionBordeResource}, exige el header {@code X-Gateway-Token} igual a
+ * {@code haedcom.access.gateway.token}: el snapshot expone dispositivos y credenciales del tenant.
+ * Sin esa propiedad la operación responde {@code 403} siempre.
+ * </p>
+ */
+@ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
+@Path("/internal/organizaciones/{orgId}/politica-borde")
+@Produces(MediaType.APPLICATION_JSON)
+public class PoliticaBordeResource {
+
+    private final PoliticaBordeService service;
+    private final byte[] token;
+
+    @Inject
+    public PoliticaBordeResource(PoliticaBordeService service,
+            @ConfigProperty(name = "haedcom.access.gateway.token") Optional<String> token) {
+        this.service = service;
+        this.token = token.filter(t -> !t.isBlank())
+                .map(t -> t.getBytes(StandardCharsets.UTF_8)).orElse(null);
+    }
+
+    /**
+     * Snapshot de la política del tenant.
+     *
+     * @param orgId tenant
+     * @param gatewayToken secreto compartido con el gateway
+     * @param ifNoneMatch versión que ya tiene el gateway
+     * @return {@code 200} con el snapshot y su {@code ETag}, o {@code 304}
+     */
+    @GET
+    public Response politica(@PathParam("orgId") UUID orgId,
+            @HeaderParam(ReconciliacionBordeResource.HEADER_TOKEN) String gatewayToken,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        if (token == null || gatewayToken == null || !MessageDigest.isEqual(token,
+                gatewayToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Operación reservada al device-gateway");
+        }
+        PoliticaBorde p = service.politica(orgId);
+        if (coincide(ifNoneMatch, "\"" + p.version() + "\"")) {
+            return Response.notModified(p.version()).build();
+        }
+        return Response.ok(p).tag(p.version()).build();
+    }
+
+    private static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) {
+                t = t.substring(2);
+            }
+            if (t.equals("*") || t.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.haedcom.access.api.acceso;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import com.haedcom.access.application.acceso.AccesoService.ReconciliarIntentoRequest;
+import com.haedcom.access.application.acceso.IntentoBatchService;
+import com.haedcom.access.application.acceso.IntentoBatchService.ResultadoIntentoLote;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Operación interna: reconciliación de los intentos que el {@code device-gateway} decidió sin el
+ * core ({@code ReconciliadorBorde}).
+ *
+ * <p>
+ * Es el único punto que acepta {@code decisionBorde}: el intento se registra con la decisión del
+ * gateway y sin comando. El endpoint público {@code POST .../accesos/intentos} la rechaza.
+ * </p>
+ *
+ * <p>
+ * Además de estar bajo {@code /internal}, exige el header {@code X-Gateway-Token} igual a
+ * {@code haedcom.access.gateway.token}. Sin esa propiedad la operación responde {@code 403}
+ * siempre.
+ * </p>
+ */
+@ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
+@Path("/internal/organizaciones/{orgId}/accesos/reconciliacion")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class ReconciliacionBordeResource {
+
+    /** Header con el secreto compartido con el gateway. */
+    public static final String HEADER_TOKEN = "X-Gateway-Token";
+
+    private final IntentoBatchService batchService;
+    private final byte[] token;
+
+    @Inject
+    public ReconciliacionBordeResource(IntentoBatchService batchService,
+            @ConfigProperty(name = "haedcom.access.gateway.token") Optional<String> token) {
+        this.batchService = batchService;
+        this.token = token.filter(t -> !t.isBlank())
+                .map(t -> t.getBytes(StandardCharsets.UTF_8)).orElse(null);
+    }
+
+    /**
+     * Registra un lote de intentos decididos en el gateway.
+     *
+     * @param orgId tenant
+     * @param gatewayToken secreto compartido con el gateway
+     * @param requests intentos en orden, cada uno con su {@code decisionBorde}
+     * @return un resultado por intento, en el mismo orden
+     */
+    @POST
+    public List<ResultadoIntentoLote> reconciliar(@PathParam("orgId") UUID orgId,
+            @HeaderParam(HEADER_TOKEN) String gatewayToken,
+            List<ReconciliarIntentoRequest> requests) {
+        if (token == null || gatewayToken == null || !MessageDigest.isEqual(token,
+                gatewayToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Operación reservada al device-gateway");
+        }
+        if (requests == null) {
+            throw new IllegalArgumentException("El lote de intentos es obligatorio");
+        }
+        return batchService.reconciliar(orgId, requests);
+    }
+}
@@ -6,6 +6,8 @@ import com.haedcom.access.api.area.dto.AreaResponse;
 import com.haedcom.access.api.area.dto.AreaUpsertRequest;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.application.area.AreaService;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -63,6 +65,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </ul>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/areas")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -0,0 +1,31 @@
+package com.haedcom.access.api.catalogo;
+
+import java.util.Map;
+import com.haedcom.access.application.acceso.CatalogoMotivos;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Operación interna: recarga del catálogo de motivos precargado tras modificar
+ * {@code catalogo_motivo_decision} (sin esperar la recarga programada). Afecta solo al nodo que
+ * recibe la llamada.
+ */
+@Path("/internal/catalogo-motivos")
+@Produces(MediaType.APPLICATION_JSON)
+public class CatalogoMotivoAdminResource {
+
+    @Inject
+    CatalogoMotivos catalogo;
+
+    @POST
+    @Path("/recargar")
+    public Response recargar() {
+        int size = catalogo.recargar();
+        return Response.ok(Map.of("size", size, "cargadoEn", String.valueOf(catalogo.cargadoEn())))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.haedcom.access.api.common.error;
 
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -12,7 +13,8 @@ import jakarta.ws.rs.ext.Provider;
  * Mapper para {@link WebApplicationException}.
  *
  * <p>
- * Respeta el status original (ej. 409) y devuelve JSON estándar.
+ * Respeta el status original (ej. 409) y devuelve JSON estándar. Conserva {@code Retry-After}
+ * (ej. 503 de {@code DatasourceBulkhead}).
  * </p>
  */
 @Provider
@@ -32,11 +34,18 @@ public class WebApplicationExceptionMapper implements ExceptionMapper<WebApplica
             case 403 -> "FORBIDDEN";
             case 404 -> "NOT_FOUND";
             case 409 -> "CONFLICT";
+            case 503 -> "SERVICE_UNAVAILABLE";
             default -> "HTTP_" + status;
         };
 
         ErrorResponse body = ErrorResponse.simple(code, exception.getMessage(), status, path);
 
-        return Response.status(status).type(MediaType.APPLICATION_JSON).entity(body).build();
+        Response.ResponseBuilder rb =
+                Response.status(status).type(MediaType.APPLICATION_JSON).entity(body);
+        String retryAfter = exception.getResponse().getHeaderString(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            rb.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return rb.build();
     }
 }
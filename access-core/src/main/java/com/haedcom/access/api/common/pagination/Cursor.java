@@ -0,0 +1,68 @@
+package com.haedcom.access.api.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import com.haedcom.access.domain.repo.Keyset;
+
+/**
+ * Codificación del cursor opaco de {@link CursorPageResponse}.
+ *
+ * <p>
+ * El cursor es la {@link Keyset} de la última fila entregada (campo de orden, dirección, valor e
+ * id) en Base64 URL-safe. El cliente no debe interpretarlo: solo reenviarlo en
+ * {@code ?cursor=} con los mismos filtros y orden.
+ * </p>
+ *
+ * <p>
+ * No está firmado ni guarda los filtros. Se rechaza (400) si está mal formado o si su campo o
+ * dirección no coinciden con el {@code sort}/{@code dir} pedidos. Con otros filtros, o con un
+ * cursor editado a mano, el listado solo continúa desde esa posición: los filtros y el tenant se
+ * aplican en cada pedido, así que no expone filas que el pedido no vería sin cursor.
+ * </p>
+ */
+public final class Cursor {
+
+    private static final String VERSION = "v1";
+    private static final char SEP = '\n';
+
+    private Cursor() {
+    }
+
+    /**
+     * @param keyset posición de la última fila (no null)
+     * @return cursor opaco
+     */
+    public static String encode(Keyset keyset) {
+        String raw = VERSION + SEP + keyset.sort() + SEP + (keyset.asc() ? "asc" : "desc") + SEP
+                + keyset.id() + SEP + keyset.valor();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor cursor recibido (null o blank = primera página)
+     * @return posición a continuar, o {@code null} para la primera página
+     * @throws IllegalArgumentException si el cursor está mal formado (400); la coincidencia con el
+     *         orden pedido la valida el repositorio
+     */
+    public static Keyset decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()),
+                    StandardCharsets.UTF_8);
+            // el valor va al final: puede contener cualquier carácter
+            String[] parts = raw.split(String.valueOf(SEP), 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])
+                    || !(parts[2].equals("asc") || parts[2].equals("desc"))) {
+                throw new IllegalArgumentException("cursor inválido");
+            }
+            return new Keyset(parts[1], parts[2].equals("asc"), parts[4],
+                    UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("cursor inválido", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.haedcom.access.api.common.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Respuesta estándar para endpoints paginados por cursor (keyset).
+ *
+ * <p>
+ * Alternativa a {@link PageResponse} para recorrer listados grandes: el costo de cada página no
+ * depende de su profundidad y no se cuenta el total salvo que se pida.
+ * <ul>
+ * <li>{@code size}: tamaño de página solicitado</li>
+ * <li>{@code nextCursor}: cursor opaco para la página siguiente ({@code null} si no hay más)</li>
+ * <li>{@code hasNext}: hay al menos un elemento más</li>
+ * <li>{@code total}: total para el filtro actual, solo si se pidió ({@code includeTotal=true});
+ * si no, {@code null}</li>
+ * </ul>
+ * </p>
+ *
+ * @param <T> tipo de los elementos retornados
+ */
+public record CursorPageResponse<T>(List<T> items, int size, String nextCursor, boolean hasNext,
+        Long total) {
+
+    /**
+     * Construye la respuesta a partir de una consulta que pidió {@code size + 1} filas: si llegó
+     * la fila extra, hay página siguiente y se descarta.
+     *
+     * @param rows filas leídas (hasta {@code size + 1})
+     * @param size tamaño de página (debe ser > 0)
+     * @param mapper conversión de cada fila al elemento de la respuesta
+     * @param cursorOf cursor de una fila (se usa con la última de la página)
+     * @param total total para el criterio, o {@code null} si no se calculó
+     * @param <E> tipo de fila
+     * @param <T> tipo de elemento
+     * @return respuesta paginada
+     */
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int size,
+            Function<? super E, T> mapper, Function<? super E, String> cursorOf, Long total) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size debe ser > 0");
+        }
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        List<T> items = page.stream().map(mapper).toList();
+        return new CursorPageResponse<>(items, size, next, hasNext, total);
+    }
+}
@@ -5,9 +5,12 @@
 // =====================================================
 package com.haedcom.access.api.dispositivo;
 
+import java.util.List;
 import java.util.UUID;
 import org.jboss.logging.Logger;
 import com.haedcom.access.application.dispositivo.ComandoDispositivoService;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLote;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLoteItem;
 import com.haedcom.access.application.dispositivo.dto.ResultadoComandoRequest;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -30,6 +33,9 @@ import jakarta.ws.rs.core.Response;
  * </p>
  * <ul>
  * <li>POST {@code /organizaciones/{orgId}/comandos/{idComando}/resultado}</li>
+ * <li>POST {@code /organizaciones/{orgId}/comandos/resultados}: lote de resultados en una sola
+ * transacción (una consulta para cargar los comandos y un insert en batch al outbox); responde un
+ * resultado por ítem en el mismo orden.</li>
  * </ul>
  *
  * <h2>Idempotencia</h2>
@@ -105,4 +111,31 @@ public class ComandoCallbackResource {
         comandoService.confirmarOFallar(orgId, idComando, req);
         return Response.noContent().build();
     }
+
+    /**
+     * Registra un lote de resultados de comandos.
+     *
+     * <p>
+     * Un ítem inválido o de un comando inexistente se informa en su posición ({@code 400} /
+     * {@code 404}) sin afectar al resto; un comando ya cerrado responde {@code IDEMPOTENT} o
+     * {@code IGNORED}.
+     * </p>
+     *
+     * @param orgId tenant (organización)
+     * @param requestId correlación opcional del request (header {@code X-Request-Id})
+     * @param items resultados en orden
+     * @return un resultado por ítem, en el mismo orden
+     */
+    @POST
+    @Path("/resultados")
+    public List<ResultadoComandoLote> registrarResultados(@PathParam("orgId") UUID orgId,
+            @HeaderParam(HDR_REQUEST_ID) String requestId, List<ResultadoComandoLoteItem> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("El lote de resultados es obligatorio");
+        }
+        LOG.debugf("Callback resultados comando orgId=%s items=%d requestId=%s", orgId,
+                items.size(), requestId);
+
+        return comandoService.confirmarOFallarLote(orgId, items);
+    }
 }
@@ -2,10 +2,13 @@ package com.haedcom.access.api.dispositivo;
 
 import java.net.URI;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.dispositivo.dto.DispositivoResponse;
 import com.haedcom.access.api.dispositivo.dto.DispositivoUpsertRequest;
 import com.haedcom.access.application.dispositivo.DispositivoService;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -41,6 +44,7 @@ import jakarta.ws.rs.core.UriInfo;
  * <h2>Rutas</h2>
  * <ul>
  * <li>GET {@code /organizaciones/{orgId}/dispositivos}</li>
+ * <li>GET {@code /organizaciones/{orgId}/dispositivos/cursor}</li>
  * <li>GET {@code /organizaciones/{orgId}/dispositivos/{dispositivoId}}</li>
  * <li>POST {@code /organizaciones/{orgId}/dispositivos}</li>
  * <li>PUT {@code /organizaciones/{orgId}/dispositivos/{dispositivoId}}</li>
@@ -64,6 +68,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </ul>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/dispositivos")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -113,6 +119,25 @@ public class DispositivoResource {
         return service.list(orgId, areaId, p, s);
     }
 
+    /**
+     * Lista dispositivos por cursor (keyset), en el mismo orden que {@link #list}.
+     *
+     * <p>
+     * Semántica de {@code cursor}/{@code includeTotal} en {@link CursorPageResponse}.
+     * </p>
+     */
+    @GET
+    @Path("/cursor")
+    public CursorPageResponse<DispositivoResponse> listCursor(@PathParam("orgId") UUID orgId,
+            @QueryParam("areaId") UUID areaId, @QueryParam("cursor") String cursor,
+            @QueryParam("size") @Min(1) @Max(200) Integer size,
+            @QueryParam("includeTotal") boolean includeTotal) {
+
+        int s = (size == null) ? DEFAULT_SIZE : size;
+
+        return service.listCursor(orgId, areaId, cursor, s, includeTotal);
+    }
+
     /**
      * Obtiene el detalle de un dispositivo específico dentro de una organización.
      *
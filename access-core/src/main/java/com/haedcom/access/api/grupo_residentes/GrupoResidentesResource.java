@@ -11,6 +11,8 @@ import com.haedcom.access.api.grupo_residentes.dto.GrupoResidentesResponse;
 import com.haedcom.access.api.grupo_residentes.dto.GrupoResidentesUpsertRequest;
 import com.haedcom.access.application.grupo_residentes.GrupoResidentesService;
 import com.haedcom.access.domain.enums.EstadoGrupo;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -67,6 +69,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </ul>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/grupos-residentes")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
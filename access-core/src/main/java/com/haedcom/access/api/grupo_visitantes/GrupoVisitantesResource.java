@@ -2,6 +2,7 @@ package com.haedcom.access.api.grupo_visitantes;
 
 import java.net.URI;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesEstadoRequest;
 import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesMiembrosRequest;
@@ -9,6 +10,8 @@ import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesResponse;
 import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesUpsertRequest;
 import com.haedcom.access.application.grupo_visitantes.GrupoVisitantesService;
 import com.haedcom.access.domain.enums.EstadoGrupo;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -40,6 +43,7 @@ import jakarta.ws.rs.core.UriInfo;
  * <h3>Rutas principales</h3>
  * <ul>
  * <li>GET {@code /organizaciones/{orgId}/grupos-visitantes}</li>
+ * <li>GET {@code /organizaciones/{orgId}/grupos-visitantes/cursor}</li>
  * <li>GET {@code /organizaciones/{orgId}/grupos-visitantes/{grupoId}}</li>
  * <li>POST {@code /organizaciones/{orgId}/grupos-visitantes}</li>
  * <li>PUT {@code /organizaciones/{orgId}/grupos-visitantes/{grupoId}}</li>
@@ -65,6 +69,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </ul>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/grupos-visitantes")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -112,6 +118,27 @@ public class GrupoVisitantesResource {
         return service.list(orgId, q, estado, p, s);
     }
 
+    /**
+     * Lista grupos de visitantes por cursor (keyset), con los mismos filtros y orden que
+     * {@link #list}.
+     *
+     * <p>
+     * Ver {@link CursorPageResponse} para {@code cursor} e {@code includeTotal}.
+     * </p>
+     */
+    @GET
+    @Path("/cursor")
+    public CursorPageResponse<GrupoVisitantesResponse> listCursor(@PathParam("orgId") UUID orgId,
+            @QueryParam("q") String q, @QueryParam("estado") EstadoGrupo estado,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") @Min(1) @Max(200) Integer size,
+            @QueryParam("includeTotal") boolean includeTotal) {
+
+        int s = (size == null) ? DEFAULT_SIZE : size;
+
+        return service.listCursor(orgId, q, estado, cursor, s, includeTotal);
+    }
+
     /**
      * Obtiene el detalle de un grupo específico.
      *
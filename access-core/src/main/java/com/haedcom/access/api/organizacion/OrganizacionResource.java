@@ -7,6 +7,8 @@ import com.haedcom.access.api.organizacion.dto.OrganizacionListResponse;
 import com.haedcom.access.api.organizacion.dto.OrganizacionResponse;
 import com.haedcom.access.api.organizacion.dto.OrganizacionUpdateRequest;
 import com.haedcom.access.application.organizacion.OrganizacionService;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -51,6 +53,8 @@ import jakarta.ws.rs.core.UriInfo;
  * annotations.</li>
  * </ul>
  */
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/api/organizaciones")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -1,6 +1,7 @@
 package com.haedcom.access.api.reglaacceso;
 
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.reglaacceso.dto.ReglaAccesoEstadoRequest;
 import com.haedcom.access.api.reglaacceso.dto.ReglaAccesoResponse;
@@ -9,6 +10,8 @@ import com.haedcom.access.api.reglaacceso.dto.ReglaAccesoUpsertRequest;
 import com.haedcom.access.application.reglaacceso.ReglaAccesoService;
 import com.haedcom.access.domain.enums.EstadoReglaAcceso;
 import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -50,6 +53,8 @@ import jakarta.ws.rs.core.Response;
  * <li>Este recurso asume que el tenant llega como {@code orgId} en la URL.</li>
  * </ul>
  */
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/api/v1/organizaciones/{orgId}/reglas-acceso")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -109,6 +114,30 @@ public class ReglaAccesoResource {
         return service.list(orgId, filters, page, size);
     }
 
+    /**
+     * Lista reglas del tenant por cursor (keyset), con los mismos filtros y orden que
+     * {@link #list}.
+     *
+     * <p>
+     * {@code cursor}: {@code nextCursor} de la página anterior; {@code includeTotal}: agrega el
+     * conteo (ver {@link CursorPageResponse}).
+     * </p>
+     */
+    @GET
+    @Path("/cursor")
+    public CursorPageResponse<ReglaAccesoResponse> listCursor(
+            @PathParam("orgId") @NotNull UUID orgId, @QueryParam("idArea") UUID idArea,
+            @QueryParam("idDispositivo") UUID idDispositivo,
+            @QueryParam("tipoSujeto") TipoSujetoAcceso tipoSujeto,
+            @QueryParam("estado") EstadoReglaAcceso estado, @QueryParam("cursor") String cursor,
+            @QueryParam("size") @DefaultValue("25") @Min(1) @Max(200) int size,
+            @QueryParam("includeTotal") boolean includeTotal) {
+        ReglaAccesoSearchRequest filters =
+                new ReglaAccesoSearchRequest(idArea, idDispositivo, tipoSujeto, estado);
+
+        return service.listCursor(orgId, filters, cursor, size, includeTotal);
+    }
+
     /**
      * Obtiene una regla de acceso por id dentro del tenant.
      *
@@ -2,6 +2,7 @@ package com.haedcom.access.api.residente;
 
 import java.net.URI;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.residente.dto.ResidenteEstadoRequest;
 import com.haedcom.access.api.residente.dto.ResidenteResponse;
@@ -9,6 +10,8 @@ import com.haedcom.access.api.residente.dto.ResidenteUpsertRequest;
 import com.haedcom.access.application.residente.ResidenteService;
 import com.haedcom.access.domain.enums.EstadoResidente;
 import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -40,6 +43,7 @@ import jakarta.ws.rs.core.UriInfo;
  * Rutas:
  * <ul>
  * <li>GET /organizaciones/{orgId}/residentes</li>
+ * <li>GET /organizaciones/{orgId}/residentes/cursor</li>
  * <li>GET /organizaciones/{orgId}/residentes/{residenteId}</li>
  * <li>POST /organizaciones/{orgId}/residentes</li>
  * <li>PUT /organizaciones/{orgId}/residentes/{residenteId}</li>
@@ -57,6 +61,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </p>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/residentes")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -105,6 +111,35 @@ public class ResidenteResource {
         return service.list(orgId, q, tipoDocumento, numeroDocumento, estado, sort, dir, p, s);
     }
 
+    /**
+     * Lista residentes de una organización por cursor (keyset), con los mismos filtros y orden
+     * que {@link #list}.
+     *
+     * <p>
+     * Para recorrer listados grandes: cada página continúa desde {@code cursor} (el
+     * {@code nextCursor} de la anterior) y su costo no depende de la profundidad.
+     * {@code total} solo se calcula con {@code includeTotal=true}. Un cursor mal formado o de
+     * otro {@code sort}/{@code dir} responde 400; los filtros no quedan ligados al cursor (ver
+     * {@link com.haedcom.access.api.common.pagination.Cursor}).
+     * </p>
+     */
+    @GET
+    @Path("/cursor")
+    public CursorPageResponse<ResidenteResponse> listCursor(@PathParam("orgId") UUID orgId,
+            @QueryParam("q") String q,
+            @QueryParam("tipoDocumento") TipoDocumentoIdentidad tipoDocumento,
+            @QueryParam("numeroDocumento") String numeroDocumento,
+            @QueryParam("estado") EstadoResidente estado, @QueryParam("sort") String sort,
+            @QueryParam("dir") String dir, @QueryParam("cursor") String cursor,
+            @QueryParam("size") @Min(1) @Max(200) Integer size,
+            @QueryParam("includeTotal") boolean includeTotal) {
+
+        int s = (size == null) ? DEFAULT_SIZE : size;
+
+        return service.listCursor(orgId, q, tipoDocumento, numeroDocumento, estado, sort, dir,
+                cursor, s, includeTotal);
+    }
+
 
 
     /**
@@ -2,11 +2,14 @@ package com.haedcom.access.api.visitante;
 
 import java.net.URI;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.visitante.dto.VisitantePreautorizadoResponse;
 import com.haedcom.access.api.visitante.dto.VisitantePreautorizadoUpsertRequest;
 import com.haedcom.access.application.visitantePreautorizado.VisitantePreautorizadoService;
 import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.infrastructure.concurrency.DatasourceBound;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -42,6 +45,7 @@ import jakarta.ws.rs.core.UriInfo;
  * <h2>Rutas</h2>
  * <ul>
  * <li>GET {@code /organizaciones/{orgId}/visitantes-preautorizados}</li>
+ * <li>GET {@code /organizaciones/{orgId}/visitantes-preautorizados/cursor}</li>
  * <li>GET {@code /organizaciones/{orgId}/visitantes-preautorizados/{visitanteId}}</li>
  * <li>POST {@code /organizaciones/{orgId}/visitantes-preautorizados}</li>
  * <li>PUT {@code /organizaciones/{orgId}/visitantes-preautorizados/{visitanteId}}</li>
@@ -70,6 +74,8 @@ import jakarta.ws.rs.core.UriInfo;
  * </ul>
  */
 @ApplicationScoped
+@RunOnVirtualThread
+@DatasourceBound
 @Path("/organizaciones/{orgId}/visitantes-preautorizados")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -128,6 +134,32 @@ public class VisitantePreautorizadoResource {
         return service.list(orgId, residenteId, q, tipoDocumento, numeroDocumento, sort, dir, p, s);
     }
 
+    /**
+     * Lista visitantes preautorizados por cursor (keyset), con los mismos filtros y orden que
+     * {@link #list}.
+     *
+     * <p>
+     * {@code cursor} es el {@code nextCursor} de la página anterior (ver
+     * {@link CursorPageResponse}); {@code total} solo viene con {@code includeTotal=true}.
+     * </p>
+     */
+    @GET
+    @Path("/cursor")
+    public CursorPageResponse<VisitantePreautorizadoResponse> listCursor(
+            @PathParam("orgId") UUID orgId, @QueryParam("residenteId") UUID residenteId,
+            @QueryParam("q") String q,
+            @QueryParam("tipoDocumento") TipoDocumentoIdentidad tipoDocumento,
+            @QueryParam("numeroDocumento") String numeroDocumento, @QueryParam("sort") String sort,
+            @QueryParam("dir") String dir, @QueryParam("cursor") String cursor,
+            @QueryParam("size") @Min(1) @Max(200) Integer size,
+            @QueryParam("includeTotal") boolean includeTotal) {
+
+        int s = (size == null) ? DEFAULT_SIZE : size;
+
+        return service.listCursor(orgId, residenteId, q, tipoDocumento, numeroDocumento, sort, dir,
+                cursor, s, includeTotal);
+    }
+
     /**
      * Obtiene el detalle de un visitante preautorizado específico dentro de una organización.
      *
@@ -0,0 +1,239 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.events.ComandoDispositivoEmitido;
+import com.haedcom.access.domain.events.DecisionAccesoTomada;
+import com.haedcom.access.domain.events.IntentoAccesoRegistrado;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas del flujo de {@link AccesoService} con meters pre-registrados.
+ *
+ * <p>
+ * Todos los meters {@code (etapa, resultado, motivo)} se registran en el constructor y se
+ * guardan en arrays indexados por {@code ordinal()} de enums. En el hot path no se construyen
+ * claves {@code String}, no se consulta ningún mapa y no se crean lambdas ni
+ * {@link Timer.Sample}: los tiempos se miden con {@link #start()} y se registran en
+ * nanosegundos.
+ * </p>
+ *
+ * <p>
+ * Nombres y tags son los históricos del servicio:
+ * </p>
+ * <ul>
+ * <li>{@code access_attempts_total{result}} y {@code access_flow_seconds{result}}.</li>
+ * <li>{@code access_decisions_total{result}} y {@code access_decision_reasons_total{bucket}}.</li>
+ * <li>{@code access_engine_seconds}, {@code access_db_seconds{phase}},
+ * {@code access_publish_seconds{event}}.</li>
+ * <li>{@code access_commands_expected_total}, {@code access_commands_emitted_total},
+ * {@code access_commands_gap_total}, {@code access_motivo_fallback_used_total}.</li>
+ * <li>{@code access_edge_reconciled_total{result=match|diverged}}: decisiones tomadas en el
+ * gateway sin el core, comparadas con la del motor al reconciliarlas.</li>
+ * </ul>
+ */
+final class AccesoMetrics {
+
+    /** Resultado del intento ({@code result} de attempts/flow). */
+    enum AttemptResult {
+        OK("ok"), IDEMPOTENT_HIT("idempotent_hit"), IDEMPOTENT_CONFLICT(
+                "idempotent_conflict"), NOT_FOUND("not_found"), CONFLICT(
+                        "conflict"), BAD_REQUEST("bad_request"), ERROR("error");
+
+        final String tag;
+
+        AttemptResult(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Fase de base de datos ({@code phase} de {@code access_db_seconds}). */
+    enum DbPhase {
+        FLUSH("flush"), PERSIST_INTENTO("persist_intento"), PERSIST_DECISION(
+                "persist_decision"), PERSIST_COMANDO("persist_comando");
+
+        final String tag;
+
+        DbPhase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Bucket de motivo ({@code bucket} de {@code access_decision_reasons_total}). */
+    enum ReasonBucket {
+        NO_MATCH("no_match"), POLICY_ERROR("policy_error"), MISSING("missing"), OTHER(
+                "other"), ENGINE_NULL("engine_null");
+
+        final String tag;
+
+        ReasonBucket(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final TipoResultadoDecision[] DECISIONES = TipoResultadoDecision.values();
+
+    private final Clock clock;
+    private final MeterRegistry registry;
+
+    private final Counter[] attempts;
+    private final Timer[] flow;
+    private final Counter[] decisions;
+    private final Counter[] reasons;
+    private final Timer[] db;
+    private final Timer engine;
+
+    private final Counter commandsExpected;
+    private final Counter commandsEmitted;
+    private final Counter commandsGap;
+    private final Counter motivoFallback;
+    private final Counter edgeMatch;
+    private final Counter edgeDiverged;
+
+    private final ClassValue<Timer> publish = new ClassValue<>() {
+        @Override
+        protected Timer computeValue(Class<?> type) {
+            return Timer.builder("access_publish_seconds").tag("event", type.getSimpleName())
+                    .publishPercentileHistogram(true).register(registry);
+        }
+    };
+
+    AccesoMetrics(MeterRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry es obligatorio");
+        this.clock = registry.config().clock();
+
+        AttemptResult[] results = AttemptResult.values();
+        attempts = new Counter[results.length];
+        flow = new Timer[results.length];
+        for (AttemptResult r : results) {
+            attempts[r.ordinal()] = Counter.builder("access_attempts_total").tag("result", r.tag)
+                    .register(registry);
+            flow[r.ordinal()] = Timer.builder("access_flow_seconds").tag("result", r.tag)
+                    .publishPercentileHistogram(true).register(registry);
+        }
+
+        decisions = new Counter[DECISIONES.length];
+        for (TipoResultadoDecision r : DECISIONES) {
+            decisions[r.ordinal()] = Counter.builder("access_decisions_total")
+                    .tag("result", r.name()).register(registry);
+        }
+
+        ReasonBucket[] buckets = ReasonBucket.values();
+        reasons = new Counter[buckets.length];
+        for (ReasonBucket b : buckets) {
+            reasons[b.ordinal()] = Counter.builder("access_decision_reasons_total")
+                    .tag("bucket", b.tag).register(registry);
+        }
+
+        DbPhase[] phases = DbPhase.values();
+        db = new Timer[phases.length];
+        for (DbPhase p : phases) {
+            db[p.ordinal()] = Timer.builder("access_db_seconds").tag("phase", p.tag)
+                    .publishPercentileHistogram(true).register(registry);
+        }
+
+        engine = Timer.builder("access_engine_seconds").publishPercentileHistogram(true)
+                .register(registry);
+
+        commandsExpected = Counter.builder("access_commands_expected_total").register(registry);
+        commandsEmitted = Counter.builder("access_commands_emitted_total").register(registry);
+        commandsGap = Counter.builder("access_commands_gap_total").register(registry);
+        motivoFallback = Counter.builder("access_motivo_fallback_used_total").register(registry);
+        edgeMatch = Counter.builder("access_edge_reconciled_total").tag("result", "match")
+                .register(registry);
+        edgeDiverged = Counter.builder("access_edge_reconciled_total").tag("result", "diverged")
+                .register(registry);
+
+        // eventos publicados por el flujo de acceso
+        publish.get(IntentoAccesoRegistrado.class);
+        publish.get(DecisionAccesoTomada.class);
+        publish.get(ComandoDispositivoEmitido.class);
+    }
+
+    /**
+     * @return marca de tiempo monótona (ns) del reloj del registry
+     */
+    long start() {
+        return clock.monotonicTime();
+    }
+
+    /** Cuenta el intento y registra su duración total. */
+    void attempt(AttemptResult result, long start) {
+        attempts[result.ordinal()].increment();
+        flow[result.ordinal()].record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /** Cuenta el intento sin registrar duración (p.ej. recuperación de conflicto). */
+    void countAttempt(AttemptResult result) {
+        attempts[result.ordinal()].increment();
+    }
+
+    void db(DbPhase phase, long start) {
+        db[phase.ordinal()].record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void engine(long start) {
+        engine.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void publish(Class<?> eventType, long start) {
+        publish.get(eventType).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cuenta la decisión del motor por resultado y bucket de motivo.
+     *
+     * @param resultado resultado (null cuenta como {@code ERROR} + {@code missing})
+     * @param codigoMotivo código normalizado (puede ser null)
+     */
+    void decision(TipoResultadoDecision resultado, String codigoMotivo) {
+        if (resultado == null) {
+            decisions[TipoResultadoDecision.ERROR.ordinal()].increment();
+            reasons[ReasonBucket.MISSING.ordinal()].increment();
+            return;
+        }
+        decisions[resultado.ordinal()].increment();
+        reasons[bucketOf(codigoMotivo).ordinal()].increment();
+    }
+
+    /** El motor devolvió {@code null}. */
+    void engineNull() {
+        decisions[TipoResultadoDecision.ERROR.ordinal()].increment();
+        reasons[ReasonBucket.ENGINE_NULL.ordinal()].increment();
+    }
+
+    void commandExpected() {
+        commandsExpected.increment();
+    }
+
+    void commandEmitted() {
+        commandsEmitted.increment();
+    }
+
+    void commandGap() {
+        commandsGap.increment();
+    }
+
+    void motivoFallback() {
+        motivoFallback.increment();
+    }
+
+    void edgeReconciled(boolean coincide) {
+        (coincide ? edgeMatch : edgeDiverged).increment();
+    }
+
+    private static ReasonBucket bucketOf(String codigo) {
+        if (codigo == null) {
+            return ReasonBucket.MISSING;
+        }
+        return switch (codigo) {
+            case "NO_MATCHING_RULE" -> ReasonBucket.NO_MATCH;
+            case "POLICY_ERROR" -> ReasonBucket.POLICY_ERROR;
+            default -> ReasonBucket.OTHER;
+        };
+    }
+}
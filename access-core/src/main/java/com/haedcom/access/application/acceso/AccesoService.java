@@ -2,16 +2,20 @@ package com.haedcom.access.application.acceso;
 
 import java.time.Clock;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import org.jboss.logging.Logger;
 import org.jboss.logging.MDC;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.haedcom.access.application.acceso.decision.DecisionEngine;
 import com.haedcom.access.application.acceso.decision.model.DecisionContext;
 import com.haedcom.access.application.acceso.decision.model.DecisionOutput;
 import com.haedcom.access.application.acceso.decision.model.DeviceSnapshot;
+import com.haedcom.access.application.acceso.sujeto.SujetoAccesoResolver;
 import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
 import com.haedcom.access.domain.enums.TipoComandoDispositivo;
 import com.haedcom.access.domain.enums.TipoDireccionPaso;
@@ -25,16 +29,14 @@ import com.haedcom.access.domain.events.IntentoAccesoRegistrado;
 import com.haedcom.access.domain.model.CatalogoMotivoDecision;
 import com.haedcom.access.domain.model.ComandoDispositivo;
 import com.haedcom.access.domain.model.DecisionAcceso;
-import com.haedcom.access.domain.model.Dispositivo;
 import com.haedcom.access.domain.model.IntentoAcceso;
 import com.haedcom.access.domain.repo.CatalogoMotivoDecisionRepository;
 import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
 import com.haedcom.access.domain.repo.DecisionAccesoRepository;
-import com.haedcom.access.domain.repo.DispositivoRepository;
 import com.haedcom.access.domain.repo.IntentoAccesoRepository;
-import io.micrometer.core.instrument.Counter;
+import com.haedcom.access.application.acceso.AccesoMetrics.AttemptResult;
+import com.haedcom.access.application.acceso.AccesoMetrics.DbPhase;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Named;
 import jakarta.transaction.Transactional;
@@ -52,15 +54,22 @@ import jakarta.ws.rs.WebApplicationException;
  *
  * <h2>Flujo</h2>
  * <ol>
- * <li>Validar idempotencia del intento</li>
- * <li>Validar existencia del dispositivo en el tenant</li>
- * <li>Persistir {@link IntentoAcceso}</li>
+ * <li>Validar idempotencia del intento ({@link IdempotenciaCache})</li>
+ * <li>Validar existencia del dispositivo en el tenant ({@link DeviceSnapshotCache})</li>
+ * <li>Construir {@link IntentoAcceso}</li>
  * <li>Evaluar con {@link DecisionEngineV1} usando snapshots puros ({@link DecisionContext})</li>
- * <li>Persistir {@link DecisionAcceso}</li>
- * <li>Construir y persistir {@link ComandoDispositivo} (si aplica)</li>
- * <li>Publicar eventos de dominio (in-process por ahora)</li>
+ * <li>Construir {@link DecisionAcceso}</li>
+ * <li>Construir {@link ComandoDispositivo} (si aplica)</li>
+ * <li>Persistir entidades y publicar eventos de dominio (outbox)</li>
  * </ol>
  *
+ * <h2>Group commit</h2>
+ * <p>
+ * El paso de persistencia puede diferirse: {@link #prepararIntento} evalúa sin escribir y
+ * {@link IntentoGroupCommitWriter} agrupa varios intentos en {@link #persistirLote}. Ver
+ * {@code haedcom.access.group-commit.*}.
+ * </p>
+ *
  * <h2>Logging estructurado</h2>
  * <p>
  * Este servicio agrega contexto en {@link MDC} para correlación:
@@ -92,47 +101,53 @@ public class AccesoService {
          */
         private static final String MOTIVO_FALLBACK = "POLICY_ERROR";
 
-        private final DispositivoRepository dispositivoRepo;
+        /** Prefijo de {@code version_politica} en decisiones tomadas por el gateway. */
+        private static final String VERSION_BORDE = "borde:";
+
+        /** Constraint único {@code (id_organizacion, clave_idempotencia)} de los intentos. */
+        private static final String UX_INTENTO_IDEMPOTENCIA = "ux_intento_idempotencia_org";
+
+        private final DeviceSnapshotCache deviceCache;
         private final IntentoAccesoRepository intentoRepo;
         private final DecisionAccesoRepository decisionRepo;
         private final ComandoDispositivoRepository comandoRepo;
         private final CatalogoMotivoDecisionRepository motivoRepo;
+        private final CatalogoMotivos catalogoMotivos;
         private final DecisionEngine decisionEngine;
+        private final SujetoAccesoResolver sujetoResolver;
         private final DomainEventPublisher eventPublisher;
+        private final IdempotenciaCache idempotencia;
         private final Clock clock;
 
-        private final Counter motivosFallbackUsed;
-        private final Counter commandsExpected;
-
-        private final Counter commandsEmitted;
-
-        private final MeterRegistry registry;
-        private final java.util.concurrent.ConcurrentMap<String, Counter> counterCache =
-                        new java.util.concurrent.ConcurrentHashMap<>();
-        private final java.util.concurrent.ConcurrentMap<String, Timer> timerCache =
-                        new java.util.concurrent.ConcurrentHashMap<>();
+        /** Meters pre-registrados (sin claves String ni lookups en el hot path). */
+        private final AccesoMetrics metrics;
 
         /**
          * Constructor principal.
          *
-         * @param dispositivoRepo repositorio de dispositivos
+         * @param deviceCache snapshots de dispositivo por (orgId, idDispositivo)
          * @param intentoRepo repositorio de intentos
          * @param decisionRepo repositorio de decisiones
          * @param comandoRepo repositorio de comandos
-         * @param motivoRepo repositorio de catálogo de motivos
+         * @param motivoRepo repositorio de catálogo de motivos (solo referencias)
+         * @param catalogoMotivos catálogo de motivos precargado
          * @param decisionEngine motor de decisión (contrato estable)
+         * @param sujetoResolver resolución en memoria de credencial → sujeto
          * @param eventPublisher publicador de eventos de dominio
+         * @param idempotencia caché de idempotencia (LRU + filtro de Bloom por tenant)
          * @param clock reloj (UTC recomendado) para testabilidad
          */
-        public AccesoService(DispositivoRepository dispositivoRepo,
+        public AccesoService(DeviceSnapshotCache deviceCache,
                         IntentoAccesoRepository intentoRepo, DecisionAccesoRepository decisionRepo,
                         ComandoDispositivoRepository comandoRepo,
                         CatalogoMotivoDecisionRepository motivoRepo,
+                        CatalogoMotivos catalogoMotivos,
                         @Named("decision-engine-v2") DecisionEngine decisionEngine,
-                        DomainEventPublisher eventPublisher, Clock clock, MeterRegistry registry) {
-                this.registry = Objects.requireNonNull(registry, "registry es obligatorio");
-                this.dispositivoRepo = Objects.requireNonNull(dispositivoRepo,
-                                "dispositivoRepo es obligatorio");
+                        SujetoAccesoResolver sujetoResolver, DomainEventPublisher eventPublisher,
+                        IdempotenciaCache idempotencia, Clock clock, MeterRegistry registry) {
+                this.metrics = new AccesoMetrics(registry);
+                this.deviceCache =
+                                Objects.requireNonNull(deviceCache, "deviceCache es obligatorio");
                 this.intentoRepo =
                                 Objects.requireNonNull(intentoRepo, "intentoRepo es obligatorio");
                 this.decisionRepo =
@@ -140,18 +155,18 @@ public class AccesoService {
                 this.comandoRepo =
                                 Objects.requireNonNull(comandoRepo, "comandoRepo es obligatorio");
                 this.motivoRepo = Objects.requireNonNull(motivoRepo, "motivoRepo es obligatorio");
+                this.catalogoMotivos = Objects.requireNonNull(catalogoMotivos,
+                                "catalogoMotivos es obligatorio");
                 this.decisionEngine = Objects.requireNonNull(decisionEngine,
                                 "decisionEngine es obligatorio");
+                this.sujetoResolver = Objects.requireNonNull(sujetoResolver,
+                                "sujetoResolver es obligatorio");
                 this.eventPublisher = Objects.requireNonNull(eventPublisher,
                                 "eventPublisher es obligatorio");
+                this.idempotencia = Objects.requireNonNull(idempotencia,
+                                "idempotencia es obligatorio");
                 this.clock = (clock != null) ? clock : Clock.systemUTC();
 
-                commandsEmitted =
-                                Counter.builder("access_commands_emitted_total").register(registry);
-                motivosFallbackUsed = Counter.builder("access_motivo_fallback_used_total")
-                                .register(registry);
-                commandsExpected = Counter.builder("access_commands_expected_total")
-                                .register(registry);
         }
 
         /**
@@ -168,6 +183,213 @@ public class AccesoService {
          */
         @Transactional
         public RegistrarIntentoResult registrarIntento(UUID orgId, RegistrarIntentoRequest req) {
+                IntentoPendiente p = evaluarIntento(orgId, req, null);
+                if (p.requiereEscritura()) {
+                        escribir(List.of(p));
+                        long t = metrics.start();
+                        intentoRepo.flush();
+                        metrics.db(DbPhase.FLUSH, t);
+                }
+                return p.resultado();
+        }
+
+        /**
+         * Evalúa un intento sin escribir nada en la base de datos (modo group-commit).
+         *
+         * <p>
+         * Ejecuta las mismas validaciones y la misma decisión que
+         * {@link #registrarIntento(UUID, RegistrarIntentoRequest)}, pero deja las entidades y los
+         * eventos en un {@link IntentoPendiente} para que {@link IntentoGroupCommitWriter} los
+         * persista junto con otros intentos en {@link #persistirLote(List)}. La transacción de este
+         * método es solo de lectura (idempotencia, dispositivo, catálogo).
+         * </p>
+         *
+         * @param orgId identificador del tenant
+         * @param req request proveniente del gateway o dispositivo
+         * @return intento evaluado; si fue un hit de idempotencia no requiere escritura
+         */
+        @Transactional
+        public IntentoPendiente prepararIntento(UUID orgId, RegistrarIntentoRequest req) {
+                return evaluarIntento(orgId, req, null);
+        }
+
+        /**
+         * Evalúa varios intentos del tenant en una única transacción de solo lectura.
+         *
+         * <p>
+         * Igual que {@link #prepararIntento} por cada request, pero compartiendo la transacción (y
+         * la conexión) entre todos. Un error de un intento no interrumpe a los demás: queda en su
+         * {@link EvaluacionIntento}. No deduplica claves repetidas dentro de {@code reqs}; eso es
+         * responsabilidad del llamador ({@link IntentoBatchService}).
+         * </p>
+         *
+         * @param orgId identificador del tenant
+         * @param reqs requests en orden
+         * @return una evaluación por request, en el mismo orden
+         */
+        @Transactional
+        public List<EvaluacionIntento> prepararLote(UUID orgId,
+                        List<RegistrarIntentoRequest> reqs) {
+                Objects.requireNonNull(reqs, "reqs es obligatorio");
+                List<EvaluacionIntento> out = new ArrayList<>(reqs.size());
+                for (RegistrarIntentoRequest req : reqs) {
+                        try {
+                                out.add(new EvaluacionIntento(evaluarIntento(orgId, req, null),
+                                                null));
+                        } catch (RuntimeException e) {
+                                out.add(new EvaluacionIntento(null, e));
+                        }
+                }
+                return out;
+        }
+
+        /**
+         * Evalúa un intento que el {@code device-gateway} ya decidió sin el core
+         * (reconciliación).
+         *
+         * <p>
+         * Igual que {@link #prepararIntento}, pero la decisión registrada es {@code decision} y no
+         * se emite comando: la puerta ya actuó. Solo lo invoca la operación interna de
+         * reconciliación; el endpoint público no acepta decisiones del cliente.
+         * </p>
+         *
+         * @param orgId identificador del tenant
+         * @param req intento original
+         * @param decision decisión tomada en el gateway (obligatoria)
+         * @return intento evaluado; si fue un hit de idempotencia no requiere escritura
+         */
+        @Transactional
+        public IntentoPendiente prepararReconciliacion(UUID orgId, RegistrarIntentoRequest req,
+                        DecisionBorde decision) {
+                return evaluarIntento(orgId, req, requireDecisionBorde(decision));
+        }
+
+        /**
+         * Versión por lotes de {@link #prepararReconciliacion(UUID, RegistrarIntentoRequest,
+         * DecisionBorde)}, con las mismas reglas que {@link #prepararLote}.
+         *
+         * @param orgId identificador del tenant
+         * @param reqs intentos en orden
+         * @param decisiones decisión del gateway de cada intento, en la misma posición que en
+         *        {@code reqs}
+         * @return una evaluación por request, en el mismo orden
+         */
+        @Transactional
+        public List<EvaluacionIntento> prepararReconciliacion(UUID orgId,
+                        List<RegistrarIntentoRequest> reqs, List<DecisionBorde> decisiones) {
+                Objects.requireNonNull(reqs, "reqs es obligatorio");
+                Objects.requireNonNull(decisiones, "decisiones es obligatorio");
+                if (reqs.size() != decisiones.size()) {
+                        throw new IllegalArgumentException(
+                                        "reqs y decisiones deben tener el mismo tamaño");
+                }
+                List<EvaluacionIntento> out = new ArrayList<>(reqs.size());
+                for (int i = 0; i < reqs.size(); i++) {
+                        try {
+                                out.add(new EvaluacionIntento(evaluarIntento(orgId, reqs.get(i),
+                                                requireDecisionBorde(decisiones.get(i))), null));
+                        } catch (RuntimeException e) {
+                                out.add(new EvaluacionIntento(null, e));
+                        }
+                }
+                return out;
+        }
+
+        /**
+         * Persiste un lote de intentos evaluados en una única transacción.
+         *
+         * <p>
+         * Las entidades se persisten agrupadas por tabla (intentos, decisiones, comandos y luego
+         * outbox) con el tamaño de batch JDBC igual al lote, de modo que Hibernate emite un batch
+         * por tabla. Con {@code reWriteBatchedInserts=true} en el driver de PostgreSQL cada batch
+         * se envía como un único {@code INSERT} multi-fila.
+         * </p>
+         *
+         * @param lote intentos pendientes de escritura (no vacío)
+         */
+        @Transactional(Transactional.TxType.REQUIRES_NEW)
+        public void persistirLote(List<IntentoPendiente> lote) {
+                Objects.requireNonNull(lote, "lote es obligatorio");
+                if (lote.isEmpty()) {
+                        return;
+                }
+                intentoRepo.setJdbcBatchSize(lote.size());
+                escribir(lote);
+                long t = metrics.start();
+                intentoRepo.flush();
+                metrics.db(DbPhase.FLUSH, t);
+        }
+
+        /**
+         * Resultado del intento ya registrado con la misma clave, en una transacción nueva.
+         *
+         * <p>
+         * Se usa cuando la escritura falló por {@code ux_intento_idempotencia_org} (ver
+         * {@link #esConflictoIdempotencia(Throwable)}): otro nodo, o un reintento concurrente,
+         * registró la clave primero y el filtro de idempotencia no lo sabía.
+         * </p>
+         *
+         * @param orgId identificador del tenant
+         * @param req request original
+         * @return resultado original, si la clave existe
+         */
+        @Transactional(Transactional.TxType.REQUIRES_NEW)
+        public Optional<RegistrarIntentoResult> resultadoExistente(UUID orgId,
+                        RegistrarIntentoRequest req) {
+                Objects.requireNonNull(orgId, "orgId es obligatorio");
+                Objects.requireNonNull(req, "req es obligatorio");
+                String claveIdem = normalize(req.claveIdempotencia());
+                if (claveIdem == null) {
+                        return Optional.empty();
+                }
+                Optional<RegistrarIntentoResult> r = buscarPersistido(orgId, claveIdem);
+                if (r.isPresent()) {
+                        idempotencia.recordar(orgId, claveIdem, r.get());
+                        idempotencia.conflictoRecuperado();
+                        metrics.countAttempt(AttemptResult.IDEMPOTENT_CONFLICT);
+                        LOG.infof("Acceso.registrarIntento - idempotent_conflict orgId=%s"
+                                        + " idemKey=%s", orgId, claveIdem);
+                }
+                return r;
+        }
+
+        /**
+         * Determina si la excepción (o alguna de sus causas) es una violación de
+         * {@code ux_intento_idempotencia_org}.
+         *
+         * <p>
+         * Se detecta solo por el nombre del constraint (el que reporta Hibernate o, si no lo
+         * extrajo, el del mensaje del driver). Un {@code SQLState 23505} de otro constraint (p.ej.
+         * de un comando) no es un intento duplicado y se propaga.
+         * </p>
+         *
+         * @param e excepción capturada
+         * @return {@code true} si corresponde a un intento duplicado
+         */
+        public static boolean esConflictoIdempotencia(Throwable e) {
+                Throwable cur = e;
+                while (cur != null) {
+                        if (cur instanceof org.hibernate.exception.ConstraintViolationException cve
+                                        && UX_INTENTO_IDEMPOTENCIA.equalsIgnoreCase(
+                                                        cve.getConstraintName())) {
+                                return true;
+                        }
+                        String msg = cur.getMessage();
+                        if (msg != null && msg.contains(UX_INTENTO_IDEMPOTENCIA)) {
+                                return true;
+                        }
+                        cur = cur.getCause();
+                }
+                return false;
+        }
+
+        /**
+         * Flujo común: idempotencia, dispositivo, decisión y construcción de entidades/eventos.
+         *
+         * @param borde decisión del gateway en la reconciliación; {@code null} en el flujo normal
+         */
+        private IntentoPendiente evaluarIntento(UUID orgId, RegistrarIntentoRequest req,
+                        DecisionBorde borde) {
                 Objects.requireNonNull(orgId, "orgId es obligatorio");
                 Objects.requireNonNull(req, "req es obligatorio");
 
@@ -192,87 +414,75 @@ public class AccesoService {
                 if (normalize(req.idGatewaySolicitud()) != null)
                         MDC.put("gatewayReqId", normalize(req.idGatewaySolicitud()));
 
-                final Timer.Sample sample = Timer.start(this.registry);
-                String resultTag = "error";
+                final long start = metrics.start();
+                AttemptResult outcome = AttemptResult.ERROR;
                 final long t0 = System.nanoTime();
 
                 try {
                         LOG.debug("Acceso.registrarIntento - inicio");
 
                         // -----------------------------------------------------------------
-                        // 1) Idempotencia
+                        // 1) Idempotencia (LRU / filtro de Bloom / base de datos)
                         // -----------------------------------------------------------------
-                        Optional<IntentoAcceso> existente =
-                                        intentoRepo.findByIdempotencia(orgId, claveIdem);
+                        Optional<RegistrarIntentoResult> existente = idempotencia.buscar(orgId,
+                                        claveIdem, () -> buscarPersistido(orgId, claveIdem));
                         if (existente.isPresent()) {
-                                IntentoAcceso i = existente.get();
-                                MDC.put("intentoId", safeUuid(i.getIdIntento()));
-                                MDC.put("dispositivoId", safeUuid(i.getIdDispositivo()));
-
-                                RegistrarIntentoResult r = reconstruirResultado(i);
+                                RegistrarIntentoResult r = existente.get();
+                                MDC.put("intentoId", safeUuid(r.idIntento()));
 
                                 long ms = elapsedMs(t0);
                                 MDC.put("elapsedMs", Long.toString(ms));
                                 LOG.infof("Acceso.registrarIntento - idempotent_hit resultado=%s",
                                                 r.resultado());
-                                resultTag = "idempotent_hit";
-                                attemptsCounter("idempotent_hit").increment();
-                                return r;
+                                outcome = AttemptResult.IDEMPOTENT_HIT;
+                                return IntentoPendiente.persistido(orgId, claveIdem, r);
                         }
 
                         // -----------------------------------------------------------------
                         // 2) Validar dispositivo en tenant
                         // -----------------------------------------------------------------
-                        Dispositivo dispositivo = dispositivoRepo
-                                        .findByIdAndOrganizacion(req.idDispositivo(), orgId)
+                        DeviceSnapshot dispositivo = deviceCache
+                                        .get(orgId, req.idDispositivo())
                                         .orElseThrow(() -> new NotFoundException(
                                                         "Dispositivo no encontrado para la organización"));
 
-                        MDC.put("dispositivoId", safeUuid(dispositivo.getIdDispositivo()));
+                        MDC.put("dispositivoId", safeUuid(dispositivo.idDispositivo()));
 
                         OffsetDateTime now = OffsetDateTime.now(clock);
 
                         // -----------------------------------------------------------------
-                        // 3) Persistir intento
+                        // 3) Construir intento
                         // -----------------------------------------------------------------
                         IntentoAcceso intento =
                                         crearIntento(orgId, req, dispositivo, claveIdem, now);
-                        dbTimer("persist_intento").record(() -> intentoRepo.persist(intento));
+                        List<Object> eventos = new ArrayList<>(3);
 
                         MDC.put("intentoId", safeUuid(intento.getIdIntento()));
 
-                        publishTimer("IntentoAccesoRegistrado").record(() -> eventPublisher.publish(
-                                        new IntentoAccesoRegistrado(orgId, intento.getIdIntento(),
-                                                        intento.getIdDispositivo(),
-                                                        intento.getIdArea(),
-                                                        intento.getDireccionPaso(),
-                                                        intento.getMetodoAutenticacion(),
-                                                        intento.getTipoSujeto(),
-                                                        intento.getClaveIdempotencia(),
-                                                        intento.getOcurridoEnUtc())));
+                        eventos.add(new IntentoAccesoRegistrado(orgId, intento.getIdIntento(),
+                                        intento.getIdDispositivo(), intento.getIdArea(),
+                                        intento.getDireccionPaso(),
+                                        intento.getMetodoAutenticacion(), intento.getTipoSujeto(),
+                                        intento.getClaveIdempotencia(),
+                                        intento.getOcurridoEnUtc()));
 
                         // -----------------------------------------------------------------
                         // 4) Evaluar decisión con engine (snapshots puros)
                         // -----------------------------------------------------------------
-                        DeviceSnapshot deviceSnapshot = new DeviceSnapshot(
-                                        dispositivo.getIdDispositivo(),
-                                        dispositivo.getIdOrganizacion(), // proviene de
-                                                                         // TenantOnlyEntity
-                                        dispositivo.getIdArea(), dispositivo.getNombre(),
-                                        dispositivo.getModelo(),
-                                        dispositivo.getIdentificadorExterno(),
-                                        dispositivo.isEstadoActivo());
-
                         DecisionContext ctx = new DecisionContext(orgId, intento.getIdIntento(),
                                         intento.getIdDispositivo(), intento.getIdArea(),
                                         intento.getDireccionPaso(),
                                         intento.getMetodoAutenticacion(), intento.getTipoSujeto(),
-                                        deviceSnapshot);
+                                        dispositivo);
 
-                        DecisionOutput out =
-                                        engineTimer().record(() -> decisionEngine.evaluate(ctx));
+                        long tEngine = metrics.start();
+                        DecisionOutput out = decisionEngine.evaluate(ctx);
+                        metrics.engine(tEngine);
+                        if (out != null && borde != null) {
+                                out = aplicarDecisionBorde(borde, out);
+                        }
                         if (out != null && out.comandoSugerido() != null) {
-                                commandsExpected.increment();
+                                metrics.commandExpected();
                         }
                         countDecisionMetrics(out);
 
@@ -287,67 +497,55 @@ public class AccesoService {
 
 
                         // -----------------------------------------------------------------
-                        // 5) Persistir decisión
+                        // 5) Construir decisión
                         // -----------------------------------------------------------------
                         if (out == null) {
-                                // si quieres: métrica específica
-                                decisionReasonCounter("engine_null").increment();
+                                // ya contado como engine_null en countDecisionMetrics
                                 throw new IllegalStateException("DecisionEngine devolvió null");
                         }
 
-                        DecisionAcceso decision = construirDecision(orgId, intento, out);
-                        dbTimer("persist_decision").record(() -> decisionRepo.persist(decision));
+                        String codigoMotivo =
+                                        resolveMotivoOrFallback(normalize(out.codigoMotivo()));
+                        DecisionAcceso decision =
+                                        construirDecision(orgId, intento, out, codigoMotivo);
+                        if (borde != null) {
+                                decision.setVersionPolitica(versionBorde(borde));
+                        }
 
                         MDC.put("decisionId", safeUuid(decision.getIdDecision()));
                         MDC.put("decisionResultado",
                                         decision.getResultado() != null
                                                         ? decision.getResultado().name()
                                                         : null);
-                        MDC.put("decisionMotivo",
-                                        decision.getMotivo() != null
-                                                        ? decision.getMotivo().getCodigoMotivo()
-                                                        : null);
+                        MDC.put("decisionMotivo", codigoMotivo);
 
-                        publishTimer("DecisionAccesoTomada").record(() -> eventPublisher.publish(
-                                        new DecisionAccesoTomada(orgId, decision.getIdDecision(),
-                                                        intento.getIdIntento(),
-                                                        decision.getResultado(),
-                                                        decision.getMotivo().getCodigoMotivo(),
-                                                        decision.getDetalleMotivo(),
-                                                        decision.getDecididoEnUtc(),
-                                                        decision.getExpiraEnUtc())));
+                        eventos.add(new DecisionAccesoTomada(orgId, decision.getIdDecision(),
+                                        intento.getIdIntento(), decision.getResultado(),
+                                        codigoMotivo, decision.getDetalleMotivo(),
+                                        decision.getDecididoEnUtc(), decision.getExpiraEnUtc()));
 
                         // -----------------------------------------------------------------
-                        // 6) Construir/persistir comando (si aplica)
+                        // 6) Construir comando (si aplica)
                         // -----------------------------------------------------------------
                         ComandoDispositivo comando = construirComandoDesdeDecisionOutput(orgId,
                                         intento, dispositivo, out);
                         if (out != null && out.comandoSugerido() != null && comando == null) {
-                                commandsGapCounter().increment();
+                                metrics.commandGap();
                         }
                         if (comando != null) {
-                                commandsEmitted.increment();
-                                dbTimer("persist_comando")
-                                                .record(() -> comandoRepo.persist(comando));
-
                                 MDC.put("comandoId", safeUuid(comando.getIdComando()));
                                 MDC.put("comandoTipo",
                                                 comando.getComando() != null
                                                                 ? comando.getComando().name()
                                                                 : null);
-                                publishTimer("ComandoDispositivoEmitido")
-                                                .record(() -> eventPublisher.publish(
-                                                                new ComandoDispositivoEmitido(orgId,
-                                                                                comando.getIdComando(),
-                                                                                intento.getIdIntento(),
-                                                                                comando.getIdDispositivo(),
-                                                                                comando.getComando(),
-                                                                                comando.getMensaje(),
-                                                                                comando.getEstado(),
-                                                                                comando.getClaveIdempotencia(),
-                                                                                comando.getEnviadoEnUtc())));
+                                eventos.add(new ComandoDispositivoEmitido(orgId,
+                                                comando.getIdComando(), intento.getIdIntento(),
+                                                comando.getIdDispositivo(), comando.getComando(),
+                                                comando.getMensaje(), comando.getEstado(),
+                                                comando.getClaveIdempotencia(),
+                                                comando.getEnviadoEnUtc(),
+                                                dispositivo.identificadorExterno()));
                         }
-                        dbTimer("flush").record(intentoRepo::flush);
 
                         RegistrarIntentoResult result =
                                         RegistrarIntentoResult.from(intento, decision, comando);
@@ -355,16 +553,15 @@ public class AccesoService {
                         long ms = elapsedMs(t0);
                         MDC.put("elapsedMs", Long.toString(ms));
                         LOG.infof("Acceso.registrarIntento - ok resultado=%s", result.resultado());
-                        resultTag = "ok";
-                        attemptsCounter("ok").increment();
-                        return result;
+                        outcome = AttemptResult.OK;
+                        return new IntentoPendiente(orgId, claveIdem, intento, decision, comando,
+                                        List.copyOf(eventos), result);
                 } catch (NotFoundException e) {
                         // 404 esperado: dispositivo no pertenece al tenant o no existe
                         long ms = elapsedMs(t0);
                         MDC.put("elapsedMs", Long.toString(ms));
                         LOG.warn("Acceso.registrarIntento - not_found", e);
-                        resultTag = "not_found";
-                        attemptsCounter("not_found").increment();
+                        outcome = AttemptResult.NOT_FOUND;
                         throw e;
                 } catch (WebApplicationException e) {
                         // Para capturar 400/409/etc provenientes de JAX-RS (no solo
@@ -377,20 +574,16 @@ public class AccesoService {
                         if (status == 404) {
                                 // por si algo lanzó 404 que no sea NotFoundException (raro, pero
                                 // posible)
-                                resultTag = "not_found";
-                                attemptsCounter("not_found").increment();
+                                outcome = AttemptResult.NOT_FOUND;
                                 LOG.warn("Acceso.registrarIntento - not_found(web)", e);
                         } else if (status == 409) {
-                                resultTag = "conflict";
-                                attemptsCounter("conflict").increment();
+                                outcome = AttemptResult.CONFLICT;
                                 LOG.warn("Acceso.registrarIntento - conflict", e);
                         } else if (status >= 400 && status < 500) {
-                                resultTag = "bad_request";
-                                attemptsCounter("bad_request").increment();
+                                outcome = AttemptResult.BAD_REQUEST;
                                 LOG.warn("Acceso.registrarIntento - bad_request(web)", e);
                         } else {
-                                resultTag = "error";
-                                attemptsCounter("error").increment();
+                                outcome = AttemptResult.ERROR;
                                 LOG.error("Acceso.registrarIntento - error(web)", e);
                         }
                         throw e;
@@ -399,42 +592,90 @@ public class AccesoService {
                         long ms = elapsedMs(t0);
                         MDC.put("elapsedMs", Long.toString(ms));
                         LOG.warn("Acceso.registrarIntento - bad_request", e);
-                        resultTag = "bad_request";
-                        attemptsCounter("bad_request").increment();
+                        outcome = AttemptResult.BAD_REQUEST;
                         throw e;
                 } catch (RuntimeException e) {
                         // Errores inesperados / integridad / etc.
                         long ms = elapsedMs(t0);
                         MDC.put("elapsedMs", Long.toString(ms));
                         LOG.error("Acceso.registrarIntento - error", e);
-                        resultTag = "error";
-                        attemptsCounter("error").increment();
+                        outcome = AttemptResult.ERROR;
                         throw e;
                 } finally {
                         // Limpieza para no “contaminar” el hilo (importante en runtimes con thread
                         // reuse)
-                        sample.stop(flowTimer(resultTag));
+                        metrics.attempt(outcome, start);
                         clearMdc();
                 }
         }
 
+        /**
+         * Persiste entidades y publica eventos de uno o más intentos evaluados.
+         *
+         * <p>
+         * Se agrupa por tabla (todos los intentos, luego todas las decisiones, luego los comandos y
+         * al final los eventos/outbox) para que los {@code INSERT} consecutivos del mismo tipo
+         * puedan ir en un mismo batch JDBC. Debe ejecutarse dentro de una transacción.
+         * </p>
+         */
+        private void escribir(List<IntentoPendiente> lote) {
+                idempotencia.alEscribir(lote);
+                long t = metrics.start();
+                for (IntentoPendiente p : lote) {
+                        intentoRepo.persist(p.intento());
+                }
+                metrics.db(DbPhase.PERSIST_INTENTO, t);
+
+                t = metrics.start();
+                for (IntentoPendiente p : lote) {
+                        decisionRepo.persist(p.decision());
+                }
+                metrics.db(DbPhase.PERSIST_DECISION, t);
+
+                t = metrics.start();
+                for (IntentoPendiente p : lote) {
+                        if (p.comando() != null) {
+                                comandoRepo.persist(p.comando());
+                                metrics.commandEmitted();
+                        }
+                }
+                metrics.db(DbPhase.PERSIST_COMANDO, t);
+
+                for (IntentoPendiente p : lote) {
+                        for (Object ev : p.eventos()) {
+                                t = metrics.start();
+                                eventPublisher.publish(ev);
+                                metrics.publish(ev.getClass(), t);
+                        }
+                }
+        }
+
         // =====================================================================
         // Builders
         // =====================================================================
 
         /**
          * Construye un {@link IntentoAcceso} inicializado correctamente.
+         *
+         * <p>
+         * El {@code tipoSujeto} se resuelve en memoria con {@link SujetoAccesoResolver} a partir de
+         * {@code referenciaCredencial}; si no se reconoce queda {@code DESCONOCIDO}.
+         * </p>
          */
         private IntentoAcceso crearIntento(UUID orgId, RegistrarIntentoRequest req,
-                        Dispositivo dispositivo, String claveIdem, OffsetDateTime now) {
+                        DeviceSnapshot dispositivo, String claveIdem, OffsetDateTime now) {
                 IntentoAcceso i = new IntentoAcceso();
                 i.setIdIntento(UUID.randomUUID());
-                i.setIdDispositivo(dispositivo.getIdDispositivo());
+                i.setIdDispositivo(dispositivo.idDispositivo());
                 i.setIdArea(req.idArea());
                 i.setDireccionPaso(req.direccionPaso());
                 i.setMetodoAutenticacion(req.metodoAutenticacion());
-                i.setTipoSujeto(TipoSujetoAcceso.DESCONOCIDO);
-                i.setReferenciaCredencial(normalize(req.referenciaCredencial()));
+                String referencia = normalize(req.referenciaCredencial());
+                i.setTipoSujeto(referencia != null
+                                ? sujetoResolver.resolveTipo(orgId, req.metodoAutenticacion(),
+                                                referencia)
+                                : TipoSujetoAcceso.DESCONOCIDO);
+                i.setReferenciaCredencial(referencia);
                 i.setCargaCruda(req.cargaCruda());
                 i.setClaveIdempotencia(claveIdem);
                 i.setIdGatewaySolicitud(normalize(req.idGatewaySolicitud()));
@@ -443,11 +684,57 @@ public class AccesoService {
                 return i;
         }
 
+        /**
+         * Intento reconciliado desde el gateway: la decisión que se registra es la que se tomó en
+         * el borde (la puerta ya actuó), sin comando. La del motor solo se compara para medir
+         * divergencias ({@code access_edge_reconciled_total}).
+         */
+        private DecisionOutput aplicarDecisionBorde(DecisionBorde borde, DecisionOutput motor) {
+                String motivo = normalize(borde.codigoMotivo());
+                boolean coincide = borde.resultado() == motor.resultado()
+                                && Objects.equals(motivo, normalize(motor.codigoMotivo()));
+                metrics.edgeReconciled(coincide);
+                if (!coincide) {
+                        LOG.warnf("Acceso.decision - edge_diverged borde=%s/%s motor=%s/%s"
+                                        + " version=%s", borde.resultado(), motivo,
+                                        motor.resultado(), motor.codigoMotivo(),
+                                        borde.versionPolitica());
+                }
+                String detalle = (borde.idRegla() != null) ? "Borde: regla " + borde.idRegla()
+                                : "Borde";
+                return new DecisionOutput(borde.resultado(), motivo, detalle,
+                                borde.decididoEnUtc() != null ? borde.decididoEnUtc()
+                                                : motor.decididoEnUtc(),
+                                null, null, null);
+        }
+
+        private static DecisionBorde requireDecisionBorde(DecisionBorde decision) {
+                if (decision == null) {
+                        throw new IllegalArgumentException("decisionBorde es obligatoria");
+                }
+                if (decision.resultado() == null) {
+                        throw new IllegalArgumentException(
+                                        "decisionBorde.resultado es obligatorio");
+                }
+                return decision;
+        }
+
+        /** {@code borde:<version>}, acotado al largo de {@code version_politica}. */
+        private String versionBorde(DecisionBorde borde) {
+                String v = VERSION_BORDE + Objects.toString(normalize(borde.versionPolitica()), "");
+                return v.length() <= 40 ? v : v.substring(0, 40);
+        }
+
         /**
          * Traduce el {@link DecisionOutput} a una entidad {@link DecisionAcceso} persistible.
+         *
+         * <p>
+         * El motivo se asigna por referencia ({@code codigoMotivo} ya validado contra el catálogo
+         * precargado): no se carga la entidad {@link CatalogoMotivoDecision}.
+         * </p>
          */
         private DecisionAcceso construirDecision(UUID orgId, IntentoAcceso intento,
-                        DecisionOutput out) {
+                        DecisionOutput out, String codigoMotivo) {
                 Objects.requireNonNull(out, "DecisionOutput no puede ser null");
 
                 DecisionAcceso d = new DecisionAcceso();
@@ -460,31 +747,29 @@ public class AccesoService {
                 d.setExpiraEnUtc(out.expiraEnUtc());
                 d.assignTenant(orgId);
 
-                String codigo = normalize(out.codigoMotivo());
-                CatalogoMotivoDecision motivo = resolveMotivoOrFallback(codigo);
-                d.setMotivo(motivo);
+                d.setMotivo(motivoRepo.getReference(codigoMotivo));
 
                 return d;
         }
 
         /**
-         * Resuelve el motivo por código; si no existe, intenta el fallback.
+         * Resuelve el código de motivo contra el catálogo precargado; si no existe, usa el
+         * fallback.
+         *
+         * @return código existente en {@code catalogo_motivo_decision}
          */
-        private CatalogoMotivoDecision resolveMotivoOrFallback(String codigo) {
+        private String resolveMotivoOrFallback(String codigo) {
                 String target = (codigo != null) ? codigo : MOTIVO_FALLBACK;
 
-                Optional<CatalogoMotivoDecision> primary = motivoRepo.findByCodigo(target);
-                if (primary.isPresent())
-                        return primary.get();
+                if (catalogoMotivos.contiene(target))
+                        return target;
 
                 // Fallback
-                Optional<CatalogoMotivoDecision> fallback =
-                                motivoRepo.findByCodigo(MOTIVO_FALLBACK);
-                if (fallback.isPresent()) {
+                if (catalogoMotivos.contiene(MOTIVO_FALLBACK)) {
                         LOG.warnf("Motivo no encontrado en catálogo: %s. Usando fallback: %s",
                                         target, MOTIVO_FALLBACK);
-                        motivosFallbackUsed.increment();
-                        return fallback.get();
+                        metrics.motivoFallback();
+                        return MOTIVO_FALLBACK;
                 }
 
                 throw new IllegalStateException(
@@ -496,14 +781,14 @@ public class AccesoService {
          * Construye el {@link ComandoDispositivo} según el comando sugerido por el motor.
          */
         private ComandoDispositivo construirComandoDesdeDecisionOutput(UUID orgId,
-                        IntentoAcceso intento, Dispositivo dispositivo, DecisionOutput out) {
+                        IntentoAcceso intento, DeviceSnapshot dispositivo, DecisionOutput out) {
                 if (out == null || out.comandoSugerido() == null)
                         return null;
 
                 ComandoDispositivo c = new ComandoDispositivo();
                 c.setIdComando(UUID.randomUUID());
                 c.setIntento(intento);
-                c.setIdDispositivo(dispositivo.getIdDispositivo());
+                c.setIdDispositivo(dispositivo.idDispositivo());
                 c.setComando(out.comandoSugerido());
                 c.setMensaje(safeMsg(out.mensajeSugerido()));
                 c.setEstado(EstadoComandoDispositivo.ENVIADO);
@@ -515,6 +800,14 @@ public class AccesoService {
                 return c;
         }
 
+        /**
+         * Busca en la base de datos el intento con la clave y reconstruye su resultado.
+         */
+        private Optional<RegistrarIntentoResult> buscarPersistido(UUID orgId, String claveIdem) {
+                return intentoRepo.findByIdempotencia(orgId, claveIdem)
+                                .map(this::reconstruirResultado);
+        }
+
         /**
          * Reconstruye el resultado para idempotencia.
          *
@@ -539,60 +832,6 @@ public class AccesoService {
         // Utilidades
         // =====================================================================
 
-        private Counter commandsGapCounter() {
-                return cachedCounter("access_commands_gap_total");
-        }
-
-
-        private Timer publishTimer(String event) {
-                String e = (event == null || event.isBlank()) ? "unknown" : event;
-                String key = "access_publish_seconds|event=" + e;
-                return timerCache.computeIfAbsent(key,
-                                k -> Timer.builder("access_publish_seconds").tag("event", e)
-                                                .publishPercentileHistogram(true)
-                                                .register(registry));
-        }
-
-
-        private Timer dbTimer(String phase) {
-                String p = (phase == null || phase.isBlank()) ? "unknown" : phase;
-                String key = "access_db_seconds|phase=" + p;
-                return timerCache.computeIfAbsent(key,
-                                k -> Timer.builder("access_db_seconds").tag("phase", p)
-                                                .publishPercentileHistogram(true)
-                                                .register(registry));
-        }
-
-
-        private Timer engineTimer() {
-                return timerCache.computeIfAbsent("access_engine_seconds",
-                                k -> Timer.builder("access_engine_seconds")
-                                                .publishPercentileHistogram(true)
-                                                .register(registry));
-        }
-
-
-        private Timer flowTimer(String result) {
-                String r = (result == null || result.isBlank()) ? "unknown" : result;
-                String key = "access_flow_seconds|result=" + r;
-                return timerCache.computeIfAbsent(key,
-                                k -> Timer.builder("access_flow_seconds").tag("result", r)
-                                                .publishPercentileHistogram(true)
-                                                .register(registry));
-        }
-
-        private Counter decisionsCounter(String result) {
-                String r = (result == null || result.isBlank()) ? "unknown" : result;
-                return cachedCounter("access_decisions_total", "result", r);
-        }
-
-        private Counter decisionReasonCounter(String bucket) {
-                String b = (bucket == null || bucket.isBlank()) ? "unknown" : bucket;
-                return cachedCounter("access_decision_reasons_total", "bucket", b);
-        }
-
-
-
         private String normalize(String s) {
                 if (s == null)
                         return null;
@@ -637,52 +876,10 @@ public class AccesoService {
 
         private void countDecisionMetrics(DecisionOutput out) {
                 if (out == null) {
-                        decisionsCounter("ERROR").increment();
-                        return;
-                }
-                if (out.resultado() == null) {
-                        decisionsCounter("ERROR").increment();
-                        decisionReasonCounter("missing").increment();
+                        metrics.engineNull();
                         return;
                 }
-
-
-
-                TipoResultadoDecision r = out.resultado();
-                switch (r) {
-                        case PERMITIR -> decisionsCounter("PERMITIR").increment();
-                        case DENEGAR -> decisionsCounter("DENEGAR").increment();
-                        case PENDIENTE -> decisionsCounter("PENDIENTE").increment();
-                        case ERROR -> decisionsCounter("ERROR").increment();
-                        default -> decisionsCounter("ERROR").increment();
-                }
-
-
-                String codigo = normalize(out.codigoMotivo());
-                if ("NO_MATCHING_RULE".equals(codigo)) {
-                        decisionReasonCounter("no_match").increment();
-                } else if ("POLICY_ERROR".equals(codigo)) {
-                        decisionReasonCounter("policy_error").increment();
-                } else if (codigo == null) {
-                        decisionReasonCounter("missing").increment();
-                } else {
-                        decisionReasonCounter("other").increment();
-                }
-
-        }
-
-        private Counter attemptsCounter(String result) {
-                String r = (result == null || result.isBlank()) ? "unknown" : result;
-                return cachedCounter("access_attempts_total", "result", r);
-        }
-
-        private Counter cachedCounter(String name, String... tags) {
-                StringBuilder key = new StringBuilder(name);
-                for (int i = 0; i < tags.length; i += 2) {
-                        key.append('|').append(tags[i]).append('=').append(tags[i + 1]);
-                }
-                return counterCache.computeIfAbsent(key.toString(),
-                                k -> Counter.builder(name).tags(tags).register(registry));
+                metrics.decision(out.resultado(), normalize(out.codigoMotivo()));
         }
 
         // =====================================================================
@@ -707,6 +904,95 @@ public class AccesoService {
                         TipoMetodoAutenticacion metodoAutenticacion, String referenciaCredencial,
                         JsonNode cargaCruda, String claveIdempotencia, String idGatewaySolicitud,
                         OffsetDateTime ocurridoEnUtc) {
+
+                /**
+                 * Un cliente no puede imponer la decisión: {@code decisionBorde} solo se acepta en
+                 * la reconciliación interna del gateway ({@link ReconciliarIntentoRequest}). El
+                 * error de deserialización se responde como {@code 400}.
+                 */
+                @JsonProperty("decisionBorde")
+                void rechazarDecisionBorde(JsonNode decisionBorde) {
+                        if (decisionBorde != null && !decisionBorde.isNull()) {
+                                throw new IllegalArgumentException(
+                                                "decisionBorde no se acepta en este endpoint");
+                        }
+                }
+        }
+
+        /**
+         * Intento decidido en el {@code device-gateway} sin el core, reenviado al reconciliar.
+         * Mismos campos que {@link RegistrarIntentoRequest} más la decisión aplicada en la puerta.
+         *
+         * @param decisionBorde decisión ya tomada por el gateway (obligatoria)
+         */
+        public record ReconciliarIntentoRequest(UUID idDispositivo, UUID idArea,
+                        TipoDireccionPaso direccionPaso,
+                        TipoMetodoAutenticacion metodoAutenticacion, String referenciaCredencial,
+                        JsonNode cargaCruda, String claveIdempotencia, String idGatewaySolicitud,
+                        OffsetDateTime ocurridoEnUtc, DecisionBorde decisionBorde) {
+
+                /** El intento sin la decisión, tal como lo habría enviado el dispositivo. */
+                public RegistrarIntentoRequest intento() {
+                        return new RegistrarIntentoRequest(idDispositivo, idArea, direccionPaso,
+                                        metodoAutenticacion, referenciaCredencial, cargaCruda,
+                                        claveIdempotencia, idGatewaySolicitud, ocurridoEnUtc);
+                }
+        }
+
+        /**
+         * Decisión tomada por el {@code device-gateway} con su snapshot de política mientras el
+         * core no respondía. Al reconciliar, el intento se registra con esta decisión y sin
+         * comando.
+         *
+         * @param resultado resultado aplicado en la puerta
+         * @param codigoMotivo motivo (mismos códigos que {@code RuleBasedDecisionEngineV2})
+         * @param idRegla regla ganadora (null si decidió una regla base)
+         * @param versionPolitica versión del snapshot usado
+         * @param decididoEnUtc instante de la decisión en el gateway
+         */
+        public record DecisionBorde(TipoResultadoDecision resultado, String codigoMotivo,
+                        UUID idRegla, String versionPolitica, OffsetDateTime decididoEnUtc) {
+        }
+
+        /**
+         * Intento evaluado y listo para persistir (entidades + eventos de dominio).
+         *
+         * <p>
+         * Si {@link #requiereEscritura()} es {@code false} el intento ya existía (hit de
+         * idempotencia) y solo {@code resultado} está informado.
+         * </p>
+         *
+         * @param orgId tenant
+         * @param claveIdempotencia clave idempotente normalizada
+         * @param intento intento a insertar
+         * @param decision decisión a insertar
+         * @param comando comando a insertar (puede ser null)
+         * @param eventos eventos a publicar, en orden
+         * @param resultado resultado que se retorna al gateway
+         */
+        public record IntentoPendiente(UUID orgId, String claveIdempotencia, IntentoAcceso intento,
+                        DecisionAcceso decision, ComandoDispositivo comando, List<Object> eventos,
+                        RegistrarIntentoResult resultado) {
+
+                static IntentoPendiente persistido(UUID orgId, String claveIdempotencia,
+                                RegistrarIntentoResult resultado) {
+                        return new IntentoPendiente(orgId, claveIdempotencia, null, null, null,
+                                        List.of(), resultado);
+                }
+
+                public boolean requiereEscritura() {
+                        return intento != null;
+                }
+        }
+
+        /**
+         * Evaluación de un intento dentro de {@link #prepararLote}: exactamente uno de los dos
+         * campos está informado.
+         *
+         * @param pendiente intento evaluado
+         * @param error error de validación/decisión del intento
+         */
+        public record EvaluacionIntento(IntentoPendiente pendiente, RuntimeException error) {
         }
 
         /**
@@ -0,0 +1,237 @@
+package com.haedcom.access.application.acceso;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.acceso.decision.ReglaAccesoIndexProvider;
+import com.haedcom.access.application.time.TenantZoneProvider;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.repo.AreaRepository;
+import com.haedcom.access.domain.repo.OrganizacionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Precalienta al arranque los caches del flujo de acceso para que los primeros intentos no paguen
+ * los misses.
+ *
+ * <h2>Qué se carga</h2>
+ * <ul>
+ * <li>Por cada organización en estado {@code org-estado}: su zona horaria y la de cada área
+ * ({@code tenant-zone-org/area}), el índice de reglas de cada área (que carga
+ * {@code regla-candidates} de todos los tipos de sujeto) y los snapshots de sus dispositivos
+ * ({@link DeviceSnapshotCache#precargar}).</li>
+ * <li>El catálogo de motivos, si su carga de arranque falló.</li>
+ * </ul>
+ *
+ * <h2>Ejecución</h2>
+ * <ul>
+ * <li>Corre en un hilo propio después del {@link StartupEvent} (no demora el arranque). Cada
+ * organización es una tarea con su transacción, en un pool de {@code parallelism} virtual threads
+ * para no acaparar el pool de conexiones.</li>
+ * <li>Termina al completar todas las organizaciones o al vencer {@code timeout}; lo que falte se
+ * carga en el primer intento, como sin precalentamiento. Un error en una organización solo se
+ * registra.</li>
+ * <li>{@code CacheWarmupCheck} reporta no listo mientras corre.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.warmup.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.access.warmup.parallelism} (default {@code 4})</li>
+ * <li>{@code haedcom.access.warmup.timeout} (default {@code 60s})</li>
+ * <li>{@code haedcom.access.warmup.org-estado} (default {@code ACTIVO})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_cache_warmup_seconds}</li>
+ * <li>{@code access_cache_warmup_orgs_total{result=ok|failed}}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class CacheWarmup {
+
+    private static final Logger LOG = Logger.getLogger(CacheWarmup.class);
+
+    private static final TipoSujetoAcceso TIPO = TipoSujetoAcceso.values()[0];
+
+    /**
+     * Estado del precalentamiento.
+     */
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETO, TIMEOUT, FALLIDO, DESACTIVADO;
+
+        /** {@code true} si ya no bloquea la readiness. */
+        public boolean terminado() {
+            return this != PENDIENTE && this != EN_CURSO;
+        }
+    }
+
+    private final OrganizacionRepository orgRepo;
+    private final AreaRepository areaRepo;
+    private final TenantZoneProvider zoneProvider;
+    private final ReglaAccesoIndexProvider indexProvider;
+    private final DeviceSnapshotCache deviceCache;
+    private final CatalogoMotivos catalogoMotivos;
+    private final boolean enabled;
+    private final int parallelism;
+    private final Duration timeout;
+    private final String orgEstado;
+
+    private final Counter orgsOk;
+    private final Counter orgsFailed;
+    private final Timer duracion;
+
+    private volatile Estado estado;
+    private volatile int organizaciones;
+    private volatile long duracionMillis;
+
+    @Inject
+    public CacheWarmup(OrganizacionRepository orgRepo, AreaRepository areaRepo,
+            TenantZoneProvider zoneProvider, ReglaAccesoIndexProvider indexProvider,
+            DeviceSnapshotCache deviceCache, CatalogoMotivos catalogoMotivos,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.warmup.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.access.warmup.parallelism",
+                    defaultValue = "4") int parallelism,
+            @ConfigProperty(name = "haedcom.access.warmup.timeout",
+                    defaultValue = "60s") Duration timeout,
+            @ConfigProperty(name = "haedcom.access.warmup.org-estado",
+                    defaultValue = "ACTIVO") String orgEstado) {
+        this.orgRepo = Objects.requireNonNull(orgRepo, "orgRepo es obligatorio");
+        this.areaRepo = Objects.requireNonNull(areaRepo, "areaRepo es obligatorio");
+        this.zoneProvider = Objects.requireNonNull(zoneProvider, "zoneProvider es obligatorio");
+        this.indexProvider = Objects.requireNonNull(indexProvider, "indexProvider es obligatorio");
+        this.deviceCache = Objects.requireNonNull(deviceCache, "deviceCache es obligatorio");
+        this.catalogoMotivos =
+                Objects.requireNonNull(catalogoMotivos, "catalogoMotivos es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.enabled = enabled;
+        this.parallelism = Math.max(1, parallelism);
+        this.timeout = timeout;
+        this.orgEstado = orgEstado;
+        this.estado = enabled ? Estado.PENDIENTE : Estado.DESACTIVADO;
+
+        this.orgsOk = orgs(registry, "ok");
+        this.orgsFailed = orgs(registry, "failed");
+        this.duracion = Timer.builder("access_cache_warmup_seconds").register(registry);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        if (enabled) {
+            Thread.ofPlatform().name("access-cache-warmup").daemon().start(this::ejecutar);
+        }
+    }
+
+    public Estado estado() {
+        return estado;
+    }
+
+    /** Organizaciones a precalentar (0 hasta que se listan). */
+    public int organizaciones() {
+        return organizaciones;
+    }
+
+    public long duracionMillis() {
+        return duracionMillis;
+    }
+
+    public int fallidas() {
+        return (int) orgsFailed.count();
+    }
+
+    /**
+     * Precalienta todas las organizaciones y deja el estado final.
+     */
+    void ejecutar() {
+        estado = Estado.EN_CURSO;
+        long t0 = System.nanoTime();
+        try {
+            if (!catalogoMotivos.isLoaded()) {
+                catalogoMotivos.recargar();
+            }
+            List<UUID> orgs = organizacionesActivas();
+            organizaciones = orgs.size();
+
+            boolean completo;
+            ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                    Thread.ofVirtual().name("access-cache-warmup-", 0).factory());
+            try {
+                for (UUID orgId : orgs) {
+                    pool.execute(() -> calentarOrgSeguro(orgId));
+                }
+                pool.shutdown();
+                completo = pool.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } finally {
+                pool.shutdownNow();
+            }
+            estado = completo ? Estado.COMPLETO : Estado.TIMEOUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            estado = Estado.FALLIDO;
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "cache_warmup_failed");
+            estado = Estado.FALLIDO;
+        } finally {
+            long elapsed = System.nanoTime() - t0;
+            duracion.record(elapsed, TimeUnit.NANOSECONDS);
+            duracionMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        }
+        LOG.infof("cache_warmup_finished state=%s orgs=%d ok=%d failed=%d elapsedMs=%d", estado,
+                organizaciones, (long) orgsOk.count(), (long) orgsFailed.count(), duracionMillis);
+    }
+
+    @Transactional
+    List<UUID> organizacionesActivas() {
+        return orgRepo.listIdsByEstado(orgEstado);
+    }
+
+    /**
+     * Carga zonas, índices de reglas y dispositivos de una organización.
+     *
+     * @return áreas precalentadas
+     */
+    @Transactional
+    int calentarOrg(UUID orgId) {
+        zoneProvider.zoneFor(orgId, null);
+        List<UUID> areas = areaRepo.listIdsByOrganizacion(orgId);
+        for (UUID areaId : areas) {
+            zoneProvider.zoneFor(orgId, areaId);
+            // compila el área completa: regla-candidates de todos los tipos de sujeto
+            indexProvider.indexFor(orgId, areaId, TIPO);
+        }
+        deviceCache.precargar(orgId);
+        return areas.size();
+    }
+
+    private void calentarOrgSeguro(UUID orgId) {
+        try {
+            int areas = calentarOrg(orgId);
+            orgsOk.increment();
+            LOG.debugf("cache_warmup_org orgId=%s areas=%d", orgId, areas);
+        } catch (RuntimeException e) {
+            orgsFailed.increment();
+            LOG.warnf("cache_warmup_org_failed orgId=%s error=%s", orgId, e.getMessage());
+        }
+    }
+
+    private static Counter orgs(MeterRegistry registry, String result) {
+        return Counter.builder("access_cache_warmup_orgs_total").tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,174 @@
+package com.haedcom.access.application.acceso;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.model.CatalogoMotivoDecision;
+import com.haedcom.access.domain.repo.CatalogoMotivoDecisionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Catálogo de motivos de decisión precargado en memoria.
+ *
+ * <p>
+ * El catálogo ({@code catalogo_motivo_decision}) es global, pequeño y se gestiona por carga
+ * inicial de datos; consultarlo por decisión (y otra vez para el fallback) y en cada probe de
+ * readiness no aporta nada. Se carga al arranque en un {@link Map#copyOf mapa inmutable} (tabla
+ * de direccionamiento abierto, sin nodos ni locks) y se reemplaza completo en cada recarga.
+ * </p>
+ *
+ * <h2>Recarga</h2>
+ * <ul>
+ * <li>Al arranque ({@link StartupEvent}).</li>
+ * <li>Programada: {@code haedcom.access.motivos.reload-every} (default {@code 10m}).</li>
+ * <li>Manual: {@code POST /internal/catalogo-motivos/recargar}.</li>
+ * <li>Si la carga inicial falló, {@link #contiene} la reintenta como máximo cada 30 segundos.</li>
+ * </ul>
+ *
+ * <p>
+ * Las decisiones referencian el motivo por código con
+ * {@link CatalogoMotivoDecisionRepository#getReference}: no se carga la entidad gestionada.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_motivo_catalog_size}: motivos cargados.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class CatalogoMotivos {
+
+    private static final Logger LOG = Logger.getLogger(CatalogoMotivos.class);
+
+    private static final long LAZY_LOAD_RETRY_NANOS = 30_000_000_000L;
+
+    private final CatalogoMotivoDecisionRepository motivoRepo;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+    private long lastLazyLoadAttemptNanos;
+    private boolean lazyLoadAttempted;
+
+    @Inject
+    public CatalogoMotivos(CatalogoMotivoDecisionRepository motivoRepo, Clock clock,
+            MeterRegistry registry) {
+        this.motivoRepo = Objects.requireNonNull(motivoRepo, "motivoRepo es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        registry.gauge("access_motivo_catalog_size", this, c -> c.size());
+    }
+
+    /**
+     * @param codigo código de motivo (puede ser null)
+     * @return {@code true} si el código existe en el catálogo cargado
+     */
+    public boolean contiene(String codigo) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            ensureLoaded();
+            s = snapshot;
+        }
+        return s != null && codigo != null && s.descripciones().containsKey(codigo);
+    }
+
+    /**
+     * @param codigo código de motivo
+     * @return descripción del motivo o {@code null} si no existe
+     */
+    public String descripcion(String codigo) {
+        Snapshot s = snapshot;
+        return (s != null && codigo != null) ? s.descripciones().get(codigo) : null;
+    }
+
+    /**
+     * Recarga completa del catálogo (una consulta). Reemplaza el snapshot de forma atómica.
+     *
+     * @return número de motivos cargados
+     */
+    @Transactional
+    public int recargar() {
+        List<CatalogoMotivoDecision> motivos = motivoRepo.listAll();
+        Map<String, String> m = new HashMap<>(motivos.size() * 2);
+        for (CatalogoMotivoDecision c : motivos) {
+            // Map.copyOf no admite valores null
+            m.put(c.getCodigoMotivo(), c.getDescripcion() != null ? c.getDescripcion() : "");
+        }
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(Map.copyOf(m), OffsetDateTime.now(clock));
+        if (previous == null || !previous.descripciones().equals(snapshot.descripciones())) {
+            LOG.infof("motivo_catalog_loaded size=%d", m.size());
+        }
+        return m.size();
+    }
+
+    /**
+     * @return {@code true} si el catálogo está cargado
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return instante de la última carga o {@code null} si nunca cargó
+     */
+    public OffsetDateTime cargadoEn() {
+        Snapshot s = snapshot;
+        return s != null ? s.cargadoEn() : null;
+    }
+
+    /**
+     * @return motivos cargados
+     */
+    public int size() {
+        Snapshot s = snapshot;
+        return s != null ? s.descripciones().size() : 0;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "motivo_catalog_startup_load_failed");
+        }
+    }
+
+    @Scheduled(every = "{haedcom.access.motivos.reload-every:10m}",
+            delayed = "{haedcom.access.motivos.reload-every:10m}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void scheduledReload() {
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "motivo_catalog_reload_failed");
+        }
+    }
+
+    private synchronized void ensureLoaded() {
+        long now = System.nanoTime();
+        if (snapshot != null || (lazyLoadAttempted
+                && now - lastLazyLoadAttemptNanos < LAZY_LOAD_RETRY_NANOS)) {
+            return;
+        }
+        lazyLoadAttempted = true;
+        lastLazyLoadAttemptNanos = now;
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "motivo_catalog_lazy_load_failed");
+        }
+    }
+
+    private record Snapshot(Map<String, String> descripciones, OffsetDateTime cargadoEn) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.haedcom.access.application.acceso;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.acceso.decision.model.DeviceSnapshot;
+import com.haedcom.access.domain.model.Dispositivo;
+import com.haedcom.access.domain.repo.DispositivoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cache local de {@link DeviceSnapshot} por {@code (orgId, idDispositivo)}.
+ *
+ * <p>
+ * El flujo de acceso solo necesita unos pocos campos del dispositivo y estos cambian con muy poca
+ * frecuencia; cargar la entidad {@link Dispositivo} costaba un {@code SELECT} por intento. Se
+ * guardan snapshots inmutables (no entidades gestionadas), así que pueden compartirse entre hilos
+ * y transacciones.
+ * </p>
+ *
+ * <h2>Invalidación</h2>
+ * <ul>
+ * <li>{@code DispositivoService} publica {@code DispositivoChanged} al crear, actualizar o
+ * eliminar. En el nodo que hizo el cambio lo aplica {@link DeviceSnapshotInvalidationListener}
+ * (solo tras commit); en el resto, {@code DispositivoCacheInvalidationKafkaConsumer} vía
+ * outbox/Kafka.</li>
+ * <li>Una carga que se cruza con una invalidación no publica su resultado: cada invalidación
+ * incrementa una generación y la carga solo se guarda si la generación no cambió.</li>
+ * <li>{@code ttl} acota el tiempo que una entrada puede quedar desactualizada si se pierde un
+ * mensaje.</li>
+ * </ul>
+ *
+ * <p>
+ * Los dispositivos inexistentes no se cachean (evita crecimiento con ids arbitrarios).
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.device-cache.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.access.device-cache.ttl} (default {@code 10m})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_device_snapshot_cache_total{result}} con {@code result} en
+ * {@code hit|miss}.</li>
+ * <li>{@code access_device_snapshot_cache_hit_ratio}: hits / (hits + misses) desde el
+ * arranque.</li>
+ * <li>{@code access_device_snapshot_cache_size}.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class DeviceSnapshotCache {
+
+    private static final Logger LOG = Logger.getLogger(DeviceSnapshotCache.class);
+
+    /** Página de {@link #precargar}. */
+    private static final int PAGE = 500;
+
+    private final DispositivoRepository dispositivoRepo;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Clave, Entrada> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Inject
+    public DeviceSnapshotCache(DispositivoRepository dispositivoRepo, Clock clock,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.device-cache.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.access.device-cache.ttl",
+                    defaultValue = "10m") Duration ttl) {
+        this.dispositivoRepo =
+                Objects.requireNonNull(dispositivoRepo, "dispositivoRepo es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.enabled = enabled;
+        this.ttlMillis = (ttl != null && !ttl.isNegative() && !ttl.isZero()) ? ttl.toMillis()
+                : Duration.ofMinutes(10).toMillis();
+
+        this.hits = Counter.builder("access_device_snapshot_cache_total").tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("access_device_snapshot_cache_total").tag("result", "miss")
+                .register(registry);
+        registry.gauge("access_device_snapshot_cache_hit_ratio", this,
+                DeviceSnapshotCache::hitRatio);
+        registry.gauge("access_device_snapshot_cache_size", entries, ConcurrentHashMap::size);
+    }
+
+    /**
+     * Snapshot del dispositivo dentro del tenant.
+     *
+     * <p>
+     * En un miss consulta {@link DispositivoRepository#findByIdAndOrganizacion}: debe invocarse
+     * dentro de una transacción.
+     * </p>
+     *
+     * @param orgId tenant
+     * @param idDispositivo id del dispositivo
+     * @return snapshot si el dispositivo existe en el tenant
+     */
+    public Optional<DeviceSnapshot> get(UUID orgId, UUID idDispositivo) {
+        if (orgId == null || idDispositivo == null) {
+            return Optional.empty();
+        }
+        Clave k = new Clave(orgId, idDispositivo);
+        long now = clock.millis();
+        if (enabled) {
+            Entrada e = entries.get(k);
+            if (e != null && e.expiraEnMillis() > now) {
+                hits.increment();
+                return Optional.of(e.snapshot());
+            }
+        }
+        misses.increment();
+
+        long g = generation.get();
+        Optional<DeviceSnapshot> loaded =
+                dispositivoRepo.findByIdAndOrganizacion(idDispositivo, orgId)
+                        .map(DeviceSnapshotCache::toSnapshot);
+        if (enabled && loaded.isPresent()) {
+            entries.put(k, new Entrada(loaded.get(), now + ttlMillis));
+            if (generation.get() != g) {
+                // se cruzó con una invalidación: no se confía en lo leído
+                entries.remove(k);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Carga los snapshots de todos los dispositivos del tenant (precalentamiento al arranque).
+     * Debe invocarse dentro de una transacción.
+     *
+     * <p>
+     * No pisa entradas existentes. Si se cruza con una invalidación, descarta lo cargado del
+     * tenant.
+     * </p>
+     *
+     * @param orgId tenant
+     * @return snapshots cargados
+     */
+    public int precargar(UUID orgId) {
+        if (!enabled || orgId == null) {
+            return 0;
+        }
+        long g = generation.get();
+        long expira = clock.millis() + ttlMillis;
+        int n = 0;
+        for (int page = 0;; page++) {
+            List<Dispositivo> ds = dispositivoRepo.listByOrganizacion(orgId, page, PAGE);
+            for (Dispositivo d : ds) {
+                entries.putIfAbsent(new Clave(orgId, d.getIdDispositivo()),
+                        new Entrada(toSnapshot(d), expira));
+                n++;
+            }
+            if (ds.size() < PAGE) {
+                break;
+            }
+        }
+        if (generation.get() != g) {
+            entries.keySet().removeIf(k -> k.orgId().equals(orgId));
+        }
+        return n;
+    }
+
+    /**
+     * Descarta el snapshot de un dispositivo (idempotente).
+     *
+     * @param orgId tenant
+     * @param idDispositivo id del dispositivo
+     */
+    public void invalidate(UUID orgId, UUID idDispositivo) {
+        generation.incrementAndGet();
+        if (orgId != null && idDispositivo != null) {
+            entries.remove(new Clave(orgId, idDispositivo));
+        }
+        LOG.debugf("device_snapshot_invalidated orgId=%s id=%s", orgId, idDispositivo);
+    }
+
+    /**
+     * Descarta todos los snapshots del nodo local.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        LOG.info("device_snapshot_invalidated_all");
+    }
+
+    /**
+     * Construye el snapshot inmutable a partir de la entidad.
+     */
+    static DeviceSnapshot toSnapshot(Dispositivo d) {
+        return new DeviceSnapshot(d.getIdDispositivo(), d.getIdOrganizacion(), d.getIdArea(),
+                d.getNombre(), d.getModelo(), d.getIdentificadorExterno(), d.isEstadoActivo());
+    }
+
+    private double hitRatio() {
+        double h = hits.count();
+        double total = h + misses.count();
+        return total == 0d ? 0d : h / total;
+    }
+
+    private record Clave(UUID orgId, UUID idDispositivo) {
+    }
+
+    private record Entrada(DeviceSnapshot snapshot, long expiraEnMillis) {
+    }
+}
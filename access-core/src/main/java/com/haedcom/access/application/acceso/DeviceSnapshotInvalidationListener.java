@@ -0,0 +1,38 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.Objects;
+import com.haedcom.access.domain.events.DispositivoChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Invalida en el nodo local el {@link DeviceSnapshotCache} cuando cambia un dispositivo.
+ *
+ * <p>
+ * El resto de nodos se entera vía Kafka ({@code DispositivoCacheInvalidationKafkaConsumer}); este
+ * listener evita que el nodo que hizo el cambio siga decidiendo con el snapshot anterior mientras
+ * el evento recorre el outbox.
+ * </p>
+ *
+ * <p>
+ * Usa {@link TransactionPhase#AFTER_SUCCESS}: solo se invalida si el cambio hizo commit.
+ * </p>
+ */
+@ApplicationScoped
+public class DeviceSnapshotInvalidationListener {
+
+    private final DeviceSnapshotCache cache;
+
+    public DeviceSnapshotInvalidationListener(DeviceSnapshotCache cache) {
+        this.cache = Objects.requireNonNull(cache, "cache es obligatorio");
+    }
+
+    /**
+     * @param ev evento observado (no null)
+     */
+    public void onDispositivoChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) DispositivoChanged ev) {
+        cache.invalidate(ev.orgId(), ev.idDispositivo());
+    }
+}
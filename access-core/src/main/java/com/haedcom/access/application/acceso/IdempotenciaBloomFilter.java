@@ -0,0 +1,155 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de claves de idempotencia (un tenant, una generación).
+ *
+ * <p>
+ * Responde "seguro que no está" o "puede estar". Se dimensiona para {@code capacity} claves con
+ * una tasa de falsos positivos {@code fpp}; pasado ese volumen la tasa real crece y
+ * {@link #isFull()} indica que conviene rotar a una generación nueva.
+ * </p>
+ *
+ * <h2>Hash</h2>
+ * <p>
+ * FNV-1a de 64 bits sobre los caracteres de la clave y un segundo hash derivado con un mezclador
+ * de 64 bits; las {@code k} posiciones se obtienen por doble hashing (Kirsch–Mitzenmacher). No
+ * asigna memoria por consulta.
+ * </p>
+ *
+ * <h2>Concurrencia</h2>
+ * <p>
+ * Los bits viven en un {@link AtomicLongArray}: inserciones y consultas concurrentes son seguras
+ * sin lock. Una consulta concurrente con la inserción de la misma clave puede responder "no
+ * está"; el llamador lo cubre con la restricción única de la tabla.
+ * </p>
+ */
+public final class IdempotenciaBloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashes;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * @param capacity claves esperadas (> 0)
+     * @param fpp tasa de falsos positivos objetivo, en (0, 1)
+     */
+    public IdempotenciaBloomFilter(int capacity, double fpp) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity debe ser > 0");
+        }
+        if (!(fpp > 0d && fpp < 1d)) {
+            throw new IllegalArgumentException("fpp debe estar en (0, 1)");
+        }
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(fpp) / LN2_SQUARED);
+        long bits = Long.highestOneBit(Math.max(64L, optimalBits - 1)) << 1;
+        if (bits > (1L << 36)) {
+            throw new IllegalArgumentException("capacity/fpp demasiado grandes");
+        }
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param clave clave de idempotencia normalizada
+     * @return {@code false} si la clave seguro no fue insertada
+     */
+    public boolean mightContain(CharSequence clave) {
+        long h1 = fnv1a(clave);
+        long h2 = mix(h1) | 1L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inserta una clave.
+     *
+     * @param clave clave de idempotencia normalizada
+     */
+    public void put(CharSequence clave) {
+        long h1 = fnv1a(clave);
+        long h2 = mix(h1) | 1L;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            int idx = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long prev = words.getAndAccumulate(idx, mask, (w, m) -> w | m);
+            changed |= (prev & mask) == 0L;
+        }
+        if (changed) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Agrega las claves de otro filtro con las mismas dimensiones (OR de los bits).
+     *
+     * @param otro filtro creado con la misma {@code capacity} y {@code fpp}
+     * @throws IllegalArgumentException si las dimensiones no coinciden
+     */
+    public void merge(IdempotenciaBloomFilter otro) {
+        if (otro.words.length() != words.length() || otro.hashes != hashes) {
+            throw new IllegalArgumentException("Filtros con dimensiones distintas");
+        }
+        for (int i = 0; i < words.length(); i++) {
+            long w = otro.words.get(i);
+            if (w != 0L) {
+                words.getAndAccumulate(i, w, (a, b) -> a | b);
+            }
+        }
+        count.addAndGet(otro.count.get());
+    }
+
+    /**
+     * @return {@code true} si se alcanzó la capacidad de diseño
+     */
+    public boolean isFull() {
+        return count.get() >= capacity;
+    }
+
+    /**
+     * @return claves insertadas (aproximado: no cuenta re-inserciones ni colisiones totales)
+     */
+    public int approximateCount() {
+        return count.get();
+    }
+
+    /**
+     * @return tamaño del filtro en bits
+     */
+    public long bitSize() {
+        return bitMask + 1;
+    }
+
+    private static long fnv1a(CharSequence s) {
+        long h = FNV_OFFSET;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /** Finalizador de SplitMix64. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,489 @@
+package com.haedcom.access.application.acceso;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.domain.repo.ClaveIdempotenciaView;
+import com.haedcom.access.domain.repo.IntentoAccesoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+
+/**
+ * Caché de idempotencia de dos niveles delante de
+ * {@link IntentoAccesoRepository#findByIdempotencia}.
+ *
+ * <p>
+ * Más del 99% de las claves que llegan son nuevas, pero cada intento pagaba un {@code SELECT} por
+ * {@code (id_organizacion, clave_idempotencia)}; y los reintentos del gateway tras un timeout
+ * reconstruían el resultado cargando decisión y comando.
+ * </p>
+ *
+ * <h2>Niveles</h2>
+ * <ol>
+ * <li><b>LRU acotado</b> de {@link RegistrarIntentoResult} recientes (con TTL): un reintento se
+ * responde desde memoria. Solo se llena tras el commit, nunca con escrituras que hicieron
+ * rollback.</li>
+ * <li><b>Filtro de Bloom por tenant</b> ({@link IdempotenciaBloomFilter}): si responde "no está",
+ * se omite el {@code SELECT}. Dos generaciones por tenant: al llenarse la actual pasa a ser la
+ * anterior y se descarta la más vieja.</li>
+ * </ol>
+ *
+ * <h2>Correctitud</h2>
+ * <p>
+ * El filtro solo conoce las claves escritas por este nodo y las precargadas al arranque
+ * ({@code warmup.window}); una clave escrita por otro nodo o ya rotada puede dar un falso "no
+ * está". La fuente de verdad sigue siendo {@code ux_intento_idempotencia_org}: la inserción
+ * duplicada falla y {@link AccesoService#resultadoExistente} devuelve el resultado original. Hasta
+ * que termina la precarga el filtro no se consulta (siempre hay {@code SELECT}).
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.idempotency.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.access.idempotency.bloom.capacity} (default {@code 200000}): claves por
+ * tenant y generación.</li>
+ * <li>{@code haedcom.access.idempotency.bloom.fpp} (default {@code 0.01})</li>
+ * <li>{@code haedcom.access.idempotency.lru.max-entries} (default {@code 50000})</li>
+ * <li>{@code haedcom.access.idempotency.lru.ttl} (default {@code 10m})</li>
+ * <li>{@code haedcom.access.idempotency.warmup.window} (default {@code 24h})</li>
+ * <li>{@code haedcom.access.idempotency.warmup.max-keys} (default {@code 2000000})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_idempotency_lookup_total{result}}: {@code lru_hit} (desde memoria),
+ * {@code bloom_negative} (sin {@code SELECT}), {@code db_hit} (reintento resuelto en base de
+ * datos), {@code false_positive} (el filtro dijo "puede estar" y no estaba) y {@code cold_miss}
+ * (filtro aún no precargado).</li>
+ * <li>{@code access_idempotency_conflict_recovered_total}: duplicados detectados por la
+ * restricción única y resueltos con el intento original.</li>
+ * <li>{@code access_idempotency_lru_size}, {@code access_idempotency_warm}.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class IdempotenciaCache {
+
+    private static final Logger LOG = Logger.getLogger(IdempotenciaCache.class);
+
+    private static final int LRU_SEGMENTS = 16;
+
+    private final IntentoAccesoRepository intentoRepo;
+    private final TransactionSynchronizationRegistry txRegistry;
+    private final Clock clock;
+
+    private final boolean enabled;
+    private final int bloomCapacity;
+    private final double bloomFpp;
+    private final long lruTtlMillis;
+    private final Duration warmupWindow;
+    private final int warmupMaxKeys;
+
+    private final ConcurrentHashMap<UUID, FiltroTenant> filtros = new ConcurrentHashMap<>();
+    private final Segmento[] segmentos = new Segmento[LRU_SEGMENTS];
+    private volatile boolean warm;
+
+    private final Counter lruHit;
+    private final Counter bloomNegative;
+    private final Counter dbHit;
+    private final Counter falsePositive;
+    private final Counter coldMiss;
+    private final Counter conflictRecovered;
+
+    @Inject
+    public IdempotenciaCache(IntentoAccesoRepository intentoRepo,
+            TransactionSynchronizationRegistry txRegistry, Clock clock, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.idempotency.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.access.idempotency.bloom.capacity",
+                    defaultValue = "200000") int bloomCapacity,
+            @ConfigProperty(name = "haedcom.access.idempotency.bloom.fpp",
+                    defaultValue = "0.01") double bloomFpp,
+            @ConfigProperty(name = "haedcom.access.idempotency.lru.max-entries",
+                    defaultValue = "50000") int lruMaxEntries,
+            @ConfigProperty(name = "haedcom.access.idempotency.lru.ttl",
+                    defaultValue = "10m") Duration lruTtl,
+            @ConfigProperty(name = "haedcom.access.idempotency.warmup.window",
+                    defaultValue = "24h") Duration warmupWindow,
+            @ConfigProperty(name = "haedcom.access.idempotency.warmup.max-keys",
+                    defaultValue = "2000000") int warmupMaxKeys) {
+        this.intentoRepo = Objects.requireNonNull(intentoRepo, "intentoRepo es obligatorio");
+        this.txRegistry = Objects.requireNonNull(txRegistry, "txRegistry es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (bloomCapacity <= 0 || lruMaxEntries <= 0) {
+            throw new IllegalArgumentException("bloom.capacity y lru.max-entries deben ser > 0");
+        }
+        // valida fpp al arranque y no en el primer tenant
+        new IdempotenciaBloomFilter(1, bloomFpp);
+
+        this.enabled = enabled;
+        this.bloomCapacity = bloomCapacity;
+        this.bloomFpp = bloomFpp;
+        this.lruTtlMillis = (lruTtl != null && !lruTtl.isNegative() && !lruTtl.isZero())
+                ? lruTtl.toMillis()
+                : Duration.ofMinutes(10).toMillis();
+        this.warmupWindow = (warmupWindow != null && !warmupWindow.isNegative()) ? warmupWindow
+                : Duration.ofHours(24);
+        this.warmupMaxKeys = Math.max(0, warmupMaxKeys);
+
+        int porSegmento = Math.max(1, (lruMaxEntries + LRU_SEGMENTS - 1) / LRU_SEGMENTS);
+        for (int i = 0; i < LRU_SEGMENTS; i++) {
+            segmentos[i] = new Segmento(porSegmento);
+        }
+
+        this.lruHit = lookupCounter(registry, "lru_hit");
+        this.bloomNegative = lookupCounter(registry, "bloom_negative");
+        this.dbHit = lookupCounter(registry, "db_hit");
+        this.falsePositive = lookupCounter(registry, "false_positive");
+        this.coldMiss = lookupCounter(registry, "cold_miss");
+        this.conflictRecovered = Counter.builder("access_idempotency_conflict_recovered_total")
+                .register(registry);
+        registry.gauge("access_idempotency_lru_size", this, IdempotenciaCache::lruSize);
+        registry.gauge("access_idempotency_warm", this, c -> c.warm ? 1d : 0d);
+    }
+
+    /**
+     * Resuelve un posible reintento: LRU, luego filtro, luego base de datos.
+     *
+     * @param orgId tenant
+     * @param clave clave de idempotencia normalizada
+     * @param db consulta a la base de datos (solo se invoca si los niveles en memoria no alcanzan)
+     * @return resultado original si la clave ya fue registrada
+     */
+    public Optional<RegistrarIntentoResult> buscar(UUID orgId, String clave,
+            Supplier<Optional<RegistrarIntentoResult>> db) {
+        if (!enabled) {
+            return db.get();
+        }
+
+        RegistrarIntentoResult cached = lruGet(orgId, clave);
+        if (cached != null) {
+            lruHit.increment();
+            return Optional.of(cached);
+        }
+
+        boolean trusted = warm;
+        if (trusted) {
+            FiltroTenant f = filtros.get(orgId);
+            if (f == null || !f.mightContain(clave)) {
+                bloomNegative.increment();
+                return Optional.empty();
+            }
+        }
+
+        Optional<RegistrarIntentoResult> r = db.get();
+        if (r.isPresent()) {
+            dbHit.increment();
+            recordar(orgId, clave, r.get());
+        } else if (trusted) {
+            falsePositive.increment();
+        } else {
+            coldMiss.increment();
+        }
+        return r;
+    }
+
+    /**
+     * Registra las claves de un lote que se está escribiendo.
+     *
+     * <p>
+     * Las claves entran al filtro de inmediato (un falso "puede estar" solo cuesta un
+     * {@code SELECT}); los resultados entran al LRU únicamente si la transacción hace commit. Sin
+     * transacción activa se aplican de inmediato.
+     * </p>
+     *
+     * @param lote intentos que requieren escritura
+     */
+    public void alEscribir(List<IntentoPendiente> lote) {
+        if (!enabled || lote.isEmpty()) {
+            return;
+        }
+        for (IntentoPendiente p : lote) {
+            filtroDe(p.orgId()).put(p.claveIdempotencia());
+        }
+        if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            recordarLote(lote);
+            return;
+        }
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // sin trabajo previo al commit
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    recordarLote(lote);
+                }
+            }
+        });
+    }
+
+    /**
+     * Guarda un resultado ya persistido (p.ej. resuelto tras un conflicto de unicidad).
+     */
+    public void recordar(UUID orgId, String clave, RegistrarIntentoResult resultado) {
+        if (!enabled || resultado == null) {
+            return;
+        }
+        filtroDe(orgId).put(clave);
+        segmento(orgId, clave).put(new Clave(orgId, clave),
+                new Entrada(resultado, clock.millis() + lruTtlMillis));
+    }
+
+    /**
+     * Contabiliza un duplicado detectado por la restricción única y resuelto con el original.
+     */
+    public void conflictoRecuperado() {
+        conflictRecovered.increment();
+    }
+
+    /**
+     * Precarga el filtro con las claves recientes de todos los tenants.
+     *
+     * <p>
+     * Se leen las más recientes primero y, por tenant, como máximo {@code bloom.capacity}; quedan
+     * como generación anterior, de modo que las claves escritas mientras tanto se conservan en la
+     * actual; si una rotación ya había movido claves en vivo a la generación anterior, se fusionan
+     * con las precargadas. Al terminar, el filtro pasa a consultarse.
+     * </p>
+     */
+    @Transactional
+    public void precargar() {
+        if (!enabled) {
+            return;
+        }
+        long t0 = System.nanoTime();
+        OffsetDateTime desde = OffsetDateTime.now(clock).minus(warmupWindow);
+
+        Map<UUID, IdempotenciaBloomFilter> cargados = new HashMap<>();
+        int leidas = 0;
+        try (Stream<ClaveIdempotenciaView> claves =
+                intentoRepo.streamClavesIdempotenciaDesde(desde, warmupMaxKeys)) {
+            for (ClaveIdempotenciaView v : (Iterable<ClaveIdempotenciaView>) claves::iterator) {
+                leidas++;
+                IdempotenciaBloomFilter f = cargados.computeIfAbsent(v.orgId(),
+                        k -> new IdempotenciaBloomFilter(bloomCapacity, bloomFpp));
+                if (!f.isFull()) {
+                    f.put(v.claveIdempotencia());
+                }
+            }
+        }
+
+        cargados.forEach((orgId, cargado) -> filtroDe(orgId).precargar(cargado));
+        warm = true;
+        if (leidas >= warmupMaxKeys && warmupMaxKeys > 0) {
+            LOG.warnf("idempotency_warmup_truncated maxKeys=%d", warmupMaxKeys);
+        }
+        LOG.infof("idempotency_warmup_loaded keys=%d orgs=%d elapsedMs=%d", leidas,
+                cargados.size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    /**
+     * @return {@code true} si el filtro está precargado y se consulta
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * @return {@code true} si la caché está habilitada
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        cargarSiFrio();
+    }
+
+    /**
+     * Reintenta la precarga si falló al arranque (p.ej. base de datos no disponible).
+     */
+    @Scheduled(every = "{haedcom.access.idempotency.warmup.retry-every:1m}",
+            delayed = "{haedcom.access.idempotency.warmup.retry-every:1m}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void retryWarmup() {
+        if (!warm) {
+            cargarSiFrio();
+        }
+    }
+
+    private void cargarSiFrio() {
+        if (!enabled || warm) {
+            return;
+        }
+        try {
+            precargar();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "idempotency_warmup_failed");
+        }
+    }
+
+    // -------------------------
+    // LRU
+    // -------------------------
+
+    private RegistrarIntentoResult lruGet(UUID orgId, String clave) {
+        Entrada e = segmento(orgId, clave).get(new Clave(orgId, clave));
+        if (e == null) {
+            return null;
+        }
+        if (e.expiraEnMillis() <= clock.millis()) {
+            segmento(orgId, clave).remove(new Clave(orgId, clave));
+            return null;
+        }
+        return e.resultado();
+    }
+
+    private void recordarLote(List<IntentoPendiente> lote) {
+        long expira = clock.millis() + lruTtlMillis;
+        for (IntentoPendiente p : lote) {
+            segmento(p.orgId(), p.claveIdempotencia()).put(
+                    new Clave(p.orgId(), p.claveIdempotencia()),
+                    new Entrada(p.resultado(), expira));
+        }
+    }
+
+    private Segmento segmento(UUID orgId, String clave) {
+        int h = orgId.hashCode() * 31 + clave.hashCode();
+        h ^= (h >>> 16);
+        return segmentos[h & (LRU_SEGMENTS - 1)];
+    }
+
+    private double lruSize() {
+        int n = 0;
+        for (Segmento s : segmentos) {
+            n += s.size();
+        }
+        return n;
+    }
+
+    private FiltroTenant filtroDe(UUID orgId) {
+        return filtros.computeIfAbsent(orgId,
+                k -> new FiltroTenant(bloomCapacity, bloomFpp));
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("access_idempotency_lookup_total").tag("result", result)
+                .register(registry);
+    }
+
+    private record Clave(UUID orgId, String clave) {
+    }
+
+    private record Entrada(RegistrarIntentoResult resultado, long expiraEnMillis) {
+    }
+
+    /**
+     * Segmento del LRU (orden de acceso, exclusión mutua por segmento).
+     */
+    private static final class Segmento {
+
+        private final LinkedHashMap<Clave, Entrada> map;
+
+        Segmento(int max) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+                    return size() > max;
+                }
+            };
+        }
+
+        synchronized Entrada get(Clave k) {
+            return map.get(k);
+        }
+
+        synchronized void put(Clave k, Entrada e) {
+            map.put(k, e);
+        }
+
+        synchronized void remove(Clave k) {
+            map.remove(k);
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    /**
+     * Filtro de un tenant con dos generaciones.
+     */
+    private static final class FiltroTenant {
+
+        private final int capacity;
+        private final double fpp;
+        private volatile IdempotenciaBloomFilter actual;
+        private volatile IdempotenciaBloomFilter anterior;
+
+        FiltroTenant(int capacity, double fpp) {
+            this.capacity = capacity;
+            this.fpp = fpp;
+            this.actual = new IdempotenciaBloomFilter(capacity, fpp);
+        }
+
+        boolean mightContain(String clave) {
+            if (actual.mightContain(clave)) {
+                return true;
+            }
+            IdempotenciaBloomFilter prev = anterior;
+            return prev != null && prev.mightContain(clave);
+        }
+
+        void put(String clave) {
+            IdempotenciaBloomFilter cur = actual;
+            cur.put(clave);
+            if (cur.isFull()) {
+                rotar(cur);
+            }
+        }
+
+        /**
+         * Publica la precarga como generación anterior. Si ya había una (una rotación durante la
+         * precarga la llenó con claves escritas en vivo), se fusiona en la precargada antes del
+         * cambio: ninguna clave conocida deja de estarlo.
+         */
+        synchronized void precargar(IdempotenciaBloomFilter cargado) {
+            IdempotenciaBloomFilter prev = anterior;
+            if (prev != null) {
+                cargado.merge(prev);
+            }
+            anterior = cargado;
+        }
+
+        private synchronized void rotar(IdempotenciaBloomFilter lleno) {
+            if (actual != lleno) {
+                return;
+            }
+            anterior = lleno;
+            actual = new IdempotenciaBloomFilter(capacity, fpp);
+        }
+    }
+}
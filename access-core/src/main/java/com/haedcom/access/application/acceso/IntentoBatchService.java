@@ -0,0 +1,434 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.acceso.AccesoService.DecisionBorde;
+import com.haedcom.access.application.acceso.AccesoService.EvaluacionIntento;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.ReconciliarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * Ingesta por lotes de intentos de acceso (gateways que reenvían su buffer tras una caída).
+ *
+ * <p>
+ * Los intentos se procesan en chunks de {@code chunk-size}: cada chunk se evalúa con
+ * {@link AccesoService#prepararLote} (una transacción de lectura) y se persiste con
+ * {@link AccesoService#persistirLote} (una transacción de escritura con batching JDBC). El resultado
+ * por intento se entrega en el mismo orden de entrada.
+ * </p>
+ *
+ * <h2>Idempotencia</h2>
+ * <ul>
+ * <li>Claves repetidas dentro del lote se evalúan una sola vez; las repeticiones reciben el mismo
+ * resultado con código {@code IDEMPOTENT}.</li>
+ * <li>Claves ya registradas (en este u otro nodo) responden el resultado original, igual que el
+ * endpoint individual.</li>
+ * </ul>
+ *
+ * <h2>Errores</h2>
+ * <ul>
+ * <li>Un intento inválido no afecta al resto: su resultado lleva {@code status} y {@code codigo}
+ * (mismos códigos que la API: {@code BAD_REQUEST}, {@code NOT_FOUND}, {@code CONFLICT},
+ * {@code INTERNAL_ERROR}).</li>
+ * <li>Si la escritura del chunk falla (p.ej. otro nodo insertó una de las claves), cada intento se
+ * vuelve a evaluar y a escribir en su propia transacción: las entidades del chunk quedaron en un
+ * contexto de persistencia que hizo rollback y no se reutilizan.</li>
+ * <li>Los intentos que exceden {@code max-items} no se procesan
+ * ({@code BATCH_LIMIT_EXCEEDED}).</li>
+ * </ul>
+ *
+ * <h2>Reconciliación del gateway</h2>
+ * <p>
+ * {@link #reconciliar} procesa igual los intentos que el {@code device-gateway} decidió sin el
+ * core, pero cada uno se registra con la decisión del gateway
+ * ({@link AccesoService#prepararReconciliacion}).
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.batch.chunk-size} (default {@code 200})</li>
+ * <li>{@code haedcom.access.batch.max-items} (default {@code 10000})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_batch_items}: intentos por lote.</li>
+ * <li>{@code access_batch_chunk_seconds}: evaluación + escritura de cada chunk.</li>
+ * <li>{@code access_batch_chunk_fallback_total}: chunks escritos intento por intento.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class IntentoBatchService {
+
+    private static final Logger LOG = Logger.getLogger(IntentoBatchService.class);
+
+    /** Código de resultado de un intento nuevo. */
+    public static final String CODIGO_OK = "OK";
+    /** Código de resultado de una clave ya registrada o repetida en el lote. */
+    public static final String CODIGO_IDEMPOTENT = "IDEMPOTENT";
+
+    private final AccesoService accesoService;
+    private final int chunkSize;
+    private final int maxItems;
+
+    private final DistributionSummary batchItems;
+    private final Timer chunkTimer;
+    private final Counter chunkFallback;
+
+    @Inject
+    public IntentoBatchService(AccesoService accesoService, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.batch.chunk-size",
+                    defaultValue = "200") int chunkSize,
+            @ConfigProperty(name = "haedcom.access.batch.max-items",
+                    defaultValue = "10000") int maxItems) {
+        this.accesoService = Objects.requireNonNull(accesoService, "accesoService es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (chunkSize <= 0 || maxItems <= 0) {
+            throw new IllegalArgumentException("chunk-size y max-items deben ser > 0");
+        }
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+
+        this.batchItems = DistributionSummary.builder("access_batch_items")
+                .publishPercentileHistogram(true).register(registry);
+        this.chunkTimer = Timer.builder("access_batch_chunk_seconds")
+                .publishPercentileHistogram(true).register(registry);
+        this.chunkFallback =
+                Counter.builder("access_batch_chunk_fallback_total").register(registry);
+    }
+
+    /**
+     * Registra un lote completo (array JSON).
+     *
+     * @param orgId tenant
+     * @param requests intentos en orden (un elemento {@code null} es un intento inválido)
+     * @return un resultado por intento, en el mismo orden
+     */
+    public List<ResultadoIntentoLote> registrar(UUID orgId, List<RegistrarIntentoRequest> requests) {
+        Objects.requireNonNull(requests, "requests es obligatorio");
+        List<ResultadoIntentoLote> out = new ArrayList<>(requests.size());
+        registrar(orgId, requests.iterator(), out::add);
+        return out;
+    }
+
+    /**
+     * Registra un lote en streaming (NDJSON): consume {@code requests} chunk a chunk y entrega los
+     * resultados a {@code sink} en orden a medida que cada chunk hace commit.
+     *
+     * @param orgId tenant
+     * @param requests intentos en orden (un elemento {@code null} es un intento inválido)
+     * @param sink receptor de resultados
+     * @return cantidad de intentos leídos
+     */
+    public int registrar(UUID orgId, Iterator<RegistrarIntentoRequest> requests,
+            Consumer<ResultadoIntentoLote> sink) {
+        Objects.requireNonNull(requests, "requests es obligatorio");
+        return procesar(orgId, new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return requests.hasNext();
+            }
+
+            @Override
+            public Entrada next() {
+                return new Entrada(requests.next(), null);
+            }
+        }, false, sink);
+    }
+
+    /**
+     * Registra intentos que el {@code device-gateway} ya decidió sin el core, cada uno con su
+     * {@code decisionBorde}.
+     *
+     * @param orgId tenant
+     * @param requests intentos en orden (un elemento {@code null} es un intento inválido)
+     * @return un resultado por intento, en el mismo orden
+     */
+    public List<ResultadoIntentoLote> reconciliar(UUID orgId,
+            List<ReconciliarIntentoRequest> requests) {
+        Objects.requireNonNull(requests, "requests es obligatorio");
+        List<Entrada> entradas = new ArrayList<>(requests.size());
+        for (ReconciliarIntentoRequest r : requests) {
+            entradas.add(r == null ? new Entrada(null, null)
+                    : new Entrada(r.intento(), r.decisionBorde()));
+        }
+        List<ResultadoIntentoLote> out = new ArrayList<>(requests.size());
+        procesar(orgId, entradas.iterator(), true, out::add);
+        return out;
+    }
+
+    private int procesar(UUID orgId, Iterator<Entrada> entradas, boolean reconciliacion,
+            Consumer<ResultadoIntentoLote> sink) {
+        Objects.requireNonNull(orgId, "orgId es obligatorio");
+        Objects.requireNonNull(sink, "sink es obligatorio");
+
+        Map<String, ResultadoIntentoLote> porClave = new HashMap<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        int indice = 0;
+        while (entradas.hasNext()) {
+            Entrada e = entradas.next();
+            if (indice >= maxItems) {
+                flushChunk(orgId, chunk, reconciliacion, porClave, sink);
+                sink.accept(ResultadoIntentoLote.error(indice++, clave(e.request()), 413,
+                        "BATCH_LIMIT_EXCEEDED", "El lote excede " + maxItems + " intentos"));
+                continue;
+            }
+            chunk.add(new Item(indice++, e.request(), e.borde(), clave(e.request())));
+            if (chunk.size() >= chunkSize) {
+                flushChunk(orgId, chunk, reconciliacion, porClave, sink);
+            }
+        }
+        flushChunk(orgId, chunk, reconciliacion, porClave, sink);
+        batchItems.record(indice);
+        LOG.debugf("batch_ingest_done orgId=%s items=%d reconciliacion=%s", orgId, indice,
+                reconciliacion);
+        return indice;
+    }
+
+    private void flushChunk(UUID orgId, List<Item> chunk, boolean reconciliacion,
+            Map<String, ResultadoIntentoLote> porClave, Consumer<ResultadoIntentoLote> sink) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long t0 = System.nanoTime();
+        ResultadoIntentoLote[] resultados = procesarChunk(orgId, chunk, reconciliacion, porClave);
+        chunkTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        for (ResultadoIntentoLote r : resultados) {
+            sink.accept(r);
+        }
+        chunk.clear();
+    }
+
+    private ResultadoIntentoLote[] procesarChunk(UUID orgId, List<Item> chunk,
+            boolean reconciliacion, Map<String, ResultadoIntentoLote> porClave) {
+        ResultadoIntentoLote[] resultados = new ResultadoIntentoLote[chunk.size()];
+
+        // 1) Inválidos y claves repetidas (en el lote o en este chunk) no se evalúan
+        List<Integer> aEvaluar = new ArrayList<>(chunk.size());
+        Map<String, Integer> enChunk = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Item it = chunk.get(i);
+            if (it.request() == null) {
+                resultados[i] = ResultadoIntentoLote.error(it.indice(), null, 400, "BAD_REQUEST",
+                        "Intento vacío o JSON inválido");
+            } else if (it.clave() != null
+                    && (porClave.containsKey(it.clave()) || enChunk.containsKey(it.clave()))) {
+                // se resuelve al final con el resultado de la primera aparición
+                continue;
+            } else {
+                if (it.clave() != null) {
+                    enChunk.put(it.clave(), i);
+                }
+                aEvaluar.add(i);
+            }
+        }
+
+        // 2) Evaluación en una transacción
+        List<Item> items = new ArrayList<>(aEvaluar.size());
+        for (int i : aEvaluar) {
+            items.add(chunk.get(i));
+        }
+        List<EvaluacionIntento> evaluaciones = evaluar(orgId, items, reconciliacion);
+
+        // 3) Escritura en una transacción (o intento por intento si falla)
+        List<IntentoPendiente> escribir = new ArrayList<>(aEvaluar.size());
+        for (EvaluacionIntento ev : evaluaciones) {
+            if (ev.pendiente() != null && ev.pendiente().requiereEscritura()) {
+                escribir.add(ev.pendiente());
+            }
+        }
+        boolean loteOk = escribir.isEmpty() || persistir(escribir);
+
+        for (int k = 0; k < aEvaluar.size(); k++) {
+            int i = aEvaluar.get(k);
+            Item it = chunk.get(i);
+            EvaluacionIntento ev = evaluaciones.get(k);
+            ResultadoIntentoLote r;
+            if (ev.error() != null) {
+                r = ResultadoIntentoLote.desdeError(it.indice(), it.clave(), ev.error());
+            } else if (!ev.pendiente().requiereEscritura()) {
+                r = ResultadoIntentoLote.ok(it.indice(), it.clave(), CODIGO_IDEMPOTENT,
+                        ev.pendiente().resultado());
+            } else if (loteOk) {
+                r = ResultadoIntentoLote.ok(it.indice(), it.clave(), CODIGO_OK,
+                        ev.pendiente().resultado());
+            } else {
+                r = escribirIndividual(orgId, it, reconciliacion);
+            }
+            resultados[i] = r;
+            if (it.clave() != null) {
+                porClave.put(it.clave(), r);
+            }
+        }
+
+        // 4) Repeticiones: mismo resultado que la primera aparición
+        for (int i = 0; i < chunk.size(); i++) {
+            if (resultados[i] == null) {
+                Item it = chunk.get(i);
+                resultados[i] = porClave.get(it.clave()).repeticion(it.indice());
+            }
+        }
+        return resultados;
+    }
+
+    private List<EvaluacionIntento> evaluar(UUID orgId, List<Item> items,
+            boolean reconciliacion) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<RegistrarIntentoRequest> reqs = new ArrayList<>(items.size());
+        List<DecisionBorde> bordes = new ArrayList<>(items.size());
+        for (Item it : items) {
+            reqs.add(it.request());
+            bordes.add(it.borde());
+        }
+        try {
+            return reconciliacion ? accesoService.prepararReconciliacion(orgId, reqs, bordes)
+                    : accesoService.prepararLote(orgId, reqs);
+        } catch (RuntimeException e) {
+            // la transacción compartida quedó inutilizable: se evalúa cada intento por separado
+            LOG.warnf(e, "batch_evaluate_failed orgId=%s items=%d fallback=individual", orgId,
+                    items.size());
+            List<EvaluacionIntento> out = new ArrayList<>(items.size());
+            for (Item it : items) {
+                try {
+                    IntentoPendiente p = reconciliacion
+                            ? accesoService.prepararReconciliacion(orgId, it.request(), it.borde())
+                            : accesoService.prepararIntento(orgId, it.request());
+                    out.add(new EvaluacionIntento(p, null));
+                } catch (RuntimeException ex) {
+                    out.add(new EvaluacionIntento(null, ex));
+                }
+            }
+            return out;
+        }
+    }
+
+    private boolean persistir(List<IntentoPendiente> escribir) {
+        try {
+            accesoService.persistirLote(escribir);
+            return true;
+        } catch (RuntimeException e) {
+            chunkFallback.increment();
+            LOG.warnf(e, "batch_chunk_failed items=%d fallback=individual", escribir.size());
+            return false;
+        }
+    }
+
+    private ResultadoIntentoLote escribirIndividual(UUID orgId, Item it, boolean reconciliacion) {
+        try {
+            IntentoPendiente p = reconciliacion
+                    ? accesoService.prepararReconciliacion(orgId, it.request(), it.borde())
+                    : accesoService.prepararIntento(orgId, it.request());
+            if (!p.requiereEscritura()) {
+                return ResultadoIntentoLote.ok(it.indice(), it.clave(), CODIGO_IDEMPOTENT,
+                        p.resultado());
+            }
+            accesoService.persistirLote(List.of(p));
+            return ResultadoIntentoLote.ok(it.indice(), it.clave(), CODIGO_OK, p.resultado());
+        } catch (RuntimeException e) {
+            if (AccesoService.esConflictoIdempotencia(e)) {
+                try {
+                    return accesoService.resultadoExistente(orgId, it.request())
+                            .map(r -> ResultadoIntentoLote.ok(it.indice(), it.clave(),
+                                    CODIGO_IDEMPOTENT, r))
+                            .orElseGet(() -> ResultadoIntentoLote.desdeError(it.indice(),
+                                    it.clave(), e));
+                } catch (RuntimeException ex) {
+                    return ResultadoIntentoLote.desdeError(it.indice(), it.clave(), ex);
+                }
+            }
+            return ResultadoIntentoLote.desdeError(it.indice(), it.clave(), e);
+        }
+    }
+
+    private static String clave(RegistrarIntentoRequest req) {
+        if (req == null || req.claveIdempotencia() == null) {
+            return null;
+        }
+        String v = req.claveIdempotencia().trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private record Entrada(RegistrarIntentoRequest request, DecisionBorde borde) {
+    }
+
+    private record Item(int indice, RegistrarIntentoRequest request, DecisionBorde borde,
+            String clave) {
+    }
+
+    /**
+     * Resultado de un intento dentro del lote.
+     *
+     * @param indice posición del intento en el lote (desde 0)
+     * @param claveIdempotencia clave normalizada (puede ser null si el intento es inválido)
+     * @param status estatus HTTP equivalente al del endpoint individual
+     * @param codigo {@code OK}, {@code IDEMPOTENT} o código de error de la API
+     * @param mensaje detalle del error (null si {@code status} es 200)
+     * @param resultado resultado del intento (null si hubo error)
+     */
+    public record ResultadoIntentoLote(int indice, String claveIdempotencia, int status,
+            String codigo, String mensaje, RegistrarIntentoResult resultado) {
+
+        static ResultadoIntentoLote ok(int indice, String clave, String codigo,
+                RegistrarIntentoResult resultado) {
+            return new ResultadoIntentoLote(indice, clave, 200, codigo, null, resultado);
+        }
+
+        static ResultadoIntentoLote error(int indice, String clave, int status, String codigo,
+                String mensaje) {
+            return new ResultadoIntentoLote(indice, clave, status, codigo, mensaje, null);
+        }
+
+        /**
+         * Traduce la excepción del intento con el mismo criterio que los exception mappers de la
+         * API.
+         */
+        static ResultadoIntentoLote desdeError(int indice, String clave, RuntimeException e) {
+            if (e instanceof NotFoundException) {
+                return error(indice, clave, 404, "NOT_FOUND", e.getMessage());
+            }
+            if (e instanceof WebApplicationException w) {
+                int status = (w.getResponse() != null) ? w.getResponse().getStatus() : 500;
+                String codigo = switch (status) {
+                    case 400 -> "BAD_REQUEST";
+                    case 404 -> "NOT_FOUND";
+                    case 409 -> "CONFLICT";
+                    default -> status >= 500 ? "INTERNAL_ERROR" : "HTTP_" + status;
+                };
+                return error(indice, clave, status, codigo, e.getMessage());
+            }
+            if (e instanceof IllegalArgumentException) {
+                return error(indice, clave, 400, "BAD_REQUEST", e.getMessage());
+            }
+            LOG.errorf(e, "batch_item_error indice=%d", indice);
+            return error(indice, clave, 500, "INTERNAL_ERROR", "Error interno del servidor");
+        }
+
+        /** Misma respuesta para una repetición de la clave en otra posición del lote. */
+        ResultadoIntentoLote repeticion(int otroIndice) {
+            String c = (status == 200) ? CODIGO_IDEMPOTENT : codigo;
+            return new ResultadoIntentoLote(otroIndice, claveIdempotencia, status, c, mensaje,
+                    resultado);
+        }
+    }
+}
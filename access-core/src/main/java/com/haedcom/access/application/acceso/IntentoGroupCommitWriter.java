@@ -0,0 +1,391 @@
+package com.haedcom.access.application.acceso;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.virtual.threads.VirtualThreads;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+
+/**
+ * Escritor <b>group-commit</b> del flujo de acceso.
+ *
+ * <p>
+ * En ráfagas (cambio de turno en torniquetes) cada intento hace su propia transacción con tres
+ * {@code INSERT}, hasta tres filas de outbox y un {@code flush}. En modo group-commit el intento
+ * se evalúa con {@link AccesoService#prepararIntento} (transacción corta de solo lectura) y las
+ * escrituras se encolan; un hilo escritor junta los intentos que llegan durante una ventana de
+ * {@code linger} y los persiste con {@link AccesoService#persistirLote} en una sola transacción
+ * con batching JDBC.
+ * </p>
+ *
+ * <p>
+ * El hilo escritor es una tarea del ejecutor de virtual threads de Quarkus
+ * ({@code @VirtualThreads}), que se arranca con el primer intento y se detiene al apagar la
+ * aplicación.
+ * </p>
+ *
+ * <h2>Durabilidad</h2>
+ * <p>
+ * {@link #registrar} retorna la decisión solo cuando el lote que contiene el intento hizo
+ * commit: el llamador espera como máximo {@code linger} más el tiempo del lote, pero nunca recibe
+ * una decisión que se pueda perder si el proceso cae. Mientras espera no retiene conexión ni
+ * transacción.
+ * </p>
+ *
+ * <h2>Errores</h2>
+ * <ul>
+ * <li>Si el lote falla (p.ej. otro nodo insertó la misma {@code claveIdempotencia}), cada intento
+ * se vuelve a evaluar y escribir en su propia transacción con
+ * {@link AccesoService#registrarIntento}: solo falla el intento problemático. No se reutilizan
+ * las entidades del lote, que pasaron por un contexto de persistencia revertido.</li>
+ * <li>Si la cola está llena, el intento se escribe en línea en el hilo del llamador
+ * (backpressure sin rechazar).</li>
+ * <li>Si el commit no llega dentro de {@code await-timeout-ms} se responde {@code 503} con
+ * {@code Retry-After}: el lote puede confirmarse igual después, así que el resultado es
+ * desconocido, no un error. El gateway reintenta con la misma {@code claveIdempotencia} y recibe
+ * el resultado del intento si llegó a confirmarse, o lo registra si no.</li>
+ * </ul>
+ *
+ * <h2>Idempotencia en vuelo</h2>
+ * <p>
+ * Un reintento con la misma {@code (orgId, claveIdempotencia)} que llega mientras el original
+ * sigue en cola no genera otra fila: espera el mismo commit y recibe el mismo resultado.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.group-commit.enabled} (default {@code false})</li>
+ * <li>{@code haedcom.access.group-commit.linger-ms} (default {@code 5})</li>
+ * <li>{@code haedcom.access.group-commit.max-batch} (default {@code 200})</li>
+ * <li>{@code haedcom.access.group-commit.queue-capacity} (default {@code 10000})</li>
+ * <li>{@code haedcom.access.group-commit.await-timeout-ms} (default {@code 5000})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_group_commit_batch_size}: intentos por lote.</li>
+ * <li>{@code access_group_commit_flush_seconds{result}}: duración de cada lote
+ * ({@code ok|fallback}).</li>
+ * <li>{@code access_group_commit_queue_depth}: intentos en cola.</li>
+ * <li>{@code access_group_commit_inline_total}: escrituras en línea por cola llena.</li>
+ * <li>{@code access_group_commit_coalesced_total}: reintentos resueltos con un intento en
+ * vuelo.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class IntentoGroupCommitWriter {
+
+    private static final Logger LOG = Logger.getLogger(IntentoGroupCommitWriter.class);
+
+    private static final long IDLE_POLL_MS = 500L;
+    private static final long SHUTDOWN_WAIT_MS = 5_000L;
+    private static final long RETRY_AFTER_SECONDS = 1L;
+
+    private final AccesoService accesoService;
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final long lingerNanos;
+    private final int maxBatch;
+    private final long awaitTimeoutMs;
+
+    private final BlockingQueue<Solicitud> queue;
+    private final ConcurrentHashMap<ClaveEnVuelo, CompletableFuture<RegistrarIntentoResult>> inflight =
+            new ConcurrentHashMap<>();
+
+    private final DistributionSummary batchSize;
+    private final Timer flushOk;
+    private final Timer flushFallback;
+    private final Counter inlineWrites;
+    private final Counter coalesced;
+
+    private volatile boolean running;
+    private Future<?> worker;
+
+    /**
+     * @param executor ejecutor donde corre el hilo escritor (virtual threads de Quarkus)
+     */
+    @Inject
+    public IntentoGroupCommitWriter(AccesoService accesoService, MeterRegistry registry,
+            @VirtualThreads ExecutorService executor,
+            @ConfigProperty(name = "haedcom.access.group-commit.enabled",
+                    defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "haedcom.access.group-commit.linger-ms",
+                    defaultValue = "5") long lingerMs,
+            @ConfigProperty(name = "haedcom.access.group-commit.max-batch",
+                    defaultValue = "200") int maxBatch,
+            @ConfigProperty(name = "haedcom.access.group-commit.queue-capacity",
+                    defaultValue = "10000") int queueCapacity,
+            @ConfigProperty(name = "haedcom.access.group-commit.await-timeout-ms",
+                    defaultValue = "5000") long awaitTimeoutMs) {
+        this.accesoService = Objects.requireNonNull(accesoService, "accesoService es obligatorio");
+        this.executor = Objects.requireNonNull(executor, "executor es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (maxBatch <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("max-batch y queue-capacity deben ser > 0");
+        }
+        this.enabled = enabled;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, lingerMs));
+        this.maxBatch = maxBatch;
+        this.awaitTimeoutMs = awaitTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSize = DistributionSummary.builder("access_group_commit_batch_size")
+                .publishPercentileHistogram(true).register(registry);
+        this.flushOk = Timer.builder("access_group_commit_flush_seconds").tag("result", "ok")
+                .publishPercentileHistogram(true).register(registry);
+        this.flushFallback = Timer.builder("access_group_commit_flush_seconds")
+                .tag("result", "fallback").publishPercentileHistogram(true).register(registry);
+        this.inlineWrites = Counter.builder("access_group_commit_inline_total").register(registry);
+        this.coalesced = Counter.builder("access_group_commit_coalesced_total").register(registry);
+        registry.gauge("access_group_commit_queue_depth", queue, BlockingQueue::size);
+    }
+
+    /**
+     * @return {@code true} si el modo group-commit está habilitado por configuración
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra un intento en modo group-commit.
+     *
+     * @param orgId tenant
+     * @param req request del gateway/dispositivo
+     * @return resultado, una vez que el intento quedó persistido
+     */
+    public RegistrarIntentoResult registrar(UUID orgId, RegistrarIntentoRequest req) {
+        IntentoPendiente p = accesoService.prepararIntento(orgId, req);
+        if (!p.requiereEscritura()) {
+            return p.resultado();
+        }
+        return await(submit(req, p));
+    }
+
+    /**
+     * Encola un intento evaluado para el próximo lote.
+     *
+     * @param req request original (se vuelve a evaluar si el lote falla)
+     * @param p intento evaluado de {@code req} que requiere escritura
+     * @return future que se completa tras el commit del lote
+     */
+    public CompletableFuture<RegistrarIntentoResult> submit(RegistrarIntentoRequest req,
+            IntentoPendiente p) {
+        Objects.requireNonNull(req, "req es obligatorio");
+        Objects.requireNonNull(p, "p es obligatorio");
+
+        ClaveEnVuelo key = new ClaveEnVuelo(p.orgId(), p.claveIdempotencia());
+        CompletableFuture<RegistrarIntentoResult> future = new CompletableFuture<>();
+        CompletableFuture<RegistrarIntentoResult> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        ensureStarted();
+        Solicitud s = new Solicitud(key, req, p, future);
+        if (!running || !queue.offer(s)) {
+            inlineWrites.increment();
+            escribirIndividual(s);
+        }
+        return future;
+    }
+
+    private RegistrarIntentoResult await(CompletableFuture<RegistrarIntentoResult> future) {
+        try {
+            return future.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // el lote sigue en curso y puede confirmarse: el reintento con la misma clave lo
+            // resuelve por idempotencia
+            LOG.warnf("group_commit_await_timeout timeoutMs=%d", awaitTimeoutMs);
+            throw new ServiceUnavailableException(
+                    "Commit del intento en curso, reintente con la misma claveIdempotencia",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrumpido esperando commit agrupado",
+                    RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Falló el commit agrupado del intento", cause);
+        }
+    }
+
+    // -------------------------
+    // Hilo escritor
+    // -------------------------
+
+    private synchronized void ensureStarted() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = executor.submit(this::runLoop);
+        LOG.infof("group_commit_started lingerMs=%d maxBatch=%d capacity=%d",
+                TimeUnit.NANOSECONDS.toMillis(lingerNanos), maxBatch,
+                queue.remainingCapacity() + queue.size());
+    }
+
+    private void runLoop() {
+        List<Solicitud> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Solicitud first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Solicitud next = (remaining > 0L)
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                escribirLote(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "group_commit_loop_error batch=%d", batch.size());
+                fallar(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<Solicitud> batch) {
+        batchSize.record(batch.size());
+
+        List<IntentoPendiente> lote = new ArrayList<>(batch.size());
+        for (Solicitud s : batch) {
+            lote.add(s.pendiente());
+        }
+
+        long t0 = System.nanoTime();
+        try {
+            accesoService.persistirLote(lote);
+            flushOk.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+            for (Solicitud s : batch) {
+                completar(s);
+            }
+            LOG.debugf("group_commit_flushed batch=%d elapsedMs=%d", batch.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                flushFallback.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+                fallar(batch, e);
+                return;
+            }
+            // Un intento inválido no debe tumbar al resto del lote: reintento uno a uno, evaluando
+            // de nuevo (las entidades del lote quedaron en un contexto de persistencia revertido)
+            LOG.warnf(e, "group_commit_batch_failed batch=%d fallback=individual", batch.size());
+            for (Solicitud s : batch) {
+                reevaluar(s);
+            }
+            flushFallback.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void escribirIndividual(Solicitud s) {
+        try {
+            accesoService.persistirLote(List.of(s.pendiente()));
+            completar(s);
+        } catch (RuntimeException e) {
+            fallar(List.of(s), e);
+        }
+    }
+
+    private void reevaluar(Solicitud s) {
+        RegistrarIntentoResult r;
+        try {
+            r = accesoService.registrarIntento(s.key().orgId(), s.request());
+        } catch (RuntimeException e) {
+            fallar(List.of(s), e);
+            return;
+        }
+        inflight.remove(s.key(), s.future());
+        s.future().complete(r);
+    }
+
+    private void completar(Solicitud s) {
+        inflight.remove(s.key(), s.future());
+        s.future().complete(s.pendiente().resultado());
+    }
+
+    private void fallar(List<Solicitud> batch, Throwable e) {
+        for (Solicitud s : batch) {
+            inflight.remove(s.key(), s.future());
+            s.future().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Detiene el hilo escritor drenando lo que quede en cola.
+     */
+    @PreDestroy
+    void shutdown() {
+        Future<?> w;
+        synchronized (this) {
+            running = false;
+            w = worker;
+        }
+        if (w == null) {
+            return;
+        }
+        try {
+            w.get(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.warnf("group_commit_shutdown_incomplete error=%s", e.toString());
+            w.cancel(true);
+        }
+
+        List<Solicitud> pendientes = new ArrayList<>();
+        queue.drainTo(pendientes);
+        if (!pendientes.isEmpty()) {
+            LOG.warnf("group_commit_shutdown_dropped pending=%d", pendientes.size());
+            fallar(pendientes, new IllegalStateException("Group commit detenido"));
+        }
+    }
+
+    private record ClaveEnVuelo(UUID orgId, String claveIdempotencia) {
+    }
+
+    private record Solicitud(ClaveEnVuelo key, RegistrarIntentoRequest request,
+            IntentoPendiente pendiente, CompletableFuture<RegistrarIntentoResult> future) {
+    }
+}
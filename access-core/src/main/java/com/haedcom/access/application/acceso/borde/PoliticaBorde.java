@@ -0,0 +1,113 @@
+package com.haedcom.access.application.acceso.borde;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import com.haedcom.access.domain.enums.TipoAccionAcceso;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+
+/**
+ * Snapshot versionado de la política de acceso de un tenant, para que el {@code device-gateway}
+ * decida intentos sin el core (ver {@link PoliticaBordeService}).
+ *
+ * <p>
+ * Contiene exactamente lo que consume {@code RuleBasedDecisionEngineV2}: estado de los
+ * dispositivos, reglas compiladas por {@code (área, tipoSujeto)} ya en orden de evaluación, zona
+ * horaria efectiva de cada área y la resolución {@code documento → tipoSujeto}.
+ * </p>
+ *
+ * <h2>Credenciales</h2>
+ * <p>
+ * Los documentos no se exportan en claro: cada uno viaja como {@link #huella} (SHA-256 del tenant,
+ * tipo y número normalizado). El gateway calcula la misma huella sobre la referencia recibida. Es
+ * una medida contra la exposición casual del snapshot (memoria, disco del gateway), no contra
+ * fuerza bruta sobre números de documento.
+ * </p>
+ *
+ * @param orgId tenant
+ * @param version hash del contenido (cambia si y solo si cambia la política exportada)
+ * @param generadoEnUtc instante de generación
+ * @param dispositivos dispositivos del tenant, por id
+ * @param areas áreas del tenant, por id
+ * @param tiposDocumento tipos que se prueban, en orden, para una referencia sin tipo
+ *        ({@code "123456"})
+ * @param credenciales documentos conocidos, por huella
+ */
+public record PoliticaBorde(UUID orgId, String version, OffsetDateTime generadoEnUtc,
+        List<DispositivoBorde> dispositivos, List<AreaBorde> areas,
+        List<TipoDocumentoIdentidad> tiposDocumento, List<CredencialBorde> credenciales) {
+
+    /**
+     * Estado de un dispositivo.
+     */
+    public record DispositivoBorde(UUID idDispositivo, UUID idArea, String identificadorExterno,
+            boolean estadoActivo) {
+    }
+
+    /**
+     * Zona y reglas de un área.
+     *
+     * @param idArea área
+     * @param zona zona IANA efectiva (override del área o zona del tenant)
+     * @param reglas reglas activas por tipo de sujeto, en orden de evaluación; un tipo ausente no
+     *        tiene reglas (permitir por defecto)
+     */
+    public record AreaBorde(UUID idArea, String zona,
+            Map<TipoSujetoAcceso, List<ReglaBorde>> reglas) {
+    }
+
+    /**
+     * Regla compilada. Los criterios {@code null} aplican a cualquier valor.
+     *
+     * @param desdeSegundo inicio de la ventana local (segundo del día)
+     * @param hastaSegundo fin de la ventana local; si {@code desde > hasta} cruza medianoche
+     */
+    public record ReglaBorde(UUID idRegla, TipoAccionAcceso accion, String mensaje,
+            UUID idDispositivo, TipoDireccionPaso direccionPaso,
+            TipoMetodoAutenticacion metodoAutenticacion, Long validoDesdeMillis,
+            Long validoHastaMillis, Integer desdeSegundo, Integer hastaSegundo) {
+    }
+
+    /**
+     * Documento conocido y el tipo de sujeto al que resuelve (residente gana sobre visitante).
+     */
+    public record CredencialBorde(String huella, TipoSujetoAcceso tipoSujeto) {
+    }
+
+    /**
+     * Huella de un documento: {@code base64url(sha256(orgId "|" TIPO ":" NUMERO))}, con el número
+     * sin espacios alrededor y en mayúsculas carácter a carácter (mismo criterio que
+     * {@code CredencialSujetoIndex}).
+     *
+     * @param orgId tenant
+     * @param tipo tipo de documento
+     * @param numero número de documento
+     * @return huella
+     */
+    public static String huella(UUID orgId, TipoDocumentoIdentidad tipo, String numero) {
+        String n = numero.trim();
+        StringBuilder sb = new StringBuilder(48 + n.length());
+        sb.append(orgId).append('|').append(tipo.name()).append(':');
+        for (int i = 0; i < n.length(); i++) {
+            sb.append(Character.toUpperCase(n.charAt(i)));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sha256().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.haedcom.access.application.acceso.borde;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.access.application.acceso.borde.PoliticaBorde.AreaBorde;
+import com.haedcom.access.application.acceso.borde.PoliticaBorde.CredencialBorde;
+import com.haedcom.access.application.acceso.borde.PoliticaBorde.DispositivoBorde;
+import com.haedcom.access.application.acceso.borde.PoliticaBorde.ReglaBorde;
+import com.haedcom.access.application.acceso.decision.CompiledReglaIndex;
+import com.haedcom.access.application.acceso.decision.ReglaAccesoIndexProvider;
+import com.haedcom.access.application.acceso.sujeto.CredencialSujetoIndex;
+import com.haedcom.access.application.acceso.sujeto.SujetoAccesoResolver;
+import com.haedcom.access.application.time.TenantZoneProvider;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.model.Area;
+import com.haedcom.access.domain.model.Dispositivo;
+import com.haedcom.access.domain.repo.AreaRepository;
+import com.haedcom.access.domain.repo.DispositivoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Genera la {@link PoliticaBorde} de un tenant para el {@code device-gateway}.
+ *
+ * <p>
+ * El snapshot se arma desde las mismas estructuras en memoria que usa el motor
+ * ({@link ReglaAccesoIndexProvider}, {@link SujetoAccesoResolver}, {@link TenantZoneProvider}),
+ * de modo que el gateway evalúa exactamente las reglas que evaluaría el core. Solo dispositivos y
+ * áreas se leen de la base de datos.
+ * </p>
+ *
+ * <h2>Versionado</h2>
+ * <ul>
+ * <li>{@code version} es un hash del contenido: el gateway la envía como {@code If-None-Match} y
+ * si no cambió recibe {@code 304} sin cuerpo.</li>
+ * <li>Los cambios de política se notifican al gateway por el outbox
+ * ({@code ReglaAccesoPolicyChanged}, {@code DispositivoChanged}, {@code SujetoAccesoChanged}); el
+ * gateway vuelve a pedir el snapshot del tenant, y además lo revalida periódicamente.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_edge_policy_build_seconds}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class PoliticaBordeService {
+
+    private static final Logger LOG = Logger.getLogger(PoliticaBordeService.class);
+
+    private static final int PAGE = 500;
+    private static final TipoSujetoAcceso[] TIPOS = TipoSujetoAcceso.values();
+
+    private final DispositivoRepository dispositivoRepo;
+    private final AreaRepository areaRepo;
+    private final ReglaAccesoIndexProvider indexProvider;
+    private final SujetoAccesoResolver sujetoResolver;
+    private final TenantZoneProvider zoneProvider;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Timer build;
+
+    @Inject
+    public PoliticaBordeService(DispositivoRepository dispositivoRepo, AreaRepository areaRepo,
+            ReglaAccesoIndexProvider indexProvider, SujetoAccesoResolver sujetoResolver,
+            TenantZoneProvider zoneProvider, ObjectMapper objectMapper, Clock clock,
+            MeterRegistry registry) {
+        this.dispositivoRepo =
+                Objects.requireNonNull(dispositivoRepo, "dispositivoRepo es obligatorio");
+        this.areaRepo = Objects.requireNonNull(areaRepo, "areaRepo es obligatorio");
+        this.indexProvider = Objects.requireNonNull(indexProvider, "indexProvider es obligatorio");
+        this.sujetoResolver =
+                Objects.requireNonNull(sujetoResolver, "sujetoResolver es obligatorio");
+        this.zoneProvider = Objects.requireNonNull(zoneProvider, "zoneProvider es obligatorio");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.build = Timer.builder("access_edge_policy_build_seconds").register(registry);
+    }
+
+    /**
+     * Snapshot vigente de la política del tenant.
+     *
+     * @param orgId tenant
+     * @return snapshot (nunca null; sin dispositivos si el tenant no existe)
+     */
+    @Transactional
+    public PoliticaBorde politica(UUID orgId) {
+        Objects.requireNonNull(orgId, "orgId es obligatorio");
+        return build.record(() -> generar(orgId));
+    }
+
+    private PoliticaBorde generar(UUID orgId) {
+        List<DispositivoBorde> dispositivos = new ArrayList<>();
+        for (int page = 0;; page++) {
+            List<Dispositivo> ds = dispositivoRepo.listByOrganizacion(orgId, page, PAGE);
+            for (Dispositivo d : ds) {
+                dispositivos.add(new DispositivoBorde(d.getIdDispositivo(), d.getIdArea(),
+                        d.getIdentificadorExterno(), d.isEstadoActivo()));
+            }
+            if (ds.size() < PAGE) {
+                break;
+            }
+        }
+        dispositivos.sort(Comparator.comparing(DispositivoBorde::idDispositivo));
+
+        List<AreaBorde> areas = new ArrayList<>();
+        for (int page = 0;; page++) {
+            List<Area> as = areaRepo.listByOrganizacion(orgId, page, PAGE);
+            for (Area a : as) {
+                areas.add(area(orgId, a.getIdArea()));
+            }
+            if (as.size() < PAGE) {
+                break;
+            }
+        }
+        areas.sort(Comparator.comparing(AreaBorde::idArea));
+
+        List<CredencialBorde> credenciales = credenciales(orgId);
+        List<TipoDocumentoIdentidad> tipos = List.of(TipoDocumentoIdentidad.values());
+
+        PoliticaBorde contenido =
+                new PoliticaBorde(orgId, null, null, dispositivos, areas, tipos, credenciales);
+        String version = version(contenido);
+        LOG.debugf("edge_policy_built orgId=%s version=%s devices=%d areas=%d credentials=%d",
+                orgId, version, dispositivos.size(), areas.size(), credenciales.size());
+        return new PoliticaBorde(orgId, version, OffsetDateTime.now(clock), dispositivos, areas,
+                tipos, credenciales);
+    }
+
+    private AreaBorde area(UUID orgId, UUID areaId) {
+        Map<TipoSujetoAcceso, List<ReglaBorde>> reglas = new EnumMap<>(TipoSujetoAcceso.class);
+        for (TipoSujetoAcceso t : TIPOS) {
+            CompiledReglaIndex idx = indexProvider.indexFor(orgId, areaId, t);
+            if (idx.isEmpty()) {
+                continue;
+            }
+            List<ReglaBorde> rs = new ArrayList<>(idx.size());
+            for (CompiledReglaIndex.Entry e : idx.entries()) {
+                rs.add(new ReglaBorde(e.idRegla(), e.accion(), e.mensaje(), e.idDispositivo(),
+                        e.direccionPaso(), e.metodoAutenticacion(),
+                        e.validoDesdeMillis() != Long.MIN_VALUE ? e.validoDesdeMillis() : null,
+                        e.validoHastaMillis() != Long.MAX_VALUE ? e.validoHastaMillis() : null,
+                        e.desdeSegundo() >= 0 ? e.desdeSegundo() : null,
+                        e.hastaSegundo() >= 0 ? e.hastaSegundo() : null));
+            }
+            reglas.put(t, rs);
+        }
+        return new AreaBorde(areaId, zoneProvider.zoneFor(orgId, areaId).getId(), reglas);
+    }
+
+    /**
+     * Una huella por documento; si el documento es de un residente y de un visitante, gana el
+     * residente (mismo criterio que {@link CredencialSujetoIndex}).
+     */
+    private List<CredencialBorde> credenciales(UUID orgId) {
+        Map<String, TipoSujetoAcceso> porHuella = new HashMap<>();
+        for (CredencialSujetoIndex.Entry e : sujetoResolver.credenciales(orgId)) {
+            String h = PoliticaBorde.huella(orgId, e.tipoDocumento(), e.numeroDocumento());
+            porHuella.merge(h, e.tipoSujeto(),
+                    (a, b) -> a == TipoSujetoAcceso.RESIDENTE ? a : b);
+        }
+        List<CredencialBorde> out = new ArrayList<>(porHuella.size());
+        porHuella.forEach((h, t) -> out.add(new CredencialBorde(h, t)));
+        out.sort(Comparator.comparing(CredencialBorde::huella));
+        return out;
+    }
+
+    private String version(PoliticaBorde contenido) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(contenido);
+            return HexFormat.of().formatHex(PoliticaBorde.sha256().digest(json), 0, 16);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la política de borde", e);
+        }
+    }
+}
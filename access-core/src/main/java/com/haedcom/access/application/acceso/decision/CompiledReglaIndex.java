@@ -0,0 +1,342 @@
+package com.haedcom.access.application.acceso.decision;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import com.haedcom.access.domain.enums.TipoAccionAcceso;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.model.ReglaAcceso;
+import com.haedcom.access.shared.ventana.VentanasLocalesDia;
+import com.haedcom.access.shared.ventana.VentanasReglas;
+
+/**
+ * Índice inmutable y precompilado de reglas de acceso para una clave
+ * {@code (orgId, areaId, tipoSujeto)}.
+ *
+ * <p>
+ * Reemplaza, en el camino caliente del motor, a
+ * {@code ReglaAccesoRepository.findCandidatesForIntent}: el orden
+ * {@code prioridad DESC, especificidad DESC, actualizadoEnUtc DESC} se calcula una sola vez al
+ * compilar, de modo que el matching recorre un arreglo ya ordenado y retorna la primera regla que
+ * aplica.
+ * </p>
+ *
+ * <h2>Representación compilada</h2>
+ * <ul>
+ * <li>{@code idDispositivo}: se guarda como dos {@code long} (msb/lsb); {@code null} = cualquiera.</li>
+ * <li>{@code direccionPaso}/{@code metodoAutenticacion}: ordinal del enum; {@code -1} =
+ * cualquiera.</li>
+ * <li>Vigencia: epoch millis; sin límite se representa con {@link Long#MIN_VALUE} /
+ * {@link Long#MAX_VALUE}.</li>
+ * <li>Ventana horaria local: segundo del día; {@code -1} = sin ventana. Si
+ * {@code desde > hasta}, la ventana cruza medianoche. Para evaluarla, el índice guarda la tabla
+ * {@link VentanasLocalesDia} del último día local usado ({@link VentanasReglas}): los instantes
+ * UTC en que abre y cierra cada ventana. El gateway usa la misma implementación.</li>
+ * </ul>
+ *
+ * <p>
+ * {@link #match(UUID, TipoDireccionPaso, TipoMetodoAutenticacion, long, ZoneId)} no asigna memoria
+ * salvo al recalcular la tabla de ventanas (una vez por día local): solo compara primitivos y
+ * referencias sobre el arreglo precompilado.
+ * </p>
+ *
+ * <p>
+ * Las reglas son inmutables y el índice es seguro para lectura concurrente; la tabla de ventanas
+ * se reemplaza entera al cambiar de día. Para reflejar cambios de política se compila un índice
+ * nuevo (ver {@link ReglaAccesoIndexProvider}).
+ * </p>
+ */
+public final class CompiledReglaIndex {
+
+    /** Índice vacío (no hay reglas activas para el contexto). */
+    public static final CompiledReglaIndex EMPTY = new CompiledReglaIndex(new Entry[0]);
+
+    private static final int ANY = -1;
+    private static final TipoDireccionPaso[] DIRECCIONES = TipoDireccionPaso.values();
+    private static final TipoMetodoAutenticacion[] METODOS = TipoMetodoAutenticacion.values();
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry e) -> e.prioridad).reversed()
+            .thenComparing(Comparator.comparingInt((Entry e) -> e.especificidad).reversed())
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.actualizadoEnMillis).reversed());
+
+    private final Entry[] entries;
+    private final VentanasReglas ventanas;
+
+    private CompiledReglaIndex(Entry[] entries) {
+        this.entries = entries;
+        int[] desde = new int[entries.length];
+        int[] hasta = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            desde[i] = entries[i].desdeSecond;
+            hasta[i] = entries[i].hastaSecond;
+        }
+        this.ventanas = new VentanasReglas(desde, hasta);
+    }
+
+    /**
+     * Compila un índice a partir de reglas activas base.
+     *
+     * <p>
+     * Se asume que las reglas ya vienen filtradas por {@code (orgId, areaId, tipoSujeto)} y estado
+     * {@code ACTIVA} (ver {@code ReglaAccesoCandidatesProvider#activeRulesBase}). Las reglas sin
+     * acción se descartan.
+     * </p>
+     *
+     * @param reglas reglas activas (puede ser null o vacío)
+     * @return índice compilado (nunca null)
+     */
+    public static CompiledReglaIndex compile(List<ReglaAcceso> reglas) {
+        if (reglas == null || reglas.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Entry> compiled = new ArrayList<>(reglas.size());
+        for (ReglaAcceso r : reglas) {
+            if (r == null || r.getAccion() == null) {
+                continue;
+            }
+            compiled.add(new Entry(r));
+        }
+        if (compiled.isEmpty()) {
+            return EMPTY;
+        }
+
+        compiled.sort(ORDER);
+        return new CompiledReglaIndex(compiled.toArray(new Entry[0]));
+    }
+
+    /**
+     * @return {@code true} si no hay reglas activas para el contexto
+     */
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Indica si alguna regla tiene ventana horaria local. Si no, el motor puede omitir la
+     * resolución de zona horaria.
+     *
+     * @return {@code true} si alguna regla define {@code desdeHoraLocal}/{@code hastaHoraLocal}
+     */
+    public boolean hasLocalWindows() {
+        return ventanas.hayVentanas();
+    }
+
+    /**
+     * @return número de reglas compiladas
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Reglas compiladas en orden de evaluación (la primera que aplica gana).
+     *
+     * <p>
+     * Lo usa la exportación de política al gateway ({@code PoliticaBordeService}), que replica el
+     * mismo recorrido sin recalcular el orden.
+     * </p>
+     *
+     * @return vista inmutable de las reglas
+     */
+    public List<Entry> entries() {
+        return List.of(entries);
+    }
+
+    /**
+     * Retorna la regla ganadora para el intento (la primera que aplica en el orden precompilado).
+     *
+     * @param idDispositivo dispositivo del intento (no null)
+     * @param direccionPaso dirección del intento (no null)
+     * @param metodoAutenticacion método del intento (no null)
+     * @param nowEpochMillis instante de evaluación (epoch millis)
+     * @param zone zona del área; {@code null} si no se pudo resolver (en ese caso las reglas con
+     *        ventana horaria no aplican). Se ignora si {@link #hasLocalWindows()} es {@code false}.
+     * @return regla ganadora o {@code null} si ninguna aplica
+     */
+    public Entry match(UUID idDispositivo, TipoDireccionPaso direccionPaso,
+            TipoMetodoAutenticacion metodoAutenticacion, long nowEpochMillis, ZoneId zone) {
+
+        final long devMsb = idDispositivo.getMostSignificantBits();
+        final long devLsb = idDispositivo.getLeastSignificantBits();
+        final int dir = direccionPaso.ordinal();
+        final int met = metodoAutenticacion.ordinal();
+        final VentanasLocalesDia v = ventanas.para(zone, nowEpochMillis);
+
+        for (int i = 0; i < entries.length; i++) {
+            Entry e = entries[i];
+            if (!e.anyDispositivo
+                    && (e.dispositivoMsb != devMsb || e.dispositivoLsb != devLsb)) {
+                continue;
+            }
+            if (e.direccion != ANY && e.direccion != dir) {
+                continue;
+            }
+            if (e.metodo != ANY && e.metodo != met) {
+                continue;
+            }
+            if (nowEpochMillis < e.validoDesdeMillis || nowEpochMillis > e.validoHastaMillis) {
+                continue;
+            }
+            if (v != null && !v.abierta(i, nowEpochMillis)) {
+                continue;
+            }
+            return e;
+        }
+        return null;
+    }
+
+    /**
+     * Regla compilada.
+     *
+     * <p>
+     * Expone solo lo que el motor necesita para construir la decisión.
+     * </p>
+     */
+    public static final class Entry {
+
+        private final UUID idRegla;
+        private final TipoAccionAcceso accion;
+        private final String mensaje;
+        private final int prioridad;
+        private final int especificidad;
+        private final long actualizadoEnMillis;
+
+        private final boolean anyDispositivo;
+        private final long dispositivoMsb;
+        private final long dispositivoLsb;
+        private final int direccion;
+        private final int metodo;
+        private final long validoDesdeMillis;
+        private final long validoHastaMillis;
+        private final int desdeSecond;
+        private final int hastaSecond;
+
+        private Entry(ReglaAcceso r) {
+            this.idRegla = r.getIdRegla();
+            this.accion = r.getAccion();
+            this.mensaje = r.getMensaje();
+            this.prioridad = r.getPrioridad() != null ? r.getPrioridad() : 0;
+            this.especificidad = especificidad(r);
+            this.actualizadoEnMillis = toMillis(r.getActualizadoEnUtc(), Long.MIN_VALUE);
+
+            UUID dev = r.getIdDispositivo();
+            this.anyDispositivo = dev == null;
+            this.dispositivoMsb = dev != null ? dev.getMostSignificantBits() : 0L;
+            this.dispositivoLsb = dev != null ? dev.getLeastSignificantBits() : 0L;
+            this.direccion = r.getDireccionPaso() != null ? r.getDireccionPaso().ordinal() : ANY;
+            this.metodo = r.getMetodoAutenticacion() != null ? r.getMetodoAutenticacion().ordinal()
+                    : ANY;
+            this.validoDesdeMillis = toMillis(r.getValidoDesdeUtc(), Long.MIN_VALUE);
+            this.validoHastaMillis = toMillis(r.getValidoHastaUtc(), Long.MAX_VALUE);
+            this.desdeSecond = toSecond(r.getDesdeHoraLocal());
+            this.hastaSecond = toSecond(r.getHastaHoraLocal());
+        }
+
+        public UUID idRegla() {
+            return idRegla;
+        }
+
+        public TipoAccionAcceso accion() {
+            return accion;
+        }
+
+        public String mensaje() {
+            return mensaje;
+        }
+
+        public int prioridad() {
+            return prioridad;
+        }
+
+        public int especificidad() {
+            return especificidad;
+        }
+
+        /**
+         * @return dispositivo de la regla o {@code null} si aplica a cualquiera
+         */
+        public UUID idDispositivo() {
+            return anyDispositivo ? null : new UUID(dispositivoMsb, dispositivoLsb);
+        }
+
+        /**
+         * @return dirección de la regla o {@code null} si aplica a cualquiera
+         */
+        public TipoDireccionPaso direccionPaso() {
+            return direccion != ANY ? DIRECCIONES[direccion] : null;
+        }
+
+        /**
+         * @return método de la regla o {@code null} si aplica a cualquiera
+         */
+        public TipoMetodoAutenticacion metodoAutenticacion() {
+            return metodo != ANY ? METODOS[metodo] : null;
+        }
+
+        /**
+         * @return inicio de vigencia en epoch millis ({@link Long#MIN_VALUE} = sin límite)
+         */
+        public long validoDesdeMillis() {
+            return validoDesdeMillis;
+        }
+
+        /**
+         * @return fin de vigencia en epoch millis ({@link Long#MAX_VALUE} = sin límite)
+         */
+        public long validoHastaMillis() {
+            return validoHastaMillis;
+        }
+
+        /**
+         * @return inicio de la ventana local en segundo del día ({@code -1} = sin límite)
+         */
+        public int desdeSegundo() {
+            return desdeSecond;
+        }
+
+        /**
+         * @return fin de la ventana local en segundo del día ({@code -1} = sin límite)
+         */
+        public int hastaSegundo() {
+            return hastaSecond;
+        }
+
+        /**
+         * Misma especificidad que el {@code ORDER BY} de {@code findCandidatesForIntent}: un punto
+         * por cada criterio no nulo.
+         */
+        private static int especificidad(ReglaAcceso r) {
+            int s = 0;
+            if (r.getIdDispositivo() != null)
+                s++;
+            if (r.getDireccionPaso() != null)
+                s++;
+            if (r.getMetodoAutenticacion() != null)
+                s++;
+            if (r.getDesdeHoraLocal() != null)
+                s++;
+            if (r.getHastaHoraLocal() != null)
+                s++;
+            if (r.getValidoDesdeUtc() != null)
+                s++;
+            if (r.getValidoHastaUtc() != null)
+                s++;
+            return s;
+        }
+
+        private static long toMillis(OffsetDateTime t, long fallback) {
+            return t != null ? t.toInstant().toEpochMilli() : fallback;
+        }
+
+        private static int toSecond(LocalTime t) {
+            return t != null ? t.toSecondOfDay() : ANY;
+        }
+    }
+}
@@ -1,28 +1,93 @@
 package com.haedcom.access.application.acceso.decision;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import com.haedcom.access.application.cache.SingleFlightCache;
 import com.haedcom.access.domain.enums.TipoSujetoAcceso;
 import com.haedcom.access.domain.model.ReglaAcceso;
 import com.haedcom.access.domain.repo.ReglaAccesoRepository;
-import io.quarkus.cache.CacheResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 
+/**
+ * Reglas activas base por {@code (orgId, areaId, tipoSujeto)}, cacheadas en {@code regla-candidates}
+ * ({@link SingleFlightCache}).
+ *
+ * <p>
+ * Tras una invalidación, todas las puertas del área hacen miss a la vez: solo una ejecuta
+ * {@code findActiveRulesBase} y el resto espera esa carga. Las keys leídas seguido se refrescan en
+ * segundo plano antes de vencer.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.regla-cache.ttl} (default {@code 30m}): red de seguridad si se pierde
+ * una invalidación.</li>
+ * <li>{@code haedcom.access.regla-cache.refresh-after} (default {@code 25m}; {@code 0} lo
+ * desactiva)</li>
+ * </ul>
+ */
 @ApplicationScoped
 public class ReglaAccesoCandidatesProvider {
 
     private final ReglaAccesoRepository repo;
+    private final SingleFlightCache<Clave, List<ReglaAcceso>> cache;
 
-    public ReglaAccesoCandidatesProvider(ReglaAccesoRepository repo) {
+    @Inject
+    public ReglaAccesoCandidatesProvider(ReglaAccesoRepository repo, Clock clock,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.regla-cache.ttl",
+                    defaultValue = "30m") Duration ttl,
+            @ConfigProperty(name = "haedcom.access.regla-cache.refresh-after",
+                    defaultValue = "25m") Duration refreshAfter) {
         this.repo = repo;
+        this.cache = new SingleFlightCache<>("regla-candidates", this::cargar, ttl, refreshAfter,
+                r -> Thread.ofVirtual().name("regla-cache-refresh").start(r), clock, registry);
     }
 
     /**
      * Cachea reglas activas base por (orgId, areaId, tipoSujeto). OJO: aquí NO entra nowUtc, ni
      * device/direction/method.
      */
-    @CacheResult(cacheName = "regla-candidates")
     public List<ReglaAcceso> activeRulesBase(UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto) {
-        return repo.findActiveRulesBase(orgId, areaId, tipoSujeto);
+        return cache.get(new Clave(orgId, areaId, tipoSujeto));
+    }
+
+    /**
+     * Descarta una entrada {@code (orgId, areaId, tipoSujeto)}.
+     */
+    public void invalidate(UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto) {
+        cache.invalidate(new Clave(orgId, areaId, tipoSujeto));
+    }
+
+    /**
+     * Descarta las entradas de un tenant.
+     *
+     * @return entradas descartadas
+     */
+    public int invalidateOrg(UUID orgId) {
+        return cache.invalidateIf(k -> k.orgId().equals(orgId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Carga desde la base de datos, siempre en una transacción propia: la carga se comparte con
+     * los llamadores que esperan la misma key, así que no puede ver el estado sin commit de la
+     * transacción del primero ni marcarla para rollback si falla.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    List<ReglaAcceso> cargar(Clave k) {
+        return repo.findActiveRulesBase(k.orgId(), k.areaId(), k.tipoSujeto());
+    }
+
+    record Clave(UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto) {
     }
 }
@@ -0,0 +1,141 @@
+package com.haedcom.access.application.acceso.decision;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.application.cache.SingleFlightCache;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Mantiene en memoria los {@link CompiledReglaIndex} por {@code (orgId, areaId, tipoSujeto)}.
+ *
+ * <p>
+ * El índice se compila de forma perezosa a partir de
+ * {@link ReglaAccesoCandidatesProvider#activeRulesBase(UUID, UUID, TipoSujetoAcceso)} y se
+ * descarta cuando cambia la política del área ({@code ReglaAccesoPolicyChanged}), vía
+ * {@link ReglaCandidatesCacheInvalidator}. Una vez compilado, decidir un intento no toca la base
+ * de datos.
+ * </p>
+ *
+ * <h2>Estructura</h2>
+ * <ul>
+ * <li>Cache {@code regla-index} ({@link SingleFlightCache}) de
+ * {@code (orgId, areaId) → CompiledReglaIndex[tipoSujeto.ordinal()]}: se compila el área completa
+ * (todos los {@link TipoSujetoAcceso}) de una vez.</li>
+ * <li>La compilación (que puede ir a la base de datos a través de los candidatos) corre fuera de
+ * cualquier lock del mapa: el primer llamador compila y los concurrentes del mismo área esperan
+ * su future. Una invalidación que se cruza con la compilación hace que su resultado no se
+ * publique, así que un índice obsoleto no sobrevive a la invalidación.</li>
+ * <li>Las entradas vencen con el mismo {@code haedcom.access.regla-cache.ttl} que los candidatos,
+ * sin refresco anticipado: al vencer, el índice se recompila desde los candidatos, que para
+ * entonces ya se refrescaron ({@code refresh-after} &lt; {@code ttl}). Así, si se pierde una
+ * invalidación, el índice no queda más desactualizado que los candidatos.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ReglaAccesoIndexProvider {
+
+    private static final Logger LOG = Logger.getLogger(ReglaAccesoIndexProvider.class);
+
+    private static final TipoSujetoAcceso[] TIPOS = TipoSujetoAcceso.values();
+
+    private final ReglaAccesoCandidatesProvider candidatesProvider;
+    private final SingleFlightCache<Clave, CompiledReglaIndex[]> cache;
+
+    /**
+     * Constructor del provider.
+     *
+     * @param candidatesProvider fuente de reglas activas base (cacheada)
+     * @param clock reloj
+     * @param registry registro de métricas
+     * @param ttl vigencia de un índice compilado (la de los candidatos)
+     */
+    @Inject
+    public ReglaAccesoIndexProvider(ReglaAccesoCandidatesProvider candidatesProvider, Clock clock,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.regla-cache.ttl",
+                    defaultValue = "30m") Duration ttl) {
+        this.candidatesProvider =
+                Objects.requireNonNull(candidatesProvider, "candidatesProvider es obligatorio");
+        // sin refresco anticipado: el ejecutor no se usa
+        this.cache = new SingleFlightCache<>("regla-index", this::compileArea, ttl, Duration.ZERO,
+                Runnable::run, clock, registry);
+    }
+
+    /**
+     * Retorna el índice compilado para el contexto, compilándolo si no existe o venció.
+     *
+     * @param orgId tenant (obligatorio)
+     * @param areaId área (obligatorio)
+     * @param tipoSujeto tipo de sujeto (obligatorio)
+     * @return índice compilado (nunca null)
+     */
+    public CompiledReglaIndex indexFor(UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto) {
+        return cache.get(new Clave(orgId, areaId))[tipoSujeto.ordinal()];
+    }
+
+    /**
+     * Descarta el índice de un área (todos los tipos de sujeto). La siguiente evaluación lo
+     * recompila.
+     *
+     * @param orgId tenant
+     * @param areaId área
+     */
+    public void evict(UUID orgId, UUID areaId) {
+        if (orgId == null || areaId == null) {
+            return;
+        }
+        cache.invalidate(new Clave(orgId, areaId));
+        LOG.debugf("regla_index_evicted orgId=%s areaId=%s", orgId, areaId);
+    }
+
+    /**
+     * Descarta los índices de un tenant (todas sus áreas). Los demás tenants no se ven afectados.
+     *
+     * <p>
+     * Una compilación en curso del tenant no publica su resultado: el siguiente {@link #indexFor}
+     * compila de nuevo.
+     * </p>
+     *
+     * @param orgId tenant
+     */
+    public void evictOrg(UUID orgId) {
+        if (orgId == null) {
+            return;
+        }
+        int n = cache.invalidateIf(k -> k.orgId().equals(orgId));
+        LOG.debugf("regla_index_evicted_org orgId=%s areas=%d", orgId, n);
+    }
+
+    /**
+     * Descarta todos los índices del nodo local.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+        LOG.info("regla_index_evicted_all");
+    }
+
+    private CompiledReglaIndex[] compileArea(Clave k) {
+        UUID orgId = k.orgId();
+        UUID areaId = k.areaId();
+        CompiledReglaIndex[] perTipo = new CompiledReglaIndex[TIPOS.length];
+        int total = 0;
+        for (TipoSujetoAcceso t : TIPOS) {
+            CompiledReglaIndex idx =
+                    CompiledReglaIndex.compile(candidatesProvider.activeRulesBase(orgId, areaId, t));
+            perTipo[t.ordinal()] = idx;
+            total += idx.size();
+        }
+        LOG.debugf("regla_index_compiled orgId=%s areaId=%s rules=%d", orgId, areaId, total);
+        return perTipo;
+    }
+
+    record Clave(UUID orgId, UUID areaId) {
+    }
+}
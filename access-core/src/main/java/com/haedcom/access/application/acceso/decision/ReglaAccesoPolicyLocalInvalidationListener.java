@@ -0,0 +1,47 @@
+package com.haedcom.access.application.acceso.decision;
+
+import java.util.Objects;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.ReglaAccesoPolicyChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Invalida en el nodo local el cache {@code regla-candidates} y el índice compilado de reglas
+ * cuando cambia la política de un área.
+ *
+ * <p>
+ * El resto de nodos se entera vía Kafka ({@code ReglaAccesoCacheInvalidationKafkaConsumer}); este
+ * listener evita que el nodo que hizo el cambio siga decidiendo con el índice anterior mientras el
+ * evento recorre el outbox.
+ * </p>
+ *
+ * <p>
+ * Usa {@link TransactionPhase#AFTER_SUCCESS}: solo se invalida si el cambio hizo commit.
+ * </p>
+ */
+@ApplicationScoped
+public class ReglaAccesoPolicyLocalInvalidationListener {
+
+    private final ReglaCandidatesCacheInvalidator invalidator;
+
+    public ReglaAccesoPolicyLocalInvalidationListener(ReglaCandidatesCacheInvalidator invalidator) {
+        this.invalidator = Objects.requireNonNull(invalidator, "invalidator es obligatorio");
+    }
+
+    /**
+     * Invalida todas las entradas {@code (orgId, areaId, *)} del área afectada.
+     *
+     * @param ev evento observado (no null)
+     */
+    public void onPolicyChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) ReglaAccesoPolicyChanged ev) {
+        if (ev.orgId() == null || ev.areaId() == null) {
+            return;
+        }
+        for (TipoSujetoAcceso t : TipoSujetoAcceso.values()) {
+            invalidator.invalidate(ev.orgId(), ev.areaId(), t);
+        }
+    }
+}
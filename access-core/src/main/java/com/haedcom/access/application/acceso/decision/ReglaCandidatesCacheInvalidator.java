@@ -1,10 +1,11 @@
 package com.haedcom.access.application.acceso.decision;
 
+import java.util.Objects;
 import java.util.UUID;
 import org.jboss.logging.Logger;
 import com.haedcom.access.domain.enums.TipoSujetoAcceso;
-import io.quarkus.cache.CacheInvalidate;
-import io.quarkus.cache.CacheInvalidateAll;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 
 /**
@@ -12,62 +13,104 @@ import jakarta.enterprise.context.ApplicationScoped;
  *
  * <p>
  * Este componente encapsula TODA la lógica de invalidación del cache de reglas candidatas, evitando
- * que los consumers o servicios conozcan detalles de {@link io.quarkus.cache.Cache}.
- * </p>
- *
- * <h2>Contrato de la key</h2>
- * <p>
- * El cache {@code regla-candidates} debe estar definido con un método anotado con
- * {@code @CacheResult} cuya firma sea exactamente:
- * </p>
- *
- * <pre>
- * (UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto)
- * </pre>
- *
- * <p>
- * Cualquier cambio en ese orden o tipos rompe la invalidación.
+ * que los consumers o servicios conozcan el cache de {@link ReglaAccesoCandidatesProvider}.
  * </p>
  *
  * <h2>Uso típico</h2>
  * <ul>
  * <li>Eventos {@code ReglaAccesoPolicyChanged} →
  * {@link #invalidate(UUID, UUID, TipoSujetoAcceso)}</li>
- * <li>Eventos {@code ReglaAccesoPolicyInvalidateAllRequested} → {@link #invalidateAll()}</li>
+ * <li>Eventos {@code ReglaAccesoPolicyInvalidateAllRequested} → {@link #invalidateOrg(UUID)}:
+ * solo las entradas del tenant; el resto de tenants conserva su cache.</li>
+ * <li>Operaciones administrativas sin tenant → {@link #invalidateAll()}</li>
  * </ul>
  *
  * <p>
+ * Además del cache, descarta el {@link CompiledReglaIndex} del área en
+ * {@link ReglaAccesoIndexProvider}. El índice se descarta después que la entrada de cache, por lo
+ * que la recompilación siguiente lee reglas frescas.
+ * </p>
+ *
+ * <p>
  * Idempotente: invalidar una entrada inexistente no produce error.
  * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_regla_cache_invalidations_total{scope=key|org|all}}</li>
+ * </ul>
  */
 @ApplicationScoped
 public class ReglaCandidatesCacheInvalidator {
 
     private static final Logger LOG = Logger.getLogger(ReglaCandidatesCacheInvalidator.class);
 
+    private final ReglaAccesoCandidatesProvider candidatesProvider;
+    private final ReglaAccesoIndexProvider indexProvider;
+
+    private final Counter byKey;
+    private final Counter byOrg;
+    private final Counter all;
+
     /**
-     * Invalida una entrada específica del cache {@code regla-candidates}.
+     * Constructor del invalidator.
      *
-     * <p>
-     * La invalidación se realiza por la anotación {@link CacheInvalidate}; el cuerpo del método es
-     * intencionalmente un NO-OP.
-     * </p>
+     * @param candidatesProvider dueño del cache {@code regla-candidates}
+     * @param indexProvider índices compilados de reglas (se descartan junto con el cache)
+     * @param registry registro de métricas
+     */
+    public ReglaCandidatesCacheInvalidator(ReglaAccesoCandidatesProvider candidatesProvider,
+            ReglaAccesoIndexProvider indexProvider, MeterRegistry registry) {
+        this.candidatesProvider =
+                Objects.requireNonNull(candidatesProvider, "candidatesProvider es obligatorio");
+        this.indexProvider = Objects.requireNonNull(indexProvider, "indexProvider es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+
+        this.byKey = invalidations(registry, "key");
+        this.byOrg = invalidations(registry, "org");
+        this.all = invalidations(registry, "all");
+    }
+
+    /**
+     * Invalida una entrada específica del cache {@code regla-candidates}.
      *
      * @param orgId tenant (obligatorio)
      * @param areaId área (obligatorio)
      * @param tipoSujeto tipo de sujeto (obligatorio)
      */
-    @CacheInvalidate(cacheName = "regla-candidates")
     public void invalidate(UUID orgId, UUID areaId, TipoSujetoAcceso tipoSujeto) {
         LOG.debugf("Invalidating regla-candidates orgId=%s areaId=%s tipoSujeto=%s", orgId, areaId,
                 tipoSujeto);
+        candidatesProvider.invalidate(orgId, areaId, tipoSujeto);
+        indexProvider.evict(orgId, areaId);
+        byKey.increment();
+    }
+
+    /**
+     * Invalida todas las entradas de un tenant: cache {@code regla-candidates} e índices
+     * compilados.
+     *
+     * <p>
+     * Recorre las keys del cache local (sin tocar la base de datos) y descarta solo las de
+     * {@code orgId}; las entradas del resto de tenants siguen vigentes. Se usa para cambios masivos
+     * de política de un tenant ({@code ReglaAccesoPolicyInvalidateAllRequested}).
+     * </p>
+     *
+     * @param orgId tenant (obligatorio)
+     */
+    public void invalidateOrg(UUID orgId) {
+        Objects.requireNonNull(orgId, "orgId es obligatorio");
+        int entradas = candidatesProvider.invalidateOrg(orgId);
+        indexProvider.evictOrg(orgId);
+        byOrg.increment();
+        LOG.infof("Invalidating regla-candidates orgId=%s entries=%d", orgId, entradas);
     }
 
     /**
      * Invalida TODO el cache {@code regla-candidates} del nodo local.
      *
      * <p>
-     * Con Caffeine (cache local), esta operación se ejecuta en cada nodo del cluster gracias a
+     * Con un cache local, esta operación se ejecuta en cada nodo del cluster gracias a
      * Kafka + Outbox, logrando una invalidación distribuida efectiva.
      * </p>
      *
@@ -80,8 +123,15 @@ public class ReglaCandidatesCacheInvalidator {
      * <li>operaciones administrativas explícitas</li>
      * </ul>
      */
-    @CacheInvalidateAll(cacheName = "regla-candidates")
     public void invalidateAll() {
         LOG.warn("Invalidating ALL regla-candidates cache entries");
+        candidatesProvider.invalidateAll();
+        indexProvider.evictAll();
+        all.increment();
+    }
+
+    private static Counter invalidations(MeterRegistry registry, String scope) {
+        return Counter.builder("access_regla_cache_invalidations_total").tag("scope", scope)
+                .register(registry);
     }
 }
@@ -2,12 +2,16 @@ package com.haedcom.access.application.acceso.decision;
 
 import java.time.Clock;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.Objects;
+import org.jboss.logging.Logger;
 import com.haedcom.access.application.acceso.decision.model.DecisionContext;
 import com.haedcom.access.application.acceso.decision.model.DecisionOutput;
+import com.haedcom.access.application.time.TenantZoneProvider;
 import com.haedcom.access.domain.enums.TipoComandoDispositivo;
 import com.haedcom.access.domain.enums.TipoSujetoAcceso;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 /**
@@ -23,8 +27,21 @@ import jakarta.inject.Named;
  * <li>Si falta info crítica -> ERROR (POLICY_ERROR)</li>
  * <li>Si el dispositivo está inactivo -> DENEGAR (DEVICE_INACTIVE)</li>
  * <li>Si el sujeto es DESCONOCIDO -> DENEGAR (SUBJECT_UNKNOWN)</li>
- * <li>Si el sujeto está resuelto -> PERMITIR (ALLOW)</li>
+ * <li>Si el área no tiene reglas activas para el tipo de sujeto -> PERMITIR (ALLOW)</li>
+ * <li>Si hay reglas pero ninguna aplica -> DENEGAR (NO_MATCHING_RULE)</li>
+ * <li>Si una regla aplica -> según su {@code accion} (RULE_MATCH_*)</li>
  * </ul>
+ *
+ * <h2>Reglas de acceso</h2>
+ * <p>
+ * Las reglas se evalúan sobre un {@link CompiledReglaIndex} en memoria por
+ * {@code (orgId, areaId, tipoSujeto)} obtenido de {@link ReglaAccesoIndexProvider}: el orden por
+ * prioridad/especificidad ya viene precalculado y el matching no consulta la base de datos ni
+ * asigna memoria. La ventana horaria local se evalúa en la zona de {@link TenantZoneProvider} solo
+ * si alguna regla del índice la define: el índice precalcula, por zona y día local, los instantes UTC
+ * en que abre y cierra cada ventana (ver {@code VentanasLocalesDia}), así que el intento no se
+ * convierte a hora local.
+ * </p>
  */
 @Named("decision-engine-v2")
 @ApplicationScoped
@@ -38,23 +55,54 @@ public class RuleBasedDecisionEngineV2 implements DecisionEngine {
     public static final String MOTIVO_POLICY_ERROR = "POLICY_ERROR";
     /** Motivo por defecto para permisos en reglas base. */
     public static final String MOTIVO_ALLOW_DEFAULT = "ALLOW";
+    /** Motivo cuando el área tiene reglas activas pero ninguna aplica al intento. */
+    public static final String MOTIVO_NO_MATCHING_RULE = "NO_MATCHING_RULE";
+    /** Motivo cuando la regla ganadora permite el acceso. */
+    public static final String MOTIVO_RULE_ALLOW = "RULE_MATCH_ALLOW";
+    /** Motivo cuando la regla ganadora deniega el acceso. */
+    public static final String MOTIVO_RULE_DENY = "RULE_MATCH_DENY";
+    /** Motivo cuando la regla ganadora exige autenticación adicional. */
+    public static final String MOTIVO_RULE_REQUIRE_AUTH = "RULE_MATCH_REQUIRE_AUTH";
+    /** Motivo cuando la regla ganadora exige espera de control. */
+    public static final String MOTIVO_RULE_WAIT_CONTROL = "RULE_MATCH_WAIT_CONTROL";
+
+    private static final Logger LOG = Logger.getLogger(RuleBasedDecisionEngineV2.class);
 
     private final Clock clock;
+    private final ReglaAccesoIndexProvider indexProvider;
+    private final TenantZoneProvider zoneProvider;
 
     /**
-     * Constructor por defecto usando UTC.
+     * Constructor por defecto usando UTC y sin reglas (solo reglas base).
      */
     public RuleBasedDecisionEngineV2() {
         this(Clock.systemUTC());
     }
 
     /**
-     * Constructor con {@link Clock} inyectable para testabilidad.
+     * Constructor con {@link Clock} inyectable para testabilidad (solo reglas base).
      *
      * @param clock reloj (no null)
      */
     public RuleBasedDecisionEngineV2(Clock clock) {
         this.clock = Objects.requireNonNull(clock, "clock es obligatorio");
+        this.indexProvider = null;
+        this.zoneProvider = null;
+    }
+
+    /**
+     * Constructor CDI: evalúa reglas de acceso sobre índices compilados.
+     *
+     * @param indexProvider índices compilados de reglas (no null)
+     * @param zoneProvider resolución de zona horaria del área (no null)
+     * @param clock reloj (si es null se usa UTC)
+     */
+    @Inject
+    public RuleBasedDecisionEngineV2(ReglaAccesoIndexProvider indexProvider,
+            TenantZoneProvider zoneProvider, Clock clock) {
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        this.indexProvider = Objects.requireNonNull(indexProvider, "indexProvider es obligatorio");
+        this.zoneProvider = Objects.requireNonNull(zoneProvider, "zoneProvider es obligatorio");
     }
 
     @Override
@@ -89,8 +137,64 @@ public class RuleBasedDecisionEngineV2 implements DecisionEngine {
                     TipoComandoDispositivo.NEGAR_CON_SEÑAL, "Acceso denegado");
         }
 
-        // 3) Permitir por defecto cuando el sujeto ya está resuelto
+        // 3) Sin reglas configuradas para el contexto: permitir por defecto
+        if (indexProvider == null) {
+            return allowDefault(now);
+        }
+        CompiledReglaIndex index =
+                indexProvider.indexFor(ctx.orgId(), ctx.idArea(), ctx.tipoSujeto());
+        if (index.isEmpty()) {
+            return allowDefault(now);
+        }
+
+        // 4) Regla ganadora (orden precompilado: prioridad, especificidad, actualización)
+        ZoneId zone = index.hasLocalWindows() ? zoneFor(ctx) : null;
+        CompiledReglaIndex.Entry regla = index.match(ctx.device().idDispositivo(),
+                ctx.direccionPaso(), ctx.metodoAutenticacion(), now.toInstant().toEpochMilli(),
+                zone);
+
+        if (regla == null) {
+            return DecisionOutput.deny(now, MOTIVO_NO_MATCHING_RULE,
+                    "Ninguna regla aplica al intento", TipoComandoDispositivo.NEGAR_CON_SEÑAL,
+                    "Acceso denegado");
+        }
+        return fromRegla(now, regla);
+    }
+
+    private static DecisionOutput allowDefault(OffsetDateTime now) {
         return DecisionOutput.allow(now, MOTIVO_ALLOW_DEFAULT, null,
                 TipoComandoDispositivo.ABRIR_PUERTA, null);
     }
+
+    private static DecisionOutput fromRegla(OffsetDateTime now, CompiledReglaIndex.Entry regla) {
+        String detalle = "Regla " + regla.idRegla();
+        String msg = regla.mensaje();
+
+        return switch (regla.accion()) {
+            case PERMITIR -> DecisionOutput.allow(now, MOTIVO_RULE_ALLOW, detalle,
+                    TipoComandoDispositivo.ABRIR_PUERTA, msg);
+            case DENEGAR -> DecisionOutput.deny(now, MOTIVO_RULE_DENY, detalle,
+                    TipoComandoDispositivo.NEGAR_CON_SEÑAL, msg != null ? msg : "Acceso denegado");
+            case REQUIERE_AUTENTICACION -> DecisionOutput.pending(now, MOTIVO_RULE_REQUIRE_AUTH,
+                    detalle, TipoComandoDispositivo.MOSTRAR_MENSAJE,
+                    msg != null ? msg : "Se requiere autenticación adicional", null);
+            case CONTROL_REQUIERE_ESPERA -> DecisionOutput.pending(now, MOTIVO_RULE_WAIT_CONTROL,
+                    detalle, TipoComandoDispositivo.MOSTRAR_MENSAJE,
+                    msg != null ? msg : "Espere autorización", null);
+        };
+    }
+
+    /**
+     * Zona del área. Si no se puede resolver, retorna {@code null} y las reglas con ventana
+     * horaria no aplican.
+     */
+    private ZoneId zoneFor(DecisionContext ctx) {
+        try {
+            return zoneProvider.zoneFor(ctx.orgId(), ctx.idArea());
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "decision_zone_resolution_failed orgId=%s areaId=%s", ctx.orgId(),
+                    ctx.idArea());
+            return null;
+        }
+    }
 }
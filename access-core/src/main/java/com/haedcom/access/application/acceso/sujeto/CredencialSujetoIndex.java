@@ -0,0 +1,445 @@
+package com.haedcom.access.application.acceso.sujeto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+
+/**
+ * Índice en memoria {@code documento → sujeto} para un tenant.
+ *
+ * <p>
+ * Tabla hash de direccionamiento abierto (linear probing) indexada por un hash {@code long} de
+ * {@code (tipoDocumento, numeroDocumento)}. Está pensada para el camino caliente de
+ * {@code AccesoService}: la búsqueda calcula el hash directamente sobre los caracteres de la
+ * referencia recibida (sin {@code trim()}, {@code toUpperCase()} ni concatenaciones) y no asigna
+ * memoria.
+ * </p>
+ *
+ * <h2>Formato de referencia</h2>
+ * <ul>
+ * <li>{@code "CC:123456"}: documento calificado por tipo (búsqueda exacta).</li>
+ * <li>{@code "123456"}: solo número; se prueba cada {@link TipoDocumentoIdentidad}. Si el número
+ * existe con más de un tipo de documento se considera ambiguo y no se resuelve.</li>
+ * </ul>
+ * Se ignoran espacios alrededor y mayúsculas/minúsculas.
+ *
+ * <h2>Duplicados</h2>
+ * <p>
+ * Un mismo documento puede existir como residente y como visitante preautorizado. Ambos se
+ * guardan; en la búsqueda gana {@link TipoSujetoAcceso#RESIDENTE}.
+ * </p>
+ *
+ * <h2>Vigencia</h2>
+ * <p>
+ * Una entrada puede llevar ventanas de validez ({@link Entry#vigente(long)}); el índice no las
+ * evalúa: la búsqueda devuelve la entrada y el llamador decide con su reloj.
+ * </p>
+ *
+ * <h2>Concurrencia</h2>
+ * <p>
+ * Lecturas con lectura optimista de {@link StampedLock} (sin bloqueo en el caso común); escrituras
+ * (carga y actualizaciones incrementales) con lock exclusivo. El borrado usa backward-shift, sin
+ * tombstones.
+ * </p>
+ */
+public final class CredencialSujetoIndex {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final TipoDocumentoIdentidad[] TIPOS_DOC = TipoDocumentoIdentidad.values();
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] hashes;
+    private Entry[] entries;
+    private int size;
+
+    /** idSujeto → entry (solo se usa en escrituras para actualizar/eliminar). */
+    private final Map<UUID, Entry> bySujeto = new HashMap<>();
+
+    public CredencialSujetoIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize número esperado de sujetos (dimensiona la tabla inicial)
+     */
+    public CredencialSujetoIndex(int expectedSize) {
+        int cap = tableSizeFor(Math.max(MIN_CAPACITY, expectedSize * 2));
+        this.hashes = new long[cap];
+        this.entries = new Entry[cap];
+    }
+
+    /**
+     * Resuelve el sujeto para una referencia de credencial.
+     *
+     * @param referencia referencia recibida del dispositivo/gateway (puede ser null)
+     * @return entrada del sujeto o {@code null} si no existe o es ambigua
+     */
+    public Entry resolve(CharSequence referencia) {
+        if (referencia == null) {
+            return null;
+        }
+        int start = 0;
+        int end = referencia.length();
+        while (start < end && Character.isWhitespace(referencia.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(referencia.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        Entry found = stamp != 0L ? lookup(referencia, start, end) : null;
+        if (stamp == 0L || !lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = lookup(referencia, start, end);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Inserta o reemplaza el documento de un sujeto.
+     *
+     * <p>
+     * Si el sujeto ya estaba indexado con otro documento, la entrada anterior se elimina.
+     * </p>
+     */
+    public void put(TipoSujetoAcceso tipoSujeto, UUID idSujeto, TipoDocumentoIdentidad tipoDocumento,
+            String numeroDocumento) {
+        put(tipoSujeto, idSujeto, tipoDocumento, numeroDocumento, null);
+    }
+
+    /**
+     * Inserta o reemplaza el documento de un sujeto con ventanas de validez.
+     *
+     * @param ventanas pares {@code [desde, hasta)} en epoch millis; {@code null} = siempre vigente
+     */
+    public void put(TipoSujetoAcceso tipoSujeto, UUID idSujeto,
+            TipoDocumentoIdentidad tipoDocumento, String numeroDocumento, long[] ventanas) {
+        String numero = normalizeNumero(numeroDocumento);
+        if (tipoSujeto == null || idSujeto == null || tipoDocumento == null || numero == null) {
+            return;
+        }
+        Entry e = new Entry(tipoSujeto, idSujeto, tipoDocumento, numero,
+                (ventanas != null) ? ventanas.clone() : null);
+
+        long stamp = lock.writeLock();
+        try {
+            Entry previous = bySujeto.put(idSujeto, e);
+            if (previous != null) {
+                removeSlot(previous);
+            }
+            if ((size + 1) * 2 > entries.length) {
+                resize(entries.length * 2);
+            }
+            insertSlot(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Elimina un sujeto del índice (idempotente).
+     *
+     * @param idSujeto id del residente/visitante
+     */
+    public void remove(UUID idSujeto) {
+        if (idSujeto == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            Entry previous = bySujeto.remove(idSujeto);
+            if (previous != null) {
+                removeSlot(previous);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copia de los sujetos indexados (para exportar la política al gateway; no es camino caliente).
+     *
+     * @return sujetos indexados, sin orden definido
+     */
+    public List<Entry> entries() {
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(bySujeto.values());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return número de sujetos indexados
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // -------------------------
+    // Lookup (sin asignaciones)
+    // -------------------------
+
+    private Entry lookup(CharSequence ref, int start, int end) {
+        final long[] hs = this.hashes;
+        final Entry[] es = this.entries;
+
+        int colon = -1;
+        for (int i = start; i < end; i++) {
+            if (ref.charAt(i) == ':') {
+                colon = i;
+                break;
+            }
+        }
+
+        if (colon > start) {
+            TipoDocumentoIdentidad tipo = parseTipo(ref, start, colon);
+            int numStart = colon + 1;
+            while (numStart < end && Character.isWhitespace(ref.charAt(numStart))) {
+                numStart++;
+            }
+            if (tipo == null || numStart == end) {
+                return null;
+            }
+            return probe(hs, es, tipo, ref, numStart, end);
+        }
+
+        Entry best = null;
+        for (TipoDocumentoIdentidad tipo : TIPOS_DOC) {
+            Entry e = probe(hs, es, tipo, ref, start, end);
+            if (e != null) {
+                if (best != null) {
+                    return null; // ambiguo: mismo número con distintos tipos de documento
+                }
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    private static Entry probe(long[] hs, Entry[] es, TipoDocumentoIdentidad tipo, CharSequence ref,
+            int start, int end) {
+        if (hs.length != es.length) {
+            return null; // lectura optimista durante un resize: se revalida con read lock
+        }
+        final int mask = es.length - 1;
+        final long h = hash(tipo, ref, start, end);
+        Entry best = null;
+
+        int idx = spread(h) & mask;
+        for (int n = 0; n < es.length; n++) {
+            Entry e = es[idx];
+            if (e == null) {
+                break;
+            }
+            if (hs[idx] == h && e.tipoDocumento == tipo && e.matches(ref, start, end)) {
+                if (e.tipoSujeto == TipoSujetoAcceso.RESIDENTE) {
+                    return e;
+                }
+                if (best == null) {
+                    best = e;
+                }
+            }
+            idx = (idx + 1) & mask;
+        }
+        return best;
+    }
+
+    // -------------------------
+    // Escritura (bajo write lock)
+    // -------------------------
+
+    private void insertSlot(Entry e) {
+        final int mask = entries.length - 1;
+        int idx = spread(e.hash) & mask;
+        while (entries[idx] != null) {
+            idx = (idx + 1) & mask;
+        }
+        entries[idx] = e;
+        hashes[idx] = e.hash;
+        size++;
+    }
+
+    private void removeSlot(Entry e) {
+        final int mask = entries.length - 1;
+        int idx = spread(e.hash) & mask;
+        while (entries[idx] != null && entries[idx] != e) {
+            idx = (idx + 1) & mask;
+        }
+        if (entries[idx] == null) {
+            return;
+        }
+
+        // backward-shift deletion
+        int hole = idx;
+        int next = (hole + 1) & mask;
+        while (entries[next] != null) {
+            int home = spread(hashes[next]) & mask;
+            boolean movable = (next > hole) ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                entries[hole] = entries[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        entries[hole] = null;
+        hashes[hole] = 0L;
+        size--;
+    }
+
+    private void resize(int newCapacity) {
+        Entry[] old = entries;
+        entries = new Entry[newCapacity];
+        hashes = new long[newCapacity];
+        size = 0;
+        for (Entry e : old) {
+            if (e != null) {
+                insertSlot(e);
+            }
+        }
+    }
+
+    // -------------------------
+    // Hash / normalización
+    // -------------------------
+
+    private static long hash(TipoDocumentoIdentidad tipo, CharSequence numero, int start, int end) {
+        long h = FNV_OFFSET ^ tipo.ordinal();
+        h *= FNV_PRIME;
+        for (int i = start; i < end; i++) {
+            h ^= Character.toUpperCase(numero.charAt(i));
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static int spread(long h) {
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static TipoDocumentoIdentidad parseTipo(CharSequence ref, int start, int end) {
+        int e = end;
+        while (e > start && Character.isWhitespace(ref.charAt(e - 1))) {
+            e--;
+        }
+        for (TipoDocumentoIdentidad t : TIPOS_DOC) {
+            String name = t.name();
+            if (name.length() != e - start) {
+                continue;
+            }
+            boolean eq = true;
+            for (int i = 0; i < name.length() && eq; i++) {
+                eq = Character.toUpperCase(ref.charAt(start + i)) == name.charAt(i);
+            }
+            if (eq) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private static String normalizeNumero(String numero) {
+        if (numero == null) {
+            return null;
+        }
+        String v = numero.trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static int tableSizeFor(int n) {
+        int cap = Integer.highestOneBit(n - 1) << 1;
+        return Math.max(MIN_CAPACITY, cap);
+    }
+
+    /**
+     * Sujeto indexado. Inmutable; se retorna tal cual desde {@link #resolve(CharSequence)}.
+     */
+    public static final class Entry {
+
+        private final TipoSujetoAcceso tipoSujeto;
+        private final UUID idSujeto;
+        private final TipoDocumentoIdentidad tipoDocumento;
+        private final String numeroDocumento;
+        private final long[] ventanas;
+        private final long hash;
+
+        private Entry(TipoSujetoAcceso tipoSujeto, UUID idSujeto,
+                TipoDocumentoIdentidad tipoDocumento, String numeroDocumento, long[] ventanas) {
+            this.tipoSujeto = tipoSujeto;
+            this.idSujeto = idSujeto;
+            this.tipoDocumento = tipoDocumento;
+            this.numeroDocumento = numeroDocumento;
+            this.ventanas = ventanas;
+            this.hash = hash(tipoDocumento, numeroDocumento, 0, numeroDocumento.length());
+        }
+
+        private boolean matches(CharSequence ref, int start, int end) {
+            if (numeroDocumento.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < numeroDocumento.length(); i++) {
+                if (Character.toUpperCase(numeroDocumento.charAt(i)) != Character
+                        .toUpperCase(ref.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public TipoSujetoAcceso tipoSujeto() {
+            return tipoSujeto;
+        }
+
+        public UUID idSujeto() {
+            return idSujeto;
+        }
+
+        public TipoDocumentoIdentidad tipoDocumento() {
+            return tipoDocumento;
+        }
+
+        public String numeroDocumento() {
+            return numeroDocumento;
+        }
+
+        /**
+         * @param ahoraMillis instante de referencia (epoch millis)
+         * @return {@code true} si el sujeto no tiene ventanas o alguna contiene {@code ahoraMillis}
+         */
+        public boolean vigente(long ahoraMillis) {
+            if (ventanas == null) {
+                return true;
+            }
+            for (int i = 0; i + 1 < ventanas.length; i += 2) {
+                if (ventanas[i] <= ahoraMillis && ahoraMillis < ventanas[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
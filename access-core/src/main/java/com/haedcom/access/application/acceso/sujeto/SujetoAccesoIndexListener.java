@@ -0,0 +1,63 @@
+package com.haedcom.access.application.acceso.sujeto;
+
+import java.util.Objects;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.events.SujetoAccesoChanged;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Mantiene el índice de credenciales de {@link SujetoAccesoResolver} en el nodo local.
+ *
+ * <ul>
+ * <li>Al arranque: carga completa (dos consultas de proyección). Si falla, el resolver reintenta de
+ * forma perezosa.</li>
+ * <li>{@link SujetoAccesoChanged} con {@link TransactionPhase#AFTER_SUCCESS}: recarga el sujeto
+ * afectado solo si el cambio hizo commit. Si la carga inicial aún no terminó, el resolver
+ * difiere el cambio y lo aplica al publicarla.</li>
+ * </ul>
+ *
+ * <p>
+ * El resto de nodos recibe el mismo evento vía Kafka ({@code SujetoAccesoIndexKafkaConsumer}).
+ * </p>
+ */
+@ApplicationScoped
+public class SujetoAccesoIndexListener {
+
+    private static final Logger LOG = Logger.getLogger(SujetoAccesoIndexListener.class);
+
+    private final SujetoAccesoResolver resolver;
+
+    public SujetoAccesoIndexListener(SujetoAccesoResolver resolver) {
+        this.resolver = Objects.requireNonNull(resolver, "resolver es obligatorio");
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        try {
+            resolver.loadAll();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "subject_index_startup_load_failed");
+        }
+    }
+
+    /**
+     * Aplica la actualización incremental del sujeto afectado.
+     *
+     * @param ev evento observado (no null)
+     */
+    public void onSujetoChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) SujetoAccesoChanged ev) {
+        if (ev.changeType() == SujetoAccesoChanged.ChangeType.DELETED) {
+            resolver.remove(ev.orgId(), ev.idSujeto());
+            return;
+        }
+        try {
+            resolver.refresh(ev.orgId(), ev.tipoSujeto(), ev.idSujeto());
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "subject_index_refresh_failed orgId=%s tipo=%s id=%s", ev.orgId(),
+                    ev.tipoSujeto(), ev.idSujeto());
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.haedcom.access.application.acceso.sujeto;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.enums.EstadoResidente;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.model.Residente;
+import com.haedcom.access.domain.repo.ResidenteRepository;
+import com.haedcom.access.domain.repo.SujetoCredencialView;
+import com.haedcom.access.domain.repo.VisitanteCredencialView;
+import com.haedcom.access.domain.repo.VisitantePreautorizadoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Resuelve el sujeto de acceso (residente o visitante preautorizado) a partir de la
+ * {@code referenciaCredencial} reportada por el dispositivo.
+ *
+ * <p>
+ * Mantiene un {@link CredencialSujetoIndex} por (tenant, método de autenticación), cargado una vez
+ * al arranque (ver {@link SujetoAccesoIndexListener}) y actualizado de forma incremental con
+ * {@code SujetoAccesoChanged}. La resolución por intento es una búsqueda en memoria: no hay JOIN
+ * ni consulta por swipe.
+ * </p>
+ *
+ * <h2>Credencial</h2>
+ * <p>
+ * El modelo actual no tiene una tabla de credenciales: la referencia se interpreta como el
+ * documento de identidad del sujeto ({@code "CC:123"} o {@code "123"}). Los métodos listados en
+ * {@code haedcom.access.subject.document-methods} comparten el índice de documentos del tenant;
+ * para el resto (por defecto {@code PIN}, que no es un documento) no hay índice y el sujeto queda
+ * como {@code DESCONOCIDO}. Solo se indexan residentes {@link EstadoResidente#ACTIVO}.
+ * </p>
+ *
+ * <h2>Vigencia de visitantes</h2>
+ * <p>
+ * Un visitante con {@code AutorizacionVisita} solo se resuelve dentro de alguna de sus ventanas
+ * {@code [valido_desde_utc, valido_hasta_utc)}, evaluadas en cada resolución; si todas vencieron
+ * no se indexa. Un visitante sin autorizaciones no tiene restricción de vigencia.
+ * </p>
+ *
+ * <h2>Carga</h2>
+ * <p>
+ * La carga completa construye un índice nuevo y lo publica de una vez, bajo un
+ * {@link ReentrantLock} (no un monitor: la consulta no fija el carrier de un hilo virtual). Las
+ * actualizaciones incrementales que llegan antes de publicar el índice se difieren (la última por
+ * sujeto) y se aplican después, para que una carga lenta no pise un cambio más reciente.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_subject_resolution_total{metodo, result}} con {@code result} en
+ * {@code residente|visitante|unknown}. Los counters se pre-registran por (método, resultado) para no
+ * asignar memoria por intento.</li>
+ * <li>{@code access_subject_index_size}: sujetos indexados (todos los tenants).</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class SujetoAccesoResolver {
+
+    private static final Logger LOG = Logger.getLogger(SujetoAccesoResolver.class);
+
+    private static final int R_RESIDENTE = 0;
+    private static final int R_VISITANTE = 1;
+    private static final int R_UNKNOWN = 2;
+    private static final String[] RESULT_TAGS = {"residente", "visitante", "unknown"};
+    private static final long LAZY_LOAD_RETRY_NANOS = 30_000_000_000L;
+
+    private final ResidenteRepository residenteRepo;
+    private final VisitantePreautorizadoRepository visitanteRepo;
+    private final Clock clock;
+    private final boolean[] porDocumento;
+    private final Counter[][] resolutionCounters;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    /** Cambios recibidos antes de publicar la carga inicial (el último por sujeto). */
+    private final ConcurrentHashMap<UUID, Cambio> pendientes = new ConcurrentHashMap<>();
+
+    private volatile ConcurrentHashMap<UUID, IndicesTenant> byOrg = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private long lastLazyLoadAttemptNanos;
+    private boolean lazyLoadAttempted;
+
+    /**
+     * Constructor del resolver.
+     *
+     * @param residenteRepo repositorio de residentes
+     * @param visitanteRepo repositorio de visitantes preautorizados
+     * @param clock reloj para la vigencia de visitantes
+     * @param registry registry de métricas
+     * @param metodosDocumento métodos cuya referencia es el documento de identidad
+     */
+    @Inject
+    public SujetoAccesoResolver(ResidenteRepository residenteRepo,
+            VisitantePreautorizadoRepository visitanteRepo, Clock clock, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.subject.document-methods",
+                    defaultValue = "ROSTRO,HUELLA,TARJETA,QR,MANUAL")
+            List<TipoMetodoAutenticacion> metodosDocumento) {
+        this.residenteRepo = Objects.requireNonNull(residenteRepo, "residenteRepo es obligatorio");
+        this.visitanteRepo = Objects.requireNonNull(visitanteRepo, "visitanteRepo es obligatorio");
+        this.clock = Objects.requireNonNull(clock, "clock es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        Objects.requireNonNull(metodosDocumento, "metodosDocumento es obligatorio");
+
+        TipoMetodoAutenticacion[] metodos = TipoMetodoAutenticacion.values();
+        this.porDocumento = new boolean[metodos.length];
+        for (TipoMetodoAutenticacion m : metodosDocumento) {
+            porDocumento[m.ordinal()] = true;
+        }
+        this.resolutionCounters = new Counter[metodos.length][RESULT_TAGS.length];
+        for (TipoMetodoAutenticacion m : metodos) {
+            for (int r = 0; r < RESULT_TAGS.length; r++) {
+                resolutionCounters[m.ordinal()][r] = Counter
+                        .builder("access_subject_resolution_total").tag("metodo", m.name())
+                        .tag("result", RESULT_TAGS[r]).register(registry);
+            }
+        }
+        registry.gauge("access_subject_index_size", this, SujetoAccesoResolver::indexedCount);
+    }
+
+    /**
+     * Resuelve el sujeto para un intento.
+     *
+     * <p>
+     * Si la carga inicial no se completó (p.ej. DB no disponible al arranque), se reintenta aquí
+     * como máximo cada 30 segundos; en régimen normal este método no accede a la base de datos.
+     * </p>
+     *
+     * @param orgId tenant
+     * @param metodo método de autenticación reportado (elige el índice)
+     * @param referenciaCredencial referencia reportada por el dispositivo (puede ser null)
+     * @return sujeto resuelto o {@code null} si no se reconoce o no está vigente
+     */
+    public CredencialSujetoIndex.Entry resolve(UUID orgId, TipoMetodoAutenticacion metodo,
+            String referenciaCredencial) {
+        if (!loaded) {
+            ensureLoaded();
+        }
+        if (metodo == null) {
+            return null;
+        }
+
+        IndicesTenant t = (orgId != null) ? byOrg.get(orgId) : null;
+        CredencialSujetoIndex idx = (t != null) ? t.porMetodo[metodo.ordinal()] : null;
+        CredencialSujetoIndex.Entry e = (idx != null) ? idx.resolve(referenciaCredencial) : null;
+        if (e != null && !e.vigente(clock.millis())) {
+            e = null;
+        }
+
+        int r = (e == null) ? R_UNKNOWN
+                : (e.tipoSujeto() == TipoSujetoAcceso.RESIDENTE ? R_RESIDENTE : R_VISITANTE);
+        resolutionCounters[metodo.ordinal()][r].increment();
+        return e;
+    }
+
+    /**
+     * Tipo de sujeto para un intento ({@code DESCONOCIDO} si no se resuelve).
+     */
+    public TipoSujetoAcceso resolveTipo(UUID orgId, TipoMetodoAutenticacion metodo,
+            String referenciaCredencial) {
+        CredencialSujetoIndex.Entry e = resolve(orgId, metodo, referenciaCredencial);
+        return (e != null) ? e.tipoSujeto() : TipoSujetoAcceso.DESCONOCIDO;
+    }
+
+    /**
+     * Carga inicial del índice (dos consultas de proyección, todos los tenants).
+     *
+     * <p>
+     * Si el índice ya está cargado no hace nada. Al terminar aplica los cambios diferidos.
+     * </p>
+     */
+    public void loadAll() {
+        loadLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            cargar();
+        } finally {
+            loadLock.unlock();
+        }
+        drenarPendientes();
+    }
+
+    /**
+     * Recarga un sujeto puntual desde la base de datos (actualización incremental).
+     *
+     * <p>
+     * Si el sujeto ya no existe (o el residente está inactivo, o el visitante venció), se elimina
+     * del índice. Antes de la carga inicial el cambio se difiere.
+     * </p>
+     *
+     * @param orgId tenant
+     * @param tipoSujeto {@code RESIDENTE} o {@code VISITANTE}
+     * @param idSujeto id del sujeto
+     */
+    public void refresh(UUID orgId, TipoSujetoAcceso tipoSujeto, UUID idSujeto) {
+        if (orgId == null || tipoSujeto == null || idSujeto == null) {
+            return;
+        }
+        Cambio c = new Cambio(orgId, tipoSujeto, idSujeto);
+        if (!diferir(c)) {
+            recargar(c);
+        }
+    }
+
+    /**
+     * Elimina un sujeto del índice sin consultar la base de datos.
+     */
+    public void remove(UUID orgId, UUID idSujeto) {
+        if (orgId == null || idSujeto == null) {
+            return;
+        }
+        Cambio c = new Cambio(orgId, null, idSujeto);
+        if (!diferir(c)) {
+            quitar(c);
+        }
+    }
+
+    /**
+     * Sujetos vigentes de un tenant (exportación de política al gateway).
+     *
+     * @param orgId tenant
+     * @return sujetos del tenant vigentes ahora (vacío si no hay)
+     */
+    public List<CredencialSujetoIndex.Entry> credenciales(UUID orgId) {
+        if (!loaded) {
+            ensureLoaded();
+        }
+        IndicesTenant t = (orgId != null) ? byOrg.get(orgId) : null;
+        if (t == null) {
+            return List.of();
+        }
+        long ahora = clock.millis();
+        List<CredencialSujetoIndex.Entry> out = new ArrayList<>();
+        for (CredencialSujetoIndex.Entry e : t.documentos.entries()) {
+            if (e.vigente(ahora)) {
+                out.add(e);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return {@code true} si la carga inicial terminó
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Construye el índice completo y lo publica. Se invoca bajo {@link #loadLock}.
+     */
+    @Transactional
+    void cargar() {
+        long t0 = System.nanoTime();
+        ConcurrentHashMap<UUID, IndicesTenant> snapshot = new ConcurrentHashMap<>();
+
+        List<SujetoCredencialView> residentes = residenteRepo.listCredencialesActivas();
+        for (SujetoCredencialView v : residentes) {
+            tenant(snapshot, v.orgId()).documentos.put(TipoSujetoAcceso.RESIDENTE, v.idSujeto(),
+                    v.tipoDocumento(), v.numeroDocumento());
+        }
+
+        List<VisitanteCredencialView> filas =
+                visitanteRepo.listCredenciales(OffsetDateTime.now(clock));
+        int visitantes = 0;
+        for (int i = 0; i < filas.size();) {
+            UUID id = filas.get(i).idSujeto();
+            int fin = i + 1;
+            while (fin < filas.size() && filas.get(fin).idSujeto().equals(id)) {
+                fin++;
+            }
+            if (indexarVisitante(tenant(snapshot, filas.get(i).orgId()).documentos,
+                    filas.subList(i, fin))) {
+                visitantes++;
+            }
+            i = fin;
+        }
+
+        byOrg = snapshot;
+        loaded = true;
+        LOG.infof("subject_index_loaded residentes=%d visitantes=%d orgs=%d elapsedMs=%d",
+                residentes.size(), visitantes, snapshot.size(),
+                (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    void recargar(Cambio c) {
+        CredencialSujetoIndex idx = tenant(byOrg, c.orgId()).documentos;
+
+        switch (c.tipoSujeto()) {
+            case RESIDENTE -> {
+                Residente r = residenteRepo.findByIdAndOrganizacion(c.idSujeto(), c.orgId())
+                        .orElse(null);
+                if (r != null && r.getEstado() == EstadoResidente.ACTIVO) {
+                    idx.put(TipoSujetoAcceso.RESIDENTE, c.idSujeto(), r.getTipoDocumento(),
+                            r.getNumeroDocumento());
+                } else {
+                    idx.remove(c.idSujeto());
+                }
+            }
+            case VISITANTE -> indexarVisitante(idx, visitanteRepo.listCredenciales(c.orgId(),
+                    c.idSujeto(), OffsetDateTime.now(clock)));
+            default -> {
+                return;
+            }
+        }
+        LOG.debugf("subject_index_refreshed orgId=%s tipo=%s id=%s", c.orgId(), c.tipoSujeto(),
+                c.idSujeto());
+    }
+
+    private void quitar(Cambio c) {
+        IndicesTenant t = byOrg.get(c.orgId());
+        if (t != null) {
+            t.documentos.remove(c.idSujeto());
+        }
+    }
+
+    /**
+     * Indexa un visitante con sus ventanas no vencidas, o lo elimina si no existe o venció.
+     *
+     * @param filas filas del visitante (ver {@link VisitanteCredencialView})
+     * @return {@code true} si quedó indexado
+     */
+    private static boolean indexarVisitante(CredencialSujetoIndex idx,
+            List<VisitanteCredencialView> filas) {
+        if (filas.isEmpty()) {
+            return false;
+        }
+        VisitanteCredencialView v = filas.get(0);
+        long[] ventanas = null;
+        if (Boolean.TRUE.equals(v.restringido())) {
+            ventanas = new long[filas.size() * 2];
+            int n = 0;
+            for (VisitanteCredencialView f : filas) {
+                if (f.validoDesde() != null && f.validoHasta() != null) {
+                    ventanas[n++] = f.validoDesde().toInstant().toEpochMilli();
+                    ventanas[n++] = f.validoHasta().toInstant().toEpochMilli();
+                }
+            }
+            if (n == 0) {
+                idx.remove(v.idSujeto());
+                return false;
+            }
+        }
+        idx.put(TipoSujetoAcceso.VISITANTE, v.idSujeto(), v.tipoDocumento(), v.numeroDocumento(),
+                ventanas);
+        return true;
+    }
+
+    /**
+     * Difiere un cambio si la carga inicial no se publicó.
+     *
+     * <p>
+     * Si la carga se publica entre la verificación y el encolado, el propio llamador drena la cola:
+     * ningún cambio queda sin aplicar.
+     * </p>
+     *
+     * @return {@code true} si el cambio quedó en cola (o ya se aplicó al drenarla)
+     */
+    private boolean diferir(Cambio c) {
+        if (loaded) {
+            return false;
+        }
+        pendientes.put(c.idSujeto(), c);
+        if (loaded) {
+            drenarPendientes();
+        }
+        return true;
+    }
+
+    private void drenarPendientes() {
+        for (UUID id : pendientes.keySet()) {
+            Cambio c = pendientes.remove(id);
+            if (c == null) {
+                continue;
+            }
+            try {
+                if (c.tipoSujeto() == null) {
+                    quitar(c);
+                } else {
+                    recargar(c);
+                }
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "subject_index_refresh_failed orgId=%s tipo=%s id=%s", c.orgId(),
+                        c.tipoSujeto(), c.idSujeto());
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        loadLock.lock();
+        try {
+            long now = System.nanoTime();
+            if (loaded || (lazyLoadAttempted
+                    && now - lastLazyLoadAttemptNanos < LAZY_LOAD_RETRY_NANOS)) {
+                return;
+            }
+            lazyLoadAttempted = true;
+            lastLazyLoadAttemptNanos = now;
+            cargar();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "subject_index_lazy_load_failed");
+        } finally {
+            loadLock.unlock();
+        }
+        if (loaded) {
+            drenarPendientes();
+        }
+    }
+
+    private IndicesTenant tenant(ConcurrentHashMap<UUID, IndicesTenant> indices, UUID orgId) {
+        return indices.computeIfAbsent(orgId, k -> new IndicesTenant(porDocumento));
+    }
+
+    private double indexedCount() {
+        long total = 0;
+        for (IndicesTenant t : byOrg.values()) {
+            total += t.documentos.size();
+        }
+        return total;
+    }
+
+    /**
+     * Índices de un tenant por método de autenticación. Hoy la única credencial es el documento:
+     * los métodos que lo usan apuntan al mismo índice y el resto queda en {@code null}.
+     */
+    private static final class IndicesTenant {
+
+        private final CredencialSujetoIndex documentos = new CredencialSujetoIndex();
+        private final CredencialSujetoIndex[] porMetodo;
+
+        private IndicesTenant(boolean[] porDocumento) {
+            this.porMetodo = new CredencialSujetoIndex[porDocumento.length];
+            for (int m = 0; m < porDocumento.length; m++) {
+                porMetodo[m] = porDocumento[m] ? documentos : null;
+            }
+        }
+    }
+
+    /**
+     * Cambio incremental de un sujeto; {@code tipoSujeto == null} es una baja.
+     */
+    record Cambio(UUID orgId, TipoSujetoAcceso tipoSujeto, UUID idSujeto) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.haedcom.access.application.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Buffer acotado de auditoría in-process.
+ *
+ * <p>
+ * {@link AuditEventListener} encola los eventos observados (después del commit del caso de uso) y
+ * retorna de inmediato; un drenador periódico los escribe en lotes con
+ * {@link AuditIngestService#ingestBatch(List)} (un {@code INSERT} multi-fila con
+ * {@code ON CONFLICT DO NOTHING} por lote). Así la latencia del request no incluye las
+ * transacciones de auditoría y la latencia de auditoría no crece con la del request.
+ * </p>
+ *
+ * <h2>Capacidad y backpressure</h2>
+ * <ul>
+ * <li>Ring buffer de capacidad fija ({@link ArrayBlockingQueue}).</li>
+ * <li>Si está lleno, el productor espera hasta {@code offer-timeout-ms} (backpressure) y, si sigue
+ * lleno, el evento se descarta y se cuenta. La auditoría es nivel B: nunca rompe el flujo de
+ * acceso.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.audit.buffer.capacity} (default {@code 8192})</li>
+ * <li>{@code haedcom.audit.buffer.batch-size} (default {@code 250})</li>
+ * <li>{@code haedcom.audit.buffer.offer-timeout-ms} (default {@code 5})</li>
+ * <li>{@code haedcom.audit.buffer.flush-every} (default {@code 200ms})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code audit_buffer_queue_depth}</li>
+ * <li>{@code audit_buffer_backpressure_total}: productores que tuvieron que esperar.</li>
+ * <li>{@code audit_buffer_dropped_total}: eventos descartados por buffer lleno.</li>
+ * <li>{@code audit_buffer_written_total} / {@code audit_buffer_deduped_total}: filas insertadas /
+ * eventos no insertados (duplicados u omitidos).</li>
+ * <li>{@code audit_buffer_write_failed_total}: eventos de lotes que fallaron.</li>
+ * <li>{@code audit_buffer_flush_seconds}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class AuditBuffer {
+
+    private static final Logger LOG = Logger.getLogger(AuditBuffer.class);
+
+    /** Límite de filas por INSERT (10 parámetros por fila, PostgreSQL admite 32767). */
+    private static final int MAX_ROWS_PER_INSERT = 3000;
+
+    private final AuditIngestService ingest;
+    private final ArrayBlockingQueue<Object> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+
+    private final Counter backpressure;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter deduped;
+    private final Counter writeFailed;
+    private final Timer flushTimer;
+
+    @Inject
+    public AuditBuffer(AuditIngestService ingest, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.audit.buffer.capacity",
+                    defaultValue = "8192") int capacity,
+            @ConfigProperty(name = "haedcom.audit.buffer.batch-size",
+                    defaultValue = "250") int batchSize,
+            @ConfigProperty(name = "haedcom.audit.buffer.offer-timeout-ms",
+                    defaultValue = "5") long offerTimeoutMs) {
+        this.ingest = Objects.requireNonNull(ingest, "ingest es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity y batch-size deben ser > 0");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.min(batchSize, MAX_ROWS_PER_INSERT);
+        this.offerTimeoutMs = Math.max(0L, offerTimeoutMs);
+
+        this.backpressure = Counter.builder("audit_buffer_backpressure_total").register(registry);
+        this.dropped = Counter.builder("audit_buffer_dropped_total").register(registry);
+        this.written = Counter.builder("audit_buffer_written_total").register(registry);
+        this.deduped = Counter.builder("audit_buffer_deduped_total").register(registry);
+        this.writeFailed = Counter.builder("audit_buffer_write_failed_total").register(registry);
+        this.flushTimer = Timer.builder("audit_buffer_flush_seconds").register(registry);
+        registry.gauge("audit_buffer_queue_depth", queue, ArrayBlockingQueue::size);
+    }
+
+    /**
+     * Encola un evento para auditoría asíncrona.
+     *
+     * @param ev evento de dominio
+     * @return {@code false} si el evento se descartó por buffer lleno
+     */
+    public boolean offer(Object ev) {
+        if (ev == null) {
+            return true;
+        }
+        if (queue.offer(ev)) {
+            return true;
+        }
+        if (offerTimeoutMs > 0) {
+            backpressure.increment();
+            try {
+                if (queue.offer(ev, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dropped.increment();
+        LOG.warnf("audit_buffer_dropped eventType=%s depth=%d", ev.getClass().getSimpleName(),
+                queue.size());
+        return false;
+    }
+
+    /**
+     * Drena el buffer en lotes de {@code batch-size} hasta vaciarlo.
+     */
+    @Scheduled(every = "{haedcom.audit.buffer.flush-every:200ms}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void drain() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Object> batch) {
+        long t0 = System.nanoTime();
+        try {
+            int inserted = ingest.ingestBatch(batch);
+            written.increment(inserted);
+            deduped.increment(Math.max(0, batch.size() - inserted));
+        } catch (Exception e) {
+            writeFailed.increment(batch.size());
+            LOG.errorf(e, "audit_buffer_write_failed batch=%d", batch.size());
+        } finally {
+            flushTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Vacía lo pendiente al apagar la aplicación.
+     */
+    @PreDestroy
+    void shutdown() {
+        drain();
+    }
+}
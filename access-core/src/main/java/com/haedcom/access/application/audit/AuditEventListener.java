@@ -10,15 +10,14 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 
 /**
  * Listener de auditoría funcional (Nivel B) para eventos de dominio.
  *
  * <p>
- * Este listener escucha eventos emitidos por la capa de aplicación/dominio y persiste un registro
- * {@link com.haedcom.access.domain.model.AuditLog} por cada evento, usando
- * {@link AuditIngestService}.
+ * Este listener escucha eventos emitidos por la capa de aplicación/dominio y encola un registro
+ * {@link com.haedcom.access.domain.model.AuditLog} por cada evento en {@link AuditBuffer}, que los
+ * escribe en lote mediante {@link AuditIngestService#ingestBatch(java.util.List)}.
  * </p>
  *
  * <h2>Política transaccional</h2>
@@ -26,22 +25,22 @@ import jakarta.transaction.Transactional;
  * <li>{@link TransactionPhase#AFTER_SUCCESS}: solo se audita si la transacción que originó el
  * evento <b>commit</b> fue exitosa. Esto evita auditorías de cambios que finalmente se hicieron
  * rollback.</li>
- * <li>{@code REQUIRES_NEW}: la persistencia de auditoría se realiza en una transacción
- * independiente para aislarla del flujo principal y reducir acoplamiento. Si la auditoría falla, el
- * evento original ya se consolidó.</li>
+ * <li>La escritura ocurre fuera del hilo del request, en una transacción independiente por lote.
+ * Si la auditoría falla (o el buffer está lleno), el evento original ya se consolidó.</li>
  * </ul>
  *
  * <h2>Idempotencia</h2>
  * <p>
- * La deduplicación se aplica en {@link AuditIngestService} mediante {@code eventKey} y constraint
- * único por tenant, evitando inserciones duplicadas en reintentos o replays.
+ * La deduplicación la resuelve el {@code INSERT ... ON CONFLICT (id_organizacion, event_key) DO
+ * NOTHING} sobre la constraint única por tenant, evitando inserciones duplicadas en reintentos o
+ * replays.
  * </p>
  */
 @ApplicationScoped
 public class AuditEventListener {
 
     @Inject
-    AuditIngestService auditIngestService;
+    AuditBuffer auditBuffer;
 
     /**
      * Audita el evento {@link ComandoDispositivoEjecutado}.
@@ -53,10 +52,9 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onComandoEjecutado(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) ComandoDispositivoEjecutado ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 
     /**
@@ -69,10 +67,9 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onIntento(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) IntentoAccesoRegistrado ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 
     /**
@@ -85,10 +82,9 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onDecision(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) DecisionAccesoTomada ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 
     /**
@@ -101,10 +97,9 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onComando(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) ComandoDispositivoEmitido ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 
     /**
@@ -118,10 +113,9 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onPolicyChanged(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) ReglaAccesoPolicyChanged ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 
     /**
@@ -140,9 +134,8 @@ public class AuditEventListener {
      *
      * @param ev evento observado (no null)
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void onReglaRejected(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) ReglaAccesoChangeRejected ev) {
-        auditIngestService.ingest(ev);
+        auditBuffer.offer(ev);
     }
 }
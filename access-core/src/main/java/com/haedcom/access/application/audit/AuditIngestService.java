@@ -1,7 +1,9 @@
 package com.haedcom.access.application.audit;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -34,10 +36,102 @@ public class AuditIngestService {
         this.objectMapper = Objects.requireNonNull(objectMapper);
     }
 
+    /**
+     * Audita un evento de forma síncrona (una fila, transacción propia).
+     *
+     * <p>
+     * Lo usan los caminos que necesitan saber si la auditoría quedó escrita (consumer Kafka, DLQ,
+     * endpoint de callback). Los eventos in-process del flujo de acceso pasan por
+     * {@link AuditBuffer} y se escriben en lote con {@link #ingestBatch(List)}.
+     * </p>
+     *
+     * @param ev evento de dominio
+     */
     @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void ingest(Object ev) {
         Objects.requireNonNull(ev, "evento es obligatorio");
 
+        AuditLog log;
+        try {
+            log = toAuditLog(ev);
+        } catch (Exception e) {
+            LOG.errorf(e, "audit_ingest_failed eventType=%s", ev.getClass().getSimpleName());
+            return;
+        }
+        if (log == null) {
+            return;
+        }
+
+        UUID orgId = log.getIdOrganizacion();
+        String aggregateId = log.getAggregateId();
+        String eventKey = log.getEventKey();
+
+        // Dedupe rápido
+        if (auditRepo.existsByEventKey(orgId, eventKey)) {
+            LOG.debugf("audit_deduped orgId=%s aggregateId=%s eventKey=%s", orgId, aggregateId,
+                    eventKey);
+            return;
+        }
+
+        try {
+            auditRepo.persist(log);
+            auditRepo.flush();
+
+        } catch (Exception e) {
+            if (isLikelyUniqueEventKeyViolation(e)) {
+                LOG.debugf("audit_deduped_race orgId=%s aggregateId=%s eventKey=%s", orgId,
+                        aggregateId, eventKey);
+                return;
+            }
+            LOG.errorf(e, "audit_ingest_failed orgId=%s aggregateId=%s eventKey=%s", orgId,
+                    aggregateId, eventKey);
+        }
+    }
+
+    /**
+     * Audita un lote de eventos con un único {@code INSERT} multi-fila
+     * ({@code ON CONFLICT (id_organizacion, event_key) DO NOTHING}).
+     *
+     * <p>
+     * No hay {@code SELECT} previo de deduplicación: los duplicados (replays, reintentos) los
+     * descarta la constraint única. Los eventos no reconocidos o que no se pueden mapear se omiten
+     * (con log) sin afectar al resto del lote.
+     * </p>
+     *
+     * @param events eventos de dominio
+     * @return filas efectivamente insertadas (excluye duplicados)
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public int ingestBatch(List<?> events) {
+        Objects.requireNonNull(events, "events es obligatorio");
+
+        List<AuditLog> rows = new ArrayList<>(events.size());
+        for (Object ev : events) {
+            if (ev == null) {
+                continue;
+            }
+            try {
+                AuditLog log = toAuditLog(ev);
+                if (log != null) {
+                    rows.add(log);
+                }
+            } catch (Exception e) {
+                LOG.errorf(e, "audit_ingest_failed eventType=%s", ev.getClass().getSimpleName());
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return auditRepo.insertIgnoringDuplicates(rows);
+    }
+
+    /**
+     * Traduce un evento de dominio a su registro de auditoría.
+     *
+     * @param ev evento de dominio
+     * @return registro listo para insertar o {@code null} si el evento no se audita
+     */
+    AuditLog toAuditLog(Object ev) {
         OffsetDateTime when = OffsetDateTime.now(java.time.ZoneOffset.UTC);
         String eventType = ev.getClass().getSimpleName();
         String aggregateType = null;
@@ -45,7 +139,6 @@ public class AuditIngestService {
         String correlationId = null;
         String payloadJson = null;
         UUID orgId = null;
-
         if (ev instanceof ComandoDispositivoEjecutado e) {
             orgId = e.orgId();
             aggregateType = "ComandoDispositivo";
@@ -98,38 +191,18 @@ public class AuditIngestService {
         // Si no reconocimos el evento, evita NPE y no escribas basura
         if (orgId == null) {
             LOG.debugf("audit_skip_unrecognized eventType=%s", eventType);
-            return;
+            return null;
         }
 
         // ✅ Recomendación práctica: eventKey estable por ID/eventId cuando exista
         String eventKey = eventKeyFor(ev, orgId, eventType, aggregateId, when);
 
-        // Dedupe rápido
-        if (auditRepo.existsByEventKey(orgId, eventKey)) {
-            LOG.debugf("audit_deduped orgId=%s aggregateId=%s eventKey=%s", orgId, aggregateId,
-                    eventKey);
-            return;
-        }
-
-        try {
-            AuditLog log = AuditLog.crear(orgId, eventType, aggregateType, aggregateId,
-                    correlationId, when, payloadJson);
-
-            // Fuerza usar la key robusta
-            log.setEventKey(eventKey);
+        AuditLog log = AuditLog.crear(orgId, eventType, aggregateType, aggregateId,
+                correlationId, when, payloadJson);
 
-            auditRepo.persist(log);
-            auditRepo.flush();
-
-        } catch (Exception e) {
-            if (isLikelyUniqueEventKeyViolation(e)) {
-                LOG.debugf("audit_deduped_race orgId=%s aggregateId=%s eventKey=%s", orgId,
-                        aggregateId, eventKey);
-                return;
-            }
-            LOG.errorf(e, "audit_ingest_failed orgId=%s aggregateId=%s eventKey=%s", orgId,
-                    aggregateId, eventKey);
-        }
+        // Fuerza usar la key robusta
+        log.setEventKey(eventKey);
+        return log;
     }
 
     /**
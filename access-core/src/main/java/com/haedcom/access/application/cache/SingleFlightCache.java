@@ -0,0 +1,277 @@
+package com.haedcom.access.application.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cache local con carga única por key (single-flight) y refresco anticipado.
+ *
+ * <h2>Carga única</h2>
+ * <ul>
+ * <li>Cada entrada guarda un {@link CompletableFuture}. En un miss, el primer llamador instala la
+ * entrada y carga en su propio hilo (dentro de su transacción); los concurrentes para la misma key
+ * esperan ese mismo future en vez de ir a la base de datos. La espera no toma locks, así que no
+ * fija virtual threads a su carrier.</li>
+ * <li>Si la carga falla, la entrada se descarta y el error llega a todos los que esperaban; el
+ * siguiente llamador reintenta.</li>
+ * </ul>
+ *
+ * <h2>Refresco anticipado</h2>
+ * <ul>
+ * <li>Una entrada vence a los {@code ttl} de cargada. Si se lee después de {@code refreshAfter}
+ * (y antes de vencer), se recarga en segundo plano con {@code refresher} y se sigue sirviendo el
+ * valor anterior mientras tanto: las keys leídas seguido no vencen nunca y no generan misses.</li>
+ * <li>Hay un solo refresco en curso por entrada. Si falla, el siguiente acceso lo reintenta.</li>
+ * </ul>
+ *
+ * <h2>Invalidación</h2>
+ * <p>
+ * {@link #invalidate}, {@link #invalidateIf} e {@link #invalidateAll} quitan las entradas del
+ * mapa. Una carga o refresco que se cruza con una invalidación no publica su resultado: solo
+ * reemplaza la entrada si sigue siendo la misma instancia.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_cache_requests_total{cache,result=hit|miss|coalesced}}: {@code coalesced}
+ * son lecturas que esperaron una carga en curso.</li>
+ * <li>{@code access_cache_coalesced_wait_seconds{cache}}</li>
+ * <li>{@code access_cache_refresh_total{cache,result=ok|failed}}</li>
+ * <li>{@code access_cache_size{cache}}</li>
+ * </ul>
+ *
+ * @param <K> key (con {@code equals}/{@code hashCode})
+ * @param <V> valor (inmutable o no modificado por los llamadores)
+ */
+public final class SingleFlightCache<K, V> {
+
+    private static final Logger LOG = Logger.getLogger(SingleFlightCache.class);
+
+    private final String name;
+    private final Function<K, V> loader;
+    private final Executor refresher;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+
+    private final ConcurrentHashMap<K, Entrada<V>> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Timer coalescedWait;
+    private final Counter refreshOk;
+    private final Counter refreshFailed;
+
+    /**
+     * @param name nombre del cache (tag {@code cache} de las métricas)
+     * @param loader carga de una key; se invoca en el hilo del llamador en un miss y en
+     *        {@code refresher} al refrescar
+     * @param ttl vigencia de una entrada desde que se cargó (> 0)
+     * @param refreshAfter edad a partir de la cual una lectura dispara el refresco; {@code 0} (o
+     *        {@code >= ttl}) lo desactiva
+     * @param refresher ejecutor de los refrescos
+     * @param clock reloj
+     * @param registry registro de métricas
+     */
+    public SingleFlightCache(String name, Function<K, V> loader, Duration ttl,
+            Duration refreshAfter, Executor refresher, Clock clock, MeterRegistry registry) {
+        this.name = Objects.requireNonNull(name, "name es obligatorio");
+        this.loader = Objects.requireNonNull(loader, "loader es obligatorio");
+        this.refresher = Objects.requireNonNull(refresher, "refresher es obligatorio");
+        this.clock = (clock != null) ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl debe ser > 0");
+        }
+        this.ttlMillis = ttl.toMillis();
+        long refresh = (refreshAfter != null) ? refreshAfter.toMillis() : 0L;
+        // 0: sin refresco anticipado
+        this.refreshAfterMillis = (refresh > 0L && refresh < ttlMillis) ? refresh : 0L;
+
+        Tags tags = Tags.of("cache", name);
+        this.hits = requests(registry, tags, "hit");
+        this.misses = requests(registry, tags, "miss");
+        this.coalesced = requests(registry, tags, "coalesced");
+        this.coalescedWait =
+                Timer.builder("access_cache_coalesced_wait_seconds").tags(tags).register(registry);
+        this.refreshOk = Counter.builder("access_cache_refresh_total").tags(tags)
+                .tag("result", "ok").register(registry);
+        this.refreshFailed = Counter.builder("access_cache_refresh_total").tags(tags)
+                .tag("result", "failed").register(registry);
+        registry.gaugeMapSize("access_cache_size", tags, entries);
+    }
+
+    /**
+     * Valor de la key, cargándolo si no está o venció.
+     *
+     * @param key key (no null)
+     * @return valor cargado
+     * @throws RuntimeException la excepción del loader (propia o de la carga compartida)
+     */
+    public V get(K key) {
+        Objects.requireNonNull(key, "key es obligatorio");
+        while (true) {
+            long now = clock.millis();
+            Entrada<V> e = entries.get(key);
+            if (e != null && e.valor.isDone()) {
+                if (now < e.venceEnMillis) {
+                    hits.increment();
+                    if (refreshAfterMillis > 0L
+                            && now - e.cargadaEnMillis >= refreshAfterMillis) {
+                        refrescar(key, e);
+                    }
+                    return join(e.valor);
+                }
+            } else if (e != null) {
+                return esperar(e.valor);
+            }
+
+            // miss o vencida: el que logra instalar su entrada carga
+            Entrada<V> nueva = new Entrada<>(new CompletableFuture<>());
+            boolean instalada = (e == null) ? entries.putIfAbsent(key, nueva) == null
+                    : entries.replace(key, e, nueva);
+            if (instalada) {
+                misses.increment();
+                return cargar(key, nueva);
+            }
+        }
+    }
+
+    /**
+     * Descarta una key (idempotente).
+     */
+    public void invalidate(K key) {
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Descarta las keys que cumplen el predicado (recorre solo el mapa local).
+     *
+     * @return entradas descartadas
+     */
+    public int invalidateIf(Predicate<? super K> predicate) {
+        int n = 0;
+        for (K k : entries.keySet()) {
+            if (predicate.test(k) && entries.remove(k) != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private V cargar(K key, Entrada<V> e) {
+        V v;
+        try {
+            v = loader.apply(key);
+        } catch (Throwable ex) {
+            // también ante un Error: si la entrada quedara, los que esperan no saldrían nunca
+            entries.remove(key, e);
+            e.valor.completeExceptionally(ex);
+            throw ex;
+        }
+        e.cargada(clock.millis(), ttlMillis);
+        e.valor.complete(v);
+        return v;
+    }
+
+    private V esperar(CompletableFuture<V> enCurso) {
+        coalesced.increment();
+        long t0 = System.nanoTime();
+        try {
+            return join(enCurso);
+        } finally {
+            coalescedWait.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void refrescar(K key, Entrada<V> actual) {
+        if (!actual.refrescando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    V v = loader.apply(key);
+                    Entrada<V> fresca = new Entrada<>(CompletableFuture.completedFuture(v));
+                    fresca.cargada(clock.millis(), ttlMillis);
+                    // si se invalidó mientras tanto, el valor refrescado se descarta
+                    entries.replace(key, actual, fresca);
+                    refreshOk.increment();
+                } catch (Throwable ex) {
+                    actual.refrescando.set(false);
+                    refreshFailed.increment();
+                    LOG.warnf("cache_refresh_failed cache=%s key=%s error=%s", name, key,
+                            ex.getMessage());
+                    if (ex instanceof Error err) {
+                        throw err;
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            actual.refrescando.set(false);
+            refreshFailed.increment();
+            LOG.warnf("cache_refresh_rejected cache=%s error=%s", name, ex.getMessage());
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (ex.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw ex;
+        }
+    }
+
+    private static Counter requests(MeterRegistry registry, Tags tags, String result) {
+        return Counter.builder("access_cache_requests_total").tags(tags).tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entrada<V> {
+
+        final CompletableFuture<V> valor;
+        final AtomicBoolean refrescando = new AtomicBoolean();
+        volatile long cargadaEnMillis;
+        volatile long venceEnMillis = Long.MAX_VALUE;
+
+        Entrada(CompletableFuture<V> valor) {
+            this.valor = valor;
+        }
+
+        void cargada(long ahora, long ttl) {
+            cargadaEnMillis = ahora;
+            venceEnMillis = ahora + ttl;
+        }
+    }
+}
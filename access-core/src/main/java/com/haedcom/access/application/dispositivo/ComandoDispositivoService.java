@@ -2,36 +2,70 @@ package com.haedcom.access.application.dispositivo;
 
 import java.time.Clock;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLote;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLoteItem;
 import com.haedcom.access.application.dispositivo.dto.ResultadoComandoRequest;
 import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
 import com.haedcom.access.domain.events.ComandoDispositivoEjecutado;
+import com.haedcom.access.domain.events.ComandoDispositivoFallido;
 import com.haedcom.access.domain.events.DomainEventPublisher;
 import com.haedcom.access.domain.model.ComandoDispositivo;
 import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
+import com.haedcom.access.domain.repo.ComandoVencidoView;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
 
+/**
+ * Resultados y vencimientos de comandos de dispositivo.
+ *
+ * <h2>Concurrencia con el barrido de vencimientos</h2>
+ * <p>
+ * El resultado del dispositivo y {@link #marcarTimeout} pueden cerrar el mismo comando a la vez.
+ * El {@code @Version} de {@link ComandoDispositivo} resuelve la carrera: si el barrido lo venció
+ * después de leerlo, el {@code flush} del resultado falla, la transacción se revierte (sin eventos
+ * en el outbox) y se responde {@code 409}. Reintentar es seguro: el comando ya está en estado final
+ * y el resultado se ignora.
+ * </p>
+ */
 @ApplicationScoped
 public class ComandoDispositivoService {
 
         private static final Logger LOG = Logger.getLogger(ComandoDispositivoService.class);
 
+        /** {@code codigo_error} de un comando vencido. */
+        public static final String CODIGO_TIMEOUT = "TIMEOUT";
+
         private final ComandoDispositivoRepository comandoRepo;
         private final DomainEventPublisher eventPublisher;
         private final Clock clock;
+        private final int maxItemsLote;
 
         public ComandoDispositivoService(ComandoDispositivoRepository comandoRepo,
-                        DomainEventPublisher eventPublisher, Clock clock) {
+                        DomainEventPublisher eventPublisher, Clock clock,
+                        @ConfigProperty(name = "haedcom.access.command.callback.max-items",
+                                        defaultValue = "1000") int maxItemsLote) {
 
                 this.comandoRepo =
                                 Objects.requireNonNull(comandoRepo, "comandoRepo es obligatorio");
                 this.eventPublisher = Objects.requireNonNull(eventPublisher,
                                 "eventPublisher es obligatorio");
                 this.clock = (clock != null) ? clock : Clock.systemUTC();
+                this.maxItemsLote = Math.max(1, maxItemsLote);
         }
 
         @Transactional
@@ -45,6 +79,116 @@ public class ComandoDispositivoService {
                                 .orElseThrow(() -> new NotFoundException(
                                                 "Comando no encontrado para la organización"));
 
+                ComandoDispositivoEjecutado ev = aplicar(orgId, cmd, req);
+                if (ev == null) {
+                        return;
+                }
+
+                comandoRepo.persist(cmd);
+                flush(orgId);
+
+                eventPublisher.publish(ev);
+        }
+
+        /**
+         * Aplica un lote de resultados en una sola transacción.
+         *
+         * <ul>
+         * <li>Los comandos se cargan con una única consulta {@code IN}.</li>
+         * <li>Cada resultado pasa por la misma transición que {@link #confirmarOFallar}: un comando
+         * en estado final no cambia ({@code IDEMPOTENT} si llega el mismo estado, {@code IGNORED}
+         * si es otro). Un comando repetido en el lote se aplica en orden.</li>
+         * <li>Los {@code UPDATE} de comandos y los {@code INSERT} de
+         * {@link ComandoDispositivoEjecutado} en el outbox salen en un batch JDBC por tabla.</li>
+         * <li>Un resultado inválido o de un comando inexistente solo afecta a su ítem. Si falla la
+         * escritura, falla el lote completo (reintentar es seguro: la transición es
+         * idempotente). Un comando vencido en paralelo por el barrido hace fallar el lote con
+         * {@code 409}.</li>
+         * </ul>
+         *
+         * @param orgId tenant
+         * @param items resultados en orden (un elemento {@code null} es un ítem inválido)
+         * @return un resultado por ítem, en el mismo orden
+         */
+        @Transactional
+        public List<ResultadoComandoLote> confirmarOFallarLote(UUID orgId,
+                        List<ResultadoComandoLoteItem> items) {
+                Objects.requireNonNull(orgId, "orgId es obligatorio");
+                Objects.requireNonNull(items, "items es obligatorio");
+
+                ResultadoComandoLote[] out = new ResultadoComandoLote[items.size()];
+                Set<UUID> ids = new HashSet<>();
+                for (int i = 0; i < items.size(); i++) {
+                        ResultadoComandoLoteItem it = items.get(i);
+                        UUID id = (it != null) ? it.idComando() : null;
+                        if (i >= maxItemsLote) {
+                                out[i] = ResultadoComandoLote.error(i, id, 413,
+                                                "BATCH_LIMIT_EXCEEDED",
+                                                "El lote excede " + maxItemsLote + " resultados");
+                                continue;
+                        }
+                        String invalido = validar(it);
+                        if (invalido != null) {
+                                out[i] = ResultadoComandoLote.error(i, id, 400, "BAD_REQUEST",
+                                                invalido);
+                                continue;
+                        }
+                        ids.add(id);
+                }
+
+                Map<UUID, ComandoDispositivo> comandos = new HashMap<>();
+                for (ComandoDispositivo c : comandoRepo.listByIdsAndOrgWithIntento(orgId, ids)) {
+                        comandos.put(c.getIdComando(), c);
+                }
+
+                List<ComandoDispositivoEjecutado> eventos = new ArrayList<>();
+                for (int i = 0; i < items.size(); i++) {
+                        if (out[i] != null) {
+                                continue;
+                        }
+                        ResultadoComandoLoteItem it = items.get(i);
+                        ComandoDispositivo cmd = comandos.get(it.idComando());
+                        if (cmd == null) {
+                                out[i] = ResultadoComandoLote.error(i, it.idComando(), 404,
+                                                "NOT_FOUND",
+                                                "Comando no encontrado para la organización");
+                                continue;
+                        }
+                        EstadoComandoDispositivo actual = cmd.getEstado();
+                        ComandoDispositivoEjecutado ev = aplicar(orgId, cmd, it.toRequest());
+                        if (ev != null) {
+                                eventos.add(ev);
+                                out[i] = ResultadoComandoLote.ok(i, it.idComando(),
+                                                ResultadoComandoLote.CODIGO_OK);
+                        } else {
+                                out[i] = ResultadoComandoLote.ok(i, it.idComando(),
+                                                actual == it.estado()
+                                                                ? ResultadoComandoLote.CODIGO_IDEMPOTENT
+                                                                : ResultadoComandoLote.CODIGO_IGNORED);
+                        }
+                }
+
+                if (!eventos.isEmpty()) {
+                        // comandos sucios (UPDATE) y eventos del outbox (INSERT): un batch por tabla
+                        comandoRepo.setJdbcBatchSize(eventos.size());
+                        for (ComandoDispositivoEjecutado ev : eventos) {
+                                eventPublisher.publish(ev);
+                        }
+                        flush(orgId);
+                }
+                LOG.debugf("Resultados de comandos en lote orgId=%s items=%d aplicados=%d", orgId,
+                                items.size(), eventos.size());
+                return List.of(out);
+        }
+
+        /**
+         * Transición de estado de un comando.
+         *
+         * @return evento a publicar, o {@code null} si el comando ya estaba en estado final
+         */
+        private ComandoDispositivoEjecutado aplicar(UUID orgId, ComandoDispositivo cmd,
+                        ResultadoComandoRequest req) {
+                UUID idComando = cmd.getIdComando();
                 EstadoComandoDispositivo actual = cmd.getEstado();
                 EstadoComandoDispositivo entrante = req.estado();
 
@@ -56,7 +200,7 @@ public class ComandoDispositivoService {
                                 LOG.warnf("Resultado tardío ignorado orgId=%s idComando=%s estadoActual=%s estadoEntrante=%s",
                                                 orgId, idComando, actual, entrante);
                         }
-                        return;
+                        return null;
                 }
 
                 OffsetDateTime when = (req.ocurridoEnUtc() != null) ? req.ocurridoEnUtc()
@@ -72,15 +216,85 @@ public class ComandoDispositivoService {
                         cmd.setIdEjecucionExterna(externalId);
                 }
 
-                comandoRepo.persist(cmd);
-                comandoRepo.flush();
-
                 UUID intentoId = cmd.getIntento().getIdIntento();
 
-                eventPublisher.publish(new ComandoDispositivoEjecutado(UUID.randomUUID(), orgId,
+                return new ComandoDispositivoEjecutado(UUID.randomUUID(), orgId,
                                 cmd.getIdComando(), intentoId, cmd.getIdDispositivo(),
                                 cmd.getEstado(), when, cmd.getCodigoError(), cmd.getDetalleError(),
-                                cmd.getIdEjecucionExterna()));
+                                cmd.getIdEjecucionExterna());
+        }
+
+        /**
+         * Escribe las transiciones pendientes; si otro escritor (el barrido de vencimientos) cambió
+         * alguno de los comandos, la transacción se revierte con {@code 409}.
+         */
+        private void flush(UUID orgId) {
+                try {
+                        comandoRepo.flush();
+                } catch (OptimisticLockException e) {
+                        LOG.warnf("Resultado en conflicto con un vencimiento concurrente orgId=%s",
+                                        orgId);
+                        throw new WebApplicationException(
+                                        "El comando cambió de estado en paralelo",
+                                        Response.Status.CONFLICT);
+                }
+        }
+
+        /**
+         * Mismas reglas que las anotaciones de {@link ResultadoComandoRequest}.
+         *
+         * @return mensaje de error, o {@code null} si el ítem es válido
+         */
+        private static String validar(ResultadoComandoLoteItem it) {
+                if (it == null) {
+                        return "Resultado vacío o JSON inválido";
+                }
+                if (it.idComando() == null) {
+                        return "idComando es obligatorio";
+                }
+                if (it.estado() == null) {
+                        return "estado es obligatorio";
+                }
+                if (length(it.codigoError()) > 60 || length(it.detalleError()) > 250
+                                || length(it.idEjecucionExterna()) > 120) {
+                        return "codigoError, detalleError o idEjecucionExterna exceden el largo máximo";
+                }
+                if (!it.toRequest().isErrorPayloadConsistent()) {
+                        return "Si estado es EJECUTADO_ERROR, debe venir codigoError o detalleError";
+                }
+                return null;
+        }
+
+        private static int length(String s) {
+                return (s != null) ? s.length() : 0;
+        }
+
+        /**
+         * Marca {@code TIMEOUT} los comandos vencidos que sigan sin estado final y publica un
+         * {@link ComandoDispositivoFallido} por cada uno.
+         *
+         * <p>
+         * Un único {@code UPDATE} condicionado por estado: si el resultado del dispositivo llegó
+         * antes (o otro nodo ya los venció) esos comandos no cambian ni se publican.
+         * </p>
+         *
+         * @param idsComando comandos cuyo plazo venció
+         * @return comandos marcados
+         */
+        @Transactional
+        public int marcarTimeout(Collection<UUID> idsComando) {
+                Objects.requireNonNull(idsComando, "idsComando es obligatorio");
+                OffsetDateTime now = OffsetDateTime.now(clock);
+
+                List<ComandoVencidoView> vencidos =
+                                comandoRepo.marcarTimeout(idsComando, now, CODIGO_TIMEOUT);
+                for (ComandoVencidoView v : vencidos) {
+                        eventPublisher.publish(new ComandoDispositivoFallido(v.orgId(),
+                                        v.idComando(), v.idIntento(), v.idDispositivo(), now,
+                                        CODIGO_TIMEOUT, "Sin respuesta del dispositivo",
+                                        v.idEjecucionExterna()));
+                }
+                return vencidos.size();
         }
 
         private static boolean isFinal(EstadoComandoDispositivo estado) {
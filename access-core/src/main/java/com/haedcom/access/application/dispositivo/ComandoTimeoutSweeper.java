@@ -0,0 +1,243 @@
+package com.haedcom.access.application.dispositivo;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.events.ComandoDispositivoEjecutado;
+import com.haedcom.access.domain.events.ComandoDispositivoEmitido;
+import com.haedcom.access.domain.repo.ComandoAbiertoView;
+import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Vence los comandos que el dispositivo no confirmó a tiempo: los pasa a {@code TIMEOUT} y publica
+ * {@code ComandoDispositivoFallido} ({@link ComandoDispositivoService#marcarTimeout}).
+ *
+ * <h2>Vencimientos en memoria</h2>
+ * <ul>
+ * <li>Cada {@link ComandoDispositivoEmitido} confirmado (después del commit) se programa en una
+ * {@link TimingWheel} con vencimiento {@code enviadoEnUtc + after}; un
+ * {@link ComandoDispositivoEjecutado} lo cancela. Cada tick solo toca lo que vence en ese tick, sin
+ * consultar la base de datos.</li>
+ * <li>Lo vencido se marca en lotes de {@code batch-size} (un {@code UPDATE ... RETURNING} por lote).
+ * Si el lote falla, sus comandos se re-programan para {@code retry-after}.</li>
+ * <li>Al arrancar se reconstruye la rueda con los comandos abiertos (una consulta por
+ * {@code ix_comando_estado_enviado}); los que vencieron con el nodo caído salen en el primer tick.
+ * Si la base de datos no está disponible se reintenta cada {@code rebuild-retry-every}.</li>
+ * </ul>
+ *
+ * <h2>Varios nodos</h2>
+ * <p>
+ * Cada nodo programa los comandos que emite y, al arrancar, todos los abiertos. Un comando vencido
+ * por dos nodos se marca una sola vez: el {@code UPDATE} solo toca filas sin estado final.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.command.timeout.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.access.command.timeout.after} (default {@code 30s})</li>
+ * <li>{@code haedcom.access.command.timeout.tick} (default {@code 250ms}): resolución de la rueda y
+ * período del barrido.</li>
+ * <li>{@code haedcom.access.command.timeout.batch-size} (default {@code 500})</li>
+ * <li>{@code haedcom.access.command.timeout.retry-after} (default {@code 5s})</li>
+ * <li>{@code haedcom.access.command.timeout.rebuild-retry-every} (default {@code 1m})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code access_command_deadlines_pending} (gauge)</li>
+ * <li>{@code access_command_timeouts_total}: comandos pasados a {@code TIMEOUT}.</li>
+ * <li>{@code access_command_timeout_failed_total}: comandos de lotes que fallaron.</li>
+ * <li>{@code access_command_timeout_sweep_seconds}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ComandoTimeoutSweeper {
+
+    private static final Logger LOG = Logger.getLogger(ComandoTimeoutSweeper.class);
+
+    private final ComandoDispositivoService comandoService;
+    private final ComandoDispositivoRepository comandoRepo;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long afterMillis;
+    private final long retryAfterMillis;
+    private final int batchSize;
+
+    private final TimingWheel<UUID> rueda;
+    private volatile boolean reconstruida;
+
+    private final Counter timeouts;
+    private final Counter failed;
+    private final Timer sweep;
+
+    @Inject
+    public ComandoTimeoutSweeper(ComandoDispositivoService comandoService,
+            ComandoDispositivoRepository comandoRepo, Clock clock, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.command.timeout.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.access.command.timeout.after",
+                    defaultValue = "30s") Duration after,
+            @ConfigProperty(name = "haedcom.access.command.timeout.tick",
+                    defaultValue = "250ms") Duration tick,
+            @ConfigProperty(name = "haedcom.access.command.timeout.batch-size",
+                    defaultValue = "500") int batchSize,
+            @ConfigProperty(name = "haedcom.access.command.timeout.retry-after",
+                    defaultValue = "5s") Duration retryAfter) {
+        this.comandoService =
+                Objects.requireNonNull(comandoService, "comandoService es obligatorio");
+        this.comandoRepo = Objects.requireNonNull(comandoRepo, "comandoRepo es obligatorio");
+        this.clock = (clock != null) ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        if (after.isNegative() || after.isZero() || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("after y tick deben ser > 0");
+        }
+        this.enabled = enabled;
+        this.afterMillis = after.toMillis();
+        this.retryAfterMillis = Math.max(tick.toMillis(), retryAfter.toMillis());
+        this.batchSize = Math.max(1, batchSize);
+        this.rueda = new TimingWheel<>(tick.toMillis(), this.clock.millis());
+
+        this.timeouts = Counter.builder("access_command_timeouts_total").register(registry);
+        this.failed = Counter.builder("access_command_timeout_failed_total").register(registry);
+        this.sweep = Timer.builder("access_command_timeout_sweep_seconds").register(registry);
+        registry.gauge("access_command_deadlines_pending", this,
+                ComandoTimeoutSweeper::pendientes);
+    }
+
+    /**
+     * Programa el vencimiento de un comando emitido (solo si la transacción hizo commit).
+     */
+    public void onEmitido(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) ComandoDispositivoEmitido ev) {
+        if (enabled && ev.idComando() != null) {
+            programar(ev.idComando(), ev.enviadoEnUtc());
+        }
+    }
+
+    /**
+     * Cancela el vencimiento de un comando que recibió resultado.
+     */
+    public void onEjecutado(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) ComandoDispositivoEjecutado ev) {
+        if (enabled && ev.idComando() != null) {
+            synchronized (rueda) {
+                rueda.cancelar(ev.idComando());
+            }
+        }
+    }
+
+    /**
+     * Marca los comandos vencidos hasta ahora.
+     */
+    @Scheduled(every = "{haedcom.access.command.timeout.tick:250ms}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void barrer() {
+        if (!enabled) {
+            return;
+        }
+        List<UUID> vencidos;
+        synchronized (rueda) {
+            vencidos = rueda.avanzar(clock.millis());
+        }
+        for (int from = 0; from < vencidos.size(); from += batchSize) {
+            marcar(vencidos.subList(from, Math.min(vencidos.size(), from + batchSize)));
+        }
+    }
+
+    private void marcar(List<UUID> lote) {
+        long t0 = System.nanoTime();
+        try {
+            int marcados = comandoService.marcarTimeout(lote);
+            timeouts.increment(marcados);
+            if (marcados > 0) {
+                LOG.infof("command_timeout_marked count=%d expired=%d", marcados, lote.size());
+            }
+        } catch (RuntimeException e) {
+            failed.increment(lote.size());
+            LOG.errorf(e, "command_timeout_failed batch=%d", lote.size());
+            long reintento = clock.millis() + retryAfterMillis;
+            synchronized (rueda) {
+                lote.forEach(id -> rueda.programar(id, reintento));
+            }
+        } finally {
+            sweep.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Programa los comandos abiertos de la base de datos.
+     */
+    @Transactional
+    public void reconstruir() {
+        long t0 = System.nanoTime();
+        int leidos = 0;
+        try (Stream<ComandoAbiertoView> abiertos = comandoRepo.streamAbiertos()) {
+            for (ComandoAbiertoView c : (Iterable<ComandoAbiertoView>) abiertos::iterator) {
+                programar(c.idComando(), c.enviadoEnUtc());
+                leidos++;
+            }
+        }
+        reconstruida = true;
+        LOG.infof("command_timeout_rebuilt open=%d pending=%d elapsedMs=%d", leidos, pendientes(),
+                (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        reconstruirSiFalta();
+    }
+
+    /**
+     * Reintenta la reconstrucción si falló al arranque (p.ej. base de datos no disponible).
+     */
+    @Scheduled(every = "{haedcom.access.command.timeout.rebuild-retry-every:1m}",
+            delayed = "{haedcom.access.command.timeout.rebuild-retry-every:1m}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void retryRebuild() {
+        if (!reconstruida) {
+            reconstruirSiFalta();
+        }
+    }
+
+    private void reconstruirSiFalta() {
+        if (!enabled || reconstruida) {
+            return;
+        }
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "command_timeout_rebuild_failed");
+        }
+    }
+
+    private void programar(UUID idComando, OffsetDateTime enviadoEnUtc) {
+        long enviado = (enviadoEnUtc != null) ? enviadoEnUtc.toInstant().toEpochMilli()
+                : clock.millis();
+        synchronized (rueda) {
+            rueda.programar(idComando, enviado + afterMillis);
+        }
+    }
+
+    int pendientes() {
+        synchronized (rueda) {
+            return rueda.size();
+        }
+    }
+}
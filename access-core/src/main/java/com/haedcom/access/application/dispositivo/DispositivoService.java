@@ -1,11 +1,17 @@
 package com.haedcom.access.application.dispositivo;
 
+import java.time.Clock;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.Cursor;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.dispositivo.dto.DispositivoResponse;
 import com.haedcom.access.api.dispositivo.dto.DispositivoUpsertRequest;
+import com.haedcom.access.domain.events.DispositivoChanged;
+import com.haedcom.access.domain.events.DomainEventPublisher;
 import com.haedcom.access.domain.model.Area;
 import com.haedcom.access.domain.model.Dispositivo;
 import com.haedcom.access.domain.repo.AreaRepository;
@@ -22,7 +28,7 @@ import jakarta.ws.rs.core.Response;
  *
  * <p>
  * Este service cubre el CRUD básico (listar, obtener, crear, actualizar, eliminar). Funcionalidades
- * avanzadas como concurrencia/eventos se delegarán a servicios especializados en el futuro.
+ * avanzadas como concurrencia se delegarán a servicios especializados en el futuro.
  * </p>
  *
  * <h2>Responsabilidades</h2>
@@ -32,6 +38,8 @@ import jakarta.ws.rs.core.Response;
  * <li>Validación previa de unicidad para {@code identificadorExterno} (campo global unique).</li>
  * <li>Mapeo de entidades a DTOs.</li>
  * <li>Traducción consistente de conflictos a HTTP 409 cuando aplica.</li>
+ * <li>Publicación de {@link DispositivoChanged} en create/update/delete para invalidar el cache de
+ * snapshots del flujo de acceso en todos los nodos.</li>
  * </ul>
  */
 @ApplicationScoped
@@ -50,17 +58,25 @@ public class DispositivoService {
 
     private final DispositivoRepository dispositivoRepo;
     private final AreaRepository areaRepo;
+    private final DomainEventPublisher eventPublisher;
+    private final Clock clock;
 
     /**
      * Constructor del servicio.
      *
      * @param dispositivoRepo repositorio de dispositivos
      * @param areaRepo repositorio de áreas (para validar pertenencia del área al tenant)
+     * @param eventPublisher publicador de eventos de dominio
+     * @param clock reloj (UTC recomendado) para testabilidad
      */
-    public DispositivoService(DispositivoRepository dispositivoRepo, AreaRepository areaRepo) {
+    public DispositivoService(DispositivoRepository dispositivoRepo, AreaRepository areaRepo,
+            DomainEventPublisher eventPublisher, Clock clock) {
         this.dispositivoRepo =
                 Objects.requireNonNull(dispositivoRepo, "dispositivoRepo es obligatorio");
         this.areaRepo = Objects.requireNonNull(areaRepo, "areaRepo es obligatorio");
+        this.eventPublisher =
+                Objects.requireNonNull(eventPublisher, "eventPublisher es obligatorio");
+        this.clock = (clock != null) ? clock : Clock.systemUTC();
     }
 
     /**
@@ -98,6 +114,36 @@ public class DispositivoService {
         return PageResponse.of(items, page, size, total);
     }
 
+    /**
+     * Lista dispositivos por cursor (keyset), en el mismo orden que {@link #list}. El conteo solo
+     * se ejecuta con {@code includeTotal}.
+     *
+     * @param orgId identificador del tenant
+     * @param areaId filtro por área (opcional; debe existir en el tenant)
+     * @param cursor {@code nextCursor} de la página anterior (null = primera página)
+     * @param size tamaño de página
+     * @param includeTotal si {@code true}, calcula {@code total}
+     * @return página con dispositivos y cursor de la siguiente
+     */
+    @Transactional
+    public CursorPageResponse<DispositivoResponse> listCursor(UUID orgId, UUID areaId,
+            String cursor, int size, boolean includeTotal) {
+        if (areaId != null) {
+            ensureAreaExistsInTenant(orgId, areaId);
+        }
+        List<Dispositivo> rows =
+                dispositivoRepo.listByOrganizacionAfter(orgId, areaId, Cursor.decode(cursor),
+                        size + 1);
+
+        Long total = null;
+        if (includeTotal) {
+            total = (areaId == null) ? dispositivoRepo.countByOrganizacion(orgId)
+                    : dispositivoRepo.countByOrganizacionAndArea(orgId, areaId);
+        }
+        return CursorPageResponse.of(rows, size, this::toResponse,
+                d -> Cursor.encode(dispositivoRepo.keysetOf(d)), total);
+    }
+
     /**
      * Obtiene un dispositivo específico dentro del tenant.
      *
@@ -146,6 +192,7 @@ public class DispositivoService {
         try {
             dispositivoRepo.persist(d);
             dispositivoRepo.flush();
+            publishChanged(orgId, d.getIdDispositivo(), DispositivoChanged.ChangeType.CREATED);
             return toResponse(d);
         } catch (RuntimeException e) {
             if (isUniqueViolation(e)) {
@@ -192,6 +239,7 @@ public class DispositivoService {
 
         try {
             dispositivoRepo.flush();
+            publishChanged(orgId, dispositivoId, DispositivoChanged.ChangeType.UPDATED);
             return toResponse(d);
         } catch (RuntimeException e) {
             if (isUniqueViolation(e)) {
@@ -212,12 +260,19 @@ public class DispositivoService {
     public void delete(UUID orgId, UUID dispositivoId) {
         Dispositivo d = getDispositivoOrThrow(orgId, dispositivoId);
         dispositivoRepo.delete(d);
+        publishChanged(orgId, dispositivoId, DispositivoChanged.ChangeType.DELETED);
     }
 
     // -------------------------
     // Helpers privados
     // -------------------------
 
+    private void publishChanged(UUID orgId, UUID dispositivoId,
+            DispositivoChanged.ChangeType changeType) {
+        eventPublisher.publish(
+                DispositivoChanged.of(orgId, dispositivoId, changeType, OffsetDateTime.now(clock)));
+    }
+
     private Dispositivo getDispositivoOrThrow(UUID orgId, UUID dispositivoId) {
         return dispositivoRepo.findByIdAndOrganizacion(dispositivoId, orgId)
                 .orElseThrow(() -> new NotFoundException("Dispositivo no encontrado"));
@@ -0,0 +1,206 @@
+package com.haedcom.access.application.dispositivo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing wheel jerárquica (al estilo de los timers del kernel): vencimientos en O(1) amortizado
+ * sin recorrer todo lo pendiente en cada tick.
+ *
+ * <h2>Estructura</h2>
+ * <ul>
+ * <li>{@code NIVELES} ruedas de {@code SLOTS} posiciones; un slot del nivel {@code l} abarca
+ * {@code SLOTS^l} ticks. Con un tick de 250ms el nivel 0 cubre 64s, el 1 ~4.5h, el 2 ~48 días y el
+ * 3 ~34 años.</li>
+ * <li>Una clave se ubica en el nivel más bajo cuyo rango contiene su vencimiento. Al completar
+ * una vuelta de un nivel, el slot siguiente del nivel superior se redistribuye ("cascade") en los
+ * niveles inferiores.</li>
+ * <li>Cada slot es una lista doblemente enlazada intrusiva y hay un índice por clave, así que
+ * {@link #cancelar} y la re-programación son O(1).</li>
+ * </ul>
+ *
+ * <p>
+ * No es thread-safe: el llamador sincroniza. El tiempo lo pasa el llamador (epoch millis), lo que
+ * la hace determinista en tests.
+ * </p>
+ *
+ * @param <K> clave de lo programado (p.ej. id de comando)
+ */
+final class TimingWheel<K> {
+
+    private static final int BITS = 8;
+    static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    static final int NIVELES = 4;
+
+    private final long tickMillis;
+    private final Nodo<K>[][] ruedas;
+    private final Map<K, Nodo<K>> indice = new HashMap<>();
+    /** Programados con vencimiento ya pasado: salen en el próximo {@link #avanzar}. */
+    private final Nodo<K> vencidos = Nodo.centinela();
+
+    private long tickActual;
+
+    TimingWheel(long tickMillis, long ahoraMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis debe ser > 0");
+        }
+        this.tickMillis = tickMillis;
+        this.ruedas = nuevasRuedas();
+        this.tickActual = Math.floorDiv(ahoraMillis, tickMillis);
+    }
+
+    /** {@code NIVELES x SLOTS} slots vacíos (cada uno con su centinela). */
+    private static <K> Nodo<K>[][] nuevasRuedas() {
+        @SuppressWarnings("unchecked")
+        Nodo<K>[][] ruedas = (Nodo<K>[][]) new Nodo<?>[NIVELES][SLOTS];
+        for (Nodo<K>[] rueda : ruedas) {
+            for (int i = 0; i < SLOTS; i++) {
+                rueda[i] = Nodo.centinela();
+            }
+        }
+        return ruedas;
+    }
+
+    /**
+     * Programa (o re-programa) una clave.
+     *
+     * @param clave clave (no null)
+     * @param venceMillis vencimiento en epoch millis
+     */
+    void programar(K clave, long venceMillis) {
+        Nodo<K> n = indice.get(clave);
+        if (n == null) {
+            n = new Nodo<>(clave);
+            indice.put(clave, n);
+        } else {
+            n.desenlazar();
+        }
+        // redondeo hacia arriba: nunca vence antes de tiempo
+        n.venceTick = Math.floorDiv(venceMillis + tickMillis - 1, tickMillis);
+        ubicar(n);
+    }
+
+    /**
+     * @return {@code true} si la clave estaba programada
+     */
+    boolean cancelar(K clave) {
+        Nodo<K> n = indice.remove(clave);
+        if (n == null) {
+            return false;
+        }
+        n.desenlazar();
+        return true;
+    }
+
+    /**
+     * Avanza hasta {@code ahoraMillis} y devuelve lo vencido (que deja de estar programado).
+     *
+     * @param ahoraMillis instante actual en epoch millis
+     * @return claves vencidas, en orden de vencimiento por tick
+     */
+    List<K> avanzar(long ahoraMillis) {
+        List<K> out = new ArrayList<>();
+        drenar(vencidos, out);
+        long objetivo = Math.floorDiv(ahoraMillis, tickMillis);
+        while (tickActual < objetivo) {
+            if (indice.isEmpty()) {
+                tickActual = objetivo;
+                break;
+            }
+            tickActual++;
+            // de arriba hacia abajo: lo que baja de nivel 2 puede caer en el slot de nivel 1 que
+            // se redistribuye a continuación
+            for (int nivel = NIVELES - 1; nivel > 0; nivel--) {
+                if ((tickActual & ((1L << (BITS * nivel)) - 1)) == 0) {
+                    redistribuir(ruedas[nivel][(int) ((tickActual >>> (BITS * nivel)) & MASK)]);
+                }
+            }
+            drenar(ruedas[0][(int) (tickActual & MASK)], out);
+            drenar(vencidos, out);
+        }
+        return out;
+    }
+
+    int size() {
+        return indice.size();
+    }
+
+    private void ubicar(Nodo<K> n) {
+        long delta = n.venceTick - tickActual;
+        if (delta <= 0) {
+            vencidos.enlazar(n);
+            return;
+        }
+        int nivel = 0;
+        while (nivel < NIVELES - 1 && delta >= (1L << (BITS * (nivel + 1)))) {
+            nivel++;
+        }
+        // más allá del último nivel: se re-ubica cada vez que su slot se redistribuye
+        ruedas[nivel][(int) ((n.venceTick >>> (BITS * nivel)) & MASK)].enlazar(n);
+    }
+
+    private void redistribuir(Nodo<K> slot) {
+        // se vacía el slot antes de re-ubicar: un vencimiento más allá del último nivel vuelve a
+        // caer en el mismo slot
+        Nodo<K> n = slot.sig;
+        slot.sig = slot;
+        slot.ant = slot;
+        while (n != slot) {
+            Nodo<K> sig = n.sig;
+            n.ant = null;
+            n.sig = null;
+            ubicar(n);
+            n = sig;
+        }
+    }
+
+    private void drenar(Nodo<K> slot, List<K> out) {
+        Nodo<K> n = slot.sig;
+        while (n != slot) {
+            Nodo<K> sig = n.sig;
+            n.desenlazar();
+            indice.remove(n.clave);
+            out.add(n.clave);
+            n = sig;
+        }
+    }
+
+    private static final class Nodo<K> {
+
+        final K clave;
+        long venceTick;
+        Nodo<K> ant;
+        Nodo<K> sig;
+
+        Nodo(K clave) {
+            this.clave = clave;
+        }
+
+        static <K> Nodo<K> centinela() {
+            Nodo<K> c = new Nodo<>(null);
+            c.ant = c;
+            c.sig = c;
+            return c;
+        }
+
+        /** Agrega {@code n} al final de la lista cuyo centinela es {@code this}. */
+        void enlazar(Nodo<K> n) {
+            n.ant = ant;
+            n.sig = this;
+            ant.sig = n;
+            ant = n;
+        }
+
+        void desenlazar() {
+            if (ant != null) {
+                ant.sig = sig;
+                sig.ant = ant;
+                ant = null;
+                sig = null;
+            }
+        }
+    }
+}
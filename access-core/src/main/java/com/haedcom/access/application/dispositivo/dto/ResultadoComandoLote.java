@@ -0,0 +1,31 @@
+package com.haedcom.access.application.dispositivo.dto;
+
+import java.util.UUID;
+
+/**
+ * Resultado de un ítem de {@code POST /organizaciones/{orgId}/comandos/resultados}.
+ *
+ * @param indice posición del ítem en el lote (desde 0)
+ * @param idComando comando reportado (puede ser null si el ítem es inválido)
+ * @param status estatus HTTP equivalente al del endpoint individual
+ * @param codigo {@code OK} (estado aplicado), {@code IDEMPOTENT} (el comando ya estaba en ese
+ *        estado final), {@code IGNORED} (resultado tardío sobre otro estado final) o código de
+ *        error ({@code BAD_REQUEST}, {@code NOT_FOUND}, {@code BATCH_LIMIT_EXCEEDED})
+ * @param mensaje detalle del error (null si {@code status} es 200)
+ */
+public record ResultadoComandoLote(int indice, UUID idComando, int status, String codigo,
+        String mensaje) {
+
+    public static final String CODIGO_OK = "OK";
+    public static final String CODIGO_IDEMPOTENT = "IDEMPOTENT";
+    public static final String CODIGO_IGNORED = "IGNORED";
+
+    public static ResultadoComandoLote ok(int indice, UUID idComando, String codigo) {
+        return new ResultadoComandoLote(indice, idComando, 200, codigo, null);
+    }
+
+    public static ResultadoComandoLote error(int indice, UUID idComando, int status,
+            String codigo, String mensaje) {
+        return new ResultadoComandoLote(indice, idComando, status, codigo, mensaje);
+    }
+}
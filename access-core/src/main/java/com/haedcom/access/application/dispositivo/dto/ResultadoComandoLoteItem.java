@@ -0,0 +1,31 @@
+package com.haedcom.access.application.dispositivo.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
+
+/**
+ * Un resultado dentro de {@code POST /organizaciones/{orgId}/comandos/resultados}: los campos de
+ * {@link ResultadoComandoRequest} más el comando al que aplica.
+ *
+ * <p>
+ * Se valida ítem por ítem en el servicio (no con Bean Validation sobre el lote): un resultado
+ * inválido no rechaza a los demás.
+ * </p>
+ *
+ * @param idComando comando reportado (obligatorio)
+ * @param estado estado del comando (obligatorio)
+ * @param codigoError código de error (opcional, máx. 60)
+ * @param detalleError detalle del error (opcional, máx. 250)
+ * @param ocurridoEnUtc instante del resultado (opcional)
+ * @param idEjecucionExterna correlación externa (opcional, máx. 120)
+ */
+public record ResultadoComandoLoteItem(UUID idComando, EstadoComandoDispositivo estado,
+        String codigoError, String detalleError, OffsetDateTime ocurridoEnUtc,
+        String idEjecucionExterna) {
+
+    public ResultadoComandoRequest toRequest() {
+        return new ResultadoComandoRequest(estado, codigoError, detalleError, ocurridoEnUtc,
+                idEjecucionExterna);
+    }
+}
@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.Cursor;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesEstadoRequest;
 import com.haedcom.access.api.grupo_visitantes.dto.GrupoVisitantesMiembrosRequest;
@@ -91,6 +93,30 @@ public class GrupoVisitantesService {
         return PageResponse.of(items, page, size, total);
     }
 
+    /**
+     * Lista grupos de visitantes por cursor (keyset), con los mismos filtros y orden que
+     * {@link #list}. El conteo solo se ejecuta con {@code includeTotal}.
+     *
+     * @param orgId tenant
+     * @param q búsqueda parcial por nombre (opcional)
+     * @param estado filtro por estado (opcional)
+     * @param cursor {@code nextCursor} de la página anterior (null = primera página)
+     * @param size tamaño de página
+     * @param includeTotal si {@code true}, calcula {@code total}
+     * @return página con grupos y cursor de la siguiente
+     */
+    @Transactional
+    public CursorPageResponse<GrupoVisitantesResponse> listCursor(UUID orgId, String q,
+            EstadoGrupo estado, String cursor, int size, boolean includeTotal) {
+        List<GrupoVisitantes> rows =
+                repo.listByTenantAfter(orgId, q, estado, Cursor.decode(cursor), size + 1);
+
+        Long total = includeTotal ? repo.countByTenant(orgId, q, estado) : null;
+
+        return CursorPageResponse.of(rows, size, g -> toResponse(g, false),
+                g -> Cursor.encode(repo.keysetOf(g)), total);
+    }
+
     /**
      * Obtiene un grupo por id dentro del tenant.
      *
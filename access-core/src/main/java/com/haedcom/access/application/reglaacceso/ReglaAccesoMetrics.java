@@ -0,0 +1,231 @@
+package com.haedcom.access.application.reglaacceso;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import com.haedcom.access.domain.events.ReglaAccesoPolicyChanged;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de {@link ReglaAccesoService} con meters pre-registrados.
+ *
+ * <p>
+ * Cada combinación de tags ({@code op × result}, {@code op × check}, {@code op × field},
+ * ...) se registra en el constructor en arrays indexados por {@code ordinal()}; registrar una
+ * medición no construye claves {@code String} ni consulta mapas. Nombres y tags son los
+ * históricos del servicio.
+ * </p>
+ */
+final class ReglaAccesoMetrics {
+
+    private static final String M_RULE_OPS_TOTAL = "access_rule_ops_total";
+    private static final String M_RULE_OP_SECONDS = "access_rule_op_seconds";
+    private static final String M_RULE_DB_SECONDS = "access_rule_db_seconds";
+    private static final String M_RULE_EVENT_PUBLISH_SECONDS = "access_rule_event_publish_seconds";
+    private static final String M_RULE_REJECTS_TOTAL = "access_rule_rejects_total";
+    private static final String M_RULE_POLICY_CHANGED_TOTAL = "access_rule_policy_changed_total";
+    private static final String M_RULE_DUP_CONFLICTS_TOTAL =
+            "access_rule_duplicate_conflicts_total";
+    private static final String M_RULE_PRECONDITION_FAILED_TOTAL =
+            "access_rule_precondition_failed_total";
+    private static final String M_RULE_ZONE_FALLBACK_TOTAL = "access_rule_zone_fallback_total";
+    private static final String M_RULE_VALIDATION_FAILED_TOTAL =
+            "access_rule_validation_failed_total";
+    private static final String M_RULE_FEATURE_USED_TOTAL = "access_rule_feature_used_total";
+
+    enum Op {
+        LIST("list"), GET("get"), CREATE("create"), UPDATE("update"), CHANGE_ESTADO(
+                "change_estado"), DELETE("delete"), UNKNOWN("unknown");
+
+        final String tag;
+
+        Op(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    enum Result {
+        OK("ok"), NOT_FOUND("not_found"), BAD_REQUEST("bad_request"), CONFLICT("conflict"), ERROR(
+                "error");
+
+        final String tag;
+
+        Result(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Campo de precondición ({@code field} de {@code access_rule_precondition_failed_total}). */
+    enum Field {
+        ORG_ID("orgId"), PAGE("page"), SIZE("size"), REGLA_ID("reglaId"), ID_AREA(
+                "idArea"), ID_DISPOSITIVO("idDispositivo");
+
+        final String tag;
+
+        Field(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Validación fallida ({@code check} de {@code access_rule_validation_failed_total}). */
+    enum Check {
+        DEVICE_AREA_MISMATCH("device_area_mismatch"),
+        VIGENCIA_MISSING_PAIR("vigencia_missing_pair"),
+        VIGENCIA_RANGE_INVALID("vigencia_range_invalid"),
+        HHMM_FORMAT("hhmm_format"),
+        DAILY_WINDOW_MISSING_PAIR("daily_window_missing_pair"),
+        DAILY_WINDOW_EQUAL("daily_window_equal");
+
+        final String tag;
+
+        Check(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /** Feature usada por una regla ({@code feature} de {@code access_rule_feature_used_total}). */
+    enum Feature {
+        VIGENCIA_UTC("vigencia_utc"), DAILY_WINDOW("daily_window"), DEVICE_SCOPED("device_scoped");
+
+        final String tag;
+
+        Feature(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Código estable de rechazo ({@code reason} de {@code access_rule_rejects_total} y
+     * {@code reasonCode} de {@code ReglaAccesoChangeRejected}).
+     */
+    enum RejectReason {
+        DUPLICATE_RULE, NOT_FOUND, VALIDATION_ERROR, UNEXPECTED_ERROR, WEB_ERROR, UNKNOWN
+    }
+
+    private static final Op[] OPS = Op.values();
+    private static final Result[] RESULTS = Result.values();
+    private static final Field[] FIELDS = Field.values();
+    private static final Check[] CHECKS = Check.values();
+    private static final Feature[] FEATURES = Feature.values();
+    private static final RejectReason[] REASONS = RejectReason.values();
+    private static final ReglaAccesoPolicyChanged.ChangeType[] CHANGE_TYPES =
+            ReglaAccesoPolicyChanged.ChangeType.values();
+
+    private final Clock clock;
+
+    private final Counter[][] ops = new Counter[OPS.length][RESULTS.length];
+    private final Timer[][] opSeconds = new Timer[OPS.length][RESULTS.length];
+    private final Timer[] db = new Timer[OPS.length];
+    private final Timer[] publish = new Timer[OPS.length];
+    private final Counter[][] preconditionFailed = new Counter[OPS.length][FIELDS.length];
+    private final Counter[][] validationFailed = new Counter[OPS.length][CHECKS.length];
+    private final Counter[][] featureUsed = new Counter[OPS.length][FEATURES.length];
+    private final Counter[][][] rejects = new Counter[OPS.length][REASONS.length][2];
+    private final Counter[] policyChanged = new Counter[CHANGE_TYPES.length];
+
+    private final Counter duplicateConflicts;
+    private final Counter zoneFallback;
+
+    ReglaAccesoMetrics(MeterRegistry registry) {
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.clock = registry.config().clock();
+
+        for (Op op : OPS) {
+            int o = op.ordinal();
+            for (Result r : RESULTS) {
+                ops[o][r.ordinal()] = Counter.builder(M_RULE_OPS_TOTAL).tag("op", op.tag)
+                        .tag("result", r.tag).register(registry);
+                opSeconds[o][r.ordinal()] = Timer.builder(M_RULE_OP_SECONDS).tag("op", op.tag)
+                        .tag("result", r.tag).publishPercentileHistogram(true)
+                        .publishPercentiles(0.5, 0.95, 0.99).register(registry);
+            }
+            db[o] = Timer.builder(M_RULE_DB_SECONDS).tag("op", op.tag)
+                    .publishPercentileHistogram(true).register(registry);
+            publish[o] = Timer.builder(M_RULE_EVENT_PUBLISH_SECONDS).tag("op", op.tag)
+                    .publishPercentileHistogram(true).register(registry);
+            for (Field f : FIELDS) {
+                preconditionFailed[o][f.ordinal()] = Counter
+                        .builder(M_RULE_PRECONDITION_FAILED_TOTAL).tag("op", op.tag)
+                        .tag("field", f.tag).register(registry);
+            }
+            for (Check c : CHECKS) {
+                validationFailed[o][c.ordinal()] =
+                        Counter.builder(M_RULE_VALIDATION_FAILED_TOTAL).tag("op", op.tag)
+                                .tag("check", c.tag).register(registry);
+            }
+            for (Feature f : FEATURES) {
+                featureUsed[o][f.ordinal()] = Counter.builder(M_RULE_FEATURE_USED_TOTAL)
+                        .tag("feature", f.tag).tag("op", op.tag).register(registry);
+            }
+            for (RejectReason rr : REASONS) {
+                for (int audited = 0; audited < 2; audited++) {
+                    rejects[o][rr.ordinal()][audited] = Counter.builder(M_RULE_REJECTS_TOTAL)
+                            .tag("op", op.tag).tag("reason", rr.name())
+                            .tag("audited", Boolean.toString(audited == 1)).register(registry);
+                }
+            }
+        }
+        for (ReglaAccesoPolicyChanged.ChangeType t : CHANGE_TYPES) {
+            policyChanged[t.ordinal()] = Counter.builder(M_RULE_POLICY_CHANGED_TOTAL)
+                    .tag("type", t.name()).register(registry);
+        }
+
+        duplicateConflicts = Counter.builder(M_RULE_DUP_CONFLICTS_TOTAL).register(registry);
+        zoneFallback = Counter.builder(M_RULE_ZONE_FALLBACK_TOTAL).register(registry);
+    }
+
+    /**
+     * @return marca de tiempo monótona (ns) del reloj del registry
+     */
+    long start() {
+        return clock.monotonicTime();
+    }
+
+    /** Cuenta la operación y registra su duración por {@code op + result}. */
+    void op(Op op, Result result, long start) {
+        ops[op.ordinal()][result.ordinal()].increment();
+        opSeconds[op.ordinal()][result.ordinal()].record(clock.monotonicTime() - start,
+                TimeUnit.NANOSECONDS);
+    }
+
+    void db(Op op, long start) {
+        db[op.ordinal()].record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void publish(Op op, long start) {
+        publish[op.ordinal()].record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    void preconditionFailed(Op op, Field field) {
+        preconditionFailed[op.ordinal()][field.ordinal()].increment();
+    }
+
+    void validationFailed(Op op, Check check) {
+        validationFailed[op.ordinal()][check.ordinal()].increment();
+    }
+
+    void featureUsed(Feature feature, Op op) {
+        featureUsed[op.ordinal()][feature.ordinal()].increment();
+    }
+
+    void reject(Op op, RejectReason reason, boolean audited) {
+        RejectReason rr = (reason != null) ? reason : RejectReason.UNKNOWN;
+        rejects[op.ordinal()][rr.ordinal()][audited ? 1 : 0].increment();
+    }
+
+    void policyChanged(ReglaAccesoPolicyChanged.ChangeType type) {
+        if (type != null) {
+            policyChanged[type.ordinal()].increment();
+        }
+    }
+
+    void duplicateConflict() {
+        duplicateConflicts.increment();
+    }
+
+    void zoneFallback() {
+        zoneFallback.increment();
+    }
+}
@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import org.jboss.logging.Logger;
+import com.haedcom.access.api.common.pagination.Cursor;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.reglaacceso.dto.ReglaAccesoEstadoRequest;
 import com.haedcom.access.api.reglaacceso.dto.ReglaAccesoResponse;
@@ -27,9 +29,13 @@ import com.haedcom.access.domain.model.ReglaAcceso;
 import com.haedcom.access.domain.repo.AreaRepository;
 import com.haedcom.access.domain.repo.DispositivoRepository;
 import com.haedcom.access.domain.repo.ReglaAccesoRepository;
-import io.micrometer.core.instrument.Counter;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.Check;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.Feature;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.Field;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.Op;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.RejectReason;
+import com.haedcom.access.application.reglaacceso.ReglaAccesoMetrics.Result;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
@@ -79,32 +85,8 @@ public class ReglaAccesoService {
     private final DomainEventPublisher eventPublisher;
     private final Clock clock;
 
-    // ---- métricas (names/tags)
-    private static final String M_RULE_OPS_TOTAL = "access_rule_ops_total";
-    private static final String M_RULE_OP_SECONDS = "access_rule_op_seconds";
-    private static final String M_RULE_REJECTS_TOTAL = "access_rule_rejects_total";
-    private static final String M_RULE_POLICY_CHANGED_TOTAL = "access_rule_policy_changed_total";
-    private static final String M_RULE_DUP_CONFLICTS_TOTAL =
-            "access_rule_duplicate_conflicts_total";
-    private static final String M_RULE_PRECONDITION_FAILED_TOTAL =
-            "access_rule_precondition_failed_total";
-    private static final String M_RULE_ZONE_FALLBACK_TOTAL = "access_rule_zone_fallback_total";
-    private static final String M_RULE_VALIDATION_FAILED_TOTAL =
-            "access_rule_validation_failed_total";
-    private static final String M_RULE_FEATURE_USED_TOTAL = "access_rule_feature_used_total";
-
-    // Counters “multi-tag” (se obtienen con helper counter(...))
-    private final MeterRegistry registry;
-
-    // contadores simples
-    private final Counter duplicateConflicts;
-    private final Counter zoneFallback;
-
-    private final java.util.concurrent.ConcurrentMap<String, Counter> counterCache =
-            new java.util.concurrent.ConcurrentHashMap<>();
-
-    private final java.util.concurrent.ConcurrentMap<String, Timer> timerCache =
-            new java.util.concurrent.ConcurrentHashMap<>();
+    /** Meters pre-registrados (sin claves String ni lookups por medición). */
+    private final ReglaAccesoMetrics metrics;
 
     /**
      * Constructor principal.
@@ -129,12 +111,7 @@ public class ReglaAccesoService {
         this.eventPublisher =
                 Objects.requireNonNull(eventPublisher, "eventPublisher es obligatorio");
         this.clock = (clock != null) ? clock : Clock.systemUTC();
-        this.registry = Objects.requireNonNull(registry, "registry es obligatorio");
-
-        this.duplicateConflicts =
-                Counter.builder(M_RULE_DUP_CONFLICTS_TOTAL).register(this.registry);
-
-        this.zoneFallback = Counter.builder(M_RULE_ZONE_FALLBACK_TOTAL).register(this.registry);
+        this.metrics = new ReglaAccesoMetrics(registry);
     }
 
     // =========================================================================
@@ -179,6 +156,40 @@ public class ReglaAccesoService {
         });
     }
 
+    /**
+     * Lista reglas del tenant por cursor (keyset), con los mismos filtros y orden que
+     * {@link #list}. El conteo solo se ejecuta con {@code includeTotal}.
+     *
+     * @param orgId tenant (obligatorio)
+     * @param filters filtros opcionales
+     * @param cursor {@code nextCursor} de la página anterior (null = primera página)
+     * @param size tamaño de página (1..200)
+     * @param includeTotal si {@code true}, calcula {@code total}
+     * @return página de reglas y cursor de la siguiente
+     */
+    @Transactional
+    public CursorPageResponse<ReglaAccesoResponse> listCursor(UUID orgId,
+            ReglaAccesoSearchRequest filters, String cursor, int size, boolean includeTotal) {
+        return timedOp(Op.LIST, () -> {
+            requireOrg(orgId, Op.LIST);
+            requirePaging(0, size, Op.LIST);
+
+            UUID idArea = (filters != null) ? filters.idArea() : null;
+            UUID idDispositivo = (filters != null) ? filters.idDispositivo() : null;
+            TipoSujetoAcceso tipoSujeto = (filters != null) ? filters.tipoSujeto() : null;
+            EstadoReglaAcceso estado = (filters != null) ? filters.estado() : null;
+
+            List<ReglaAcceso> rows = reglaRepo.searchByOrganizacionAfter(orgId, idArea,
+                    idDispositivo, tipoSujeto, estado, Cursor.decode(cursor), size + 1);
+
+            Long total = includeTotal ? reglaRepo.countSearchByOrganizacion(orgId, idArea,
+                    idDispositivo, tipoSujeto, null, null, null, estado) : null;
+
+            return CursorPageResponse.of(rows, size, this::toResponse,
+                    r -> Cursor.encode(reglaRepo.keysetOf(r)), total);
+        });
+    }
+
     // =========================================================================
     // GET
     // =========================================================================
@@ -196,7 +207,7 @@ public class ReglaAccesoService {
         return timedOp(Op.GET, () -> {
             requireOrg(orgId, Op.GET);
             if (reglaId == null) {
-                precondFailedCounter(Op.GET, "reglaId").increment();
+                metrics.preconditionFailed(Op.GET, Field.REGLA_ID);
                 throw new IllegalArgumentException("reglaId es obligatorio");
             }
             return toResponse(getReglaOrThrow(orgId, reglaId));
@@ -258,7 +269,7 @@ public class ReglaAccesoService {
 
 
                 if (dup) {
-                    duplicateConflicts.increment();
+                    metrics.duplicateConflict();
                     throw new WebApplicationException(
                             "Ya existe una regla equivalente para ese criterio",
                             Response.Status.CONFLICT);
@@ -271,24 +282,33 @@ public class ReglaAccesoService {
                         hastaHora, req.prioridad(), req.mensaje());
 
                 reglaRepo.persist(r);
-                dbTimer(Op.CREATE).record(reglaRepo::flush);
+                long tDb = metrics.start();
+                try {
+                    reglaRepo.flush();
+                } finally {
+                    metrics.db(Op.CREATE, tDb);
+                }
 
 
                 // 6b) Feature adoption: contar solo si la regla se creó exitosamente
                 if (req.validoDesdeUtc() != null)
-                    featureUsedCounter("vigencia_utc", Op.CREATE).increment();
+                    metrics.featureUsed(Feature.VIGENCIA_UTC, Op.CREATE);
                 if (req.desdeHoraLocal() != null)
-                    featureUsedCounter("daily_window", Op.CREATE).increment();
+                    metrics.featureUsed(Feature.DAILY_WINDOW, Op.CREATE);
                 if (req.idDispositivo() != null)
-                    featureUsedCounter("device_scoped", Op.CREATE).increment();
+                    metrics.featureUsed(Feature.DEVICE_SCOPED, Op.CREATE);
 
 
                 // 7) Evento de cambio exitoso (invalida caches)
                 OffsetDateTime nowUtc = OffsetDateTime.now(clock);
-                policyChangedCounter(ReglaAccesoPolicyChanged.ChangeType.CREATED).increment();
-                publishTimer(Op.CREATE).record(() -> eventPublisher
-                        .publish(ReglaAccesoPolicyChanged.of(orgId, r.getIdArea(), r.getIdRegla(),
-                                ReglaAccesoPolicyChanged.ChangeType.CREATED, nowUtc)));
+                metrics.policyChanged(ReglaAccesoPolicyChanged.ChangeType.CREATED);
+                long tPub = metrics.start();
+                try {
+                    eventPublisher.publish(ReglaAccesoPolicyChanged.of(orgId, r.getIdArea(),
+                            r.getIdRegla(), ReglaAccesoPolicyChanged.ChangeType.CREATED, nowUtc));
+                } finally {
+                    metrics.publish(Op.CREATE, tPub);
+                }
 
                 return toResponse(r);
             });
@@ -310,7 +330,7 @@ public class ReglaAccesoService {
 
         } catch (RuntimeException e) {
             auditReject(orgId, areaIdForAudit, null, ReglaAccesoChangeRejected.Operation.CREATE,
-                    "UNEXPECTED_ERROR", 500, e.getMessage());
+                    RejectReason.UNEXPECTED_ERROR, 500, e.getMessage());
             throw e;
         }
     }
@@ -336,7 +356,7 @@ public class ReglaAccesoService {
     public ReglaAccesoResponse update(UUID orgId, UUID reglaId, ReglaAccesoUpsertRequest req) {
         requireOrg(orgId, Op.UPDATE);
         if (reglaId == null) {
-            precondFailedCounter(Op.UPDATE, "reglaId").increment();
+            metrics.preconditionFailed(Op.UPDATE, Field.REGLA_ID);
             throw new IllegalArgumentException("reglaId es obligatorio");
         }
 
@@ -372,7 +392,7 @@ public class ReglaAccesoService {
                         req.validoHastaUtc(), desdeHora, hastaHora, reglaId);
 
                 if (dup) {
-                    duplicateConflicts.increment();
+                    metrics.duplicateConflict();
                     throw new WebApplicationException(
                             "Ya existe otra regla equivalente para ese criterio",
                             Response.Status.CONFLICT);
@@ -398,21 +418,31 @@ public class ReglaAccesoService {
                     r.setPrioridad(req.prioridad());
                 r.setMensaje(req.mensaje());
 
-                dbTimer(Op.UPDATE).record(reglaRepo::flush);
+                long tDb = metrics.start();
+                try {
+                    reglaRepo.flush();
+                } finally {
+                    metrics.db(Op.UPDATE, tDb);
+                }
 
                 if (req.validoDesdeUtc() != null)
-                    featureUsedCounter("vigencia_utc", Op.UPDATE).increment();
+                    metrics.featureUsed(Feature.VIGENCIA_UTC, Op.UPDATE);
                 if (req.desdeHoraLocal() != null)
-                    featureUsedCounter("daily_window", Op.UPDATE).increment();
+                    metrics.featureUsed(Feature.DAILY_WINDOW, Op.UPDATE);
                 if (req.idDispositivo() != null)
-                    featureUsedCounter("device_scoped", Op.UPDATE).increment();
+                    metrics.featureUsed(Feature.DEVICE_SCOPED, Op.UPDATE);
 
                 OffsetDateTime nowUtc = OffsetDateTime.now(clock);
                 ReglaAccesoPolicyChanged.ChangeType ct =
                         ReglaAccesoPolicyChanged.ChangeType.UPDATED;
-                policyChangedCounter(ct).increment();
-                publishTimer(Op.UPDATE).record(() -> eventPublisher.publish(ReglaAccesoPolicyChanged
-                        .of(orgId, r.getIdArea(), r.getIdRegla(), ct, nowUtc)));
+                metrics.policyChanged(ct);
+                long tPub = metrics.start();
+                try {
+                    eventPublisher.publish(ReglaAccesoPolicyChanged.of(orgId, r.getIdArea(),
+                            r.getIdRegla(), ct, nowUtc));
+                } finally {
+                    metrics.publish(Op.UPDATE, tPub);
+                }
                 return toResponse(r);
             });
 
@@ -429,7 +459,7 @@ public class ReglaAccesoService {
 
         } catch (RuntimeException e) {
             auditReject(orgId, areaIdForAudit, reglaId, ReglaAccesoChangeRejected.Operation.UPDATE,
-                    "UNEXPECTED_ERROR", 500, e.getMessage());
+                    RejectReason.UNEXPECTED_ERROR, 500, e.getMessage());
             throw e;
         }
     }
@@ -458,7 +488,7 @@ public class ReglaAccesoService {
             ReglaAccesoEstadoRequest req) {
         requireOrg(orgId, Op.CHANGE_ESTADO);
         if (reglaId == null) {
-            precondFailedCounter(Op.CHANGE_ESTADO, "reglaId").increment();
+            metrics.preconditionFailed(Op.CHANGE_ESTADO, Field.REGLA_ID);
             throw new IllegalArgumentException("reglaId es obligatorio");
         }
 
@@ -476,16 +506,25 @@ public class ReglaAccesoService {
                 EstadoReglaAcceso after = req.estado();
 
                 r.setEstado(after);
-                dbTimer(Op.CHANGE_ESTADO).record(reglaRepo::flush);
+                long tDb = metrics.start();
+                try {
+                    reglaRepo.flush();
+                } finally {
+                    metrics.db(Op.CHANGE_ESTADO, tDb);
+                }
 
                 if (before != after) {
                     ReglaAccesoPolicyChanged.ChangeType ct = mapEstadoChange(before, after);
                     if (ct != null) {
                         OffsetDateTime nowUtc = OffsetDateTime.now(clock);
-                        policyChangedCounter(ct).increment();
-                        publishTimer(Op.CHANGE_ESTADO)
-                                .record(() -> eventPublisher.publish(ReglaAccesoPolicyChanged
-                                        .of(orgId, r.getIdArea(), r.getIdRegla(), ct, nowUtc)));
+                        metrics.policyChanged(ct);
+                        long tPub = metrics.start();
+                        try {
+                            eventPublisher.publish(ReglaAccesoPolicyChanged.of(orgId, r.getIdArea(),
+                                    r.getIdRegla(), ct, nowUtc));
+                        } finally {
+                            metrics.publish(Op.CHANGE_ESTADO, tPub);
+                        }
                     }
                 }
                 return toResponse(r);
@@ -506,8 +545,8 @@ public class ReglaAccesoService {
 
         } catch (RuntimeException e) {
             auditReject(orgId, areaIdForAudit.get(), reglaId,
-                    ReglaAccesoChangeRejected.Operation.CHANGE_ESTADO, "UNEXPECTED_ERROR", 500,
-                    e.getMessage());
+                    ReglaAccesoChangeRejected.Operation.CHANGE_ESTADO,
+                    RejectReason.UNEXPECTED_ERROR, 500, e.getMessage());
             throw e;
         }
     }
@@ -535,7 +574,7 @@ public class ReglaAccesoService {
         timedOp(Op.DELETE, () -> {
             requireOrg(orgId, Op.DELETE);
             if (reglaId == null) {
-                precondFailedCounter(Op.DELETE, "reglaId").increment();
+                metrics.preconditionFailed(Op.DELETE, Field.REGLA_ID);
                 throw new IllegalArgumentException("reglaId es obligatorio");
             }
             UUID areaIdForAudit = null;
@@ -545,15 +584,25 @@ public class ReglaAccesoService {
                 areaIdForAudit = r.getIdArea();
 
                 r.setEstado(EstadoReglaAcceso.INACTIVA);
-                dbTimer(Op.DELETE).record(reglaRepo::flush);
+                long tDb = metrics.start();
+                try {
+                    reglaRepo.flush();
+                } finally {
+                    metrics.db(Op.DELETE, tDb);
+                }
 
                 OffsetDateTime nowUtc = OffsetDateTime.now(clock);
                 ReglaAccesoPolicyChanged.ChangeType ct =
                         ReglaAccesoPolicyChanged.ChangeType.SOFT_DELETED;
 
-                policyChangedCounter(ct).increment();
-                publishTimer(Op.DELETE).record(() -> eventPublisher.publish(ReglaAccesoPolicyChanged
-                        .of(orgId, r.getIdArea(), r.getIdRegla(), ct, nowUtc)));
+                metrics.policyChanged(ct);
+                long tPub = metrics.start();
+                try {
+                    eventPublisher.publish(ReglaAccesoPolicyChanged.of(orgId, r.getIdArea(),
+                            r.getIdRegla(), ct, nowUtc));
+                } finally {
+                    metrics.publish(Op.DELETE, tPub);
+                }
 
                 return null;
 
@@ -571,8 +620,8 @@ public class ReglaAccesoService {
 
             } catch (RuntimeException e) {
                 auditReject(orgId, areaIdForAudit, reglaId,
-                        ReglaAccesoChangeRejected.Operation.DELETE, "UNEXPECTED_ERROR", 500,
-                        e.getMessage());
+                        ReglaAccesoChangeRejected.Operation.DELETE,
+                        RejectReason.UNEXPECTED_ERROR, 500, e.getMessage());
                 throw e;
             }
         });
@@ -599,19 +648,18 @@ public class ReglaAccesoService {
      * @param areaId área (obligatorio para auditar; si es null se omite)
      * @param reglaId regla (opcional)
      * @param op operación (obligatorio)
-     * @param reasonCode código estable (obligatorio)
+     * @param reason código estable (obligatorio)
      * @param httpStatus estatus HTTP (obligatorio)
      * @param message mensaje human-readable (sanitizado)
      */
     private void auditReject(UUID orgId, UUID areaId, UUID reglaId,
-            ReglaAccesoChangeRejected.Operation op, String reasonCode, int httpStatus,
+            ReglaAccesoChangeRejected.Operation op, RejectReason reason, int httpStatus,
             String message) {
 
         try {
 
-            boolean canAudit = (orgId != null && areaId != null && op != null && reasonCode != null
-                    && !reasonCode.isBlank());
-            ruleRejectsCounter(mapOp(op), reasonCode, canAudit).increment();
+            boolean canAudit = (orgId != null && areaId != null && op != null && reason != null);
+            metrics.reject(mapOp(op), reason, canAudit);
 
             if (orgId == null) {
                 return;
@@ -620,7 +668,7 @@ public class ReglaAccesoService {
             if (areaId == null) {
                 LOG.debugf(
                         "audit_reject_skip missing areaId orgId=%s op=%s reglaId=%s status=%s code=%s",
-                        orgId, op, reglaId, httpStatus, reasonCode);
+                        orgId, op, reglaId, httpStatus, reason);
                 return;
             }
             if (op == null) {
@@ -628,7 +676,7 @@ public class ReglaAccesoService {
                         areaId, reglaId);
                 return;
             }
-            if (reasonCode == null || reasonCode.isBlank()) {
+            if (reason == null) {
                 LOG.debugf(
                         "audit_reject_skip missing reasonCode orgId=%s areaId=%s reglaId=%s op=%s",
                         orgId, areaId, reglaId, op);
@@ -637,7 +685,7 @@ public class ReglaAccesoService {
 
             OffsetDateTime nowUtc = OffsetDateTime.now(clock);
             eventPublisher.publish(ReglaAccesoChangeRejected.of(orgId, areaId, reglaId, op,
-                    reasonCode, httpStatus, safeMsg(message), nowUtc));
+                    reason.name(), httpStatus, safeMsg(message), nowUtc));
 
         } catch (Exception e) {
             LOG.debugf(e,
@@ -655,16 +703,16 @@ public class ReglaAccesoService {
      * texto.
      * </p>
      */
-    private static String mapReasonCode(int status) {
+    private static RejectReason mapReasonCode(int status) {
         if (status == 409)
-            return "DUPLICATE_RULE";
+            return RejectReason.DUPLICATE_RULE;
         if (status == 404)
-            return "NOT_FOUND";
+            return RejectReason.NOT_FOUND;
         if (status == 400)
-            return "VALIDATION_ERROR";
+            return RejectReason.VALIDATION_ERROR;
         if (status >= 500)
-            return "UNEXPECTED_ERROR";
-        return "WEB_ERROR";
+            return RejectReason.UNEXPECTED_ERROR;
+        return RejectReason.WEB_ERROR;
     }
 
 
@@ -698,22 +746,22 @@ public class ReglaAccesoService {
 
     private void requireOrg(UUID orgId, Op op) {
         if (orgId == null) {
-            precondFailedCounter(op, "orgId").increment();
+            metrics.preconditionFailed(op, Field.ORG_ID);
             throw new IllegalArgumentException("orgId es obligatorio");
         }
     }
 
     private void requirePaging(int page, int size, Op op) {
         if (page < 0) {
-            precondFailedCounter(op, "page").increment();
+            metrics.preconditionFailed(op, Field.PAGE);
             throw new IllegalArgumentException("page debe ser >= 0");
         }
         if (size <= 0) {
-            precondFailedCounter(op, "size").increment();
+            metrics.preconditionFailed(op, Field.SIZE);
             throw new IllegalArgumentException("size debe ser > 0");
         }
         if (size > 200) {
-            precondFailedCounter(op, "size").increment();
+            metrics.preconditionFailed(op, Field.SIZE);
             throw new IllegalArgumentException("size no debe exceder 200");
         }
     }
@@ -725,7 +773,7 @@ public class ReglaAccesoService {
 
     private Area getAreaOrThrow(Op op, UUID orgId, UUID idArea) {
         if (idArea == null) {
-            precondFailedCounter(op, "idArea").increment();
+            metrics.preconditionFailed(op, Field.ID_AREA);
             throw new IllegalArgumentException("idArea es obligatorio");
         }
         return areaRepo.findByIdAndOrganizacion(idArea, orgId)
@@ -734,7 +782,7 @@ public class ReglaAccesoService {
 
     private Dispositivo getDispositivoOrThrow(Op op, UUID orgId, UUID idDispositivo) {
         if (idDispositivo == null) {
-            precondFailedCounter(op, "idDispositivo").increment();
+            metrics.preconditionFailed(op, Field.ID_DISPOSITIVO);
             throw new IllegalArgumentException("idDispositivo es obligatorio");
         }
         return dispositivoRepo.findByIdAndOrganizacion(idDispositivo, orgId)
@@ -745,21 +793,6 @@ public class ReglaAccesoService {
     // Helpers de métricas (único punto)
     // ===============================
 
-    private Counter featureUsedCounter(String feature, Op op) {
-        String f = (feature == null || feature.isBlank()) ? "unknown" : feature;
-        return cachedCounter(M_RULE_FEATURE_USED_TOTAL, "feature", f, "op", op.tag);
-    }
-
-    private Counter validationFailedCounter(Op op, String check) {
-        String c = (check == null || check.isBlank()) ? "unknown" : check;
-        return cachedCounter(M_RULE_VALIDATION_FAILED_TOTAL, "op", op.tag, "check", c);
-    }
-
-    private Counter precondFailedCounter(Op op, String field) {
-        String f = (field == null || field.isBlank()) ? "unknown" : field;
-        return cachedCounter(M_RULE_PRECONDITION_FAILED_TOTAL, "op", op.tag, "field", f);
-    }
-
     // helper para mapear ReglaAccesoChangeRejected.Operation a Op (tags consistentes)
     private static Op mapOp(ReglaAccesoChangeRejected.Operation op) {
         if (op == null)
@@ -772,96 +805,17 @@ public class ReglaAccesoService {
         };
     }
 
-    private Timer opTimer(Op op, Result result) {
-        String key = M_RULE_OP_SECONDS + "|op=" + op.tag + "|result=" + result.tag;
-
-        return timerCache.computeIfAbsent(key,
-                k -> Timer.builder(M_RULE_OP_SECONDS).tag("op", op.tag).tag("result", result.tag)
-                        .publishPercentileHistogram(true)
-                        // Nota: los percentiles "directos" en Prometheus no siempre los usarás,
-                        // pero no molestan si te sirven localmente.
-                        .publishPercentiles(0.5, 0.95, 0.99).register(registry));
-    }
-
-    private Timer dbTimer(Op op) {
-        return timerCache.computeIfAbsent("db|op=" + op.tag,
-                k -> Timer.builder("access_rule_db_seconds").tag("op", op.tag)
-                        .publishPercentileHistogram(true).register(registry));
-    }
-
-    private Timer publishTimer(Op op) {
-        return timerCache.computeIfAbsent("pub|op=" + op.tag,
-                k -> Timer.builder("access_rule_event_publish_seconds").tag("op", op.tag)
-                        .publishPercentileHistogram(true).register(registry));
-    }
-
-
-
-    private enum Op {
-        LIST("list"), GET("get"), CREATE("create"), UPDATE("update"), CHANGE_ESTADO(
-                "change_estado"), DELETE("delete"), UNKNOWN("unknown");
-
-        final String tag;
-
-        Op(String tag) {
-            this.tag = tag;
-        }
-    }
-
-    private enum Result {
-        OK("ok"), NOT_FOUND("not_found"), BAD_REQUEST("bad_request"), CONFLICT("conflict"), ERROR(
-                "error");
-
-        final String tag;
-
-        Result(String tag) {
-            this.tag = tag;
-        }
-    }
-
-    private Counter ruleOpsCounter(Op op, Result result) {
-        return cachedCounter(M_RULE_OPS_TOTAL, "op", op.tag, "result", result.tag);
-    }
-
-    private Counter cachedCounter(String name, String... tags) {
-        StringBuilder key = new StringBuilder(name);
-        for (int i = 0; i < tags.length; i += 2) {
-            key.append('|').append(tags[i]).append('=').append(tags[i + 1]);
-        }
-        return counterCache.computeIfAbsent(key.toString(),
-                k -> Counter.builder(name).tags(tags).register(registry));
-    }
-
-
-    /**
-     * Rechazos: audited=true/false, con reasonCode estable. reasonCode recomendado: NOT_FOUND /
-     * VALIDATION_ERROR / DUPLICATE_RULE / UNEXPECTED_ERROR / WEB_ERROR
-     */
-    private Counter ruleRejectsCounter(Op op, String reasonCode, boolean audited) {
-        String rc = (reasonCode == null || reasonCode.isBlank()) ? "UNKNOWN" : reasonCode;
-        return cachedCounter(M_RULE_REJECTS_TOTAL, "op", op.tag, "reason", rc, "audited",
-                Boolean.toString(audited));
-    }
-
-    /** Eventos de policy change emitidos. */
-    private Counter policyChangedCounter(ReglaAccesoPolicyChanged.ChangeType type) {
-        String t = (type != null) ? type.name() : "UNKNOWN";
-        return cachedCounter(M_RULE_POLICY_CHANGED_TOTAL, "type", t);
-    }
-
     /** Ejecuta el bloque y siempre registra timer+counter ok/error según corresponda. */
     private <T> T timedOp(Op op, java.util.concurrent.Callable<T> body) {
-        final Timer.Sample sample = Timer.start(registry);
+        final long start = metrics.start();
 
         Result result = Result.OK;
         try {
             T out = body.call();
-            ruleOpsCounter(op, Result.OK).increment();
             return out;
 
         } catch (NotFoundException e) {
             result = Result.NOT_FOUND;
-            ruleOpsCounter(op, result).increment();
             throw e;
 
         } catch (WebApplicationException e) {
@@ -877,22 +831,19 @@ public class ReglaAccesoService {
             else
                 result = Result.BAD_REQUEST;
 
-            ruleOpsCounter(op, result).increment();
             throw e;
 
         } catch (RuntimeException e) {
             result = Result.ERROR;
-            ruleOpsCounter(op, result).increment();
             throw e;
 
         } catch (Exception e) {
             result = Result.ERROR;
-            ruleOpsCounter(op, result).increment();
             throw new RuntimeException(e);
 
         } finally {
-            // Timer por op + result (nuevo)
-            sample.stop(opTimer(op, result));
+            // counter + timer por op + result
+            metrics.op(op, result, start);
         }
     }
 
@@ -907,12 +858,12 @@ public class ReglaAccesoService {
         try {
             ZoneId z = zoneProvider.zoneFor(orgId, areaId);
             if (z == null) {
-                zoneFallback.increment();
+                metrics.zoneFallback();
                 return ZoneId.of("UTC");
             }
             return z;
         } catch (RuntimeException e) {
-            zoneFallback.increment();
+            metrics.zoneFallback();
             LOG.warnf(e, "No se pudo resolver zona efectiva orgId=%s areaId=%s. Usando UTC.", orgId,
                     areaId);
             return ZoneId.of("UTC");
@@ -928,7 +879,7 @@ public class ReglaAccesoService {
 
         if (dispositivo.getIdArea() != null && area != null && area.getIdArea() != null
                 && !dispositivo.getIdArea().equals(area.getIdArea())) {
-            validationFailedCounter(op, "device_area_mismatch").increment();
+            metrics.validationFailed(op, Check.DEVICE_AREA_MISMATCH);
             throw new WebApplicationException("El dispositivo no pertenece al área indicada",
                     Response.Status.BAD_REQUEST);
         }
@@ -947,13 +898,13 @@ public class ReglaAccesoService {
             return;
 
         if (desde == null || hasta == null) {
-            validationFailedCounter(op, "vigencia_missing_pair").increment();
+            metrics.validationFailed(op, Check.VIGENCIA_MISSING_PAIR);
             throw new WebApplicationException(
                     "validoDesdeUtc y validoHastaUtc deben venir ambos o ninguno",
                     Response.Status.BAD_REQUEST);
         }
         if (!desde.isBefore(hasta)) {
-            validationFailedCounter(op, "vigencia_range_invalid").increment();
+            metrics.validationFailed(op, Check.VIGENCIA_RANGE_INVALID);
             throw new WebApplicationException(
                     "validoDesdeUtc debe ser estrictamente menor que validoHastaUtc",
                     Response.Status.BAD_REQUEST);
@@ -970,7 +921,7 @@ public class ReglaAccesoService {
         try {
             return LocalTime.parse(s, HHMM);
         } catch (DateTimeParseException e) {
-            validationFailedCounter(op, "hhmm_format").increment();
+            metrics.validationFailed(op, Check.HHMM_FORMAT);
             throw new WebApplicationException(field + " debe tener formato HH:mm",
                     Response.Status.BAD_REQUEST);
         }
@@ -981,13 +932,13 @@ public class ReglaAccesoService {
             return;
 
         if (desde == null || hasta == null) {
-            validationFailedCounter(op, "daily_window_missing_pair").increment();
+            metrics.validationFailed(op, Check.DAILY_WINDOW_MISSING_PAIR);
             throw new WebApplicationException(
                     "desdeHoraLocal y hastaHoraLocal deben venir ambos o ninguno",
                     Response.Status.BAD_REQUEST);
         }
         if (desde.equals(hasta)) {
-            validationFailedCounter(op, "daily_window_equal").increment();
+            metrics.validationFailed(op, Check.DAILY_WINDOW_EQUAL);
             throw new WebApplicationException(
                     "desdeHoraLocal y hastaHoraLocal no pueden ser iguales",
                     Response.Status.BAD_REQUEST);
@@ -1,14 +1,21 @@
 package com.haedcom.access.application.residente;
 
+import java.time.Clock;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.Cursor;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.residente.dto.ResidenteEstadoRequest;
 import com.haedcom.access.api.residente.dto.ResidenteResponse;
 import com.haedcom.access.api.residente.dto.ResidenteUpsertRequest;
 import com.haedcom.access.domain.enums.EstadoResidente;
 import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.DomainEventPublisher;
+import com.haedcom.access.domain.events.SujetoAccesoChanged;
 import com.haedcom.access.domain.model.Organizacion;
 import com.haedcom.access.domain.model.Residente;
 import com.haedcom.access.domain.repo.OrganizacionRepository;
@@ -34,6 +41,8 @@ import jakarta.ws.rs.core.Response;
  * <li>Traducir violaciones de integridad (p.ej. UNIQUE) a errores HTTP consistentes (p.ej.
  * 409).</li>
  * <li>Mapear entidades a DTOs de salida.</li>
+ * <li>Publicar {@link SujetoAccesoChanged} en cambios exitosos (mantiene el índice de credenciales
+ * del flujo de acceso).</li>
  * </ul>
  * </p>
  *
@@ -53,16 +62,24 @@ public class ResidenteService {
 
     private final ResidenteRepository residenteRepo;
     private final OrganizacionRepository orgRepo;
+    private final DomainEventPublisher eventPublisher;
+    private final Clock clock;
 
     /**
      * Constructor del servicio de residentes.
      *
      * @param residenteRepo repositorio de residentes
      * @param orgRepo repositorio de organizaciones
+     * @param eventPublisher publicador de eventos de dominio
+     * @param clock reloj (si es null se usa UTC)
      */
-    public ResidenteService(ResidenteRepository residenteRepo, OrganizacionRepository orgRepo) {
+    public ResidenteService(ResidenteRepository residenteRepo, OrganizacionRepository orgRepo,
+            DomainEventPublisher eventPublisher, Clock clock) {
         this.residenteRepo = Objects.requireNonNull(residenteRepo, "residenteRepo es obligatorio");
         this.orgRepo = Objects.requireNonNull(orgRepo, "orgRepo es obligatorio");
+        this.eventPublisher =
+                Objects.requireNonNull(eventPublisher, "eventPublisher es obligatorio");
+        this.clock = (clock != null) ? clock : Clock.systemUTC();
     }
 
     /**
@@ -111,6 +128,43 @@ public class ResidenteService {
         return PageResponse.of(items, page, size, total);
     }
 
+    /**
+     * Lista los residentes de una organización por cursor (keyset), con los mismos filtros y
+     * ordenamiento que {@link #list}.
+     *
+     * <p>
+     * Cada página continúa después de la última fila de la anterior en vez de saltar
+     * {@code page * size} filas, así que su costo no depende de la profundidad. El conteo solo se
+     * ejecuta si se pide con {@code includeTotal}.
+     * </p>
+     *
+     * @param orgId identificador de la organización (tenant)
+     * @param q término de búsqueda libre (opcional)
+     * @param tipoDocumento filtro por tipo de documento (opcional)
+     * @param numeroDocumento filtro por número de documento exacto (opcional)
+     * @param estado filtro por estado del residente (opcional)
+     * @param sort campo de ordenamiento (opcional; whitelist en repositorio)
+     * @param dir dirección del ordenamiento (opcional; {@code asc} o {@code desc})
+     * @param cursor {@code nextCursor} de la página anterior (null = primera página)
+     * @param size tamaño de página
+     * @param includeTotal si {@code true}, calcula {@code total}
+     * @return página con residentes y cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor es inválido o de otro orden (400)
+     */
+    @Transactional
+    public CursorPageResponse<ResidenteResponse> listCursor(UUID orgId, String q,
+            TipoDocumentoIdentidad tipoDocumento, String numeroDocumento, EstadoResidente estado,
+            String sort, String dir, String cursor, int size, boolean includeTotal) {
+        List<Residente> rows = residenteRepo.searchByOrganizacionAfter(orgId, q, tipoDocumento,
+                numeroDocumento, estado, sort, dir, Cursor.decode(cursor), size + 1);
+
+        Long total = includeTotal ? residenteRepo.countSearchByOrganizacion(orgId, q,
+                tipoDocumento, numeroDocumento, estado) : null;
+
+        return CursorPageResponse.of(rows, size, this::toResponse,
+                r -> Cursor.encode(residenteRepo.keysetOf(r, sort, dir)), total);
+    }
+
     /**
      * Obtiene un residente específico dentro de una organización.
      *
@@ -162,6 +216,8 @@ public class ResidenteService {
         try {
             residenteRepo.persist(r);
             residenteRepo.flush();
+            publishSujetoChanged(orgId, r.getIdResidente(),
+                    SujetoAccesoChanged.ChangeType.UPSERTED);
             return toResponse(r);
         } catch (RuntimeException e) {
             if (isUniqueDocumentoViolation(e)) {
@@ -208,6 +264,8 @@ public class ResidenteService {
 
         try {
             residenteRepo.flush();
+            publishSujetoChanged(orgId, r.getIdResidente(),
+                    SujetoAccesoChanged.ChangeType.UPSERTED);
             return toResponse(r);
         } catch (RuntimeException e) {
             if (isUniqueDocumentoViolation(e)) {
@@ -228,6 +286,7 @@ public class ResidenteService {
     public void delete(UUID orgId, UUID residenteId) {
         Residente r = getResidenteOrThrow(orgId, residenteId);
         residenteRepo.delete(r);
+        publishSujetoChanged(orgId, residenteId, SujetoAccesoChanged.ChangeType.DELETED);
     }
 
     /**
@@ -271,6 +330,7 @@ public class ResidenteService {
         r.setEstado(req.estado());
 
         residenteRepo.flush();
+        publishSujetoChanged(orgId, residenteId, SujetoAccesoChanged.ChangeType.UPSERTED);
 
         return toResponse(r);
     }
@@ -281,6 +341,12 @@ public class ResidenteService {
     // Helpers privados
     // -------------------------
 
+    private void publishSujetoChanged(UUID orgId, UUID residenteId,
+            SujetoAccesoChanged.ChangeType changeType) {
+        eventPublisher.publish(SujetoAccesoChanged.of(orgId, TipoSujetoAcceso.RESIDENTE,
+                residenteId, changeType, OffsetDateTime.now(clock)));
+    }
+
     /**
      * Obtiene una organización o lanza excepción si no existe.
      *
@@ -1,15 +1,21 @@
 package com.haedcom.access.application.time;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import com.haedcom.access.application.cache.SingleFlightCache;
 import com.haedcom.access.domain.model.TimeZoneValidator;
 import com.haedcom.access.domain.repo.AreaRepository;
 import com.haedcom.access.domain.repo.OrganizacionRepository;
-import io.quarkus.cache.CacheInvalidate;
-import io.quarkus.cache.CacheResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 
 /**
  * Implementación de {@link TenantZoneProvider} respaldada por base de datos con caché.
@@ -22,9 +28,17 @@ import jakarta.enterprise.context.ApplicationScoped;
  * </ul>
  *
  * <p>
- * Las entradas cacheadas devuelven {@link ZoneId} ya validado. Se recomienda configurar TTL/size en
- * {@code application.properties}.
+ * Las entradas cacheadas devuelven {@link ZoneId} ya validado. Ambos son {@link SingleFlightCache}:
+ * tras editar una zona horaria, las lecturas concurrentes de la misma key comparten una sola
+ * consulta, y las keys leídas seguido se refrescan en segundo plano antes de vencer.
  * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.access.zone-cache.ttl} (default {@code 1h})</li>
+ * <li>{@code haedcom.access.zone-cache.refresh-after} (default {@code 50m}; {@code 0} lo
+ * desactiva)</li>
+ * </ul>
  */
 @ApplicationScoped
 public class DbTenantZoneProvider implements TenantZoneProvider {
@@ -37,25 +51,41 @@ public class DbTenantZoneProvider implements TenantZoneProvider {
     /** Fallback seguro si hay datos inconsistentes o tenant inexistente. */
     private final ZoneId fallback = ZoneId.of("UTC");
 
-    public DbTenantZoneProvider(OrganizacionRepository orgRepo, AreaRepository areaRepo) {
+    private final SingleFlightCache<UUID, ZoneId> porOrg;
+    private final SingleFlightCache<ZonaArea, ZoneId> porArea;
+
+    @Inject
+    public DbTenantZoneProvider(OrganizacionRepository orgRepo, AreaRepository areaRepo,
+            Clock clock, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.access.zone-cache.ttl",
+                    defaultValue = "1h") Duration ttl,
+            @ConfigProperty(name = "haedcom.access.zone-cache.refresh-after",
+                    defaultValue = "50m") Duration refreshAfter) {
         this.orgRepo = Objects.requireNonNull(orgRepo, "orgRepo es obligatorio");
         this.areaRepo = Objects.requireNonNull(areaRepo, "areaRepo es obligatorio");
+        Executor refresher = r -> Thread.ofVirtual().name("zone-cache-refresh").start(r);
+        this.porOrg = new SingleFlightCache<>("tenant-zone-org", this::cargarZonaOrg, ttl,
+                refreshAfter, refresher, clock, registry);
+        this.porArea = new SingleFlightCache<>("tenant-zone-area", this::cargarZonaArea, ttl,
+                refreshAfter, refresher, clock, registry);
     }
 
     @Override
     public ZoneId zoneFor(UUID orgId, UUID areaId) {
         Objects.requireNonNull(orgId, "orgId es obligatorio");
         if (areaId == null) {
-            return zoneForOrg(orgId);
+            return porOrg.get(orgId);
         }
-        return zoneForArea(orgId, areaId);
+        return porArea.get(new ZonaArea(orgId, areaId));
     }
 
     /**
-     * Resuelve zona del tenant (organización) con caché.
+     * Resuelve zona del tenant (organización), siempre en una transacción propia: la carga se
+     * comparte con los llamadores que esperan la misma key y no debe depender de la transacción
+     * del primero.
      */
-    @CacheResult(cacheName = "tenant-zone-org")
-    ZoneId zoneForOrg(UUID orgId) {
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    ZoneId cargarZonaOrg(UUID orgId) {
         // timezoneId en organizacion es NOT NULL (por diseño), pero defensivo:
         String tz = orgRepo.findTimezoneId(orgId).orElse(null);
 
@@ -68,16 +98,17 @@ public class DbTenantZoneProvider implements TenantZoneProvider {
     }
 
     /**
-     * Resuelve zona efectiva por área con caché:
+     * Resuelve zona efectiva por área:
      * <ul>
      * <li>si área tiene override válido, gana</li>
      * <li>si no, hereda org</li>
      * </ul>
+     * La herencia se resuelve fuera de la transacción de la lectura del área, para no retener su
+     * conexión mientras se carga la zona del tenant.
      */
-    @CacheResult(cacheName = "tenant-zone-area")
-    ZoneId zoneForArea(UUID orgId, UUID areaId) {
+    ZoneId cargarZonaArea(ZonaArea k) {
         // Nota: si el área no existe o no pertenece al tenant, esto retorna null.
-        String areaTz = areaRepo.findTimezoneIdOrNull(orgId, areaId);
+        String areaTz = leerZonaArea(k);
 
         String normalizedArea = TimeZoneValidator.normalizeAndValidateIana(areaTz);
         if (normalizedArea != null) {
@@ -85,20 +116,36 @@ public class DbTenantZoneProvider implements TenantZoneProvider {
         }
 
         // heredar tenant
-        return zoneForOrg(orgId);
+        return porOrg.get(k.orgId());
     }
 
+    /**
+     * Lee el override de zona del área en una transacción propia (ver {@link #cargarZonaOrg}).
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    String leerZonaArea(ZonaArea k) {
+        return areaRepo.findTimezoneIdOrNull(k.orgId(), k.areaId());
+    }
+
+    /**
+     * Invalida la zona del tenant y las de sus áreas (las que heredan la del tenant quedarían
+     * obsoletas).
+     */
     @Override
-    @CacheInvalidate(cacheName = "tenant-zone-org")
     public void invalidateOrg(UUID orgId) {
-        // invalidación por key = orgId
-        LOG.debugf("Invalidating cache tenant-zone-org for orgId=%s", orgId);
+        porOrg.invalidate(orgId);
+        int areas = porArea.invalidateIf(k -> k.orgId().equals(orgId));
+        LOG.debugf("Invalidating cache tenant-zone-org for orgId=%s areas=%d", orgId, areas);
     }
 
     @Override
-    @CacheInvalidate(cacheName = "tenant-zone-area")
     public void invalidateArea(UUID orgId, UUID areaId) {
-        // invalidación por key = (orgId, areaId) según firma del método cacheado
+        if (orgId != null && areaId != null) {
+            porArea.invalidate(new ZonaArea(orgId, areaId));
+        }
         LOG.debugf("Invalidating cache tenant-zone-area for orgId=%s areaId=%s", orgId, areaId);
     }
+
+    record ZonaArea(UUID orgId, UUID areaId) {
+    }
 }
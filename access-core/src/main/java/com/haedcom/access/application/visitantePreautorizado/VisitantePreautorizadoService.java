@@ -1,12 +1,19 @@
 package com.haedcom.access.application.visitantePreautorizado;
 
+import java.time.Clock;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import com.haedcom.access.api.common.pagination.Cursor;
+import com.haedcom.access.api.common.pagination.CursorPageResponse;
 import com.haedcom.access.api.common.pagination.PageResponse;
 import com.haedcom.access.api.visitante.dto.VisitantePreautorizadoResponse;
 import com.haedcom.access.api.visitante.dto.VisitantePreautorizadoUpsertRequest;
 import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.DomainEventPublisher;
+import com.haedcom.access.domain.events.SujetoAccesoChanged;
 import com.haedcom.access.domain.model.Organizacion;
 import com.haedcom.access.domain.model.Residente;
 import com.haedcom.access.domain.model.VisitantePreautorizado;
@@ -35,6 +42,8 @@ import jakarta.ws.rs.core.Response;
  * <li>Traducir violaciones de integridad (p.ej. UNIQUE) a errores HTTP consistentes (p.ej.
  * 409).</li>
  * <li>Mapear entidades a DTOs de salida.</li>
+ * <li>Publicar {@link SujetoAccesoChanged} en cambios exitosos (mantiene el índice de credenciales
+ * del flujo de acceso).</li>
  * </ul>
  * </p>
  *
@@ -55,6 +64,8 @@ public class VisitantePreautorizadoService {
     private final VisitantePreautorizadoRepository visitanteRepo;
     private final OrganizacionRepository orgRepo;
     private final ResidenteRepository residenteRepo;
+    private final DomainEventPublisher eventPublisher;
+    private final Clock clock;
 
     /**
      * Constructor del servicio de visitantes preautorizados.
@@ -62,12 +73,18 @@ public class VisitantePreautorizadoService {
      * @param visitanteRepo repositorio de visitantes preautorizados
      * @param orgRepo repositorio de organizaciones
      * @param residenteRepo repositorio de residentes (para validar asociación opcional)
+     * @param eventPublisher publicador de eventos de dominio
+     * @param clock reloj (si es null se usa UTC)
      */
     public VisitantePreautorizadoService(VisitantePreautorizadoRepository visitanteRepo,
-            OrganizacionRepository orgRepo, ResidenteRepository residenteRepo) {
+            OrganizacionRepository orgRepo, ResidenteRepository residenteRepo,
+            DomainEventPublisher eventPublisher, Clock clock) {
         this.visitanteRepo = Objects.requireNonNull(visitanteRepo, "visitanteRepo es obligatorio");
         this.orgRepo = Objects.requireNonNull(orgRepo, "orgRepo es obligatorio");
         this.residenteRepo = Objects.requireNonNull(residenteRepo, "residenteRepo es obligatorio");
+        this.eventPublisher =
+                Objects.requireNonNull(eventPublisher, "eventPublisher es obligatorio");
+        this.clock = (clock != null) ? clock : Clock.systemUTC();
     }
 
     /**
@@ -118,6 +135,40 @@ public class VisitantePreautorizadoService {
         return PageResponse.of(items, page, size, total);
     }
 
+    /**
+     * Lista visitantes preautorizados por cursor (keyset), con los mismos filtros y ordenamiento
+     * que {@link #list}. El costo de cada página no depende de su profundidad y el conteo solo se
+     * ejecuta con {@code includeTotal}.
+     *
+     * @param orgId identificador de la organización (tenant)
+     * @param residenteId filtro por residente asociado (opcional)
+     * @param q término de búsqueda libre (opcional)
+     * @param tipoDocumento filtro por tipo de documento (opcional)
+     * @param numeroDocumento filtro por número de documento exacto (opcional)
+     * @param sort campo de ordenamiento (opcional; whitelist en repositorio)
+     * @param dir dirección del ordenamiento (opcional; {@code asc} o {@code desc})
+     * @param cursor {@code nextCursor} de la página anterior (null = primera página)
+     * @param size tamaño de página
+     * @param includeTotal si {@code true}, calcula {@code total}
+     * @return página con visitantes y cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor es inválido o de otro orden (400)
+     */
+    @Transactional
+    public CursorPageResponse<VisitantePreautorizadoResponse> listCursor(UUID orgId,
+            UUID residenteId, String q, TipoDocumentoIdentidad tipoDocumento,
+            String numeroDocumento, String sort, String dir, String cursor, int size,
+            boolean includeTotal) {
+        List<VisitantePreautorizado> rows = visitanteRepo.searchByOrganizacionAfter(orgId,
+                residenteId, q, tipoDocumento, numeroDocumento, sort, dir, Cursor.decode(cursor),
+                size + 1);
+
+        Long total = includeTotal ? visitanteRepo.countSearchByOrganizacion(orgId, residenteId, q,
+                tipoDocumento, numeroDocumento) : null;
+
+        return CursorPageResponse.of(rows, size, this::toResponse,
+                v -> Cursor.encode(visitanteRepo.keysetOf(v, sort, dir)), total);
+    }
+
     /**
      * Obtiene un visitante preautorizado específico dentro de una organización.
      *
@@ -179,6 +230,8 @@ public class VisitantePreautorizadoService {
         try {
             visitanteRepo.persist(v);
             visitanteRepo.flush();
+            publishSujetoChanged(orgId, v.getIdVisitante(),
+                    SujetoAccesoChanged.ChangeType.UPSERTED);
             return toResponse(v);
         } catch (RuntimeException e) {
             if (isUniqueDocumentoViolation(e)) {
@@ -233,6 +286,8 @@ public class VisitantePreautorizadoService {
 
         try {
             visitanteRepo.flush();
+            publishSujetoChanged(orgId, v.getIdVisitante(),
+                    SujetoAccesoChanged.ChangeType.UPSERTED);
             return toResponse(v);
         } catch (RuntimeException e) {
             if (isUniqueDocumentoViolation(e)) {
@@ -253,12 +308,19 @@ public class VisitantePreautorizadoService {
     public void delete(UUID orgId, UUID visitanteId) {
         VisitantePreautorizado v = getVisitanteOrThrow(orgId, visitanteId);
         visitanteRepo.delete(v);
+        publishSujetoChanged(orgId, visitanteId, SujetoAccesoChanged.ChangeType.DELETED);
     }
 
     // -------------------------
     // Helpers privados
     // -------------------------
 
+    private void publishSujetoChanged(UUID orgId, UUID visitanteId,
+            SujetoAccesoChanged.ChangeType changeType) {
+        eventPublisher.publish(SujetoAccesoChanged.of(orgId, TipoSujetoAcceso.VISITANTE,
+                visitanteId, changeType, OffsetDateTime.now(clock)));
+    }
+
     /**
      * Obtiene una organización o lanza excepción si no existe.
      *
@@ -14,5 +14,16 @@ import java.util.UUID;
  * @param idEjecucionExterna correlación externa (opcional)
  */
 public record ComandoDispositivoConfirmado(UUID orgId, UUID idComando, UUID idIntento,
-        UUID idDispositivo, OffsetDateTime confirmadoEnUtc, String idEjecucionExterna) {
+        UUID idDispositivo, OffsetDateTime confirmadoEnUtc, String idEjecucionExterna)
+        implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "ComandoDispositivo";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idComando);
+    }
 }
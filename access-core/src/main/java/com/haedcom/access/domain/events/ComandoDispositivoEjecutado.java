@@ -39,5 +39,15 @@ import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
  */
 public record ComandoDispositivoEjecutado(UUID eventId, UUID orgId, UUID idComando, UUID idIntento,
         UUID idDispositivo, EstadoComandoDispositivo estadoFinal, OffsetDateTime ejecutadoEnUtc,
-        String codigoError, String detalleError, String idEjecucionExterna) {
+        String codigoError, String detalleError, String idEjecucionExterna) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "ComandoDispositivo";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idComando);
+    }
 }
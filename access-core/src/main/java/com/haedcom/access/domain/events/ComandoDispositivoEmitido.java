@@ -12,8 +12,25 @@ import com.haedcom.access.domain.enums.TipoComandoDispositivo;
  * Se emite después de persistir {@code ComandoDispositivo}. El microservicio de dispositivos
  * típicamente consume este evento para ejecutar el comando físico.
  * </p>
+ *
+ * <p>
+ * {@code identificadorExterno} es el del dispositivo destino: el {@code device-gateway} enruta el
+ * comando a la conexión WebSocket del dispositivo por ese identificador. Puede ser {@code null}
+ * (dispositivo sin identificador externo, o eventos anteriores a este campo).
+ * </p>
  */
 public record ComandoDispositivoEmitido(UUID orgId, UUID idComando, UUID idIntento,
         UUID idDispositivo, TipoComandoDispositivo comando, String mensaje,
-        EstadoComandoDispositivo estado, String claveIdempotencia, OffsetDateTime enviadoEnUtc) {
+        EstadoComandoDispositivo estado, String claveIdempotencia, OffsetDateTime enviadoEnUtc,
+        String identificadorExterno) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "ComandoDispositivo";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idComando);
+    }
 }
@@ -17,5 +17,15 @@ import java.util.UUID;
  */
 public record ComandoDispositivoFallido(UUID orgId, UUID idComando, UUID idIntento,
         UUID idDispositivo, OffsetDateTime fallidoEnUtc, String codigoError, String detalleError,
-        String idEjecucionExterna) {
+        String idEjecucionExterna) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "ComandoDispositivo";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idComando);
+    }
 }
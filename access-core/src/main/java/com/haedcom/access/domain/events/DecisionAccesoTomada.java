@@ -13,5 +13,15 @@ import com.haedcom.access.domain.enums.TipoResultadoDecision;
  */
 public record DecisionAccesoTomada(UUID orgId, UUID idDecision, UUID idIntento,
         TipoResultadoDecision resultado, String codigoMotivo, String detalleMotivo,
-        OffsetDateTime decididoEnUtc, OffsetDateTime expiraEnUtc) {
+        OffsetDateTime decididoEnUtc, OffsetDateTime expiraEnUtc) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "IntentoAcceso";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idIntento);
+    }
 }
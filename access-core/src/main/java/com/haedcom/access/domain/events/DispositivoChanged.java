@@ -0,0 +1,61 @@
+package com.haedcom.access.domain.events;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Evento de dominio que indica que cambió un {@code Dispositivo} del tenant.
+ *
+ * <p>
+ * Se emite al crear, actualizar o eliminar un dispositivo. El uso principal es invalidar, en todos
+ * los nodos, el cache de snapshots de dispositivo que usa el flujo de acceso
+ * ({@code DeviceSnapshotCache}).
+ * </p>
+ *
+ * <p>
+ * No transporta los datos del dispositivo: el consumidor descarta la entrada y la próxima lectura
+ * la recarga.
+ * </p>
+ *
+ * @param eventId id único del evento
+ * @param orgId tenant
+ * @param idDispositivo id del dispositivo
+ * @param changeType tipo de cambio
+ * @param occurredAtUtc instante del cambio
+ */
+public record DispositivoChanged(UUID eventId, UUID orgId, UUID idDispositivo,
+        ChangeType changeType, OffsetDateTime occurredAtUtc) implements DomainEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public DispositivoChanged {
+        if (eventId == null)
+            throw new IllegalArgumentException("eventId es obligatorio");
+        if (orgId == null)
+            throw new IllegalArgumentException("orgId es obligatorio");
+        if (idDispositivo == null)
+            throw new IllegalArgumentException("idDispositivo es obligatorio");
+        if (changeType == null)
+            throw new IllegalArgumentException("changeType es obligatorio");
+        if (occurredAtUtc == null)
+            throw new IllegalArgumentException("occurredAtUtc es obligatorio");
+    }
+
+    /** Fábrica para consistencia. */
+    public static DispositivoChanged of(UUID orgId, UUID idDispositivo, ChangeType changeType,
+            OffsetDateTime nowUtc) {
+        return new DispositivoChanged(UUID.randomUUID(), orgId, idDispositivo, changeType, nowUtc);
+    }
+
+    @Override
+    public String aggregateType() {
+        return "Dispositivo";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idDispositivo);
+    }
+}
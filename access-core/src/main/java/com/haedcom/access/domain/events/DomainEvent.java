@@ -0,0 +1,44 @@
+package com.haedcom.access.domain.events;
+
+import java.util.UUID;
+
+/**
+ * Contrato tipado de un evento de dominio publicable por outbox.
+ *
+ * <p>
+ * Expone explícitamente el tenant y el agregado para trazabilidad, de modo que
+ * {@link OutboxDomainEventPublisher} no necesite reflexión en el camino caliente. Los eventos
+ * {@code record} obtienen {@link #orgId()} de su componente homónimo.
+ * </p>
+ *
+ * @see DomainEventMetadata
+ */
+public interface DomainEvent {
+
+    /** Valor estable cuando el agregado no aplica o no se conoce. */
+    String AGGREGATE_UNKNOWN = "UNKNOWN";
+
+    /**
+     * @return tenant del evento (obligatorio)
+     */
+    UUID orgId();
+
+    /**
+     * @return nombre lógico del agregado (p.ej. {@code ComandoDispositivo}) o
+     *         {@link #AGGREGATE_UNKNOWN}
+     */
+    String aggregateType();
+
+    /**
+     * @return identificador del agregado o {@link #AGGREGATE_UNKNOWN}
+     */
+    String aggregateId();
+
+    /**
+     * @param id id del agregado (puede ser null)
+     * @return el id como string o {@link #AGGREGATE_UNKNOWN}
+     */
+    static String idOf(UUID id) {
+        return id != null ? id.toString() : AGGREGATE_UNKNOWN;
+    }
+}
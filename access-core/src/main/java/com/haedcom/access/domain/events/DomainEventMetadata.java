@@ -0,0 +1,199 @@
+package com.haedcom.access.domain.events;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Metadata de outbox resuelta <b>una vez por clase</b> de evento.
+ *
+ * <p>
+ * Registro por clase ({@link ClassValue}) usado por {@link OutboxDomainEventPublisher}:
+ * </p>
+ * <ul>
+ * <li>Eventos {@link DomainEvent}: tenant y agregado se leen con llamadas directas, sin
+ * reflexión.</li>
+ * <li>Otros objetos (compatibilidad): se aplica la heurística histórica ({@code orgId()},
+ * {@code idComando()}, {@code idIntento()}, {@code idDecision()}, {@code idRegla()},
+ * {@code idSujeto()}), pero los {@link Method} se buscan una sola vez al resolver la clase; la
+ * publicación solo hace {@code invoke}.</li>
+ * </ul>
+ *
+ * <p>
+ * {@link #preload()} resuelve al arranque los eventos conocidos del dominio.
+ * </p>
+ */
+public final class DomainEventMetadata {
+
+    /** Eventos de dominio publicados por el core (resueltos al arranque). */
+    static final List<Class<? extends DomainEvent>> KNOWN_EVENTS = List.of(
+            ComandoDispositivoConfirmado.class, ComandoDispositivoEjecutado.class,
+            ComandoDispositivoEmitido.class, ComandoDispositivoFallido.class,
+            DecisionAccesoTomada.class, DispositivoChanged.class, IntentoAccesoRegistrado.class,
+            ReglaAccesoChangeRejected.class, ReglaAccesoPolicyChanged.class,
+            ReglaAccesoPolicyInvalidateAllRequested.class, SujetoAccesoChanged.class);
+
+    /** Heurística histórica: orden de prioridad (método → aggregateType). */
+    private static final String[][] LEGACY_AGGREGATES = {{"idComando", "ComandoDispositivo"},
+            {"idIntento", "IntentoAcceso"}, {"idDecision", "DecisionAcceso"},
+            {"idRegla", "ReglaAcceso"}, {"idSujeto", "SujetoAcceso"}};
+
+    private static final ClassValue<DomainEventMetadata> REGISTRY = new ClassValue<>() {
+        @Override
+        protected DomainEventMetadata computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final String eventType;
+    private final boolean typed;
+
+    // Solo para eventos no tipados
+    private final Method orgIdMethod;
+    private final String legacyAggregateType;
+    private final Method[] legacyAggregateIdMethods;
+
+    private DomainEventMetadata(Class<?> type, boolean typed, Method orgIdMethod,
+            String legacyAggregateType, Method[] legacyAggregateIdMethods) {
+        this.type = type;
+        this.eventType = type.getName();
+        this.typed = typed;
+        this.orgIdMethod = orgIdMethod;
+        this.legacyAggregateType = legacyAggregateType;
+        this.legacyAggregateIdMethods = legacyAggregateIdMethods;
+    }
+
+    /**
+     * @param event evento (obligatorio)
+     * @return metadata de su clase (cacheada)
+     */
+    public static DomainEventMetadata of(Object event) {
+        return REGISTRY.get(Objects.requireNonNull(event, "event es obligatorio").getClass());
+    }
+
+    /**
+     * @param type clase del evento (obligatorio)
+     * @return metadata de la clase (cacheada)
+     */
+    public static DomainEventMetadata of(Class<?> type) {
+        return REGISTRY.get(Objects.requireNonNull(type, "type es obligatorio"));
+    }
+
+    /**
+     * Resuelve la metadata de los eventos conocidos del dominio.
+     *
+     * @return cantidad de clases resueltas
+     */
+    public static int preload() {
+        KNOWN_EVENTS.forEach(REGISTRY::get);
+        return KNOWN_EVENTS.size();
+    }
+
+    /**
+     * @return {@code eventType} persistido en outbox (nombre calificado de la clase)
+     */
+    public String eventType() {
+        return eventType;
+    }
+
+    /**
+     * @return {@code true} si la clase implementa {@link DomainEvent}
+     */
+    public boolean isTyped() {
+        return typed;
+    }
+
+    /**
+     * Extrae el tenant.
+     *
+     * @param event evento de la clase de esta metadata
+     * @return orgId
+     * @throws IllegalArgumentException si el evento no expone {@code orgId()} UUID no nulo
+     */
+    public UUID orgId(Object event) {
+        Object v;
+        if (typed) {
+            v = ((DomainEvent) event).orgId();
+        } else {
+            if (orgIdMethod == null) {
+                throw new IllegalArgumentException("Evento sin orgId(): " + type);
+            }
+            try {
+                v = orgIdMethod.invoke(event);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Evento sin orgId(): " + type, e);
+            }
+        }
+        if (v instanceof UUID id) {
+            return id;
+        }
+        throw new IllegalArgumentException("Evento orgId() no retorna UUID: " + type);
+    }
+
+    /**
+     * @param event evento de la clase de esta metadata
+     * @return tipo lógico del agregado o {@link DomainEvent#AGGREGATE_UNKNOWN}
+     */
+    public String aggregateType(Object event) {
+        if (typed) {
+            String t = ((DomainEvent) event).aggregateType();
+            return t != null ? t : DomainEvent.AGGREGATE_UNKNOWN;
+        }
+        return legacyAggregateType;
+    }
+
+    /**
+     * @param event evento de la clase de esta metadata
+     * @return id del agregado o {@link DomainEvent#AGGREGATE_UNKNOWN}
+     */
+    public String aggregateId(Object event) {
+        if (typed) {
+            String id = ((DomainEvent) event).aggregateId();
+            return id != null ? id : DomainEvent.AGGREGATE_UNKNOWN;
+        }
+        for (Method m : legacyAggregateIdMethods) {
+            try {
+                Object id = m.invoke(event);
+                if (id != null) {
+                    return id.toString();
+                }
+            } catch (Exception ignored) {
+                // heurística: se prueba el siguiente
+            }
+        }
+        return DomainEvent.AGGREGATE_UNKNOWN;
+    }
+
+    private static DomainEventMetadata resolve(Class<?> type) {
+        if (DomainEvent.class.isAssignableFrom(type)) {
+            return new DomainEventMetadata(type, true, null, null, new Method[0]);
+        }
+
+        String aggregateType = DomainEvent.AGGREGATE_UNKNOWN;
+        Method[] idMethods = new Method[LEGACY_AGGREGATES.length];
+        int n = 0;
+        for (String[] candidate : LEGACY_AGGREGATES) {
+            Method m = findMethod(type, candidate[0]);
+            if (m == null) {
+                continue;
+            }
+            if (n == 0) {
+                aggregateType = candidate[1];
+            }
+            idMethods[n++] = m;
+        }
+        return new DomainEventMetadata(type, false, findMethod(type, "orgId"), aggregateType,
+                Arrays.copyOf(idMethods, n));
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -15,5 +15,16 @@ import com.haedcom.access.domain.enums.TipoSujetoAcceso;
  */
 public record IntentoAccesoRegistrado(UUID orgId, UUID idIntento, UUID idDispositivo, UUID idArea,
         TipoDireccionPaso direccionPaso, TipoMetodoAutenticacion metodoAutenticacion,
-        TipoSujetoAcceso tipoSujeto, String claveIdempotencia, OffsetDateTime ocurridoEnUtc) {
+        TipoSujetoAcceso tipoSujeto, String claveIdempotencia, OffsetDateTime ocurridoEnUtc)
+        implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "IntentoAcceso";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idIntento);
+    }
 }
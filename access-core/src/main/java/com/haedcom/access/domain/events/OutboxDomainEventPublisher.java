@@ -9,7 +9,10 @@ import com.haedcom.access.domain.enums.OutboxStatus;
 import com.haedcom.access.domain.model.OutboxEvent;
 import com.haedcom.access.domain.repo.OutboxEventRepository;
 import com.haedcom.access.infrastructure.events.Outbox;
+import com.haedcom.access.infrastructure.outbox.OutboxWakeup;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.transaction.Transactional;
 
 /**
@@ -34,49 +37,46 @@ import jakarta.transaction.Transactional;
  * {@link OutboxStatus#PUBLISHED} o {@link OutboxStatus#FAILED}.
  * </p>
  *
- * <h2>Contrato mínimo del evento</h2>
- * <ul>
- * <li><b>Obligatorio:</b> el evento debe exponer un método público {@code orgId()} (tipo UUID) para
- * resolver el tenant.</li>
- * <li><b>Recomendado:</b> exponer un id del agregado para trazabilidad: {@code idComando()},
- * {@code idIntento()} o {@code idDecision()}.</li>
- * </ul>
- *
- * <h2>Trazabilidad (aggregateType / aggregateId)</h2>
  * <p>
- * Para observabilidad y debugging, el outbox guarda:
+ * Cada escritura avisa a {@link OutboxWakeup}, que despierta al dispatcher apenas la transacción
+ * hace commit (y, si está habilitado, emite {@code pg_notify} para las demás instancias), sin
+ * esperar al siguiente intervalo programado.
  * </p>
+ *
+ * <h2>Contrato del evento</h2>
  * <ul>
- * <li>{@code eventType}: nombre del evento (simple class name)</li>
- * <li>{@code aggregateType}: nombre lógico del agregado (heurística)</li>
- * <li>{@code aggregateId}: identificador del agregado (heurística)</li>
+ * <li><b>Preferido:</b> implementar {@link DomainEvent} ({@code orgId()}, {@code aggregateType()},
+ * {@code aggregateId()}); la publicación no usa reflexión.</li>
+ * <li><b>Compatibilidad:</b> cualquier objeto con un método público {@code orgId()} (UUID). El
+ * agregado se infiere con la heurística histórica ({@code idComando()} → ComandoDispositivo,
+ * {@code idIntento()} → IntentoAcceso, {@code idDecision()} → DecisionAcceso, {@code idRegla()} →
+ * ReglaAcceso, {@code idSujeto()} → SujetoAcceso; si no, {@code UNKNOWN}).</li>
  * </ul>
  *
+ * <h2>Trazabilidad (aggregateType / aggregateId)</h2>
  * <p>
- * Heurística actual:
+ * Para observabilidad y debugging, el outbox guarda:
  * </p>
  * <ul>
- * <li>Si existe {@code idComando()} → {@code aggregateType=ComandoDispositivo}</li>
- * <li>Si existe {@code idIntento()} → {@code aggregateType=IntentoAcceso}</li>
- * <li>Si existe {@code idDecision()} → {@code aggregateType=DecisionAcceso}</li>
- * <li>Si no se encuentra ninguno → {@code aggregateType=UNKNOWN}, {@code aggregateId=UNKNOWN}</li>
+ * <li>{@code eventType}: nombre calificado de la clase del evento</li>
+ * <li>{@code aggregateType}: nombre lógico del agregado</li>
+ * <li>{@code aggregateId}: identificador del agregado</li>
  * </ul>
  *
  * <p>
- * Nota: esta versión usa reflexión para extraer {@code orgId()} y el id del agregado. Si luego
- * quieres endurecer el contrato, podemos migrar a una interfaz {@code DomainEvent} con métodos
- * explícitos (sin reflexión).
+ * Esa metadata se resuelve una vez por clase en {@link DomainEventMetadata} (los eventos conocidos
+ * al arranque); en el camino caliente solo hay llamadas directas (o {@code invoke} cacheado para
+ * eventos no tipados).
  * </p>
  */
 @ApplicationScoped
 @Outbox
 public class OutboxDomainEventPublisher implements DomainEventPublisher {
 
-    private static final String AGG_UNKNOWN = "UNKNOWN";
-
     private final OutboxEventRepository outboxRepo;
     private final ObjectMapper objectMapper;
     private final Clock clock;
+    private final OutboxWakeup wakeup;
 
     /**
      * Constructor.
@@ -84,12 +84,21 @@ public class OutboxDomainEventPublisher implements DomainEventPublisher {
      * @param outboxRepo repositorio de outbox (obligatorio)
      * @param objectMapper serializador JSON (obligatorio)
      * @param clock reloj inyectable para testabilidad (si es null, usa UTC)
+     * @param wakeup disparador post-commit del dispatcher (obligatorio)
      */
     public OutboxDomainEventPublisher(OutboxEventRepository outboxRepo, ObjectMapper objectMapper,
-            Clock clock) {
+            Clock clock, OutboxWakeup wakeup) {
         this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo es obligatorio");
         this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
         this.clock = (clock != null) ? clock : Clock.systemUTC();
+        this.wakeup = Objects.requireNonNull(wakeup, "wakeup es obligatorio");
+    }
+
+    /**
+     * Resuelve al arranque la metadata de los eventos conocidos del dominio.
+     */
+    void onStart(@Observes StartupEvent ev) {
+        DomainEventMetadata.preload();
     }
 
     /**
@@ -108,14 +117,14 @@ public class OutboxDomainEventPublisher implements DomainEventPublisher {
      * <li>{@code idEvento}: UUID aleatorio</li>
      * <li>{@code idOrganizacion}: extraído de {@code orgId()}</li>
      * <li>{@code eventType}: nombre del evento</li>
-     * <li>{@code aggregateType}/{@code aggregateId}: heurística de trazabilidad</li>
+     * <li>{@code aggregateType}/{@code aggregateId}: ver {@link DomainEvent}</li>
      * <li>{@code payload}: JSON del evento</li>
      * <li>{@code status}: {@link OutboxStatus#PENDING}</li>
      * <li>{@code createdAtUtc}: timestamp UTC actual</li>
      * </ul>
      *
      * @param event evento de dominio (no null)
-     * @throws IllegalArgumentException si el evento no expone {@code orgId()}
+     * @throws IllegalArgumentException si el evento no expone {@code orgId()} UUID
      * @throws IllegalStateException si no es posible serializar/persistir el evento en el outbox
      */
     @Override
@@ -124,14 +133,16 @@ public class OutboxDomainEventPublisher implements DomainEventPublisher {
         Objects.requireNonNull(event, "event es obligatorio");
 
         try {
+            DomainEventMetadata meta = DomainEventMetadata.of(event);
+
             OutboxEvent e = new OutboxEvent();
             e.setIdEvento(UUID.randomUUID());
-            e.assignTenant(extractOrgId(event));
+            e.assignTenant(meta.orgId(event));
 
             // Tipos para diagnóstico
-            e.setEventType(event.getClass().getName());
-            e.setAggregateType(extractAggregateType(event));
-            e.setAggregateId(extractAggregateId(event));
+            e.setEventType(meta.eventType());
+            e.setAggregateType(meta.aggregateType(event));
+            e.setAggregateId(meta.aggregateId(event));
 
             // Payload
             e.setPayload(objectMapper.writeValueAsString(event));
@@ -143,6 +154,7 @@ public class OutboxDomainEventPublisher implements DomainEventPublisher {
             e.setNextAttemptAtUtc(null);
 
             outboxRepo.persist(e);
+            wakeup.onOutboxWrite();
 
         } catch (IllegalArgumentException ex) {
             // Contrato roto (evento sin orgId)
@@ -153,127 +165,4 @@ public class OutboxDomainEventPublisher implements DomainEventPublisher {
             throw new IllegalStateException("No se pudo persistir evento en outbox", ex);
         }
     }
-
-    /**
-     * Extrae el tenant ({@code orgId}) desde el evento.
-     *
-     * <p>
-     * Requiere que el evento exponga un método público {@code orgId()} que retorne {@link UUID}.
-     * </p>
-     *
-     * @param event evento
-     * @return orgId del evento
-     * @throws IllegalArgumentException si el evento no expone {@code orgId()} o no retorna UUID
-     */
-    private UUID extractOrgId(Object event) {
-        try {
-            Object v = event.getClass().getMethod("orgId").invoke(event);
-            if (v instanceof UUID id) {
-                return id;
-            }
-            throw new IllegalArgumentException(
-                    "Evento orgId() no retorna UUID: " + event.getClass());
-        } catch (IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Evento sin orgId(): " + event.getClass(), e);
-        }
-    }
-
-    /**
-     * Determina el {@code aggregateType} para trazabilidad.
-     *
-     * <p>
-     * Heurística basada en la presencia de métodos comunes de id de agregado. Esto permite
-     * clasificar eventos por "familia" (p.ej. ComandoDispositivo) aunque el {@code eventType} sea
-     * más específico.
-     * </p>
-     *
-     * @param event evento
-     * @return tipo lógico del agregado o {@code UNKNOWN} si no se puede inferir
-     */
-    private String extractAggregateType(Object event) {
-        if (hasMethod(event, "idComando")) {
-            return "ComandoDispositivo";
-        }
-        if (hasMethod(event, "idIntento")) {
-            return "IntentoAcceso";
-        }
-        if (hasMethod(event, "idDecision")) {
-            return "DecisionAcceso";
-        }
-        if (hasMethod(event, "idRegla"))
-            return "ReglaAcceso";
-        return AGG_UNKNOWN;
-    }
-
-    /**
-     * Determina el {@code aggregateId} para trazabilidad.
-     *
-     * <p>
-     * Heurística:
-     * </p>
-     * <ol>
-     * <li>Si existe {@code idComando()} lo usa</li>
-     * <li>si no, intenta {@code idIntento()}</li>
-     * <li>si no, intenta {@code idDecision()}</li>
-     * </ol>
-     *
-     * <p>
-     * Si no se encuentra ninguno, retorna {@code UNKNOWN}. Se prefiere un valor estable (en vez de
-     * null) para facilitar consultas y evitar violaciones si la columna es NOT NULL.
-     * </p>
-     *
-     * @param event evento
-     * @return id del agregado como string o {@code UNKNOWN}
-     */
-    private String extractAggregateId(Object event) {
-        Object id = tryInvoke(event, "idComando");
-        if (id == null) {
-            id = tryInvoke(event, "idIntento");
-        }
-        if (id == null) {
-            id = tryInvoke(event, "idDecision");
-        }
-        if (id == null) {
-            id = tryInvoke(event, "idRegla");
-        }
-        return (id != null) ? id.toString() : AGG_UNKNOWN;
-    }
-
-    /**
-     * Verifica si el evento expone un método público con el nombre indicado (sin parámetros).
-     *
-     * @param event evento
-     * @param name nombre del método
-     * @return {@code true} si el método existe
-     */
-    private static boolean hasMethod(Object event, String name) {
-        try {
-            event.getClass().getMethod(name);
-            return true;
-        } catch (NoSuchMethodException e) {
-            return false;
-        }
-    }
-
-    /**
-     * Invoca de forma segura un método sin parámetros si existe.
-     *
-     * <p>
-     * Si el método no existe o falla la invocación, retorna null. Se usa como heurística de
-     * extracción sin romper la publicación.
-     * </p>
-     *
-     * @param event evento
-     * @param name nombre del método a invocar
-     * @return valor retornado por el método, o null si no está disponible
-     */
-    private static Object tryInvoke(Object event, String name) {
-        try {
-            return event.getClass().getMethod(name).invoke(event);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
 }
@@ -1,5 +1,7 @@
 package com.haedcom.access.domain.events;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import com.haedcom.access.domain.model.OutboxEvent;
 
 /**
@@ -19,4 +21,26 @@ public interface OutboxEventSender {
      * @throws OutboxSendException si la publicación falla
      */
     void send(OutboxEvent event) throws OutboxSendException;
+
+    /**
+     * Envía el evento sin bloquear el hilo llamador (modo pipelined del dispatcher).
+     *
+     * <p>
+     * El stage se completa cuando el sistema externo confirma el envío. Si falla, se completa
+     * excepcionalmente con {@link OutboxSendException}. La implementación por defecto delega en
+     * {@link #send(OutboxEvent)} (síncrono); los transportes con API asíncrona deberían
+     * sobreescribirla.
+     * </p>
+     *
+     * @param event evento de outbox
+     * @return stage completado con el ack del transporte
+     */
+    default CompletionStage<Void> sendAsync(OutboxEvent event) {
+        try {
+            send(event);
+            return CompletableFuture.completedFuture(null);
+        } catch (OutboxSendException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
 }
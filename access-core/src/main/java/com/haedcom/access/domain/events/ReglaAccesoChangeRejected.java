@@ -28,7 +28,7 @@ import java.util.UUID;
  */
 public record ReglaAccesoChangeRejected(UUID eventId, UUID orgId, UUID areaId, UUID reglaId,
         Operation operation, String reasonCode, int httpStatus, String message,
-        OffsetDateTime occurredAtUtc) {
+        OffsetDateTime occurredAtUtc) implements DomainEvent {
 
     public enum Operation {
         CREATE, UPDATE, CHANGE_ESTADO, DELETE
@@ -70,4 +70,14 @@ public record ReglaAccesoChangeRejected(UUID eventId, UUID orgId, UUID areaId, U
         return new ReglaAccesoChangeRejected(UUID.randomUUID(), orgId, areaId, reglaId, operation,
                 reasonCode, httpStatus, message, nowUtc);
     }
+
+    @Override
+    public String aggregateType() {
+        return "ReglaAcceso";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(reglaId);
+    }
 }
@@ -25,7 +25,7 @@ import java.util.UUID;
  * </p>
  */
 public record ReglaAccesoPolicyChanged(UUID eventId, UUID orgId, UUID areaId, UUID idRegla,
-        ChangeType changeType, OffsetDateTime occurredAtUtc) {
+        ChangeType changeType, OffsetDateTime occurredAtUtc) implements DomainEvent {
 
     public enum ChangeType {
         CREATED, UPDATED, ACTIVATED, INACTIVATED, SOFT_DELETED
@@ -52,4 +52,14 @@ public record ReglaAccesoPolicyChanged(UUID eventId, UUID orgId, UUID areaId, UU
         return new ReglaAccesoPolicyChanged(UUID.randomUUID(), orgId, areaId, idRegla, changeType,
                 nowUtc);
     }
+
+    @Override
+    public String aggregateType() {
+        return "ReglaAcceso";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idRegla);
+    }
 }
@@ -5,7 +5,7 @@ import java.util.UUID;
 
 /** Invalida toda la política cacheada del tenant (uso excepcional). */
 public record ReglaAccesoPolicyInvalidateAllRequested(UUID eventId, UUID orgId, String reason,
-        OffsetDateTime occurredAtUtc) {
+        OffsetDateTime occurredAtUtc) implements DomainEvent {
     public ReglaAccesoPolicyInvalidateAllRequested {
         if (eventId == null)
             throw new IllegalArgumentException("eventId es obligatorio");
@@ -20,4 +20,14 @@ public record ReglaAccesoPolicyInvalidateAllRequested(UUID eventId, UUID orgId,
         return new ReglaAccesoPolicyInvalidateAllRequested(UUID.randomUUID(), orgId, reason,
                 nowUtc);
     }
+
+    @Override
+    public String aggregateType() {
+        return AGGREGATE_UNKNOWN;
+    }
+
+    @Override
+    public String aggregateId() {
+        return AGGREGATE_UNKNOWN;
+    }
 }
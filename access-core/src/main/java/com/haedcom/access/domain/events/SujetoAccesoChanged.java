@@ -0,0 +1,66 @@
+package com.haedcom.access.domain.events;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+
+/**
+ * Evento de dominio que indica que cambió un sujeto de acceso (residente o visitante
+ * preautorizado) del tenant.
+ *
+ * <p>
+ * Se emite al crear, actualizar, cambiar de estado o eliminar un {@code Residente} o un
+ * {@code VisitantePreautorizado}. El uso principal es mantener actualizado, en todos los nodos, el
+ * índice en memoria de credenciales que usa el flujo de acceso para resolver el sujeto.
+ * </p>
+ *
+ * <p>
+ * No transporta datos personales (documento): el consumidor recarga el sujeto por id.
+ * </p>
+ *
+ * @param eventId id único del evento
+ * @param orgId tenant
+ * @param tipoSujeto {@code RESIDENTE} o {@code VISITANTE}
+ * @param idSujeto id del residente/visitante
+ * @param changeType tipo de cambio
+ * @param occurredAtUtc instante del cambio
+ */
+public record SujetoAccesoChanged(UUID eventId, UUID orgId, TipoSujetoAcceso tipoSujeto,
+        UUID idSujeto, ChangeType changeType, OffsetDateTime occurredAtUtc) implements DomainEvent {
+
+    public enum ChangeType {
+        UPSERTED, DELETED
+    }
+
+    public SujetoAccesoChanged {
+        if (eventId == null)
+            throw new IllegalArgumentException("eventId es obligatorio");
+        if (orgId == null)
+            throw new IllegalArgumentException("orgId es obligatorio");
+        if (tipoSujeto == null)
+            throw new IllegalArgumentException("tipoSujeto es obligatorio");
+        if (idSujeto == null)
+            throw new IllegalArgumentException("idSujeto es obligatorio");
+        if (changeType == null)
+            throw new IllegalArgumentException("changeType es obligatorio");
+        if (occurredAtUtc == null)
+            throw new IllegalArgumentException("occurredAtUtc es obligatorio");
+    }
+
+    /** Fábrica para consistencia. */
+    public static SujetoAccesoChanged of(UUID orgId, TipoSujetoAcceso tipoSujeto, UUID idSujeto,
+            ChangeType changeType, OffsetDateTime nowUtc) {
+        return new SujetoAccesoChanged(UUID.randomUUID(), orgId, tipoSujeto, idSujeto, changeType,
+                nowUtc);
+    }
+
+    @Override
+    public String aggregateType() {
+        return "SujetoAcceso";
+    }
+
+    @Override
+    public String aggregateId() {
+        return DomainEvent.idOf(idSujeto);
+    }
+}
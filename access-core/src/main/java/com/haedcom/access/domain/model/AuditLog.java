@@ -45,7 +45,7 @@ import jakarta.persistence.UniqueConstraint;
                 columnNames = {"id_organizacion", "event_key"})},
         indexes = {
                 @Index(name = "ix_audit_log_org_occurred",
-                        columnList = "id_organizacion, occurred_at_utc"),
+                        columnList = "id_organizacion, occurred_at_utc, id_audit"),
                 @Index(name = "ix_audit_log_org_correlation",
                         columnList = "id_organizacion, correlation_id"),
                 @Index(name = "ix_audit_log_org_aggregate",
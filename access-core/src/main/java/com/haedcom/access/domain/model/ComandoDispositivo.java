@@ -10,11 +10,13 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinColumns;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 /**
  * Comando persistido para ejecución sobre un dispositivo físico (multi-tenant).
@@ -45,11 +47,27 @@ import jakarta.persistence.UniqueConstraint;
  * <li>Idempotencia “externa” (cuando el mismo resultado llega repetido con el mismo id
  * externo)</li>
  * </ul>
+ *
+ * <h2>Vencimiento</h2>
+ * <p>
+ * Un comando sin respuesta pasa a {@code TIMEOUT} ({@code ComandoTimeoutSweeper}). El índice
+ * {@code ix_comando_estado_enviado} sirve la consulta de comandos abiertos con la que se
+ * reconstruyen los vencimientos al arrancar.
+ * </p>
+ *
+ * <h2>Concurrencia</h2>
+ * <p>
+ * {@code version} es el bloqueo optimista entre el resultado del dispositivo (escrito por
+ * Hibernate) y el {@code UPDATE} nativo del barrido de vencimientos, que también la incrementa: de
+ * los dos, solo el primero en confirmar cambia el estado.
+ * </p>
  */
 @Entity
 @Table(name = "comando_dispositivo",
                 uniqueConstraints = @UniqueConstraint(name = "ux_comando_idempotencia_org",
-                                columnNames = {"id_organizacion", "clave_idempotencia"}))
+                                columnNames = {"id_organizacion", "clave_idempotencia"}),
+                indexes = @Index(name = "ix_comando_estado_enviado",
+                                columnList = "estado, enviado_en_utc"))
 public class ComandoDispositivo extends TenantOnlyEntity {
 
         @Id
@@ -109,6 +127,10 @@ public class ComandoDispositivo extends TenantOnlyEntity {
         @Column(name = "id_ejecucion_externa", length = 120)
         private String idEjecucionExterna;
 
+        @Version
+        @Column(name = "version", nullable = false)
+        private long version;
+
         // ---------------------------------------------------------------------
         // Getters / Setters
         // ---------------------------------------------------------------------
@@ -216,4 +238,8 @@ public class ComandoDispositivo extends TenantOnlyEntity {
         public void setIdEjecucionExterna(String idEjecucionExterna) {
                 this.idEjecucionExterna = idEjecucionExterna;
         }
+
+        public long getVersion() {
+                return version;
+        }
 }
@@ -5,6 +5,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinColumns;
 import jakarta.persistence.ManyToOne;
@@ -13,7 +14,13 @@ import jakarta.persistence.UniqueConstraint;
 
 @Entity
 @Table(name = "dispositivo", uniqueConstraints = @UniqueConstraint(name = "ux_dispositivo_id_org",
-                columnNames = {"id_dispositivo", "id_organizacion"}))
+                columnNames = {"id_dispositivo", "id_organizacion"}),
+                // listados por keyset: (tenant[, área], nombre, id)
+                indexes = {@Index(name = "ix_dispositivo_org_nombre",
+                                columnList = "id_organizacion, nombre, id_dispositivo"),
+                                @Index(name = "ix_dispositivo_org_area_nombre",
+                                                columnList = "id_organizacion, id_area, nombre, "
+                                                                + "id_dispositivo")})
 public class Dispositivo extends TenantAuditableEntity {
 
         @Id
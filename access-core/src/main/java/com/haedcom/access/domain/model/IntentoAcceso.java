@@ -13,6 +13,7 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinColumns;
 import jakarta.persistence.ManyToOne;
@@ -22,7 +23,8 @@ import jakarta.persistence.UniqueConstraint;
 @Entity
 @Table(name = "intento_acceso",
                 uniqueConstraints = @UniqueConstraint(name = "ux_intento_idempotencia_org",
-                                columnNames = {"id_organizacion", "clave_idempotencia"}))
+                                columnNames = {"id_organizacion", "clave_idempotencia"}),
+                indexes = @Index(name = "ix_intento_creado", columnList = "creado_en_utc"))
 public class IntentoAcceso extends TenantCreatedEntity {
 
         @Id
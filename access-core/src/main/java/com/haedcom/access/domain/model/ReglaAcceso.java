@@ -45,7 +45,9 @@ import jakarta.persistence.Table;
         @Index(name = "ix_regla_org_area_sujeto",
                 columnList = "id_organizacion, id_area, tipo_sujeto"),
         @Index(name = "ix_regla_org_dispositivo", columnList = "id_organizacion, id_dispositivo"),
-        @Index(name = "ix_regla_org_prioridad", columnList = "id_organizacion, prioridad")})
+        @Index(name = "ix_regla_org_prioridad", columnList = "id_organizacion, prioridad"),
+        @Index(name = "ix_regla_org_actualizado",
+                columnList = "id_organizacion, actualizado_en_utc, id_regla")})
 
 public class ReglaAcceso extends TenantAuditableEntity {
 
@@ -8,13 +8,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
 @Entity
 @Table(name = "residente", uniqueConstraints = @UniqueConstraint(name = "ux_residente_doc",
-        columnNames = {"id_organizacion", "tipo_documento", "numero_documento"}))
+        columnNames = {"id_organizacion", "tipo_documento", "numero_documento"}),
+        // listados por keyset: (tenant, campo de orden, id)
+        indexes = {
+                @Index(name = "ix_residente_org_actualizado",
+                        columnList = "id_organizacion, actualizado_en_utc, id_residente"),
+                @Index(name = "ix_residente_org_creado",
+                        columnList = "id_organizacion, creado_en_utc, id_residente"),
+                @Index(name = "ix_residente_org_nombre",
+                        columnList = "id_organizacion, nombre, id_residente"),
+                @Index(name = "ix_residente_org_documento",
+                        columnList = "id_organizacion, numero_documento, id_residente")})
 public class Residente extends TenantAuditableEntity {
 
     @Id
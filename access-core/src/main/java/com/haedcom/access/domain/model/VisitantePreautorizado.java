@@ -8,6 +8,7 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -16,7 +17,17 @@ import jakarta.persistence.UniqueConstraint;
 @Entity
 @Table(name = "visitante_preautorizado",
         uniqueConstraints = @UniqueConstraint(name = "ux_visitante_doc",
-                columnNames = {"id_organizacion", "tipo_documento", "numero_documento"}))
+                columnNames = {"id_organizacion", "tipo_documento", "numero_documento"}),
+        // listados por keyset: (tenant, campo de orden, id)
+        indexes = {
+                @Index(name = "ix_visitante_org_actualizado",
+                        columnList = "id_organizacion, actualizado_en_utc, id_visitante"),
+                @Index(name = "ix_visitante_org_creado",
+                        columnList = "id_organizacion, creado_en_utc, id_visitante"),
+                @Index(name = "ix_visitante_org_nombre",
+                        columnList = "id_organizacion, nombre, id_visitante"),
+                @Index(name = "ix_visitante_org_documento",
+                        columnList = "id_organizacion, numero_documento, id_visitante")})
 public class VisitantePreautorizado extends TenantAuditableEntity {
 
     @Id
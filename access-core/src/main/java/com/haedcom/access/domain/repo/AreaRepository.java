@@ -75,6 +75,20 @@ public class AreaRepository extends BaseRepository<Area, UUID> {
         .getResultList();
   }
 
+  /**
+   * Ids de todas las áreas de una organización (sin cargar las entidades).
+   *
+   * @param orgId tenant (obligatorio)
+   * @return ids (posiblemente vacío)
+   */
+  public List<UUID> listIdsByOrganizacion(UUID orgId) {
+    return em.createQuery("""
+        select a.idArea
+        from Area a
+        where a.idOrganizacion = :orgId
+        """, UUID.class).setParameter("orgId", orgId).getResultList();
+  }
+
   /**
    * Cuenta el total de áreas registradas para una organización.
    *
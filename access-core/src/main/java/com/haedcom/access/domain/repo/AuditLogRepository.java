@@ -1,9 +1,14 @@
 package com.haedcom.access.domain.repo;
 
+import java.sql.PreparedStatement;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.Session;
 import com.haedcom.access.domain.model.AuditLog;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -23,6 +28,17 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class AuditLogRepository extends BaseRepository<AuditLog, UUID> {
 
+    /** Orden de la consulta por rango: {@code occurredAtUtc desc, idAudit desc}. */
+    private static final KeysetQuery<AuditLog> KEYSET = new KeysetQuery<>("a.idAudit",
+            AuditLog::getIdAudit,
+            Map.of("occurredAtUtc",
+                    KeysetQuery.instante("a.occurredAtUtc", AuditLog::getOccurredAtUtc)),
+            "occurredAtUtc", false);
+
+    private static final String INSERT_PREFIX = "insert into audit_log (id_audit, id_organizacion, "
+            + "event_key, event_type, aggregate_type, aggregate_id, correlation_id, "
+            + "occurred_at_utc, payload_json, created_at_utc) values ";
+
     /**
      * Construye el repositorio.
      */
@@ -64,6 +80,49 @@ public class AuditLogRepository extends BaseRepository<AuditLog, UUID> {
         return q.getResultList();
     }
 
+    /**
+     * Variante por keyset de
+     * {@link #listByTenantAndTimeRange(UUID, OffsetDateTime, OffsetDateTime, int, int)}: mismo
+     * orden (con {@code idAudit} como desempate), pero continúa después de {@code after} sobre
+     * {@code ix_audit_log_org_occurred} en vez de saltar {@code page * size} filas.
+     *
+     * @param orgId tenant (obligatorio)
+     * @param from inclusive (opcional)
+     * @param to exclusive (opcional)
+     * @param after último evento de la página anterior ({@code null} = primera página)
+     * @param limit máximo de filas a leer
+     * @return eventos auditados posteriores a {@code after}
+     */
+    public List<AuditLog> listByTenantAndTimeRangeAfter(UUID orgId, OffsetDateTime from,
+            OffsetDateTime to, Keyset after, int limit) {
+
+        StringBuilder jpql =
+                new StringBuilder("select a from AuditLog a where a.idOrganizacion = :orgId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("orgId", orgId);
+
+        if (from != null) {
+            jpql.append(" and a.occurredAtUtc >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" and a.occurredAtUtc < :to");
+            params.put("to", to);
+        }
+        KEYSET.append(jpql, params, KEYSET.orden(null, null), after);
+
+        var q = em.createQuery(jpql.toString(), AuditLog.class).setMaxResults(limit);
+        params.forEach(q::setParameter);
+        return q.getResultList();
+    }
+
+    /**
+     * Posición de un evento para continuar {@link #listByTenantAndTimeRangeAfter}.
+     */
+    public Keyset keysetOf(AuditLog a) {
+        return KEYSET.keysetOf(a, KEYSET.orden(null, null));
+    }
+
     /**
      * Busca el primer evento auditado por correlation id dentro de un tenant.
      *
@@ -97,4 +156,49 @@ public class AuditLogRepository extends BaseRepository<AuditLog, UUID> {
         return n != null && n > 0;
     }
 
+    /**
+     * Inserta varios registros con un único {@code INSERT} multi-fila, ignorando duplicados por
+     * {@code (id_organizacion, event_key)}.
+     *
+     * <p>
+     * Se ejecuta vía JDBC (fuera del contexto de persistencia): las entidades no quedan
+     * administradas y no se invocan callbacks JPA, por eso {@code created_at_utc} se asigna aquí.
+     * </p>
+     *
+     * @param rows registros a insertar (máximo ~3000 por llamada por el límite de parámetros)
+     * @return filas insertadas (los duplicados no cuentan)
+     */
+    public int insertIgnoringDuplicates(List<AuditLog> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * 34 + 48)
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        sql.append(" on conflict (id_organizacion, event_key) do nothing");
+
+        final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return em.unwrap(Session.class).doReturningWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                int p = 1;
+                for (AuditLog a : rows) {
+                    ps.setObject(p++, a.getIdAudit());
+                    ps.setObject(p++, a.getIdOrganizacion());
+                    ps.setString(p++, a.getEventKey());
+                    ps.setString(p++, a.getEventType());
+                    ps.setString(p++, a.getAggregateType());
+                    ps.setString(p++, a.getAggregateId());
+                    ps.setString(p++, a.getCorrelationId());
+                    ps.setObject(p++, a.getOccurredAtUtc().withOffsetSameInstant(ZoneOffset.UTC));
+                    ps.setString(p++, a.getPayloadJson());
+                    ps.setObject(p++, a.getCreatedAtUtc() != null ? a.getCreatedAtUtc() : now);
+                }
+                return ps.executeUpdate();
+            }
+        });
+    }
+
 }
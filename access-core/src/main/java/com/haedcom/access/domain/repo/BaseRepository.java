@@ -2,6 +2,7 @@ package com.haedcom.access.domain.repo;
 
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.Session;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
@@ -66,6 +67,22 @@ public class BaseRepository<T, ID> {
     return Optional.ofNullable(em.find(entityClass, id));
   }
 
+  /**
+   * Obtiene una referencia (proxy) a la entidad sin consultarla.
+   *
+   * <p>
+   * Útil para asignar asociaciones {@code @ManyToOne} cuando el identificador ya se sabe válido: no
+   * se ejecuta {@code SELECT}. Si la fila no existe, el error aparece al acceder al proxy o al hacer
+   * {@code flush} (violación de FK).
+   * </p>
+   *
+   * @param id identificador de la entidad
+   * @return referencia no inicializada
+   */
+  public T getReference(ID id) {
+    return em.getReference(entityClass, id);
+  }
+
   /**
    * Persiste una nueva entidad en el contexto de persistencia.
    *
@@ -151,4 +168,19 @@ public class BaseRepository<T, ID> {
   public void flush() {
     em.flush();
   }
+
+  /**
+   * Ajusta el tamaño de batch JDBC de la sesión actual.
+   *
+   * <p>
+   * Hibernate agrupa los {@code INSERT}/{@code UPDATE} consecutivos de la misma entidad en batches
+   * de este tamaño al hacer {@code flush}. Útil para escrituras masivas dentro de una única
+   * transacción; el valor aplica solo a la sesión (transacción) en curso.
+   * </p>
+   *
+   * @param size tamaño de batch (&gt; 0)
+   */
+  public void setJdbcBatchSize(int size) {
+    em.unwrap(Session.class).setJdbcBatchSize(size);
+  }
 }
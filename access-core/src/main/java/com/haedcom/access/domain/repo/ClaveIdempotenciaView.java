@@ -0,0 +1,16 @@
+package com.haedcom.access.domain.repo;
+
+import java.util.UUID;
+
+/**
+ * Proyección liviana (sin entidad gestionada) de la clave de idempotencia de un intento.
+ *
+ * <p>
+ * Usada para precargar el filtro de idempotencia en memoria sin hidratar entidades JPA.
+ * </p>
+ *
+ * @param orgId tenant
+ * @param claveIdempotencia clave idempotente del intento
+ */
+public record ClaveIdempotenciaView(UUID orgId, String claveIdempotencia) {
+}
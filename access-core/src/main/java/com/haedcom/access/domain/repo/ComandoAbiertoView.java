@@ -0,0 +1,17 @@
+package com.haedcom.access.domain.repo;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección liviana (sin entidad gestionada) de un comando sin estado final.
+ *
+ * <p>
+ * Usada para reconstruir en memoria los vencimientos de comandos al arranque.
+ * </p>
+ *
+ * @param idComando id del comando
+ * @param enviadoEnUtc instante de emisión
+ */
+public record ComandoAbiertoView(UUID idComando, OffsetDateTime enviadoEnUtc) {
+}
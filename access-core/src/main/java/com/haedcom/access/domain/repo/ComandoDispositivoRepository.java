@@ -1,8 +1,12 @@
 package com.haedcom.access.domain.repo;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
 import com.haedcom.access.domain.model.ComandoDispositivo;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -17,6 +21,11 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class ComandoDispositivoRepository extends BaseRepository<ComandoDispositivo, UUID> {
 
+  /** Estados no finales: el comando puede vencer. */
+  private static final List<EstadoComandoDispositivo> ABIERTOS =
+      List.of(EstadoComandoDispositivo.CREADO, EstadoComandoDispositivo.ENVIADO,
+          EstadoComandoDispositivo.RECIBIDO);
+
   public ComandoDispositivoRepository() {
     super(ComandoDispositivo.class);
   }
@@ -84,4 +93,80 @@ public class ComandoDispositivoRepository extends BaseRepository<ComandoDisposit
         .setParameter("idComando", idComando).getResultStream().findFirst();
   }
 
+  /**
+   * Busca varios comandos del tenant (con su intento) en una sola consulta.
+   *
+   * @param orgId id del tenant
+   * @param idsComando ids de comando
+   * @return comandos encontrados (los ids inexistentes o de otro tenant no aparecen)
+   */
+  public List<ComandoDispositivo> listByIdsAndOrgWithIntento(UUID orgId,
+      Collection<UUID> idsComando) {
+    if (idsComando.isEmpty()) {
+      return List.of();
+    }
+    return em.createQuery("""
+        select c
+        from ComandoDispositivo c
+        join fetch c.intento i
+        where c.idOrganizacion = :orgId
+          and c.idComando in :ids
+        """, ComandoDispositivo.class).setParameter("orgId", orgId)
+        .setParameter("ids", idsComando).getResultList();
+  }
+
+  /**
+   * Comandos sin estado final ({@code CREADO}, {@code ENVIADO}, {@code RECIBIDO}), en una sola
+   * consulta por {@code ix_comando_estado_enviado}.
+   *
+   * <p>
+   * El stream debe cerrarse (try-with-resources) y consumirse dentro de la transacción.
+   * </p>
+   *
+   * @return comandos abiertos, del más antiguo al más nuevo
+   */
+  public Stream<ComandoAbiertoView> streamAbiertos() {
+    return em.createQuery("""
+        select new com.haedcom.access.domain.repo.ComandoAbiertoView(c.idComando, c.enviadoEnUtc)
+        from ComandoDispositivo c
+        where c.estado in :abiertos
+        order by c.enviadoEnUtc asc
+        """, ComandoAbiertoView.class).setParameter("abiertos", ABIERTOS)
+        .setHint("org.hibernate.fetchSize", 5_000).getResultStream();
+  }
+
+  /**
+   * Pasa a {@code TIMEOUT} los comandos indicados que sigan sin estado final, en un único
+   * {@code UPDATE}.
+   *
+   * <p>
+   * La condición sobre {@code estado} hace la operación idempotente y segura frente a un resultado
+   * que llega en paralelo o a otro nodo que vence el mismo comando: solo se devuelven las filas que
+   * este {@code UPDATE} cambió. Incrementa {@code version}, así que un resultado leído antes del
+   * vencimiento falla al escribirse ({@code OptimisticLockException}) en vez de pisarlo.
+   * </p>
+   *
+   * @param ids comandos vencidos
+   * @param ahora instante del vencimiento ({@code confirmado_en_utc})
+   * @param codigoError código de error a registrar
+   * @return comandos efectivamente marcados
+   */
+  @SuppressWarnings("unchecked")
+  public List<ComandoVencidoView> marcarTimeout(Collection<UUID> ids, OffsetDateTime ahora,
+      String codigoError) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    List<Object[]> rows = em.createNativeQuery("""
+        update comando_dispositivo
+           set estado = 'TIMEOUT', confirmado_en_utc = ?2, codigo_error = ?3,
+               version = version + 1
+         where id_comando in (?1)
+           and estado in ('CREADO', 'ENVIADO', 'RECIBIDO')
+        returning id_organizacion, id_comando, id_intento, id_dispositivo, id_ejecucion_externa
+        """).setParameter(1, ids).setParameter(2, ahora).setParameter(3, codigoError)
+        .getResultList();
+    return rows.stream().map(r -> new ComandoVencidoView((UUID) r[0], (UUID) r[1], (UUID) r[2],
+        (UUID) r[3], (String) r[4])).toList();
+  }
 }
@@ -0,0 +1,16 @@
+package com.haedcom.access.domain.repo;
+
+import java.util.UUID;
+
+/**
+ * Comando que pasó a {@code TIMEOUT} (fila devuelta por el {@code UPDATE ... RETURNING}).
+ *
+ * @param orgId tenant
+ * @param idComando id del comando
+ * @param idIntento intento que originó el comando
+ * @param idDispositivo dispositivo destino
+ * @param idEjecucionExterna correlación externa (opcional)
+ */
+public record ComandoVencidoView(UUID orgId, UUID idComando, UUID idIntento, UUID idDispositivo,
+        String idEjecucionExterna) {
+}
@@ -1,10 +1,13 @@
 package com.haedcom.access.domain.repo;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import com.haedcom.access.domain.model.Dispositivo;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
 
 /**
  * Repositorio de acceso a datos para {@link Dispositivo}.
@@ -29,6 +32,12 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class DispositivoRepository extends BaseRepository<Dispositivo, UUID> {
 
+    /** Orden fijo de los listados: {@code nombre asc, idDispositivo asc}. */
+    private static final KeysetQuery<Dispositivo> KEYSET =
+            new KeysetQuery<>("d.idDispositivo", Dispositivo::getIdDispositivo,
+                    Map.of("nombre", KeysetQuery.texto("d.nombre", Dispositivo::getNombre)),
+                    "nombre", true);
+
     /**
      * Crea el repositorio para {@link Dispositivo}.
      */
@@ -105,6 +114,43 @@ public class DispositivoRepository extends BaseRepository<Dispositivo, UUID> {
                 .setFirstResult(page * size).setMaxResults(size).getResultList();
     }
 
+    /**
+     * Variante por keyset de {@link #listByOrganizacion(UUID, int, int)} y
+     * {@link #listByOrganizacionAndArea(UUID, UUID, int, int)}: mismo orden (con
+     * {@code idDispositivo} como desempate), pero continúa después de {@code after} en vez de
+     * saltar {@code page * size} filas.
+     *
+     * @param orgId id de la organización (tenant)
+     * @param areaId id del área (opcional)
+     * @param after último dispositivo de la página anterior ({@code null} = primera página)
+     * @param limit máximo de filas a leer
+     * @return dispositivos posteriores a {@code after}
+     * @throws IllegalArgumentException si {@code after} no es un cursor de este listado
+     */
+    public List<Dispositivo> listByOrganizacionAfter(UUID orgId, UUID areaId, Keyset after,
+            int limit) {
+        StringBuilder jpql =
+                new StringBuilder("select d from Dispositivo d where d.idOrganizacion = :orgId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("orgId", orgId);
+        if (areaId != null) {
+            jpql.append(" and d.idArea = :areaId");
+            params.put("areaId", areaId);
+        }
+        KEYSET.append(jpql, params, KEYSET.orden(null, null), after);
+
+        TypedQuery<Dispositivo> q = em.createQuery(jpql.toString(), Dispositivo.class);
+        params.forEach(q::setParameter);
+        return q.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Posición de un dispositivo para continuar {@link #listByOrganizacionAfter}.
+     */
+    public Keyset keysetOf(Dispositivo d) {
+        return KEYSET.keysetOf(d, KEYSET.orden(null, null));
+    }
+
     /**
      * Cuenta dispositivos de una organización (para paginación).
      *
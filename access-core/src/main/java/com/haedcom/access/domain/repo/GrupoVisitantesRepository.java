@@ -1,8 +1,10 @@
 package com.haedcom.access.domain.repo;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -32,6 +34,12 @@ import jakarta.persistence.TypedQuery;
 @ApplicationScoped
 public class GrupoVisitantesRepository extends BaseRepository<GrupoVisitantes, UUID> {
 
+    /** Orden fijo del listado: {@code nombre asc, idGrupoVisitante asc}. */
+    private static final KeysetQuery<GrupoVisitantes> KEYSET =
+            new KeysetQuery<>("g.idGrupoVisitante", GrupoVisitantes::getIdGrupoVisitante,
+                    Map.of("nombre", KeysetQuery.texto("g.nombre", GrupoVisitantes::getNombre)),
+                    "nombre", true);
+
     public GrupoVisitantesRepository() {
         super(GrupoVisitantes.class);
     }
@@ -129,6 +137,54 @@ public class GrupoVisitantesRepository extends BaseRepository<GrupoVisitantes, U
         return query.getResultList();
     }
 
+    /**
+     * Variante por keyset de {@link #listByTenant(UUID, int, int, String, EstadoGrupo)}: mismos
+     * filtros y orden (con {@code idGrupoVisitante} como desempate), pero continúa después de
+     * {@code after} en vez de saltar {@code page * size} filas.
+     *
+     * @param orgId identificador del tenant
+     * @param nombreLike búsqueda parcial por nombre (case-insensitive). Si es null/blank, no
+     *        filtra.
+     * @param estado estado a filtrar. Si es null, no filtra por estado.
+     * @param after último grupo de la página anterior ({@code null} = primera página)
+     * @param limit máximo de filas a leer (> 0)
+     * @return grupos posteriores a {@code after}
+     */
+    public List<GrupoVisitantes> listByTenantAfter(UUID orgId, String nombreLike,
+            EstadoGrupo estado, Keyset after, int limit) {
+
+        require(orgId, "orgId");
+        if (limit <= 0)
+            throw new IllegalArgumentException("limit debe ser > 0");
+
+        StringBuilder jpql = new StringBuilder().append("select g from GrupoVisitantes g ")
+                .append("where g.idOrganizacion = :orgId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("orgId", orgId);
+
+        if (nombreLike != null && !nombreLike.trim().isBlank()) {
+            jpql.append(" and lower(g.nombre) like :q");
+            params.put("q", "%" + nombreLike.trim().toLowerCase() + "%");
+        }
+        if (estado != null) {
+            jpql.append(" and g.estado = :estado");
+            params.put("estado", estado);
+        }
+        KEYSET.append(jpql, params, KEYSET.orden(null, null), after);
+
+        TypedQuery<GrupoVisitantes> query =
+                em.createQuery(jpql.toString(), GrupoVisitantes.class).setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * Posición de un grupo para continuar {@link #listByTenantAfter}.
+     */
+    public Keyset keysetOf(GrupoVisitantes g) {
+        return KEYSET.keysetOf(g, KEYSET.orden(null, null));
+    }
+
     /**
      * Busca un grupo por nombre exacto dentro del tenant (case-insensitive).
      *
@@ -1,7 +1,9 @@
 package com.haedcom.access.domain.repo;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import com.haedcom.access.domain.model.IntentoAcceso;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -53,4 +55,28 @@ public class IntentoAccesoRepository extends BaseRepository<IntentoAcceso, UUID>
         """, IntentoAcceso.class).setParameter("id", idIntento).setParameter("orgId", orgId)
         .getResultStream().findFirst();
   }
+
+  /**
+   * Claves de idempotencia de los intentos creados desde {@code desde}, más recientes primero.
+   *
+   * <p>
+   * Proyección en streaming (fetch size acotado) para precargar el filtro de idempotencia sin
+   * materializar la lista completa. El llamador debe cerrar el stream.
+   * </p>
+   *
+   * @param desde límite inferior de {@code creadoEnUtc}
+   * @param max máximo de claves a leer
+   * @return stream de claves (tenant + clave)
+   */
+  public Stream<ClaveIdempotenciaView> streamClavesIdempotenciaDesde(OffsetDateTime desde,
+      int max) {
+    return em.createQuery("""
+        select new com.haedcom.access.domain.repo.ClaveIdempotenciaView(
+            i.idOrganizacion, i.claveIdempotencia)
+        from IntentoAcceso i
+        where i.creadoEnUtc >= :desde
+        order by i.creadoEnUtc desc
+        """, ClaveIdempotenciaView.class).setParameter("desde", desde).setMaxResults(max)
+        .setHint("org.hibernate.fetchSize", 5_000).getResultStream();
+  }
 }
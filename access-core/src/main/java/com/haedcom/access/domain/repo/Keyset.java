@@ -0,0 +1,28 @@
+package com.haedcom.access.domain.repo;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Posición de una paginación por keyset: la última fila entregada, como valor del campo de orden y
+ * su id (desempate).
+ *
+ * <p>
+ * La siguiente página son las filas estrictamente posteriores a {@code (valor, id)} en el orden
+ * {@code sort}/{@code asc}. El valor va serializado como texto para poder viajar en un cursor
+ * opaco; cada repositorio lo convierte al tipo del campo.
+ * </p>
+ *
+ * @param sort campo de orden (nombre canónico de la whitelist del repositorio)
+ * @param asc {@code true} si el orden es ascendente
+ * @param valor valor del campo de orden en la última fila (texto)
+ * @param id id de la última fila
+ */
+public record Keyset(String sort, boolean asc, String valor, UUID id) {
+
+    public Keyset {
+        Objects.requireNonNull(sort, "sort es obligatorio");
+        Objects.requireNonNull(valor, "valor es obligatorio");
+        Objects.requireNonNull(id, "id es obligatorio");
+    }
+}
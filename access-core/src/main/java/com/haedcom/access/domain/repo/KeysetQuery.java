@@ -0,0 +1,148 @@
+package com.haedcom.access.domain.repo;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Soporte de paginación por keyset para los listados de los repositorios.
+ *
+ * <p>
+ * En vez de {@code setFirstResult(page * size)}, que obliga a la base de datos a recorrer y
+ * descartar todas las filas anteriores, la página siguiente se pide como
+ * {@code (campo, id) > (:valor, :id)} sobre el mismo {@code ORDER BY campo, id}. Con un índice
+ * {@code (id_organizacion, campo, id)} el costo es el mismo en la primera página que en la
+ * última.
+ * </p>
+ *
+ * <ul>
+ * <li>Los campos de orden salen de una whitelist (nunca se concatena el input) y deben ser
+ * {@code NOT NULL}: la comparación de tuplas no ordena nulos.</li>
+ * <li>El id desempata filas con el mismo valor, así que el orden es total y ninguna fila se repite
+ * ni se salta entre páginas.</li>
+ * <li>Un {@link Keyset} generado con otro campo u otra dirección se rechaza con
+ * {@link IllegalArgumentException} (400).</li>
+ * </ul>
+ *
+ * @param <T> entidad listada
+ */
+final class KeysetQuery<T> {
+
+    private static final String P_VALOR = "ksValor";
+    private static final String P_ID = "ksId";
+
+    /**
+     * Campo de orden de la whitelist.
+     *
+     * @param expr expresión JPQL (p.ej. {@code r.nombre})
+     * @param valor lectura del campo en la entidad
+     * @param parse conversión del valor serializado en el cursor
+     */
+    record Campo<T>(String expr, Function<T, ?> valor, Function<String, ?> parse) {
+    }
+
+    static <T> Campo<T> texto(String expr, Function<T, String> valor) {
+        return new Campo<>(expr, valor, Function.identity());
+    }
+
+    static <T> Campo<T> instante(String expr, Function<T, OffsetDateTime> valor) {
+        return new Campo<>(expr, valor, OffsetDateTime::parse);
+    }
+
+    static <T> Campo<T> entero(String expr, Function<T, Integer> valor) {
+        return new Campo<>(expr, valor, Integer::valueOf);
+    }
+
+    /**
+     * Orden resuelto contra la whitelist.
+     *
+     * @param sort nombre canónico del campo
+     * @param asc {@code true} si es ascendente
+     */
+    record Orden(String sort, boolean asc) {
+    }
+
+    private final String idExpr;
+    private final Function<T, UUID> id;
+    private final Map<String, Campo<T>> campos;
+    private final String sortPorDefecto;
+    private final boolean ascPorDefecto;
+
+    /**
+     * @param idExpr expresión JPQL del id (desempate)
+     * @param id lectura del id en la entidad
+     * @param campos whitelist de campos de orden por nombre
+     * @param sortPorDefecto campo si {@code sort} es nulo o no está en la whitelist
+     * @param ascPorDefecto dirección si {@code dir} es nulo o vacío
+     */
+    KeysetQuery(String idExpr, Function<T, UUID> id, Map<String, Campo<T>> campos,
+            String sortPorDefecto, boolean ascPorDefecto) {
+        this.idExpr = idExpr;
+        this.id = id;
+        this.campos = Map.copyOf(campos);
+        this.sortPorDefecto = sortPorDefecto;
+        this.ascPorDefecto = ascPorDefecto;
+    }
+
+    /**
+     * Resuelve {@code sort}/{@code dir} con las mismas reglas que los listados por página: campo
+     * desconocido = campo por defecto; solo {@code asc}/{@code desc} cambian la dirección.
+     */
+    Orden orden(String sort, String dir) {
+        String s = (sort == null) ? "" : sort.trim();
+        String d = (dir == null) ? "" : dir.trim().toLowerCase(Locale.ROOT);
+        boolean asc = switch (d) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> ascPorDefecto;
+        };
+        return new Orden(campos.containsKey(s) ? s : sortPorDefecto, asc);
+    }
+
+    /**
+     * Agrega la condición de continuación (si hay {@code after}) y el {@code ORDER BY}.
+     *
+     * @param jpql consulta con el {@code WHERE} ya armado
+     * @param params parámetros de la consulta (se agregan los del keyset)
+     * @param orden orden resuelto
+     * @param after posición de la última fila entregada (null = primera página)
+     * @throws IllegalArgumentException si {@code after} no corresponde al orden o su valor es
+     *         inválido
+     */
+    void append(StringBuilder jpql, Map<String, Object> params, Orden orden, Keyset after) {
+        Campo<T> campo = campos.get(orden.sort());
+        String op = orden.asc() ? " > " : " < ";
+        if (after != null) {
+            if (!after.sort().equals(orden.sort()) || after.asc() != orden.asc()) {
+                throw new IllegalArgumentException("cursor no corresponde al orden solicitado");
+            }
+            Object valor;
+            try {
+                valor = campo.parse().apply(after.valor());
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("cursor inválido");
+            }
+            // comparación de tuplas: PostgreSQL la resuelve como un único rango del índice, a
+            // diferencia de "campo > v or (campo = v and id > i)"
+            jpql.append(" and (").append(campo.expr()).append(", ").append(idExpr).append(')')
+                    .append(op).append("(:").append(P_VALOR).append(", :").append(P_ID)
+                    .append(')');
+            params.put(P_VALOR, valor);
+            params.put(P_ID, after.id());
+        }
+        String dir = orden.asc() ? " asc" : " desc";
+        jpql.append(" order by ").append(campo.expr()).append(dir).append(", ").append(idExpr)
+                .append(dir);
+    }
+
+    /**
+     * Posición de una fila para pedir la página siguiente.
+     */
+    Keyset keysetOf(T entity, Orden orden) {
+        Object valor = campos.get(orden.sort()).valor().apply(entity);
+        return new Keyset(orden.sort(), orden.asc(), String.valueOf(valor), id.apply(entity));
+    }
+}
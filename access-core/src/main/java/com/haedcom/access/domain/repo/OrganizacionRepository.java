@@ -167,6 +167,20 @@ public class OrganizacionRepository extends BaseRepository<Organizacion, UUID> {
         return q.getResultList();
     }
 
+    /**
+     * Ids de las organizaciones en un estado (sin distinguir mayúsculas).
+     *
+     * @param estado estado (ej. {@code ACTIVO})
+     * @return ids (posiblemente vacío)
+     */
+    public List<UUID> listIdsByEstado(String estado) {
+        return em.createQuery("""
+                select o.idOrganizacion
+                from Organizacion o
+                where upper(o.estado) = upper(:estado)
+                """, UUID.class).setParameter("estado", estado).getResultList();
+    }
+
     /**
      * Cuenta el total de organizaciones.
      *
@@ -1,9 +1,16 @@
 package com.haedcom.access.domain.repo;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import com.haedcom.access.domain.enums.OutboxStatus;
 import com.haedcom.access.domain.model.OutboxEvent;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -49,6 +56,10 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class OutboxEventRepository extends BaseRepository<OutboxEvent, UUID> {
 
+    /** Particiones diarias: {@code outbox_event_pYYYYMMDD}. */
+    private static final Pattern PARTITION_NAME = Pattern.compile("outbox_event_p(\\d{8})");
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
     public OutboxEventRepository() {
         super(OutboxEvent.class);
     }
@@ -217,6 +228,64 @@ public class OutboxEventRepository extends BaseRepository<OutboxEvent, UUID> {
         return r == null ? null : ((Number) r).longValue();
     }
 
+    /**
+     * Calcula en <b>una sola consulta</b> los contadores y edades del outbox.
+     *
+     * <p>
+     * Solo recorre filas {@code PENDING}/{@code FAILED} (el backlog vivo); {@code PUBLISHED} se
+     * estima con {@code pg_class.reltuples} (incluye particiones si la tabla está particionada)
+     * para no escanear millones de filas históricas.
+     * </p>
+     *
+     * @return proyección agregada (nunca null)
+     */
+    public OutboxStatsView sampleStats() {
+        Object[] r = (Object[]) em.createNativeQuery("""
+                with now_utc as (select (now() at time zone 'utc') as ts)
+                select count(*) filter (where e.status = 'PENDING'),
+                       count(*) filter (where e.status = 'PENDING'
+                                          and (e.next_attempt_at_utc is null
+                                               or e.next_attempt_at_utc <= n.ts)),
+                       count(*) filter (where e.status = 'PENDING'
+                                          and e.locked_at_utc is not null),
+                       count(*) filter (where e.status = 'FAILED'),
+                       cast(extract(epoch from (n.ts - min(e.created_at_utc)
+                                filter (where e.status = 'PENDING'))) as bigint),
+                       cast(extract(epoch from (n.ts - min(e.created_at_utc)
+                                filter (where e.status = 'PENDING'
+                                          and (e.next_attempt_at_utc is null
+                                               or e.next_attempt_at_utc <= n.ts)))) as bigint),
+                       cast(extract(epoch from (n.ts - min(e.locked_at_utc)
+                                filter (where e.status = 'PENDING'
+                                          and e.locked_at_utc is not null))) as bigint),
+                       (select cast(coalesce(sum(greatest(c.reltuples, 0)), 0) as bigint)
+                          from pg_class c
+                         where c.oid = 'outbox_event'::regclass
+                            or c.oid in (select i.inhrelid
+                                           from pg_inherits i
+                                          where i.inhparent = 'outbox_event'::regclass))
+                from now_utc n
+                left join outbox_event e
+                       on e.status in ('PENDING', 'FAILED')
+                group by n.ts
+                """).getSingleResult();
+
+        long pending = toLong(r[0]);
+        long failed = toLong(r[3]);
+        long published = Math.max(0L, toLong(r[7]) - pending - failed);
+
+        return new OutboxStatsView(pending, toLong(r[1]), toLong(r[2]), failed, published,
+                toNullableLong(r[4]), toNullableLong(r[5]), toNullableLong(r[6]));
+    }
+
+    private static long toLong(Object v) {
+        return v == null ? 0L : ((Number) v).longValue();
+    }
+
+    private static Long toNullableLong(Object v) {
+        return v == null ? null : ((Number) v).longValue();
+    }
+
     /**
      * Libera locks lógicos vencidos (diagnóstico) dejando {@code locked_at_utc/locked_by} en null.
      *
@@ -353,4 +422,393 @@ public class OutboxEventRepository extends BaseRepository<OutboxEvent, UUID> {
         return (r instanceof Number n) ? n.intValue() : 0;
     }
 
+    /**
+     * Claim atómico de un lote de eventos para procesamiento (modo pipelined).
+     *
+     * <p>
+     * Mismas reglas que {@link #claimForProcessing(UUID, String, OffsetDateTime, OffsetDateTime)},
+     * pero en un único {@code UPDATE} para todos los ids.
+     * </p>
+     *
+     * @param ids ids del lote (obligatorio, no vacío)
+     * @param instanceId id de la instancia que reclama (obligatorio)
+     * @param nowUtc timestamp actual en UTC (obligatorio)
+     * @param lockExpiredBeforeUtc umbral UTC de locks vencidos (obligatorio)
+     * @return cantidad de eventos reclamados
+     */
+    public int claimBatchForProcessing(Collection<UUID> ids, String instanceId,
+            OffsetDateTime nowUtc, OffsetDateTime lockExpiredBeforeUtc) {
+
+        Objects.requireNonNull(ids, "ids es obligatorio");
+        Objects.requireNonNull(instanceId, "instanceId es obligatorio");
+        Objects.requireNonNull(nowUtc, "nowUtc es obligatorio");
+        Objects.requireNonNull(lockExpiredBeforeUtc, "lockExpiredBeforeUtc es obligatorio");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Object r = em.createNativeQuery("""
+                update outbox_event
+                   set locked_at_utc = ?3,
+                       locked_by     = ?2
+                 where id_evento in (?1)
+                   and status        = 'PENDING'
+                   and (
+                        locked_at_utc is null
+                        or locked_at_utc < ?4
+                        or locked_by = ?2
+                   )
+                """).setParameter(1, ids).setParameter(2, instanceId).setParameter(3, nowUtc)
+                .setParameter(4, lockExpiredBeforeUtc).executeUpdate();
+
+        return (r instanceof Number n) ? n.intValue() : 0;
+    }
+
+    /**
+     * Retorna los eventos {@code PENDING} del lote cuyo lock lógico pertenece a la instancia.
+     *
+     * @param ids ids del lote
+     * @param instanceId id de la instancia
+     * @return eventos reclamados por la instancia
+     */
+    public List<OutboxEvent> findClaimedBy(Collection<UUID> ids, String instanceId) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("""
+                select e
+                from OutboxEvent e
+                where e.idEvento in :ids
+                  and e.status = :status
+                  and e.lockedBy = :instanceId
+                order by e.createdAtUtc asc
+                """, OutboxEvent.class).setParameter("ids", ids)
+                .setParameter("status", OutboxStatus.PENDING)
+                .setParameter("instanceId", instanceId).getResultList();
+    }
+
+    /**
+     * Busca eventos por id (un único {@code SELECT ... IN}).
+     *
+     * @param ids ids de eventos
+     * @return eventos encontrados (administrados)
+     */
+    public List<OutboxEvent> findByIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("select e from OutboxEvent e where e.idEvento in :ids",
+                OutboxEvent.class).setParameter("ids", ids).getResultList();
+    }
+
+    /**
+     * Marca como {@code PUBLISHED} un lote de eventos en un único {@code UPDATE}, limpiando
+     * metadata de error y lock lógico.
+     *
+     * <p>
+     * Solo afecta eventos aún {@code PENDING} (si otro nodo ya lo resolvió, no se pisa).
+     * </p>
+     *
+     * @param ids ids publicados (obligatorio)
+     * @param publishedAtUtc instante de publicación (obligatorio)
+     * @return filas actualizadas
+     */
+    public int markPublishedBatch(Collection<UUID> ids, OffsetDateTime publishedAtUtc) {
+        Objects.requireNonNull(ids, "ids es obligatorio");
+        Objects.requireNonNull(publishedAtUtc, "publishedAtUtc es obligatorio");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Object r = em.createNativeQuery("""
+                update outbox_event
+                   set status             = 'PUBLISHED',
+                       published_at_utc   = ?2,
+                       next_attempt_at_utc = null,
+                       last_error_code    = null,
+                       last_error_message = null,
+                       last_error_at_utc  = null,
+                       last_http_status   = null,
+                       locked_at_utc      = null,
+                       locked_by          = null
+                 where id_evento in (?1)
+                   and status = 'PENDING'
+                """).setParameter(1, ids).setParameter(2, publishedAtUtc).executeUpdate();
+
+        return (r instanceof Number n) ? n.intValue() : 0;
+    }
+
+    /**
+     * Emite {@code pg_notify(channel, payload)} en la transacción actual.
+     *
+     * <p>
+     * PostgreSQL entrega la notificación solo si la transacción hace commit (y colapsa duplicados
+     * idénticos dentro de la misma transacción).
+     * </p>
+     *
+     * @param channel canal de {@code LISTEN/NOTIFY} (obligatorio)
+     * @param payload payload de la notificación (obligatorio)
+     */
+    public void notifyChannel(String channel, String payload) {
+        Objects.requireNonNull(channel, "channel es obligatorio");
+        Objects.requireNonNull(payload, "payload es obligatorio");
+
+        em.createNativeQuery("select pg_notify(?1, ?2)").setParameter(1, channel)
+                .setParameter(2, payload).getSingleResult();
+    }
+
+    /**
+     * Elimina en un único {@code DELETE} hasta {@code limit} eventos {@code PUBLISHED} publicados
+     * antes del umbral (retención sobre tabla no particionada).
+     *
+     * @param publishedBeforeUtc umbral de publicación (obligatorio)
+     * @param limit tamaño máximo del lote
+     * @return filas eliminadas
+     */
+    public int deletePublishedBefore(OffsetDateTime publishedBeforeUtc, int limit) {
+        Objects.requireNonNull(publishedBeforeUtc, "publishedBeforeUtc es obligatorio");
+
+        Object r = em.createNativeQuery("""
+                delete from outbox_event
+                 where id_evento in (
+                        select id_evento
+                          from outbox_event
+                         where status = 'PUBLISHED'
+                           and published_at_utc < ?1
+                         limit ?2)
+                """).setParameter(1, publishedBeforeUtc).setParameter(2, limit).executeUpdate();
+
+        return (r instanceof Number n) ? n.intValue() : 0;
+    }
+
+    /**
+     * Retorna hasta {@code limit} eventos {@code FAILED} creados antes del umbral, en orden
+     * estable (para archivado por páginas).
+     *
+     * @param createdBeforeUtc umbral de creación (obligatorio)
+     * @param limit tamaño de página
+     * @return eventos FAILED
+     */
+    public List<OutboxEvent> findFailedCreatedBefore(OffsetDateTime createdBeforeUtc, int limit) {
+        Objects.requireNonNull(createdBeforeUtc, "createdBeforeUtc es obligatorio");
+
+        return em.createQuery("""
+                select e
+                from OutboxEvent e
+                where e.status = :status
+                  and e.createdAtUtc < :before
+                order by e.createdAtUtc asc, e.idEvento asc
+                """, OutboxEvent.class).setParameter("status", OutboxStatus.FAILED)
+                .setParameter("before", createdBeforeUtc).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Elimina eventos por id en un único {@code DELETE}.
+     *
+     * @param ids ids a eliminar
+     * @return filas eliminadas
+     */
+    public int deleteByIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        Object r = em.createNativeQuery("delete from outbox_event where id_evento in (?1)")
+                .setParameter(1, ids).executeUpdate();
+        return (r instanceof Number n) ? n.intValue() : 0;
+    }
+
+    /**
+     * Intenta tomar un advisory lock de PostgreSQL que se libera al terminar la transacción.
+     *
+     * <p>
+     * Útil para que solo una instancia ejecute mantenimiento (DDL de particiones, archivado).
+     * </p>
+     *
+     * @param key clave del lock
+     * @return {@code true} si se obtuvo
+     */
+    public boolean tryAdvisoryXactLock(long key) {
+        Object r = em.createNativeQuery("select pg_try_advisory_xact_lock(?1)")
+                .setParameter(1, key).getSingleResult();
+        return Boolean.TRUE.equals(r);
+    }
+
+    /**
+     * @return {@code true} si {@code outbox_event} es una tabla particionada (declarativa)
+     */
+    public boolean isPartitioned() {
+        Object r = em.createNativeQuery("""
+                select exists (select 1
+                                 from pg_partitioned_table p
+                                where p.partrelid = 'outbox_event'::regclass)
+                """).getSingleResult();
+        return Boolean.TRUE.equals(r);
+    }
+
+    /**
+     * Lista los días de las particiones diarias adjuntas a {@code outbox_event}.
+     *
+     * <p>
+     * Solo reconoce particiones con el nombre {@code outbox_event_pYYYYMMDD} (las que crea
+     * {@link #createDailyPartition(LocalDate)}); la partición {@code DEFAULT} u otras se ignoran.
+     * </p>
+     *
+     * @return días de partición, ascendente
+     */
+    @SuppressWarnings("unchecked")
+    public List<LocalDate> listDailyPartitions() {
+        List<Object> names = em.createNativeQuery("""
+                select c.relname
+                  from pg_inherits i
+                  join pg_class c on c.oid = i.inhrelid
+                 where i.inhparent = 'outbox_event'::regclass
+                 order by c.relname
+                """).getResultList();
+
+        List<LocalDate> days = new ArrayList<>(names.size());
+        for (Object n : names) {
+            Matcher m = PARTITION_NAME.matcher(String.valueOf(n));
+            if (m.matches()) {
+                days.add(LocalDate.parse(m.group(1), PARTITION_DAY));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Crea y adjunta la partición diaria {@code [day, day+1)} en UTC, si no está adjunta.
+     *
+     * <p>
+     * PostgreSQL rechaza crear o adjuntar un rango con filas en la partición {@code DEFAULT}: la
+     * tabla se crea suelta, se le mueven las filas del rango que cayeron en la {@code DEFAULT} y
+     * recién entonces se adjunta. Toma un lock exclusivo sobre la {@code DEFAULT}: ejecutar en una
+     * transacción propia por partición.
+     * </p>
+     *
+     * @param day día UTC (obligatorio)
+     * @return {@code true} si la partición se creó
+     */
+    public boolean createDailyPartition(LocalDate day) {
+        Objects.requireNonNull(day, "day es obligatorio");
+        String name = partitionName(day);
+
+        Object attached = em.createNativeQuery("""
+                select exists (select 1
+                                 from pg_inherits i
+                                 join pg_class c on c.oid = i.inhrelid
+                                where i.inhparent = 'outbox_event'::regclass
+                                  and c.relname = ?1)
+                """).setParameter(1, name).getSingleResult();
+        if (Boolean.TRUE.equals(attached)) {
+            return false;
+        }
+
+        String from = startOfDayUtc(day);
+        String to = startOfDayUtc(day.plusDays(1));
+        em.createNativeQuery("create table if not exists " + name
+                + " (like outbox_event including defaults including constraints)")
+                .executeUpdate();
+        String def = defaultPartition();
+        if (def != null) {
+            String range = " where created_at_utc >= '%s' and created_at_utc < '%s'"
+                    .formatted(from, to);
+            em.createNativeQuery("insert into " + name + " select * from " + def + range)
+                    .executeUpdate();
+            em.createNativeQuery("delete from " + def + range).executeUpdate();
+        }
+        em.createNativeQuery("""
+                alter table outbox_event
+                    attach partition %s
+                    for values from ('%s') to ('%s')
+                """.formatted(name, from, to)).executeUpdate();
+        return true;
+    }
+
+    /**
+     * Elimina hasta {@code limit} eventos {@code PUBLISHED} de la partición {@code DEFAULT}
+     * publicados antes del umbral (las filas que no llegaron a una partición diaria no se van con
+     * el desacople).
+     *
+     * @param publishedBeforeUtc umbral de publicación (obligatorio)
+     * @param limit máximo de filas por llamada
+     * @return filas eliminadas ({@code 0} si no hay partición {@code DEFAULT})
+     */
+    public int deletePublishedInDefaultPartition(OffsetDateTime publishedBeforeUtc, int limit) {
+        Objects.requireNonNull(publishedBeforeUtc, "publishedBeforeUtc es obligatorio");
+        String def = defaultPartition();
+        if (def == null) {
+            return 0;
+        }
+
+        Object r = em.createNativeQuery("""
+                delete from %1$s
+                 where ctid in (
+                        select ctid
+                          from %1$s
+                         where status = 'PUBLISHED'
+                           and published_at_utc < ?1
+                         limit ?2)
+                """.formatted(def)).setParameter(1, publishedBeforeUtc).setParameter(2, limit)
+                .executeUpdate();
+        return (r instanceof Number n) ? n.intValue() : 0;
+    }
+
+    /**
+     * @return nombre (calificado si hace falta) de la partición {@code DEFAULT} de
+     *         {@code outbox_event}, o {@code null} si no tiene
+     */
+    @SuppressWarnings("unchecked")
+    private String defaultPartition() {
+        List<Object> r = em.createNativeQuery("""
+                select p.partdefid::regclass::text
+                  from pg_partitioned_table p
+                 where p.partrelid = 'outbox_event'::regclass
+                   and p.partdefid <> 0
+                """).getResultList();
+        return r.isEmpty() ? null : String.valueOf(r.get(0));
+    }
+
+    /**
+     * Cuenta eventos no publicados ({@code PENDING}/{@code FAILED}) en una partición diaria.
+     *
+     * @param day día de la partición (obligatorio)
+     * @return eventos que impiden descartar la partición
+     */
+    public long countNotPublishedInPartition(LocalDate day) {
+        Objects.requireNonNull(day, "day es obligatorio");
+
+        Object r = em.createNativeQuery(
+                "select count(*) from %s where status <> 'PUBLISHED'".formatted(partitionName(day)))
+                .getSingleResult();
+        return ((Number) r).longValue();
+    }
+
+    /**
+     * Desacopla una partición diaria de {@code outbox_event} y, opcionalmente, la elimina.
+     *
+     * @param day día de la partición (obligatorio)
+     * @param drop si {@code true}, elimina la tabla desacoplada
+     */
+    public void detachDailyPartition(LocalDate day, boolean drop) {
+        Objects.requireNonNull(day, "day es obligatorio");
+        String name = partitionName(day);
+
+        em.createNativeQuery("alter table outbox_event detach partition " + name).executeUpdate();
+        if (drop) {
+            em.createNativeQuery("drop table if exists " + name).executeUpdate();
+        }
+    }
+
+    /**
+     * @param day día UTC
+     * @return nombre de la partición diaria (solo dígitos: seguro para SQL dinámico)
+     */
+    public static String partitionName(LocalDate day) {
+        return "outbox_event_p" + PARTITION_DAY.format(day);
+    }
+
+    private static String startOfDayUtc(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+
 }
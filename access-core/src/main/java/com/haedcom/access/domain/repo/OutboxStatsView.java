@@ -0,0 +1,28 @@
+package com.haedcom.access.domain.repo;
+
+/**
+ * Proyección agregada del estado del outbox obtenida en una sola consulta.
+ *
+ * <p>
+ * Usada por el sampler de métricas/readiness para no ejecutar un {@code COUNT} por gauge en cada
+ * scrape.
+ * </p>
+ *
+ * @param pending eventos {@code PENDING}
+ * @param ready {@code PENDING} listos para despacho (sin backoff o backoff vencido)
+ * @param inflight {@code PENDING} reclamados ({@code locked_at_utc != null})
+ * @param failed eventos {@code FAILED}
+ * @param publishedEstimate estimación de eventos {@code PUBLISHED} (estadísticas del planner, sin
+ *        recorrer la tabla)
+ * @param oldestPendingAgeSec edad del PENDING más viejo, o null si no hay
+ * @param oldestReadyAgeSec edad del READY más viejo, o null si no hay
+ * @param oldestInflightAgeSec edad del INFLIGHT más viejo según {@code locked_at_utc}, o null si
+ *        no hay
+ */
+public record OutboxStatsView(long pending, long ready, long inflight, long failed,
+        long publishedEstimate, Long oldestPendingAgeSec, Long oldestReadyAgeSec,
+        Long oldestInflightAgeSec) {
+
+    /** Snapshot vacío (antes del primer muestreo). */
+    public static final OutboxStatsView EMPTY = new OutboxStatsView(0, 0, 0, 0, 0, null, null, null);
+}
@@ -3,7 +3,9 @@ package com.haedcom.access.domain.repo;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import com.haedcom.access.domain.enums.EstadoReglaAcceso;
 import com.haedcom.access.domain.enums.TipoAccionAcceso;
@@ -35,6 +37,12 @@ import jakarta.persistence.TypedQuery;
 @ApplicationScoped
 public class ReglaAccesoRepository extends BaseRepository<ReglaAcceso, UUID> {
 
+    /** Orden del listado administrativo: {@code actualizadoEnUtc DESC, idRegla DESC}. */
+    private static final KeysetQuery<ReglaAcceso> KEYSET = new KeysetQuery<>("r.idRegla",
+            ReglaAcceso::getIdRegla, Map.of("actualizadoEnUtc",
+                    KeysetQuery.instante("r.actualizadoEnUtc", ReglaAcceso::getActualizadoEnUtc)),
+            "actualizadoEnUtc", false);
+
     public ReglaAccesoRepository() {
         super(ReglaAcceso.class);
     }
@@ -159,6 +167,56 @@ public class ReglaAccesoRepository extends BaseRepository<ReglaAcceso, UUID> {
         return q.getSingleResult();
     }
 
+    /**
+     * Variante por keyset de
+     * {@link #searchByOrganizacion(UUID, UUID, UUID, TipoSujetoAcceso, TipoDireccionPaso, TipoMetodoAutenticacion, TipoAccionAcceso, EstadoReglaAcceso, int, int)}:
+     * mismos filtros y orden (con {@code idRegla} como desempate), pero continúa después de
+     * {@code after} en vez de saltar {@code page * size} filas. Usa
+     * {@code ix_regla_org_actualizado}.
+     *
+     * @param after última regla de la página anterior ({@code null} = primera página)
+     * @param limit máximo de filas a leer
+     * @throws IllegalArgumentException si {@code after} no es un cursor de este listado
+     */
+    public List<ReglaAcceso> searchByOrganizacionAfter(UUID orgId, UUID idArea,
+            UUID idDispositivo, TipoSujetoAcceso tipoSujeto, EstadoReglaAcceso estado,
+            Keyset after, int limit) {
+
+        StringBuilder jpql =
+                new StringBuilder("SELECT r FROM ReglaAcceso r WHERE r.idOrganizacion = :orgId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("orgId", orgId);
+
+        if (idArea != null) {
+            jpql.append(" AND r.idArea = :idArea");
+            params.put("idArea", idArea);
+        }
+        if (idDispositivo != null) {
+            jpql.append(" AND r.idDispositivo = :idDispositivo");
+            params.put("idDispositivo", idDispositivo);
+        }
+        if (tipoSujeto != null) {
+            jpql.append(" AND r.tipoSujeto = :tipoSujeto");
+            params.put("tipoSujeto", tipoSujeto);
+        }
+        if (estado != null) {
+            jpql.append(" AND r.estado = :estado");
+            params.put("estado", estado);
+        }
+        KEYSET.append(jpql, params, KEYSET.orden(null, null), after);
+
+        TypedQuery<ReglaAcceso> q = em.createQuery(jpql.toString(), ReglaAcceso.class);
+        params.forEach(q::setParameter);
+        return q.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Posición de una regla para continuar {@link #searchByOrganizacionAfter}.
+     */
+    public Keyset keysetOf(ReglaAcceso r) {
+        return KEYSET.keysetOf(r, KEYSET.orden(null, null));
+    }
+
     // =========================================================================
     // DUPLICATES
     // =========================================================================
@@ -2,6 +2,7 @@ package com.haedcom.access.domain.repo;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import com.haedcom.access.domain.enums.EstadoResidente;
@@ -27,6 +28,21 @@ import jakarta.persistence.TypedQuery;
 @ApplicationScoped
 public class ResidenteRepository extends BaseRepository<Residente, UUID> {
 
+        /** Misma whitelist que {@link #resolveOrderBy(String)}, con índices en la entidad. */
+        private static final KeysetQuery<Residente> KEYSET = new KeysetQuery<>("r.idResidente",
+                        Residente::getIdResidente,
+                        Map.of("nombre", KeysetQuery.texto("r.nombre", Residente::getNombre),
+                                        "creadoEnUtc",
+                                        KeysetQuery.instante("r.creadoEnUtc",
+                                                        Residente::getCreadoEnUtc),
+                                        "actualizadoEnUtc",
+                                        KeysetQuery.instante("r.actualizadoEnUtc",
+                                                        Residente::getActualizadoEnUtc),
+                                        "numeroDocumento",
+                                        KeysetQuery.texto("r.numeroDocumento",
+                                                        Residente::getNumeroDocumento)),
+                        "actualizadoEnUtc", false);
+
         /**
          * Constructor del repositorio.
          */
@@ -208,32 +224,7 @@ public class ResidenteRepository extends BaseRepository<Residente, UUID> {
                 params.put("orgId", orgId);
 
                 // --- filtros ---
-                String qq = (q == null) ? null : q.trim();
-                if (qq != null && !qq.isBlank()) {
-                        jpql.append(" and (").append(" lower(r.nombre) like :q")
-                                        .append(" or r.numeroDocumento like :qExactOrLike")
-                                        .append(" or lower(r.correo) like :q")
-                                        .append(" or r.telefono like :qExactOrLike").append(" )");
-
-                        params.put("q", "%" + qq.toLowerCase(Locale.ROOT) + "%");
-                        params.put("qExactOrLike", "%" + qq + "%");
-                }
-
-                if (tipoDocumento != null) {
-                        jpql.append(" and r.tipoDocumento = :tipoDocumento");
-                        params.put("tipoDocumento", tipoDocumento);
-                }
-
-                String num = (numeroDocumento == null) ? null : numeroDocumento.trim();
-                if (num != null && !num.isBlank()) {
-                        jpql.append(" and r.numeroDocumento = :numeroDocumento");
-                        params.put("numeroDocumento", num);
-                }
-
-                if (estado != null) {
-                        jpql.append(" and r.estado = :estado");
-                        params.put("estado", estado);
-                }
+                appendFilters(jpql, params, q, tipoDocumento, numeroDocumento, estado);
 
                 // --- order by (whitelist) ---
                 String orderBy = resolveOrderBy(sort);
@@ -271,6 +262,90 @@ public class ResidenteRepository extends BaseRepository<Residente, UUID> {
                 var params = new java.util.HashMap<String, Object>();
                 params.put("orgId", orgId);
 
+                appendFilters(jpql, params, q, tipoDocumento, numeroDocumento, estado);
+
+                var query = em.createQuery(jpql.toString(), Long.class);
+                params.forEach(query::setParameter);
+
+                Long total = query.getSingleResult();
+                return total == null ? 0L : total;
+        }
+
+        /**
+         * Variante por keyset de
+         * {@link #searchByOrganizacion(UUID, String, TipoDocumentoIdentidad, String, EstadoResidente, String, String, int, int)}:
+         * mismos filtros y orden, pero continúa después de {@code after} en vez de saltar
+         * {@code page * size} filas, así que el costo no crece con la profundidad.
+         *
+         * <p>
+         * El orden incluye {@code idResidente} como desempate. Usa los índices
+         * {@code ix_residente_org_*} de {@link Residente}.
+         * </p>
+         *
+         * @param orgId identificador de la organización (tenant)
+         * @param q término de búsqueda libre (opcional)
+         * @param tipoDocumento filtro por tipo de documento (opcional)
+         * @param numeroDocumento filtro por documento exacto (opcional)
+         * @param estado filtro por estado (opcional)
+         * @param sort campo de ordenamiento (opcional; whitelist)
+         * @param dir dirección del ordenamiento (opcional; {@code asc} o {@code desc})
+         * @param after última fila de la página anterior ({@code null} = primera página)
+         * @param limit máximo de filas a leer
+         * @return residentes posteriores a {@code after}
+         * @throws IllegalArgumentException si {@code after} no corresponde a
+         *         {@code sort}/{@code dir}
+         */
+        public List<Residente> searchByOrganizacionAfter(UUID orgId, String q,
+                        TipoDocumentoIdentidad tipoDocumento, String numeroDocumento,
+                        EstadoResidente estado, String sort, String dir, Keyset after, int limit) {
+                StringBuilder jpql = new StringBuilder(
+                                "select r from Residente r where r.idOrganizacion = :orgId");
+                var params = new java.util.HashMap<String, Object>();
+                params.put("orgId", orgId);
+
+                appendFilters(jpql, params, q, tipoDocumento, numeroDocumento, estado);
+                KEYSET.append(jpql, params, KEYSET.orden(sort, dir), after);
+
+                TypedQuery<Residente> query = em.createQuery(jpql.toString(), Residente.class);
+                params.forEach(query::setParameter);
+
+                return query.setMaxResults(limit).getResultList();
+        }
+
+        /**
+         * Posición de un residente para continuar
+         * {@link #searchByOrganizacionAfter} con el mismo {@code sort}/{@code dir}.
+         */
+        public Keyset keysetOf(Residente r, String sort, String dir) {
+                return KEYSET.keysetOf(r, KEYSET.orden(sort, dir));
+        }
+
+        /**
+         * Lista el documento de todos los residentes {@link EstadoResidente#ACTIVO} (todos los
+         * tenants), como proyección.
+         *
+         * <p>
+         * Pensado para la carga inicial del índice de credenciales del flujo de acceso: una sola
+         * consulta al arranque, sin hidratar entidades.
+         * </p>
+         *
+         * @return documentos de residentes activos
+         */
+        public List<SujetoCredencialView> listCredencialesActivas() {
+                return em.createQuery("select new com.haedcom.access.domain.repo"
+                                + ".SujetoCredencialView(r.idOrganizacion, r.idResidente, "
+                                + "r.tipoDocumento, r.numeroDocumento) "
+                                + "from Residente r where r.estado = :estado",
+                                SujetoCredencialView.class)
+                                .setParameter("estado", EstadoResidente.ACTIVO).getResultList();
+        }
+
+        /**
+         * Filtros comunes de búsqueda, conteo y keyset.
+         */
+        private static void appendFilters(StringBuilder jpql, Map<String, Object> params, String q,
+                        TipoDocumentoIdentidad tipoDocumento, String numeroDocumento,
+                        EstadoResidente estado) {
                 String qq = (q == null) ? null : q.trim();
                 if (qq != null && !qq.isBlank()) {
                         jpql.append(" and (").append(" lower(r.nombre) like :q")
@@ -296,12 +371,6 @@ public class ResidenteRepository extends BaseRepository<Residente, UUID> {
                         jpql.append(" and r.estado = :estado");
                         params.put("estado", estado);
                 }
-
-                var query = em.createQuery(jpql.toString(), Long.class);
-                params.forEach(query::setParameter);
-
-                Long total = query.getSingleResult();
-                return total == null ? 0L : total;
         }
 
         /**
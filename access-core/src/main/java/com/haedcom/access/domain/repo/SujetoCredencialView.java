@@ -0,0 +1,20 @@
+package com.haedcom.access.domain.repo;
+
+import java.util.UUID;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+
+/**
+ * Proyección liviana (sin entidad gestionada) del documento de un sujeto de acceso.
+ *
+ * <p>
+ * Usada para cargar el índice en memoria de credenciales sin hidratar entidades JPA completas.
+ * </p>
+ *
+ * @param orgId tenant
+ * @param idSujeto id del residente/visitante
+ * @param tipoDocumento tipo de documento
+ * @param numeroDocumento número de documento
+ */
+public record SujetoCredencialView(UUID orgId, UUID idSujeto,
+        TipoDocumentoIdentidad tipoDocumento, String numeroDocumento) {
+}
@@ -0,0 +1,29 @@
+package com.haedcom.access.domain.repo;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+
+/**
+ * Proyección liviana del documento de un visitante preautorizado con una de sus ventanas de
+ * autorización no vencidas.
+ *
+ * <p>
+ * Una fila por ventana; un visitante sin ventanas no vencidas aparece una vez con
+ * {@code validoDesde}/{@code validoHasta} en {@code null}. {@code restringido} indica si el
+ * visitante tiene alguna {@code AutorizacionVisita} (vencida o no): un visitante restringido sin
+ * ventanas no vencidas está vencido.
+ * </p>
+ *
+ * @param orgId tenant
+ * @param idSujeto id del visitante
+ * @param tipoDocumento tipo de documento
+ * @param numeroDocumento número de documento
+ * @param validoDesde inicio de la ventana (o {@code null})
+ * @param validoHasta fin de la ventana (o {@code null})
+ * @param restringido {@code true} si el visitante tiene autorizaciones
+ */
+public record VisitanteCredencialView(UUID orgId, UUID idSujeto,
+        TipoDocumentoIdentidad tipoDocumento, String numeroDocumento, OffsetDateTime validoDesde,
+        OffsetDateTime validoHasta, Boolean restringido) {
+}
@@ -1,7 +1,9 @@
 package com.haedcom.access.domain.repo;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -31,6 +33,31 @@ import jakarta.persistence.TypedQuery;
 @ApplicationScoped
 public class VisitantePreautorizadoRepository extends BaseRepository<VisitantePreautorizado, UUID> {
 
+    /** Misma whitelist que {@link #resolveOrderBy(String)}, con índices en la entidad. */
+    private static final KeysetQuery<VisitantePreautorizado> KEYSET = new KeysetQuery<>(
+            "v.idVisitante", VisitantePreautorizado::getIdVisitante,
+            Map.of("nombre", KeysetQuery.texto("v.nombre", VisitantePreautorizado::getNombre),
+                    "creadoEnUtc",
+                    KeysetQuery.instante("v.creadoEnUtc", VisitantePreautorizado::getCreadoEnUtc),
+                    "actualizadoEnUtc",
+                    KeysetQuery.instante("v.actualizadoEnUtc",
+                            VisitantePreautorizado::getActualizadoEnUtc),
+                    "numeroDocumento",
+                    KeysetQuery.texto("v.numeroDocumento",
+                            VisitantePreautorizado::getNumeroDocumento)),
+            "actualizadoEnUtc", false);
+
+    /** Documento del visitante con sus ventanas no vencidas ({@link VisitanteCredencialView}). */
+    private static final String CREDENCIALES_JPQL =
+            "select new com.haedcom.access.domain.repo.VisitanteCredencialView("
+                    + "v.idOrganizacion, v.idVisitante, v.tipoDocumento, v.numeroDocumento, "
+                    + "a.validoDesdeUtc, a.validoHastaUtc, "
+                    + "case when exists (select 1 from AutorizacionVisita x "
+                    + "where x.visitante = v) then true else false end) "
+                    + "from VisitantePreautorizado v "
+                    + "left join AutorizacionVisita a "
+                    + "on a.visitante = v and a.validoHastaUtc > :ahora";
+
     /**
      * Constructor del repositorio.
      */
@@ -132,6 +159,45 @@ public class VisitantePreautorizadoRepository extends BaseRepository<VisitantePr
                 .findFirst();
     }
 
+    /**
+     * Lista el documento de todos los visitantes preautorizados (todos los tenants) con sus
+     * ventanas de autorización no vencidas, como proyección.
+     *
+     * <p>
+     * Pensado para la carga inicial del índice de credenciales del flujo de acceso: una sola
+     * consulta al arranque, sin hidratar entidades. Filas ordenadas por visitante.
+     * </p>
+     *
+     * @param ahora instante de referencia (se omiten las ventanas que terminan antes)
+     * @return una fila por ventana no vencida (ver {@link VisitanteCredencialView})
+     */
+    public List<VisitanteCredencialView> listCredenciales(OffsetDateTime ahora) {
+        return em.createQuery(CREDENCIALES_JPQL + " order by v.idVisitante",
+                VisitanteCredencialView.class)
+                .setParameter("ahora", ahora)
+                .getResultList();
+    }
+
+    /**
+     * Variante de {@link #listCredenciales(OffsetDateTime)} para un visitante (actualización
+     * incremental del índice).
+     *
+     * @param orgId       identificador de la organización (tenant)
+     * @param visitanteId identificador del visitante
+     * @param ahora       instante de referencia
+     * @return filas del visitante (vacío si no existe)
+     */
+    public List<VisitanteCredencialView> listCredenciales(UUID orgId, UUID visitanteId,
+            OffsetDateTime ahora) {
+        return em.createQuery(CREDENCIALES_JPQL
+                + " where v.idVisitante = :id and v.idOrganizacion = :orgId",
+                VisitanteCredencialView.class)
+                .setParameter("ahora", ahora)
+                .setParameter("id", visitanteId)
+                .setParameter("orgId", orgId)
+                .getResultList();
+    }
+
     /**
      * Verifica si existe un visitante preautorizado con el mismo documento dentro
      * de una organización.
@@ -299,34 +365,7 @@ public class VisitantePreautorizadoRepository extends BaseRepository<VisitantePr
         params.put("orgId", orgId);
 
         // --- filtros ---
-        if (residenteId != null) {
-            jpql.append(" and v.residente.idResidente = :residenteId");
-            params.put("residenteId", residenteId);
-        }
-
-        String qq = (q == null) ? null : q.trim();
-        if (qq != null && !qq.isBlank()) {
-            jpql.append(" and (")
-                    .append(" lower(v.nombre) like :q")
-                    .append(" or v.numeroDocumento like :qExactOrLike")
-                    .append(" or lower(v.correo) like :q")
-                    .append(" or v.telefono like :qExactOrLike")
-                    .append(" )");
-
-            params.put("q", "%" + qq.toLowerCase(Locale.ROOT) + "%");
-            params.put("qExactOrLike", "%" + qq + "%");
-        }
-
-        if (tipoDocumento != null) {
-            jpql.append(" and v.tipoDocumento = :tipoDocumento");
-            params.put("tipoDocumento", tipoDocumento);
-        }
-
-        String num = (numeroDocumento == null) ? null : numeroDocumento.trim();
-        if (num != null && !num.isBlank()) {
-            jpql.append(" and v.numeroDocumento = :numeroDocumento");
-            params.put("numeroDocumento", num);
-        }
+        appendFilters(jpql, params, residenteId, q, tipoDocumento, numeroDocumento);
 
         // --- order by (whitelist) ---
         String orderBy = resolveOrderBy(sort);
@@ -369,6 +408,75 @@ public class VisitantePreautorizadoRepository extends BaseRepository<VisitantePr
         var params = new java.util.HashMap<String, Object>();
         params.put("orgId", orgId);
 
+        appendFilters(jpql, params, residenteId, q, tipoDocumento, numeroDocumento);
+
+        var query = em.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+
+        Long total = query.getSingleResult();
+        return total == null ? 0L : total;
+    }
+
+    /**
+     * Variante por keyset de
+     * {@link #searchByOrganizacion(UUID, UUID, String, TipoDocumentoIdentidad, String, String, String, int, int)}:
+     * mismos filtros y orden (con {@code idVisitante} como desempate), pero continúa después de
+     * {@code after} en vez de saltar {@code page * size} filas.
+     *
+     * @param orgId           identificador de la organización (tenant)
+     * @param residenteId     identificador del residente (opcional)
+     * @param q               término de búsqueda libre (opcional)
+     * @param tipoDocumento   filtro por tipo de documento (opcional)
+     * @param numeroDocumento filtro por documento exacto (opcional)
+     * @param sort            campo de ordenamiento (opcional; whitelist)
+     * @param dir             dirección del ordenamiento (opcional)
+     * @param after           última fila de la página anterior ({@code null} = primera)
+     * @param limit           máximo de filas a leer
+     * @return visitantes posteriores a {@code after}
+     * @throws IllegalArgumentException si {@code after} no corresponde a
+     *                                  {@code sort}/{@code dir}
+     */
+    public List<VisitantePreautorizado> searchByOrganizacionAfter(
+            UUID orgId,
+            UUID residenteId,
+            String q,
+            TipoDocumentoIdentidad tipoDocumento,
+            String numeroDocumento,
+            String sort,
+            String dir,
+            Keyset after,
+            int limit) {
+
+        StringBuilder jpql = new StringBuilder(
+                "select v from VisitantePreautorizado v where v.idOrganizacion = :orgId");
+
+        var params = new java.util.HashMap<String, Object>();
+        params.put("orgId", orgId);
+
+        appendFilters(jpql, params, residenteId, q, tipoDocumento, numeroDocumento);
+        KEYSET.append(jpql, params, KEYSET.orden(sort, dir), after);
+
+        TypedQuery<VisitantePreautorizado> query =
+                em.createQuery(jpql.toString(), VisitantePreautorizado.class);
+        params.forEach(query::setParameter);
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Posición de un visitante para continuar
+     * {@link #searchByOrganizacionAfter} con el mismo {@code sort}/{@code dir}.
+     */
+    public Keyset keysetOf(VisitantePreautorizado v, String sort, String dir) {
+        return KEYSET.keysetOf(v, KEYSET.orden(sort, dir));
+    }
+
+    /**
+     * Filtros comunes de búsqueda, conteo y keyset.
+     */
+    private static void appendFilters(StringBuilder jpql, Map<String, Object> params,
+            UUID residenteId, String q, TipoDocumentoIdentidad tipoDocumento,
+            String numeroDocumento) {
         if (residenteId != null) {
             jpql.append(" and v.residente.idResidente = :residenteId");
             params.put("residenteId", residenteId);
@@ -397,12 +505,6 @@ public class VisitantePreautorizadoRepository extends BaseRepository<VisitantePr
             jpql.append(" and v.numeroDocumento = :numeroDocumento");
             params.put("numeroDocumento", num);
         }
-
-        var query = em.createQuery(jpql.toString(), Long.class);
-        params.forEach(query::setParameter);
-
-        Long total = query.getSingleResult();
-        return total == null ? 0L : total;
     }
 
     /**
@@ -0,0 +1,32 @@
+package com.haedcom.access.health;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+import org.eclipse.microprofile.health.Startup;
+import com.haedcom.access.application.acceso.CacheWarmup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Startup/readiness del precalentamiento de caches ({@link CacheWarmup}): {@code DOWN} mientras
+ * corre, {@code UP} cuando termina (completo, por timeout, con error o desactivado). Así el pod no
+ * recibe intentos con los caches fríos.
+ */
+@Startup
+@Readiness
+@ApplicationScoped
+public class CacheWarmupCheck implements HealthCheck {
+
+    @Inject
+    CacheWarmup warmup;
+
+    @Override
+    public HealthCheckResponse call() {
+        CacheWarmup.Estado estado = warmup.estado();
+        return HealthCheckResponse.named("cache-warmup").status(estado.terminado())
+                .withData("state", estado.name()).withData("orgs", warmup.organizaciones())
+                .withData("failed", warmup.fallidas())
+                .withData("elapsedMs", warmup.duracionMillis()).build();
+    }
+}
@@ -3,27 +3,35 @@ package com.haedcom.access.health;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.Readiness;
-import com.haedcom.access.domain.repo.CatalogoMotivoDecisionRepository;
+import com.haedcom.access.application.acceso.CatalogoMotivos;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+/**
+ * Readiness del catálogo de motivos: usa el snapshot precargado en {@link CatalogoMotivos} (sin
+ * consulta por probe). Mientras no haya cargado, el probe reintenta la carga (acotado por
+ * {@link CatalogoMotivos}).
+ */
 @Readiness
 @ApplicationScoped
 public class CatalogReadinessCheck implements HealthCheck {
 
     @Inject
-    CatalogoMotivoDecisionRepository motivoRepo;
+    CatalogoMotivos catalogo;
 
     @Override
     public HealthCheckResponse call() {
         try {
-            boolean ok = motivoRepo.findByCodigo("POLICY_ERROR").isPresent();
+            boolean ok = catalogo.contiene("POLICY_ERROR");
 
             if (ok) {
-                return HealthCheckResponse.up("catalog-motivos-ready");
+                return HealthCheckResponse.named("catalog-motivos-ready").up()
+                        .withData("size", catalogo.size())
+                        .withData("loadedAt", String.valueOf(catalogo.cargadoEn())).build();
             }
 
             return HealthCheckResponse.named("catalog-motivos-ready").down()
+                    .withData("loaded", catalogo.isLoaded())
                     .withData("missing", "POLICY_ERROR").build();
 
         } catch (Exception e) {
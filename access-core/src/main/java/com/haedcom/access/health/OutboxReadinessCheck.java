@@ -5,11 +5,20 @@ import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 import org.eclipse.microprofile.health.Readiness;
-import com.haedcom.access.domain.enums.OutboxStatus;
-import com.haedcom.access.domain.repo.OutboxEventRepository;
+import com.haedcom.access.domain.repo.OutboxStatsView;
+import com.haedcom.access.infrastructure.outbox.OutboxSnapshotSampler;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+/**
+ * Readiness del outbox.
+ *
+ * <p>
+ * Lee el snapshot cacheado de {@link OutboxSnapshotSampler} (sin consultas por probe). Solo si aún
+ * no hubo un muestreo exitoso se fuerza uno; si el snapshot está obsoleto (el muestreo viene
+ * fallando) el check queda DOWN. {@code published} es una estimación.
+ * </p>
+ */
 @Readiness
 @ApplicationScoped
 public class OutboxReadinessCheck implements HealthCheck {
@@ -29,7 +38,7 @@ public class OutboxReadinessCheck implements HealthCheck {
     private static final long MAX_FAILED = 50;
 
     @Inject
-    OutboxEventRepository outboxRepo;
+    OutboxSnapshotSampler sampler;
 
     @ConfigProperty(name = "haedcom.outbox.lock-ttl-seconds", defaultValue = "300")
     long lockTtlSeconds;
@@ -37,15 +46,23 @@ public class OutboxReadinessCheck implements HealthCheck {
     @Override
     public HealthCheckResponse call() {
         try {
-            long pending = outboxRepo.countByStatus(OutboxStatus.PENDING);
-            long published = outboxRepo.countByStatus(OutboxStatus.PUBLISHED);
-            long failed = outboxRepo.countByStatus(OutboxStatus.FAILED);
+            OutboxSnapshotSampler.Snapshot snapshot = sampler.current();
+            if (snapshot.sampledAt() == null) {
+                snapshot = sampler.refresh();
+            }
+            OutboxStatsView stats = snapshot.stats();
+
+            long pending = stats.pending();
+            long published = stats.publishedEstimate();
+            long failed = stats.failed();
+
+            long ready = stats.ready();
+            long inflight = stats.inflight();
 
-            long ready = outboxRepo.countReadyPending();
-            long inflight = outboxRepo.countInflightPending();
+            Long oldestReadyAgeSec = stats.oldestReadyAgeSec();
+            Long oldestInflightAgeSec = stats.oldestInflightAgeSec();
 
-            Long oldestReadyAgeSec = outboxRepo.oldestReadyPendingAgeSeconds(); // 👈 nuevo
-            Long oldestInflightAgeSec = outboxRepo.oldestInflightAgeSeconds();
+            boolean snapshotStale = sampler.isStale();
 
             boolean tooManyFailed = failed >= MAX_FAILED;
 
@@ -59,14 +76,16 @@ public class OutboxReadinessCheck implements HealthCheck {
                     HealthCheckResponse.named("outbox-ready").withData("pending", pending)
                             .withData("ready", ready).withData("inflight", inflight)
                             .withData("failed", failed).withData("published", published)
-                            .withData("oldestReadyAgeSec", oldestReadyAgeSec)
-                            .withData("oldestInflightAgeSec", oldestInflightAgeSec)
+                            .withData("oldestReadyAgeSec", orZero(oldestReadyAgeSec))
+                            .withData("oldestInflightAgeSec", orZero(oldestInflightAgeSec))
                             .withData("thresholdOldestReadyAgeSec", MAX_OLDEST_READY_AGE_SEC)
                             .withData("lockTtlSeconds", lockTtlSeconds)
                             .withData("inflightGraceSec", INFLIGHT_GRACE_SEC)
-                            .withData("thresholdFailed", MAX_FAILED);
+                            .withData("thresholdFailed", MAX_FAILED)
+                            .withData("snapshotAgeSec", orZero(sampler.ageSeconds()))
+                            .withData("snapshotStaleAfterSec", sampler.staleAfter().toSeconds());
 
-            if (tooManyFailed || readyBacklogStuck || inflightStuck) {
+            if (snapshotStale || tooManyFailed || readyBacklogStuck || inflightStuck) {
                 return b.down().build();
             }
             return b.up().build();
@@ -78,6 +97,11 @@ public class OutboxReadinessCheck implements HealthCheck {
         }
     }
 
+    /** {@code withData(String, long)} no admite null (el unboxing lanzaría NPE). */
+    private static long orZero(Long v) {
+        return v != null ? v : 0L;
+    }
+
     private String safe(String s) {
         if (s == null)
             return null;
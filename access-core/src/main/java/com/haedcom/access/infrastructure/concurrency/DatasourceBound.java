@@ -0,0 +1,17 @@
+package com.haedcom.access.infrastructure.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Marca recursos (o métodos) cuyo trabajo bloqueante usa el datasource: en virtual threads se
+ * ejecutan dentro de un permiso de {@link DatasourceBulkhead}.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface DatasourceBound {
+}
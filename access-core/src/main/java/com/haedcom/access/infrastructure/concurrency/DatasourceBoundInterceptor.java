@@ -0,0 +1,42 @@
+package com.haedcom.access.infrastructure.concurrency;
+
+import java.util.Objects;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Ejecuta los métodos {@link DatasourceBound} dentro de un permiso de
+ * {@link DatasourceBulkhead}.
+ *
+ * <p>
+ * Corre antes que {@code @Transactional}: el request espera el permiso sin transacción ni
+ * conexión tomadas.
+ * </p>
+ */
+@DatasourceBound
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class DatasourceBoundInterceptor {
+
+    private final DatasourceBulkhead bulkhead;
+
+    @Inject
+    public DatasourceBoundInterceptor(DatasourceBulkhead bulkhead) {
+        this.bulkhead = Objects.requireNonNull(bulkhead, "bulkhead es obligatorio");
+    }
+
+    @AroundInvoke
+    Object around(InvocationContext ctx) throws Exception {
+        if (!bulkhead.acquire()) {
+            return ctx.proceed();
+        }
+        try {
+            return ctx.proceed();
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.haedcom.access.infrastructure.concurrency;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+
+/**
+ * Límite de requests concurrentes sobre el datasource cuando se ejecutan en virtual threads.
+ *
+ * <p>
+ * En worker threads la concurrencia ya está acotada por el pool de workers. En virtual threads
+ * ({@code @RunOnVirtualThread}) cada request tiene su propio hilo: en un pico, miles de requests
+ * llegarían a la vez al pool de conexiones (Agroal) y esperarían ahí hasta su
+ * {@code acquisition-timeout}, reteniendo memoria y dando errores tardíos. Este componente los
+ * hace esperar antes, en un {@link Semaphore} justo con tantos permisos como conexiones.
+ * </p>
+ *
+ * <ul>
+ * <li>Solo aplica en virtual threads; en un worker thread {@link #acquire()} no toma permiso.</li>
+ * <li>Si no hay permiso en {@code permit-timeout}, se responde 503 con {@code Retry-After} en vez
+ * de encolar sin límite.</li>
+ * <li>Se aplica a los recursos REST con {@link DatasourceBound}.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.vthreads.bulkhead.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.vthreads.bulkhead.permits} (default {@code 0}): permisos; {@code <= 0} usa
+ * {@code quarkus.datasource.jdbc.max-size} (default {@code 20}).</li>
+ * <li>{@code haedcom.vthreads.bulkhead.permit-timeout} (default {@code 5s})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code vthread_bulkhead_permits_available} (gauge)</li>
+ * <li>{@code vthread_bulkhead_wait_seconds}: espera por permiso.</li>
+ * <li>{@code vthread_bulkhead_rejected_total}: requests rechazados por timeout.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class DatasourceBulkhead {
+
+    private static final Logger LOG = Logger.getLogger(DatasourceBulkhead.class);
+
+    private final boolean enabled;
+    private final int permits;
+    private final long timeoutNanos;
+    private final long retryAfterSeconds;
+    private final Semaphore semaphore;
+
+    private final Timer wait;
+    private final Counter rejected;
+
+    @Inject
+    public DatasourceBulkhead(MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.vthreads.bulkhead.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.vthreads.bulkhead.permits",
+                    defaultValue = "0") int permits,
+            @ConfigProperty(name = "quarkus.datasource.jdbc.max-size",
+                    defaultValue = "20") int poolSize,
+            @ConfigProperty(name = "haedcom.vthreads.bulkhead.permit-timeout",
+                    defaultValue = "5s") Duration permitTimeout) {
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        Objects.requireNonNull(permitTimeout, "permitTimeout es obligatorio");
+
+        this.enabled = enabled;
+        this.permits = Math.max(1, (permits > 0) ? permits : poolSize);
+        this.timeoutNanos = Math.max(0, permitTimeout.toNanos());
+        this.retryAfterSeconds = Math.max(1, permitTimeout.toSeconds());
+        this.semaphore = new Semaphore(this.permits, true);
+
+        registry.gauge("vthread_bulkhead_permits_available", semaphore,
+                Semaphore::availablePermits);
+        this.wait = Timer.builder("vthread_bulkhead_wait_seconds")
+                .publishPercentileHistogram(true).register(registry);
+        this.rejected = Counter.builder("vthread_bulkhead_rejected_total").register(registry);
+    }
+
+    /**
+     * Toma un permiso si el hilo actual es virtual.
+     *
+     * @return {@code true} si se tomó un permiso (el llamador debe invocar {@link #release()})
+     * @throws ServiceUnavailableException si no hubo permiso en {@code permit-timeout}
+     */
+    public boolean acquire() {
+        if (!enabled || !Thread.currentThread().isVirtual()) {
+            return false;
+        }
+        if (semaphore.tryAcquire()) {
+            wait.record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            LOG.warnf("DatasourceBulkhead - rejected permits=%d timeoutMs=%d", permits,
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+            throw new ServiceUnavailableException("Servicio saturado, reintente más tarde",
+                    retryAfterSeconds);
+        }
+        return true;
+    }
+
+    /** Devuelve el permiso tomado por {@link #acquire()}. */
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * @return permisos configurados
+     */
+    public int permits() {
+        return permits;
+    }
+
+    /**
+     * @return permisos libres en este momento
+     */
+    public int available() {
+        return semaphore.availablePermits();
+    }
+}
@@ -0,0 +1,161 @@
+package com.haedcom.access.infrastructure.concurrency;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Detecta virtual threads "pinned" a su carrier en producción.
+ *
+ * <p>
+ * En JDK 21 un virtual thread que bloquea dentro de un bloque {@code synchronized} (o en código
+ * nativo) no libera su carrier: con pocos carriers (uno por CPU) unos pocos hilos pinned frenan a
+ * todos los requests. El driver de PostgreSQL (42.6+) y Hibernate 7 ya usan {@code Lock} en los
+ * caminos de I/O, pero dependencias o código nuevo pueden reintroducir {@code synchronized}.
+ * </p>
+ *
+ * <p>
+ * Escucha el evento JFR {@code jdk.VirtualThreadPinned} con un {@link RecordingStream} (sin
+ * archivo en disco) y, por cada evento sobre el umbral, incrementa un contador y loguea el frame
+ * de aplicación más cercano (como máximo un log cada {@code log-every}). Solo se inicia si los
+ * virtual threads están habilitados ({@code quarkus.virtual-threads.enabled}).
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.vthreads.pinning-monitor.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.vthreads.pinning-monitor.threshold} (default {@code 20ms}): duración mínima
+ * del pinning reportado.</li>
+ * <li>{@code haedcom.vthreads.pinning-monitor.log-every} (default {@code 1m})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code vthread_pinned_total}</li>
+ * <li>{@code vthread_pinned_seconds}: duración del pinning.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    /** Frames de infraestructura que se saltan al buscar el origen del pinning. */
+    private static final List<String> SKIP_PREFIXES =
+            List.of("java.", "jdk.", "sun.", "javax.", "jakarta.");
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final long logEveryNanos;
+
+    private final Counter pinned;
+    private final Timer pinnedSeconds;
+    private final AtomicLong lastLogNanos = new AtomicLong();
+
+    private volatile RecordingStream stream;
+
+    @Inject
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+            @ConfigProperty(name = "quarkus.virtual-threads.enabled",
+                    defaultValue = "true") boolean virtualThreadsEnabled,
+            @ConfigProperty(name = "haedcom.vthreads.pinning-monitor.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.vthreads.pinning-monitor.threshold",
+                    defaultValue = "20ms") Duration threshold,
+            @ConfigProperty(name = "haedcom.vthreads.pinning-monitor.log-every",
+                    defaultValue = "1m") Duration logEvery) {
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.enabled = enabled && virtualThreadsEnabled;
+        this.threshold = Objects.requireNonNull(threshold, "threshold es obligatorio");
+        this.logEveryNanos =
+                Objects.requireNonNull(logEvery, "logEvery es obligatorio").toNanos();
+
+        this.pinned = Counter.builder("vthread_pinned_total").register(registry);
+        this.pinnedSeconds = Timer.builder("vthread_pinned_seconds").register(registry);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        stop();
+    }
+
+    /**
+     * Inicia la escucha de eventos. Idempotente; si JFR no está disponible solo se loguea.
+     */
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(EVENT).withThreshold(threshold).withStackTrace();
+            rs.onEvent(EVENT, this::onPinned);
+            rs.startAsync();
+            stream = rs;
+            LOG.infof("VirtualThreadPinningMonitor - started thresholdMs=%d",
+                    threshold.toMillis());
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "VirtualThreadPinningMonitor - jfr_unavailable");
+        }
+    }
+
+    /** Detiene la escucha de eventos. */
+    public synchronized void stop() {
+        RecordingStream rs = stream;
+        stream = null;
+        if (rs != null) {
+            rs.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        Duration d = event.getDuration();
+        pinned.increment();
+        pinnedSeconds.record(d);
+
+        long now = System.nanoTime();
+        long last = lastLogNanos.get();
+        if ((last == 0 || now - last >= logEveryNanos) && lastLogNanos.compareAndSet(last, now)) {
+            LOG.warnf("VirtualThreadPinningMonitor - pinned durationMs=%d frame=%s",
+                    d.toMillis(), origen(event.getStackTrace()));
+        }
+    }
+
+    /**
+     * @return primer frame fuera del JDK y de las APIs estándar, o el primero si no hay
+     */
+    static String origen(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stack.getFrames();
+        for (RecordedFrame f : frames) {
+            String type = f.getMethod().getType().getName();
+            if (SKIP_PREFIXES.stream().noneMatch(type::startsWith)) {
+                return type + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+            }
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
@@ -0,0 +1,94 @@
+package com.haedcom.access.infrastructure.messaging;
+
+import java.util.Objects;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.access.application.acceso.DeviceSnapshotCache;
+import com.haedcom.access.domain.events.DispositivoChanged;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Consumer que invalida el {@link DeviceSnapshotCache} en todos los nodos cuando cambia un
+ * dispositivo (Transactional Outbox → Kafka).
+ *
+ * <p>
+ * Espera mensajes con JSON de {@link OutboxKafkaEnvelope}; solo procesa
+ * {@link DispositivoChanged}. La invalidación es en memoria, por eso el consumer no es bloqueante.
+ * </p>
+ *
+ * <h2>Política de ACK</h2>
+ * <ul>
+ * <li>Si no es un eventType relevante: ACK y salir.</li>
+ * <li>Si falla el parseo: log + ACK (la entrada vence por TTL).</li>
+ * </ul>
+ *
+ * <p>
+ * Idempotente: invalidar una key inexistente no causa problemas.
+ * </p>
+ */
+@ApplicationScoped
+public class DispositivoCacheInvalidationKafkaConsumer {
+
+    private static final Logger LOG =
+            Logger.getLogger(DispositivoCacheInvalidationKafkaConsumer.class);
+
+    private static final String EVT_DISPOSITIVO_CHANGED =
+            DispositivoChanged.class.getSimpleName();
+
+    private final ObjectMapper objectMapper;
+    private final DeviceSnapshotCache cache;
+
+    public DispositivoCacheInvalidationKafkaConsumer(ObjectMapper objectMapper,
+            DeviceSnapshotCache cache) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        this.cache = Objects.requireNonNull(cache, "cache es obligatorio");
+    }
+
+    @Incoming("dispositivo-cache-invalidation")
+    public Uni<Void> onMessage(Message<String> msg) {
+        final String json = msg.getPayload();
+
+        final IncomingKafkaRecordMetadata<?, ?> meta = (IncomingKafkaRecordMetadata<?, ?>) msg
+                .getMetadata(IncomingKafkaRecordMetadata.class).orElse(null);
+
+        try {
+            OutboxKafkaEnvelope env = objectMapper.readValue(json, OutboxKafkaEnvelope.class);
+
+            if (!EVT_DISPOSITIVO_CHANGED.equals(simpleTypeName(env.eventType()))) {
+                return ack(msg);
+            }
+
+            DispositivoChanged ev =
+                    objectMapper.readValue(env.payload(), DispositivoChanged.class);
+            cache.invalidate(ev.orgId(), ev.idDispositivo());
+
+            LOG.debugf("device_cache_invalidation_ok orgId=%s id=%s change=%s outboxId=%s",
+                    ev.orgId(), ev.idDispositivo(), ev.changeType(), env.idEvento());
+            return ack(msg);
+
+        } catch (Exception e) {
+            LOG.warnf(e, "device_cache_invalidation_failed topic=%s partition=%s offset=%s",
+                    meta != null ? meta.getTopic() : null,
+                    meta != null ? meta.getPartition() : null,
+                    meta != null ? meta.getOffset() : null);
+
+            return ack(msg);
+        }
+    }
+
+    private static String simpleTypeName(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        int dot = eventType.lastIndexOf('.');
+        return dot >= 0 ? eventType.substring(dot + 1) : eventType;
+    }
+
+    private static Uni<Void> ack(Message<?> msg) {
+        return Uni.createFrom().completionStage(msg.ack());
+    }
+}
@@ -1,6 +1,8 @@
 package com.haedcom.access.infrastructure.messaging;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.jboss.logging.Logger;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -42,8 +44,11 @@ import jakarta.inject.Inject;
  *
  * <h2>Sincronía</h2>
  * <p>
- * Se hace {@code await()} del envío para convertir fallos del producer en excepción, y así aplicar
- * retry inteligente desde outbox (en vez de perder el error en background).
+ * {@link #send(OutboxEvent)} hace {@code await()} del envío para convertir fallos del producer en
+ * excepción, y así aplicar retry inteligente desde outbox (en vez de perder el error en
+ * background). {@link #sendAsync(OutboxEvent)} entrega el mismo resultado como
+ * {@link CompletionStage}, para que el dispatcher envíe un lote completo y espere todos los acks
+ * juntos.
  * </p>
  */
 @ApplicationScoped
@@ -85,30 +90,70 @@ public class KafkaOutboxEventSender implements OutboxEventSender {
     public void send(OutboxEvent event) throws OutboxSendException {
         Objects.requireNonNull(event, "event es obligatorio");
 
+        final Record<String, String> record = toRecord(event);
+
+        try {
+            Uni<Void> uni = emitter.send(record);
+            uni.await().indefinitely();
+
+            LOG.debugf("KafkaOutboxEventSender - sent idEvento=%s orgId=%s type=%s aggregateId=%s",
+                    event.getIdEvento(), record.key(), event.getEventType(),
+                    event.getAggregateId());
+
+        } catch (Exception ex) {
+            // Clasifica según heurística (retryable/no retryable)
+            throw KafkaOutboxFailureClassifier.classify(ex);
+        }
+    }
+
+    /**
+     * Publica el evento sin bloquear: el stage se completa con el ack del broker.
+     *
+     * <p>
+     * Misma política de errores que {@link #send(OutboxEvent)}: el stage falla con
+     * {@link OutboxSendException} ya clasificada.
+     * </p>
+     *
+     * @param event entidad outbox persistida (no null)
+     * @return stage completado cuando Kafka confirma el envío
+     */
+    @Override
+    public CompletionStage<Void> sendAsync(OutboxEvent event) {
+        Objects.requireNonNull(event, "event es obligatorio");
+
+        final Record<String, String> record;
+        try {
+            record = toRecord(event);
+        } catch (OutboxSendException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        try {
+            return emitter.send(record)
+                    .onFailure().transform(t -> KafkaOutboxFailureClassifier
+                            .classify(t instanceof Exception e ? e : new RuntimeException(t)))
+                    .subscribeAsCompletionStage();
+        } catch (Exception ex) {
+            // p.ej. buffer del emitter lleno: el envío ni siquiera se encoló
+            return CompletableFuture.failedFuture(KafkaOutboxFailureClassifier.classify(ex));
+        }
+    }
+
+    /**
+     * Construye el record Kafka (key por tenant, value = envelope JSON).
+     */
+    private Record<String, String> toRecord(OutboxEvent event) throws OutboxSendException {
         // Key por tenant (orden relativo por organización)
         String key = (event.getIdOrganizacion() != null) ? event.getIdOrganizacion().toString()
                 : "UNKNOWN_ORG";
 
-        final String json;
         try {
-            json = objectMapper.writeValueAsString(OutboxKafkaEnvelope.from(event));
+            return Record.of(key, objectMapper.writeValueAsString(OutboxKafkaEnvelope.from(event)));
         } catch (JsonProcessingException ex) {
             // Contrato roto / JSON inválido → definitivo
             throw OutboxSendException.unknown(
                     "No se pudo serializar OutboxKafkaEnvelope (contrato/JSON inválido)", ex, false,
                     "JSON_SERIALIZATION");
         }
-
-        try {
-            Uni<Void> uni = emitter.send(Record.of(key, json));
-            uni.await().indefinitely();
-
-            LOG.debugf("KafkaOutboxEventSender - sent idEvento=%s orgId=%s type=%s aggregateId=%s",
-                    event.getIdEvento(), key, event.getEventType(), event.getAggregateId());
-
-        } catch (Exception ex) {
-            // Clasifica según heurística (retryable/no retryable)
-            throw KafkaOutboxFailureClassifier.classify(ex);
-        }
     }
 }
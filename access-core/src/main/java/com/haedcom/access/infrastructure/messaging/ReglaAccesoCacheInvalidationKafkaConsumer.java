@@ -65,7 +65,7 @@ public class ReglaAccesoCacheInvalidationKafkaConsumer {
         try {
             OutboxKafkaEnvelope env = objectMapper.readValue(json, OutboxKafkaEnvelope.class);
 
-            String eventType = env.eventType();
+            String eventType = simpleTypeName(env.eventType());
             if (eventType == null) {
                 return ack(msg);
             }
@@ -125,15 +125,36 @@ public class ReglaAccesoCacheInvalidationKafkaConsumer {
     }
 
     /**
-     * Invalida todo el cache local (o por org si tu invalidator lo soporta).
+     * Invalida el cache y los índices del tenant; los demás tenants conservan sus entradas.
      */
     private void invalidateAllForOrg(UUID orgId, OutboxKafkaEnvelope env) {
-        reglaCandidatesCacheInvalidator.invalidateAll();
+        if (orgId == null) {
+            LOG.warnf("cache_invalidation_skip missing orgId outboxId=%s eventType=%s",
+                    env != null ? env.idEvento() : null, env != null ? env.eventType() : null);
+            return;
+        }
+        reglaCandidatesCacheInvalidator.invalidateOrg(orgId);
 
-        LOG.warnf("cache_invalidate_all type=%s orgId=%s outboxId=%s",
+        LOG.infof("cache_invalidate_org type=%s orgId=%s outboxId=%s",
                 env != null ? env.eventType() : null, orgId, env != null ? env.idEvento() : null);
     }
 
+    /**
+     * Normaliza el {@code eventType} del envelope a nombre simple.
+     *
+     * <p>
+     * {@code OutboxDomainEventPublisher} persiste el nombre calificado de la clase; se acepta
+     * también el nombre simple por compatibilidad con mensajes ya emitidos.
+     * </p>
+     */
+    private static String simpleTypeName(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        int dot = eventType.lastIndexOf('.');
+        return dot >= 0 ? eventType.substring(dot + 1) : eventType;
+    }
+
     private static Uni<Void> ack(Message<?> msg) {
         return Uni.createFrom().completionStage(msg.ack());
     }
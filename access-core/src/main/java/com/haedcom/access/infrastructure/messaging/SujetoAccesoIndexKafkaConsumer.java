@@ -0,0 +1,101 @@
+package com.haedcom.access.infrastructure.messaging;
+
+import java.util.Objects;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.access.application.acceso.sujeto.SujetoAccesoResolver;
+import com.haedcom.access.domain.events.SujetoAccesoChanged;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Consumer que propaga cambios de residentes/visitantes al índice de credenciales de
+ * {@link SujetoAccesoResolver} en todos los nodos (Transactional Outbox → Kafka).
+ *
+ * <p>
+ * Espera mensajes con JSON de {@link OutboxKafkaEnvelope}; solo procesa
+ * {@link SujetoAccesoChanged}. El evento no trae el documento: el sujeto se recarga por id
+ * ({@link SujetoAccesoResolver#refresh}), por eso el consumer es {@link Blocking}.
+ * </p>
+ *
+ * <h2>Política de ACK</h2>
+ * <ul>
+ * <li>Si no es un eventType relevante: ACK y salir.</li>
+ * <li>Si falla parseo o recarga: log + ACK (el índice se corrige en el próximo cambio o
+ * reinicio).</li>
+ * </ul>
+ *
+ * <p>
+ * Idempotente: recargar un sujeto ya actualizado no tiene efecto.
+ * </p>
+ */
+@ApplicationScoped
+public class SujetoAccesoIndexKafkaConsumer {
+
+    private static final Logger LOG = Logger.getLogger(SujetoAccesoIndexKafkaConsumer.class);
+
+    private static final String EVT_SUJETO_CHANGED = SujetoAccesoChanged.class.getSimpleName();
+
+    private final ObjectMapper objectMapper;
+    private final SujetoAccesoResolver resolver;
+
+    public SujetoAccesoIndexKafkaConsumer(ObjectMapper objectMapper,
+            SujetoAccesoResolver resolver) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        this.resolver = Objects.requireNonNull(resolver, "resolver es obligatorio");
+    }
+
+    @Incoming("sujeto-acceso-index-sync")
+    @Blocking
+    public Uni<Void> onMessage(Message<String> msg) {
+        final String json = msg.getPayload();
+
+        final IncomingKafkaRecordMetadata<?, ?> meta = (IncomingKafkaRecordMetadata<?, ?>) msg
+                .getMetadata(IncomingKafkaRecordMetadata.class).orElse(null);
+
+        try {
+            OutboxKafkaEnvelope env = objectMapper.readValue(json, OutboxKafkaEnvelope.class);
+
+            if (!EVT_SUJETO_CHANGED.equals(simpleTypeName(env.eventType()))) {
+                return ack(msg);
+            }
+
+            SujetoAccesoChanged ev =
+                    objectMapper.readValue(env.payload(), SujetoAccesoChanged.class);
+
+            if (ev.changeType() == SujetoAccesoChanged.ChangeType.DELETED) {
+                resolver.remove(ev.orgId(), ev.idSujeto());
+            } else {
+                resolver.refresh(ev.orgId(), ev.tipoSujeto(), ev.idSujeto());
+            }
+
+            LOG.debugf("subject_index_sync_ok orgId=%s tipo=%s id=%s outboxId=%s", ev.orgId(),
+                    ev.tipoSujeto(), ev.idSujeto(), env.idEvento());
+            return ack(msg);
+
+        } catch (Exception e) {
+            LOG.warnf(e, "subject_index_sync_failed topic=%s partition=%s offset=%s",
+                    meta != null ? meta.getTopic() : null,
+                    meta != null ? meta.getPartition() : null,
+                    meta != null ? meta.getOffset() : null);
+
+            return ack(msg);
+        }
+    }
+
+    private static String simpleTypeName(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        int dot = eventType.lastIndexOf('.');
+        return dot >= 0 ? eventType.substring(dot + 1) : eventType;
+    }
+
+    private static Uni<Void> ack(Message<?> msg) {
+        return Uni.createFrom().completionStage(msg.ack());
+    }
+}
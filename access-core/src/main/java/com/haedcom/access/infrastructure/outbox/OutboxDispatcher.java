@@ -1,6 +1,7 @@
 package com.haedcom.access.infrastructure.outbox;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,7 +12,6 @@ import org.jboss.logging.Logger;
 import com.haedcom.access.domain.model.OutboxEvent;
 import com.haedcom.access.domain.repo.OutboxEventRepository;
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.quarkus.scheduler.Scheduled;
@@ -30,11 +30,18 @@ import jakarta.transaction.Transactional;
  * <li>{@code haedcom.outbox.maintenance.every}</li>
  * <li>{@code haedcom.outbox.maintenance.delayed}</li>
  * <li>{@code haedcom.outbox.lock-ttl-seconds}</li>
+ * <li>{@code haedcom.outbox.dispatch.batch-size} (default 50)</li>
+ * <li>{@code haedcom.outbox.dispatch.pipelined} (default false): envía el lote completo de forma
+ * asíncrona y marca PUBLISHED/reintentos con un único UPDATE por lote.</li>
+ * <li>{@code haedcom.outbox.dispatch.ack-timeout} (default 30s): espera máxima de acks por lote en
+ * modo pipelined.</li>
  * </ul>
  *
  * <h2>Jobs</h2>
  * <ol>
- * <li><b>Dispatcher</b>: reclama y procesa eventos READY.</li>
+ * <li><b>Dispatcher</b>: reclama y procesa eventos READY. Con {@link OutboxWakeup} también corre
+ * inmediatamente después del commit de eventos nuevos; el intervalo programado queda como red de
+ * seguridad.</li>
  * <li><b>Mantenimiento</b>: limpia locks lógicos vencidos (inflight fantasma).</li>
  * </ol>
  */
@@ -51,6 +58,9 @@ public class OutboxDispatcher {
 
     private final String instanceId;
     private final long lockTtlSeconds;
+    private final boolean pipelined;
+    private final int batchSize;
+    private final Duration ackTimeout;
 
     // Métricas
     private final Counter runs;
@@ -63,7 +73,13 @@ public class OutboxDispatcher {
     public OutboxDispatcher(OutboxEventRepository outboxRepo, OutboxEventProcessor processor,
             Clock clock, MeterRegistry registry, InstanceIdProvider instanceIdProvider,
             @ConfigProperty(name = "haedcom.outbox.lock-ttl-seconds",
-                    defaultValue = "300") long lockTtlSeconds) {
+                    defaultValue = "300") long lockTtlSeconds,
+            @ConfigProperty(name = "haedcom.outbox.dispatch.pipelined",
+                    defaultValue = "false") boolean pipelined,
+            @ConfigProperty(name = "haedcom.outbox.dispatch.batch-size",
+                    defaultValue = "" + DEFAULT_BATCH_SIZE) int batchSize,
+            @ConfigProperty(name = "haedcom.outbox.dispatch.ack-timeout",
+                    defaultValue = "30s") Duration ackTimeout) {
 
         this.outboxRepo = Objects.requireNonNull(outboxRepo);
         this.processor = Objects.requireNonNull(processor);
@@ -73,6 +89,11 @@ public class OutboxDispatcher {
                 .requireNonNull(instanceIdProvider, "instanceIdProvider es obligatorio").get();
 
         this.lockTtlSeconds = lockTtlSeconds;
+        this.pipelined = pipelined;
+        this.batchSize = (batchSize > 0) ? batchSize : DEFAULT_BATCH_SIZE;
+        this.ackTimeout = (ackTimeout != null && !ackTimeout.isNegative() && !ackTimeout.isZero())
+                ? ackTimeout
+                : Duration.ofSeconds(30);
 
         this.runs = Counter.builder("outbox_dispatch_runs_total").register(registry);
         this.emptyRuns = Counter.builder("outbox_dispatch_empty_runs_total").register(registry);
@@ -82,20 +103,7 @@ public class OutboxDispatcher {
 
         this.dispatchTimer = Timer.builder("outbox_dispatch_duration_seconds").register(registry);
 
-        // ===== Gauges PRO =====
-        Gauge.builder("outbox_pending_ready", outboxRepo, r -> (double) r.countReadyPending())
-                .register(registry);
-
-        Gauge.builder("outbox_pending_inflight", outboxRepo, r -> (double) r.countInflightPending())
-                .register(registry);
-
-        Gauge.builder("outbox_oldest_pending_age_seconds", outboxRepo,
-                r -> r.oldestPendingAgeSeconds() == null ? 0 : r.oldestPendingAgeSeconds())
-                .register(registry);
-
-        Gauge.builder("outbox_oldest_inflight_age_seconds", outboxRepo,
-                r -> r.oldestInflightAgeSeconds() == null ? 0 : r.oldestInflightAgeSeconds())
-                .register(registry);
+        // Los gauges de backlog viven en OutboxMetrics (snapshot cacheado).
     }
 
     /**
@@ -139,21 +147,27 @@ public class OutboxDispatcher {
 
     /**
      * Ejecuta una corrida completa del dispatcher.
+     *
+     * <p>
+     * La invocan el job programado y {@link OutboxWakeup} (después del commit de eventos nuevos).
+     * </p>
+     *
+     * @return cantidad de eventos reclamados en esta corrida
      */
-    public void dispatchPending() {
+    public int dispatchPending() {
         runs.increment();
 
-        dispatchTimer.record(() -> {
-            List<UUID> ids = claimBatchIds(DEFAULT_BATCH_SIZE);
+        return dispatchTimer.record(() -> {
+            List<UUID> ids = claimBatchIds(batchSize);
 
             if (ids.isEmpty()) {
                 emptyRuns.increment();
-                return;
+                return 0;
             }
 
             claimed.increment(ids.size());
 
-            if (ids.size() >= DEFAULT_BATCH_SIZE) {
+            if (ids.size() >= batchSize) {
                 LOG.debugf("OutboxDispatcher - batch lleno claimed=%d instanceId=%s ttl=%d",
                         Integer.valueOf(ids.size()), instanceId, Long.valueOf(lockTtlSeconds));
             } else {
@@ -161,12 +175,42 @@ public class OutboxDispatcher {
                         Integer.valueOf(ids.size()), instanceId, Long.valueOf(lockTtlSeconds));
             }
 
-            for (UUID id : ids) {
-                processor.processInNewTx(id);
+            if (pipelined) {
+                dispatchPipelined(ids);
+            } else {
+                for (UUID id : ids) {
+                    processor.processInNewTx(id);
+                }
             }
+            return ids.size();
         });
     }
 
+    /**
+     * @return tamaño máximo de lote por corrida
+     */
+    int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Modo pipelined: envía el lote completo sin esperar entre envíos, espera todos los acks juntos
+     * y resuelve PUBLISHED/reintentos en una sola transacción.
+     */
+    private void dispatchPipelined(List<UUID> ids) {
+        List<OutboxEvent> events = processor.claimBatchInNewTx(ids);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        OutboxEventProcessor.BatchOutcome outcome = processor.sendBatch(events, ackTimeout);
+        processor.completeBatchInNewTx(outcome);
+
+        LOG.debugf("OutboxDispatcher - pipelined sent=%d published=%d failed=%d",
+                Integer.valueOf(events.size()), Integer.valueOf(outcome.publishedIds().size()),
+                Integer.valueOf(outcome.failures().size()));
+    }
+
     /**
      * Claim transaccional corto que retorna solo IDs.
      */
@@ -3,8 +3,18 @@ package com.haedcom.access.infrastructure.outbox;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import com.haedcom.access.domain.enums.OutboxStatus;
@@ -19,7 +29,8 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 /**
- * Procesador de eventos de Outbox, ejecutado <b>por evento</b> en transacción {@code REQUIRES_NEW}.
+ * Procesador de eventos de Outbox, ejecutado <b>por evento</b> en transacción {@code REQUIRES_NEW}
+ * o <b>por lote</b> (modo pipelined).
  *
  * <h2>Responsabilidad</h2>
  * <ul>
@@ -29,6 +40,13 @@ import jakarta.transaction.Transactional;
  * <li>Registrar metadata de error y aplicar retry inteligente</li>
  * </ul>
  *
+ * <h2>Modo pipelined</h2>
+ * <p>
+ * {@link #claimBatchInNewTx(List)} → {@link #sendBatch(List, Duration)} (fuera de transacción,
+ * todos los envíos en vuelo a la vez) → {@link #completeBatchInNewTx(BatchOutcome)}. Dos
+ * transacciones cortas por lote en lugar de una por evento con el envío bloqueante adentro.
+ * </p>
+ *
  * <h2>Política de reintentos</h2>
  * <p>
  * - Se reintenta solo si {@link OutboxSendException#isRetryable()} es true.<br>
@@ -137,37 +155,179 @@ public class OutboxEventProcessor {
                     event.getIdEvento(), event.getEventType(), event.getAggregateId());
 
         } catch (OutboxSendException ex) {
-            int attempts = event.getAttempts() + 1;
-            event.setAttempts(attempts);
+            applyFailure(event, ex);
+        } finally {
+            // Limpieza safe por ownership
+            outboxRepo.clearLockIfOwned(idEvento, instanceId);
+        }
+    }
 
-            stampError(event, ex);
+    // ---------------------------------------------------------------------
+    // Modo pipelined (lote completo)
+    // ---------------------------------------------------------------------
 
-            if (!ex.isRetryable() || attempts >= MAX_ATTEMPTS) {
-                event.setStatus(OutboxStatus.FAILED);
-                event.setNextAttemptAtUtc(null);
+    /**
+     * Reclama un lote de eventos en una transacción corta y los retorna (separados del contexto
+     * de persistencia) para enviarlos fuera de transacción.
+     *
+     * @param ids ids del lote (reclamados por el dispatcher)
+     * @return eventos efectivamente reclamados por esta instancia
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public List<OutboxEvent> claimBatchInNewTx(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        long ttl = Math.max(0, lockTtlSeconds);
+        OffsetDateTime expiredBefore = (ttl > 0) ? now.minusSeconds(ttl) : now;
 
-                failed.increment();
-                LOG.errorf(ex,
-                        "OutboxEventProcessor - FAILED idEvento=%s type=%s aggregateId=%s attempts=%d failure=%s code=%s http=%s",
-                        event.getIdEvento(), event.getEventType(), event.getAggregateId(), attempts,
-                        safeFailureType(ex), ex.getErrorCode(), ex.getHttpStatus());
-                return;
+        if (outboxRepo.claimBatchForProcessing(ids, instanceId, now, expiredBefore) == 0) {
+            return List.of();
+        }
+        return outboxRepo.findClaimedBy(ids, instanceId);
+    }
+
+    /**
+     * Envía todos los eventos sin bloquear entre envíos y espera los acks en conjunto.
+     *
+     * <p>
+     * No es transaccional: no retiene conexión mientras espera al broker. Un evento sin ack
+     * dentro de {@code ackTimeout} se trata como fallo retryable ({@code ACK_TIMEOUT}).
+     * </p>
+     *
+     * @param events eventos reclamados
+     * @param ackTimeout espera máxima por el lote completo
+     * @return resultado por evento
+     */
+    public BatchOutcome sendBatch(List<OutboxEvent> events, Duration ackTimeout) {
+        List<CompletableFuture<Void>> acks = new ArrayList<>(events.size());
+        for (OutboxEvent e : events) {
+            CompletableFuture<Void> f;
+            try {
+                f = sender.sendAsync(e).toCompletableFuture();
+            } catch (RuntimeException ex) {
+                f = CompletableFuture.failedFuture(ex);
             }
+            acks.add(f);
+        }
 
-            event.setNextAttemptAtUtc(computeNextAttempt(attempts, ex.getRetryAfter()));
-            retried.increment();
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            // se resuelve por evento más abajo
+        }
 
-            LOG.warnf(ex,
-                    "OutboxEventProcessor - reintento %d programado para %s idEvento=%s type=%s aggregateId=%s failure=%s code=%s http=%s",
-                    attempts, event.getNextAttemptAtUtc(), event.getIdEvento(),
-                    event.getEventType(), event.getAggregateId(), safeFailureType(ex),
-                    ex.getErrorCode(), ex.getHttpStatus());
+        List<UUID> publishedIds = new ArrayList<>(events.size());
+        Map<UUID, OutboxSendException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            UUID id = events.get(i).getIdEvento();
+            CompletableFuture<Void> f = acks.get(i);
+            if (!f.isDone()) {
+                failures.put(id, OutboxSendException.timeout(
+                        "Sin ack del transporte en " + ackTimeout.toMillis() + " ms", null,
+                        "ACK_TIMEOUT"));
+            } else if (f.isCompletedExceptionally()) {
+                failures.put(id, toSendException(f));
+            } else {
+                publishedIds.add(id);
+            }
+        }
+        return new BatchOutcome(publishedIds, failures);
+    }
 
+    /**
+     * Persiste el resultado de un lote en una sola transacción.
+     *
+     * <ul>
+     * <li>Publicados: un único {@code UPDATE ... WHERE id_evento IN (...)}.</li>
+     * <li>Fallidos: misma política de reintentos que {@link #processInNewTx(UUID)}, aplicada
+     * sobre los eventos cargados con un único {@code SELECT ... IN}; los {@code UPDATE} salen en
+     * un batch JDBC.</li>
+     * </ul>
+     *
+     * @param outcome resultado de {@link #sendBatch(List, Duration)}
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void completeBatchInNewTx(BatchOutcome outcome) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
 
-        } finally {
-            // Limpieza safe por ownership
-            outboxRepo.clearLockIfOwned(idEvento, instanceId);
+        int updated = outboxRepo.markPublishedBatch(outcome.publishedIds(), now);
+        published.increment(updated);
+
+        if (outcome.failures().isEmpty()) {
+            return;
+        }
+        outboxRepo.setJdbcBatchSize(outcome.failures().size());
+        for (OutboxEvent event : outboxRepo.findByIds(outcome.failures().keySet())) {
+            if (event.getStatus() != OutboxStatus.PENDING) {
+                continue;
+            }
+            applyFailure(event, outcome.failures().get(event.getIdEvento()));
+            if (instanceId.equals(event.getLockedBy())) {
+                event.setLockedAtUtc(null);
+                event.setLockedBy(null);
+            }
+        }
+    }
+
+    /**
+     * Resultado del envío de un lote.
+     *
+     * @param publishedIds eventos confirmados por el transporte
+     * @param failures eventos fallidos con su error clasificado
+     */
+    public record BatchOutcome(List<UUID> publishedIds, Map<UUID, OutboxSendException> failures) {
+    }
+
+    /**
+     * Aplica la política de fallo: incrementa {@code attempts}, registra el error y programa
+     * reintento o marca {@code FAILED}.
+     */
+    private void applyFailure(OutboxEvent event, OutboxSendException ex) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+
+        stampError(event, ex);
+
+        if (!ex.isRetryable() || attempts >= MAX_ATTEMPTS) {
+            event.setStatus(OutboxStatus.FAILED);
+            event.setNextAttemptAtUtc(null);
+
+            failed.increment();
+            LOG.errorf(ex,
+                    "OutboxEventProcessor - FAILED idEvento=%s type=%s aggregateId=%s attempts=%d failure=%s code=%s http=%s",
+                    event.getIdEvento(), event.getEventType(), event.getAggregateId(), attempts,
+                    safeFailureType(ex), ex.getErrorCode(), ex.getHttpStatus());
+            return;
+        }
+
+        event.setNextAttemptAtUtc(computeNextAttempt(attempts, ex.getRetryAfter()));
+        retried.increment();
+
+        LOG.warnf(ex,
+                "OutboxEventProcessor - reintento %d programado para %s idEvento=%s type=%s aggregateId=%s failure=%s code=%s http=%s",
+                attempts, event.getNextAttemptAtUtc(), event.getIdEvento(), event.getEventType(),
+                event.getAggregateId(), safeFailureType(ex), ex.getErrorCode(),
+                ex.getHttpStatus());
+    }
+
+    private static OutboxSendException toSendException(CompletableFuture<Void> f) {
+        Throwable cause;
+        try {
+            f.join();
+            return null;
+        } catch (CompletionException | CancellationException ex) {
+            cause = (ex.getCause() != null) ? ex.getCause() : ex;
+        }
+        if (cause instanceof OutboxSendException ose) {
+            return ose;
         }
+        return OutboxSendException.unknown("Fallo no clasificado en envío asíncrono", cause, true,
+                "UNKNOWN");
     }
 
     /**
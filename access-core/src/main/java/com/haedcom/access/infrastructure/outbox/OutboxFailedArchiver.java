@@ -0,0 +1,167 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.access.domain.model.OutboxEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Escribe eventos {@code FAILED} del outbox en archivos JSON Lines comprimidos (gzip) antes de que
+ * la retención los elimine.
+ *
+ * <h2>Formato</h2>
+ * <ul>
+ * <li>Un archivo por corrida: {@code outbox-failed-<yyyyMMdd'T'HHmmss'Z'>-<instanceId>.jsonl.gz}
+ * en {@code haedcom.outbox.archive.dir}.</li>
+ * <li>Una línea JSON por evento con todas sus columnas (el {@code payload} va como string).</li>
+ * <li>Mientras se escribe el archivo lleva sufijo {@code .part}; se renombra al cerrar. Cada página
+ * se vacía al disco antes de borrar sus filas, de modo que un {@code .part} huérfano también
+ * contiene todo lo eliminado.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxFailedArchiver {
+
+    private static final DateTimeFormatter FILE_TS =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Path dir;
+    private final String instanceId;
+
+    @Inject
+    public OutboxFailedArchiver(ObjectMapper objectMapper, Clock clock,
+            InstanceIdProvider instanceIdProvider,
+            @ConfigProperty(name = "haedcom.outbox.archive.dir",
+                    defaultValue = "/var/lib/haedcom/outbox-archive") String dir) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        this.instanceId = Objects
+                .requireNonNull(instanceIdProvider, "instanceIdProvider es obligatorio").get();
+        this.dir = Path.of(Objects.requireNonNull(dir, "dir es obligatorio"));
+    }
+
+    /**
+     * Abre un archivo de archivado nuevo.
+     *
+     * @return sesión de escritura (cerrarla publica el archivo)
+     * @throws UncheckedIOException si no se puede crear el archivo
+     */
+    public Session open() {
+        try {
+            Files.createDirectories(dir);
+            String base = "outbox-failed-" + FILE_TS.format(clock.instant()) + "-"
+                    + instanceId.replaceAll("[^A-Za-z0-9_.-]", "_") + ".jsonl.gz";
+            return new Session(dir.resolve(base + ".part"), dir.resolve(base));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir archivo de archivado en " + dir, e);
+        }
+    }
+
+    /**
+     * Archivo de archivado en curso.
+     */
+    public final class Session implements Closeable {
+
+        private final Path partFile;
+        private final Path finalFile;
+        private final BufferedWriter out;
+        private long written;
+
+        private Session(Path partFile, Path finalFile) throws IOException {
+            this.partFile = partFile;
+            this.finalFile = finalFile;
+            this.out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(partFile), 64 * 1024, true),
+                    StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Escribe una página de eventos y la vacía al disco.
+         *
+         * @param events eventos FAILED
+         * @throws UncheckedIOException si falla la escritura (la transacción debe hacer rollback)
+         */
+        public void write(List<OutboxEvent> events) {
+            try {
+                for (OutboxEvent e : events) {
+                    out.write(objectMapper.writeValueAsString(toRow(e)));
+                    out.newLine();
+                }
+                out.flush();
+                written += events.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir archivo " + partFile, e);
+            }
+        }
+
+        /**
+         * @return eventos escritos en esta sesión
+         */
+        public long written() {
+            return written;
+        }
+
+        /**
+         * Cierra el archivo; si no se escribió nada, lo elimina.
+         */
+        @Override
+        public void close() throws IOException {
+            out.close();
+            if (written == 0) {
+                Files.deleteIfExists(partFile);
+                return;
+            }
+            Files.move(partFile, finalFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * @return ruta final del archivo
+         */
+        public Path file() {
+            return finalFile;
+        }
+    }
+
+    private static Map<String, Object> toRow(OutboxEvent e) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("idEvento", e.getIdEvento());
+        row.put("idOrganizacion", e.getIdOrganizacion());
+        row.put("eventType", e.getEventType());
+        row.put("aggregateType", e.getAggregateType());
+        row.put("aggregateId", e.getAggregateId());
+        row.put("status", e.getStatus());
+        row.put("attempts", e.getAttempts());
+        row.put("createdAtUtc", str(e.getCreatedAtUtc()));
+        row.put("nextAttemptAtUtc", str(e.getNextAttemptAtUtc()));
+        row.put("lastErrorCode", e.getLastErrorCode());
+        row.put("lastErrorMessage", e.getLastErrorMessage());
+        row.put("lastErrorAtUtc", str(e.getLastErrorAtUtc()));
+        row.put("lastHttpStatus", e.getLastHttpStatus());
+        row.put("payload", e.getPayload());
+        return row;
+    }
+
+    private static String str(Object v) {
+        return v != null ? v.toString() : null;
+    }
+}
@@ -1,9 +1,8 @@
 package com.haedcom.access.infrastructure.outbox;
 
-import com.haedcom.access.domain.enums.OutboxStatus;
-import com.haedcom.access.domain.repo.OutboxEventRepository;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -24,39 +23,56 @@ import jakarta.inject.Inject;
  * </ul>
  *
  * <p>
- * Nota: este bean solo registra meters al iniciar la app.
+ * Todos los gauges leen el snapshot cacheado de {@link OutboxSnapshotSampler}; un scrape no ejecuta
+ * consultas. Los valores tienen la antigüedad de {@code haedcom.outbox.snapshot.every} (ver
+ * {@code outbox_snapshot_age_seconds}).
+ * </p>
+ *
+ * <p>
+ * Nota: este bean solo registra meters al iniciar la app ({@link Startup}: sin él, nadie lo
+ * inyecta y los gauges no se registrarían).
  * </p>
  */
+@Startup
 @ApplicationScoped
 public class OutboxMetrics {
 
     @Inject
-    public OutboxMetrics(OutboxEventRepository repo, MeterRegistry registry) {
+    public OutboxMetrics(OutboxSnapshotSampler sampler, MeterRegistry registry) {
 
-        Gauge.builder("outbox_pending", repo, r -> r.countByStatus(OutboxStatus.PENDING))
+        Gauge.builder("outbox_pending", sampler, s -> s.stats().pending())
                 .description("Cantidad de eventos PENDING en outbox").register(registry);
 
-        Gauge.builder("outbox_ready", repo, r -> r.countReadyPending()).description(
+        Gauge.builder("outbox_ready", sampler, s -> s.stats().ready()).description(
                 "Cantidad de eventos PENDING listos para despachar (nextAttemptAtUtc null o vencido)")
                 .register(registry);
 
-        Gauge.builder("outbox_inflight", repo, r -> r.countInflightPending())
+        Gauge.builder("outbox_inflight", sampler, s -> s.stats().inflight())
                 .description("Cantidad de eventos PENDING reclamados (lockedAtUtc != null)")
                 .register(registry);
 
-        Gauge.builder("outbox_failed", repo, r -> r.countByStatus(OutboxStatus.FAILED))
+        Gauge.builder("outbox_failed", sampler, s -> s.stats().failed())
                 .description("Cantidad de eventos FAILED en outbox").register(registry);
 
-        Gauge.builder("outbox_oldest_pending_age_seconds", repo, r -> {
-            Long v = r.oldestPendingAgeSeconds();
-            return v != null ? v.doubleValue() : 0.0;
-        }).description("Lag del outbox: edad del PENDING más viejo (segundos)").register(registry);
+        Gauge.builder("outbox_oldest_pending_age_seconds", sampler,
+                s -> seconds(s.stats().oldestPendingAgeSec()))
+                .description("Lag del outbox: edad del PENDING más viejo (segundos)")
+                .register(registry);
 
-        Gauge.builder("outbox_oldest_inflight_age_seconds", repo, r -> {
-            Long v = r.oldestInflightAgeSeconds();
-            return v != null ? v.doubleValue() : 0.0;
-        }).description(
-                "Edad del inflight más viejo (segundos). Señal de atasco o transacciones largas.")
+        Gauge.builder("outbox_oldest_inflight_age_seconds", sampler,
+                s -> seconds(s.stats().oldestInflightAgeSec()))
+                .description(
+                        "Edad del inflight más viejo (segundos). Señal de atasco o transacciones largas.")
                 .register(registry);
+
+        // Alias históricos registrados antes por OutboxDispatcher.
+        Gauge.builder("outbox_pending_ready", sampler, s -> s.stats().ready()).register(registry);
+
+        Gauge.builder("outbox_pending_inflight", sampler, s -> s.stats().inflight())
+                .register(registry);
+    }
+
+    private static double seconds(Long v) {
+        return v != null ? v.doubleValue() : 0.0;
     }
 }
@@ -0,0 +1,144 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Escucha {@code LISTEN <channel>} en una conexión dedicada y despierta al dispatcher local
+ * cuando otra instancia hace commit de eventos en el outbox.
+ *
+ * <p>
+ * Solo arranca si {@code haedcom.outbox.wakeup.notify.enabled=true} (ver {@link OutboxWakeup}).
+ * Las notificaciones cuyo payload es el {@code instanceId} propio se ignoran: esa instancia ya se
+ * señalizó en proceso al hacer commit.
+ * </p>
+ *
+ * <h2>Conexión</h2>
+ * <ul>
+ * <li>Ocupa una conexión del pool de forma permanente (dimensionar el pool en consecuencia).</li>
+ * <li>Si la conexión se pierde, reconecta con backoff y fuerza una corrida del dispatcher por las
+ * notificaciones que pudieron perderse mientras tanto.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.outbox.wakeup.notify.poll-ms} (default {@code 500}): espera máxima por
+ * notificaciones en cada vuelta.</li>
+ * <li>{@code haedcom.outbox.wakeup.notify.reconnect-ms} (default {@code 5000})</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxNotifyListener {
+
+    private static final Logger LOG = Logger.getLogger(OutboxNotifyListener.class);
+
+    /** {@code LISTEN} requiere un identificador; se restringe a identificadores simples. */
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final DataSource dataSource;
+    private final OutboxWakeup wakeup;
+    private final int pollMs;
+    private final long reconnectMs;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    @Inject
+    public OutboxNotifyListener(DataSource dataSource, OutboxWakeup wakeup,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.notify.poll-ms",
+                    defaultValue = "500") int pollMs,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.notify.reconnect-ms",
+                    defaultValue = "5000") long reconnectMs) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource es obligatorio");
+        this.wakeup = Objects.requireNonNull(wakeup, "wakeup es obligatorio");
+        this.pollMs = Math.max(1, pollMs);
+        this.reconnectMs = Math.max(100L, reconnectMs);
+    }
+
+    /**
+     * Valida el nombre de canal de {@code LISTEN/NOTIFY}.
+     *
+     * @param channel nombre configurado
+     * @return el mismo nombre
+     * @throws IllegalArgumentException si no es un identificador simple en minúsculas
+     */
+    static String requireChannel(String channel) {
+        if (channel == null || !CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Canal outbox inválido: " + channel);
+        }
+        return channel;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!wakeup.isEnabled() || !wakeup.isNotifyEnabled()) {
+            return;
+        }
+        running = true;
+        Thread t = new Thread(this::runLoop, "outbox-notify-listener");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try (Connection conn = dataSource.getConnection()) {
+                conn.setAutoCommit(true);
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + wakeup.channel());
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                LOG.infof("outbox_notify_listening channel=%s", wakeup.channel());
+
+                // Lo que se haya notificado antes del LISTEN (o durante una reconexión).
+                wakeup.signal();
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(pollMs);
+                    if (notifications == null || notifications.length == 0) {
+                        continue;
+                    }
+                    for (PGNotification n : notifications) {
+                        if (!wakeup.instanceId().equals(n.getParameter())) {
+                            wakeup.signal();
+                            break;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                LOG.warnf(e, "outbox_notify_listener_failed channel=%s retryInMs=%d",
+                        wakeup.channel(), reconnectMs);
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+}
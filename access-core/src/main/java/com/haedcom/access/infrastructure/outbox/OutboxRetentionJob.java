@@ -0,0 +1,330 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.model.OutboxEvent;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Retención del outbox: mantiene acotada la tabla {@code outbox_event} (y sus índices) para que el
+ * claim con {@code SKIP LOCKED} no se degrade con el volumen histórico.
+ *
+ * <h2>Modos</h2>
+ * <ul>
+ * <li><b>Tabla particionada</b> (detectado en cada corrida): {@code outbox_event} particionada por
+ * rango diario de {@code created_at_utc} (particiones {@code outbox_event_pYYYYMMDD}). El job crea
+ * por adelantado las particiones de los próximos días, cada una en su transacción y moviendo antes
+ * las filas de su rango que hubieran caído en la partición {@code DEFAULT}; desacopla (y
+ * opcionalmente elimina) las particiones completas más viejas que la retención, y poda por lotes
+ * los {@code PUBLISHED} vencidos de la {@code DEFAULT}. Una partición con eventos {@code PENDING}
+ * o {@code FAILED} no archivados no se toca; se reporta una vez.</li>
+ * <li><b>Tabla simple</b>: {@code DELETE} por lotes de {@code PUBLISHED} con
+ * {@code published_at_utc} anterior a la retención.</li>
+ * </ul>
+ *
+ * <h2>Archivado de FAILED</h2>
+ * <p>
+ * Con {@code haedcom.outbox.archive.enabled=true}, antes de podar se escriben los {@code FAILED}
+ * más viejos que {@code haedcom.outbox.archive.failed-after} en un archivo gzip
+ * ({@link OutboxFailedArchiver}) y se eliminan de la tabla, página por página. Sin archivado los
+ * FAILED nunca se eliminan y retienen su partición: el job la reporta una vez (log y
+ * {@code outbox_retention_partitions_blocked_total}) y no vuelve a insistir.
+ * </p>
+ *
+ * <p>
+ * El DDL de particiones y el archivado se ejecutan bajo un advisory lock transaccional: con varias
+ * instancias solo una hace el mantenimiento en cada corrida.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.outbox.retention.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.outbox.retention.every} / {@code .delayed} (default {@code 1h} / {@code 5m})</li>
+ * <li>{@code haedcom.outbox.retention.published} (default {@code 7d})</li>
+ * <li>{@code haedcom.outbox.retention.batch-size} (default {@code 5000})</li>
+ * <li>{@code haedcom.outbox.retention.partition.premake-days} (default {@code 3})</li>
+ * <li>{@code haedcom.outbox.retention.partition.drop} (default {@code true}); con {@code false} la
+ * partición solo se desacopla (queda como tabla suelta para exportarla).</li>
+ * <li>{@code haedcom.outbox.archive.enabled} (default {@code false})</li>
+ * <li>{@code haedcom.outbox.archive.failed-after} (default {@code 30d})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code outbox_retention_deleted_total}</li>
+ * <li>{@code outbox_retention_archived_total}</li>
+ * <li>{@code outbox_retention_partitions_detached_total}</li>
+ * <li>{@code outbox_retention_partitions_blocked_total}: particiones vencidas retenidas por
+ * eventos no publicados (una vez por partición).</li>
+ * <li>{@code outbox_retention_duration_seconds}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxRetentionJob {
+
+    private static final Logger LOG = Logger.getLogger(OutboxRetentionJob.class);
+
+    /** Clave del advisory lock de mantenimiento del outbox ("OUTBOXRT"). */
+    static final long MAINTENANCE_LOCK_KEY = 0x4F5554424F585254L;
+
+    private final OutboxEventRepository outboxRepo;
+    private final OutboxFailedArchiver archiver;
+    private final Clock clock;
+
+    private final boolean enabled;
+    private final Duration publishedRetention;
+    private final int batchSize;
+    private final int premakeDays;
+    private final boolean dropPartitions;
+    private final boolean archiveEnabled;
+    private final Duration failedAfter;
+
+    private final Counter deleted;
+    private final Counter archived;
+    private final Counter partitionsDetached;
+    private final Counter partitionsBlocked;
+    private final Timer duration;
+
+    /** Particiones retenidas ya reportadas (se reporta una vez por partición). */
+    private final Set<LocalDate> blockedReported = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public OutboxRetentionJob(OutboxEventRepository outboxRepo, OutboxFailedArchiver archiver,
+            Clock clock, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.outbox.retention.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.outbox.retention.published",
+                    defaultValue = "7d") Duration publishedRetention,
+            @ConfigProperty(name = "haedcom.outbox.retention.batch-size",
+                    defaultValue = "5000") int batchSize,
+            @ConfigProperty(name = "haedcom.outbox.retention.partition.premake-days",
+                    defaultValue = "3") int premakeDays,
+            @ConfigProperty(name = "haedcom.outbox.retention.partition.drop",
+                    defaultValue = "true") boolean dropPartitions,
+            @ConfigProperty(name = "haedcom.outbox.archive.enabled",
+                    defaultValue = "false") boolean archiveEnabled,
+            @ConfigProperty(name = "haedcom.outbox.archive.failed-after",
+                    defaultValue = "30d") Duration failedAfter) {
+        this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo es obligatorio");
+        this.archiver = Objects.requireNonNull(archiver, "archiver es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+
+        this.enabled = enabled;
+        this.publishedRetention = positiveOr(publishedRetention, Duration.ofDays(7));
+        this.batchSize = batchSize > 0 ? batchSize : 5000;
+        this.premakeDays = Math.max(1, premakeDays);
+        this.dropPartitions = dropPartitions;
+        this.archiveEnabled = archiveEnabled;
+        this.failedAfter = positiveOr(failedAfter, Duration.ofDays(30));
+
+        this.deleted = Counter.builder("outbox_retention_deleted_total").register(registry);
+        this.archived = Counter.builder("outbox_retention_archived_total").register(registry);
+        this.partitionsDetached =
+                Counter.builder("outbox_retention_partitions_detached_total").register(registry);
+        this.partitionsBlocked =
+                Counter.builder("outbox_retention_partitions_blocked_total").register(registry);
+        this.duration = Timer.builder("outbox_retention_duration_seconds").register(registry);
+    }
+
+    /**
+     * Job de retención (configurable).
+     */
+    @Scheduled(every = "{haedcom.outbox.retention.every:1h}",
+            delayed = "{haedcom.outbox.retention.delayed:5m}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void tick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            duration.record(this::runOnce);
+        } catch (Exception e) {
+            LOG.errorf(e, "outbox_retention_failed");
+        }
+    }
+
+    /**
+     * Ejecuta una corrida completa: archivado de FAILED (si aplica) y poda de PUBLISHED.
+     */
+    public void runOnce() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+
+        if (archiveEnabled) {
+            archiveFailed(now.minus(failedAfter));
+        }
+
+        if (isPartitionedTx()) {
+            maintainPartitions(now.minus(publishedRetention));
+        } else {
+            deletePublished(now.minus(publishedRetention));
+        }
+    }
+
+    private void archiveFailed(OffsetDateTime createdBefore) {
+        long total = 0;
+        try (OutboxFailedArchiver.Session session = archiver.open()) {
+            int n;
+            do {
+                n = archivePageTx(session, createdBefore);
+                total += Math.max(0, n);
+            } while (n >= batchSize);
+
+            if (total > 0) {
+                LOG.infof("outbox_retention_archived count=%d file=%s", total, session.file());
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "outbox_retention_archive_failed archivedSoFar=%d", total);
+        }
+    }
+
+    private void maintainPartitions(OffsetDateTime createdBefore) {
+        LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+        for (int i = 0; i <= premakeDays; i++) {
+            if (!createPartitionTx(today.plusDays(i))) {
+                return;
+            }
+        }
+        if (!detachExpiredTx(createdBefore)) {
+            return;
+        }
+
+        int n;
+        long total = 0;
+        do {
+            n = pruneDefaultBatchTx(createdBefore);
+            total += n;
+            deleted.increment(n);
+        } while (n >= batchSize);
+
+        if (total > 0) {
+            LOG.infof("outbox_retention_default_pruned count=%d before=%s", total, createdBefore);
+        }
+    }
+
+    private void deletePublished(OffsetDateTime publishedBefore) {
+        int n;
+        long total = 0;
+        do {
+            n = deletePublishedBatchTx(publishedBefore);
+            total += n;
+            deleted.increment(n);
+        } while (n >= batchSize);
+
+        if (total > 0) {
+            LOG.infof("outbox_retention_deleted count=%d before=%s", total, publishedBefore);
+        }
+    }
+
+    /**
+     * Archiva y elimina una página de FAILED.
+     *
+     * @return eventos archivados; {@code -1} si otra instancia tiene el lock de mantenimiento
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    protected int archivePageTx(OutboxFailedArchiver.Session session,
+            OffsetDateTime createdBefore) {
+        if (!outboxRepo.tryAdvisoryXactLock(MAINTENANCE_LOCK_KEY)) {
+            return -1;
+        }
+        List<OutboxEvent> page = outboxRepo.findFailedCreatedBefore(createdBefore, batchSize);
+        if (page.isEmpty()) {
+            return 0;
+        }
+        session.write(page);
+        List<UUID> ids = page.stream().map(OutboxEvent::getIdEvento).toList();
+        outboxRepo.deleteByIds(ids);
+        archived.increment(page.size());
+        return page.size();
+    }
+
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    protected int deletePublishedBatchTx(OffsetDateTime publishedBefore) {
+        return outboxRepo.deletePublishedBefore(publishedBefore, batchSize);
+    }
+
+    @Transactional
+    protected boolean isPartitionedTx() {
+        return outboxRepo.isPartitioned();
+    }
+
+    /**
+     * Crea una partición futura (una TX por partición, bajo advisory lock).
+     *
+     * @return {@code false} si otra instancia tiene el lock de mantenimiento
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    protected boolean createPartitionTx(LocalDate day) {
+        if (!outboxRepo.tryAdvisoryXactLock(MAINTENANCE_LOCK_KEY)) {
+            return false;
+        }
+        if (outboxRepo.createDailyPartition(day)) {
+            LOG.infof("outbox_retention_partition_created partition=%s",
+                    OutboxEventRepository.partitionName(day));
+        }
+        return true;
+    }
+
+    /**
+     * Desacopla las particiones vencidas sin eventos vivos (bajo advisory lock).
+     *
+     * @return {@code false} si otra instancia tiene el lock de mantenimiento
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    protected boolean detachExpiredTx(OffsetDateTime createdBefore) {
+        if (!outboxRepo.tryAdvisoryXactLock(MAINTENANCE_LOCK_KEY)) {
+            return false;
+        }
+
+        // Partición [day, day+1) vencida si day+1 <= día de corte.
+        LocalDate cutoffDay = createdBefore.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+        for (LocalDate day : outboxRepo.listDailyPartitions()) {
+            if (day.plusDays(1).isAfter(cutoffDay)) {
+                break;
+            }
+            long live = outboxRepo.countNotPublishedInPartition(day);
+            if (live > 0) {
+                if (blockedReported.add(day)) {
+                    partitionsBlocked.increment();
+                    LOG.warnf("outbox_retention_partition_blocked partition=%s notPublished=%d"
+                            + " archiveEnabled=%s", OutboxEventRepository.partitionName(day), live,
+                            archiveEnabled);
+                }
+                continue;
+            }
+            blockedReported.remove(day);
+            outboxRepo.detachDailyPartition(day, dropPartitions);
+            partitionsDetached.increment();
+            LOG.infof("outbox_retention_partition_detached partition=%s dropped=%s",
+                    OutboxEventRepository.partitionName(day), dropPartitions);
+        }
+        return true;
+    }
+
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    protected int pruneDefaultBatchTx(OffsetDateTime publishedBefore) {
+        return outboxRepo.deletePublishedInDefaultPartition(publishedBefore, batchSize);
+    }
+
+    private static Duration positiveOr(Duration d, Duration fallback) {
+        return (d != null && !d.isNegative() && !d.isZero()) ? d : fallback;
+    }
+}
@@ -0,0 +1,148 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import com.haedcom.access.domain.repo.OutboxStatsView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Sampler único del estado del outbox.
+ *
+ * <p>
+ * Ejecuta {@link OutboxEventRepository#sampleStats()} (una sola consulta agregada) en un job
+ * programado y cachea el resultado. Los gauges de {@link OutboxMetrics} y el
+ * {@code OutboxReadinessCheck} leen de aquí: un scrape de Prometheus o un probe de readiness ya no
+ * toca la base de datos.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.outbox.snapshot.every} (default {@code 10s})</li>
+ * <li>{@code haedcom.outbox.snapshot.stale-after} (default {@code 60s}): edad a partir de la cual
+ * el snapshot se considera obsoleto (el muestreo está fallando).</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code outbox_snapshot_age_seconds}: edad del último muestreo exitoso.</li>
+ * <li>{@code outbox_snapshot_failed_total}: muestreos fallidos (se conserva el último
+ * snapshot).</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxSnapshotSampler {
+
+    private static final Logger LOG = Logger.getLogger(OutboxSnapshotSampler.class);
+
+    /**
+     * Snapshot inmutable.
+     *
+     * @param stats contadores y edades
+     * @param sampledAt instante del muestreo, o null si aún no hubo uno exitoso
+     */
+    public record Snapshot(OutboxStatsView stats, Instant sampledAt) {
+    }
+
+    private static final Snapshot NONE = new Snapshot(OutboxStatsView.EMPTY, null);
+
+    private final OutboxEventRepository outboxRepo;
+    private final Clock clock;
+    private final Duration staleAfter;
+    private final Counter failed;
+
+    private volatile Snapshot current = NONE;
+
+    @Inject
+    public OutboxSnapshotSampler(OutboxEventRepository outboxRepo, Clock clock,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.outbox.snapshot.stale-after",
+                    defaultValue = "60s") Duration staleAfter) {
+        this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo es obligatorio");
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.staleAfter = (staleAfter != null && !staleAfter.isNegative() && !staleAfter.isZero())
+                ? staleAfter
+                : Duration.ofSeconds(60);
+
+        this.failed = Counter.builder("outbox_snapshot_failed_total").register(registry);
+        registry.gauge("outbox_snapshot_age_seconds", this, s -> {
+            Long age = s.ageSeconds();
+            return age != null ? age.doubleValue() : Double.NaN;
+        });
+    }
+
+    /**
+     * Job de muestreo.
+     */
+    @Scheduled(every = "{haedcom.outbox.snapshot.every:10s}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void tick() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            failed.increment();
+            LOG.warnf(e, "outbox_snapshot_failed ageSec=%s", ageSeconds());
+        }
+    }
+
+    /**
+     * Ejecuta el muestreo y reemplaza el snapshot cacheado.
+     *
+     * @return snapshot nuevo
+     */
+    @Transactional
+    public Snapshot refresh() {
+        Snapshot s = new Snapshot(outboxRepo.sampleStats(), clock.instant());
+        current = s;
+        return s;
+    }
+
+    /**
+     * @return último snapshot (sin acceso a base de datos); {@code sampledAt} null si aún no hubo
+     *         un muestreo exitoso
+     */
+    public Snapshot current() {
+        return current;
+    }
+
+    /**
+     * @return contadores del último snapshot
+     */
+    public OutboxStatsView stats() {
+        return current.stats();
+    }
+
+    /**
+     * @return segundos desde el último muestreo exitoso, o null si nunca hubo uno
+     */
+    public Long ageSeconds() {
+        Instant at = current.sampledAt();
+        return at == null ? null : Math.max(0L, Duration.between(at, clock.instant()).toSeconds());
+    }
+
+    /**
+     * @return {@code true} si no hubo muestreo exitoso o el último supera {@code stale-after}
+     */
+    public boolean isStale() {
+        Instant at = current.sampledAt();
+        return at == null || at.plus(staleAfter).isBefore(clock.instant());
+    }
+
+    /**
+     * @return umbral de obsolescencia configurado
+     */
+    public Duration staleAfter() {
+        return staleAfter;
+    }
+}
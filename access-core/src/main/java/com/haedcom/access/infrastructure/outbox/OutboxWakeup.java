@@ -0,0 +1,246 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Disparador por eventos del {@link OutboxDispatcher}.
+ *
+ * <p>
+ * El job programado ({@code haedcom.outbox.dispatch.every}) agrega hasta un intervalo completo de
+ * latencia a cada evento. Este componente despierta al dispatcher en cuanto la transacción que
+ * escribió en el outbox hace commit; el job programado se mantiene como red de seguridad (eventos
+ * con backoff, señales perdidas, reinicios).
+ * </p>
+ *
+ * <h2>Flujo</h2>
+ * <ol>
+ * <li>{@code OutboxDomainEventPublisher} invoca {@link #onOutboxWrite()} dentro de la transacción
+ * del caso de uso.</li>
+ * <li>Se registra (una vez por transacción) una {@link Synchronization} que, solo si la
+ * transacción hace commit, señaliza al worker local. Un rollback no despierta a nadie.</li>
+ * <li>Si {@code haedcom.outbox.wakeup.notify.enabled=true}, además se emite
+ * {@code pg_notify(channel, instanceId)} en la misma transacción: PostgreSQL solo entrega la
+ * notificación al hacer commit, y {@link OutboxNotifyListener} despierta a las demás
+ * instancias.</li>
+ * <li>El worker ({@code outbox-wakeup}) coalesce señales y ejecuta
+ * {@link OutboxDispatcher#dispatchPending()} hasta que un lote no salga lleno.</li>
+ * </ol>
+ *
+ * <p>
+ * Ejecuciones concurrentes con el job programado son seguras: el claim usa
+ * {@code FOR UPDATE SKIP LOCKED}.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.outbox.wakeup.enabled} (default {@code true})</li>
+ * <li>{@code haedcom.outbox.wakeup.notify.enabled} (default {@code false})</li>
+ * <li>{@code haedcom.outbox.wakeup.notify.channel} (default {@code outbox_event})</li>
+ * <li>{@code haedcom.outbox.wakeup.max-runs} (default {@code 20}): corridas consecutivas máximas
+ * por señal, para no acaparar el worker frente a un backlog grande.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code outbox_wakeup_signals_total}: señales recibidas (locales y remotas).</li>
+ * <li>{@code outbox_wakeup_runs_total}: corridas del dispatcher disparadas por señal.</li>
+ * <li>{@code outbox_wakeup_failed_total}: corridas que fallaron.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxWakeup {
+
+    private static final Logger LOG = Logger.getLogger(OutboxWakeup.class);
+
+    /** Clave de recurso por transacción para registrar la sincronización una sola vez. */
+    private static final Object TX_KEY = new Object();
+
+    private final OutboxDispatcher dispatcher;
+    private final OutboxEventRepository outboxRepo;
+    private final TransactionSynchronizationRegistry txRegistry;
+    private final String instanceId;
+
+    private final boolean enabled;
+    private final boolean notifyEnabled;
+    private final String channel;
+    private final int maxRuns;
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile Thread worker;
+
+    private final Counter signals;
+    private final Counter runs;
+    private final Counter failed;
+
+    @Inject
+    public OutboxWakeup(OutboxDispatcher dispatcher, OutboxEventRepository outboxRepo,
+            TransactionSynchronizationRegistry txRegistry, InstanceIdProvider instanceIdProvider,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.enabled",
+                    defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.notify.enabled",
+                    defaultValue = "false") boolean notifyEnabled,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.notify.channel",
+                    defaultValue = "outbox_event") String channel,
+            @ConfigProperty(name = "haedcom.outbox.wakeup.max-runs",
+                    defaultValue = "20") int maxRuns) {
+        this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher es obligatorio");
+        this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo es obligatorio");
+        this.txRegistry = Objects.requireNonNull(txRegistry, "txRegistry es obligatorio");
+        this.instanceId = Objects
+                .requireNonNull(instanceIdProvider, "instanceIdProvider es obligatorio").get();
+        Objects.requireNonNull(registry, "registry es obligatorio");
+
+        this.enabled = enabled;
+        this.notifyEnabled = notifyEnabled;
+        this.channel = OutboxNotifyListener.requireChannel(channel);
+        this.maxRuns = Math.max(1, maxRuns);
+
+        this.signals = Counter.builder("outbox_wakeup_signals_total").register(registry);
+        this.runs = Counter.builder("outbox_wakeup_runs_total").register(registry);
+        this.failed = Counter.builder("outbox_wakeup_failed_total").register(registry);
+    }
+
+    /**
+     * Indica que la transacción actual escribió en el outbox.
+     *
+     * <p>
+     * Debe invocarse dentro de la transacción del caso de uso. Sin transacción activa señaliza de
+     * inmediato. Si falla {@code pg_notify}, se propaga para forzar rollback (mismo contrato que la
+     * escritura del outbox).
+     * </p>
+     */
+    public void onOutboxWrite() {
+        if (!enabled) {
+            return;
+        }
+        if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            signal();
+            return;
+        }
+        if (txRegistry.getResource(TX_KEY) != null) {
+            return;
+        }
+        txRegistry.putResource(TX_KEY, Boolean.TRUE);
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // sin trabajo previo al commit
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    signal();
+                }
+            }
+        });
+        if (notifyEnabled) {
+            outboxRepo.notifyChannel(channel, instanceId);
+        }
+    }
+
+    /**
+     * Solicita una corrida del dispatcher. No bloquea; señales repetidas antes de que el worker
+     * despierte se coalescen en una sola corrida.
+     */
+    public void signal() {
+        if (!enabled || !running) {
+            return;
+        }
+        signals.increment();
+        pending.set(true);
+        ensureStarted();
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * @return {@code true} si el disparador por eventos está habilitado
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code true} si se emite {@code pg_notify} para despertar a otras instancias
+     */
+    public boolean isNotifyEnabled() {
+        return notifyEnabled;
+    }
+
+    /**
+     * @return canal de {@code LISTEN/NOTIFY}
+     */
+    public String channel() {
+        return channel;
+    }
+
+    /**
+     * @return identificador de esta instancia (payload de las notificaciones propias)
+     */
+    public String instanceId() {
+        return instanceId;
+    }
+
+    private void ensureStarted() {
+        if (started.compareAndSet(false, true)) {
+            Thread t = new Thread(this::runLoop, "outbox-wakeup");
+            t.setDaemon(true);
+            worker = t;
+            t.start();
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            if (!pending.getAndSet(false)) {
+                LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                continue;
+            }
+            drain();
+        }
+    }
+
+    private void drain() {
+        int batchSize = dispatcher.batchSize();
+        for (int i = 0; i < maxRuns && running; i++) {
+            runs.increment();
+            try {
+                if (dispatcher.dispatchPending() < batchSize) {
+                    return;
+                }
+            } catch (Exception e) {
+                failed.increment();
+                LOG.errorf(e, "outbox_wakeup_dispatch_failed instanceId=%s", instanceId);
+                return;
+            }
+        }
+        // Backlog: se deja una señal para continuar sin esperar al job programado.
+        pending.set(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        Thread t = worker;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+}
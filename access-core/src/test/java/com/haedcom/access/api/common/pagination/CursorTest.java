@@ -0,0 +1,47 @@
+package com.haedcom.access.api.common.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.repo.Keyset;
+
+class CursorTest {
+
+    @Test
+    void encode_decode_deberiaConservarLaPosicion() {
+        Keyset k = new Keyset("nombre", true, "Pérez\nGómez", UUID.randomUUID());
+
+        String cursor = Cursor.encode(k);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(Cursor.decode(cursor)).isEqualTo(k);
+        assertThat(Cursor.decode(null)).isNull();
+        assertThat(Cursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void decode_cursorAdulterado_deberiaFallarCon400() {
+        assertThatThrownBy(() -> Cursor.decode("no-es-un-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void of_conFilaExtra_deberiaIndicarPaginaSiguiente() {
+        CursorPageResponse<String> page =
+                CursorPageResponse.of(List.of(1, 2, 3), 2, String::valueOf, i -> "c" + i, 10L);
+
+        assertThat(page.items()).containsExactly("1", "2");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.nextCursor()).isEqualTo("c2");
+        assertThat(page.total()).isEqualTo(10L);
+
+        CursorPageResponse<String> ultima =
+                CursorPageResponse.of(List.of(1), 2, String::valueOf, i -> "c" + i, null);
+        assertThat(ultima.hasNext()).isFalse();
+        assertThat(ultima.nextCursor()).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.application.acceso.AccesoMetrics.AttemptResult;
+import com.haedcom.access.application.acceso.AccesoMetrics.DbPhase;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.events.DecisionAccesoTomada;
+import com.haedcom.access.domain.events.IntentoAccesoRegistrado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccesoMetricsTest {
+
+    private static final int ATTEMPTS = 100_000;
+
+    private SimpleMeterRegistry registry;
+    private AccesoMetrics metrics;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        metrics = new AccesoMetrics(registry);
+    }
+
+    @Test
+    void constructor_deberiaPreRegistrarTodasLasCombinaciones() {
+        assertThat(registry.find("access_attempts_total").counters())
+                .hasSize(AttemptResult.values().length);
+        assertThat(registry.find("access_flow_seconds").timers())
+                .hasSize(AttemptResult.values().length);
+        assertThat(registry.find("access_decisions_total").counters())
+                .hasSize(TipoResultadoDecision.values().length);
+        assertThat(registry.find("access_db_seconds").timers()).hasSize(DbPhase.values().length);
+        assertThat(registry.find("access_publish_seconds").tag("event", "DecisionAccesoTomada")
+                .timer()).isNotNull();
+    }
+
+    @Test
+    void decision_deberiaContarPorResultadoYBucketDeMotivo() {
+        metrics.decision(TipoResultadoDecision.DENEGAR, "NO_MATCHING_RULE");
+        metrics.decision(TipoResultadoDecision.PERMITIR, "ALLOW");
+        metrics.decision(null, null);
+        metrics.engineNull();
+
+        assertThat(count("access_decisions_total", "result", "DENEGAR")).isEqualTo(1d);
+        assertThat(count("access_decisions_total", "result", "ERROR")).isEqualTo(2d);
+        assertThat(count("access_decision_reasons_total", "bucket", "no_match")).isEqualTo(1d);
+        assertThat(count("access_decision_reasons_total", "bucket", "other")).isEqualTo(1d);
+        assertThat(count("access_decision_reasons_total", "bucket", "missing")).isEqualTo(1d);
+        assertThat(count("access_decision_reasons_total", "bucket", "engine_null")).isEqualTo(1d);
+    }
+
+    @Test
+    void registrarIntento_noDeberiaAsignarMemoriaPorIntento() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeThat(threads.isThreadAllocatedMemorySupported()).isTrue();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().threadId();
+
+        // calentamiento: clases cargadas y ClassValue resuelto
+        recordAttempts(ATTEMPTS);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        recordAttempts(ATTEMPTS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // margen fijo para la propia medición; por intento debe ser 0
+        assertThat(allocated / ATTEMPTS).as("bytes por intento (total=%d)", allocated)
+                .isZero();
+        assertThat(count("access_attempts_total", "result", "ok"))
+                .isEqualTo(2d * ATTEMPTS);
+    }
+
+    private void recordAttempts(int n) {
+        for (int i = 0; i < n; i++) {
+            long start = metrics.start();
+            metrics.engine(start);
+            metrics.commandExpected();
+            metrics.decision(TipoResultadoDecision.PERMITIR, "ALLOW");
+            metrics.db(DbPhase.PERSIST_INTENTO, start);
+            metrics.db(DbPhase.PERSIST_DECISION, start);
+            metrics.commandEmitted();
+            metrics.publish(IntentoAccesoRegistrado.class, start);
+            metrics.publish(DecisionAccesoTomada.class, start);
+            metrics.db(DbPhase.FLUSH, start);
+            metrics.attempt(AttemptResult.OK, start);
+        }
+    }
+
+    private double count(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).counter().count();
+    }
+}
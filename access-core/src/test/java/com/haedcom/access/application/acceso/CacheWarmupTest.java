@@ -0,0 +1,101 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.application.acceso.decision.ReglaAccesoIndexProvider;
+import com.haedcom.access.application.time.TenantZoneProvider;
+import com.haedcom.access.domain.repo.AreaRepository;
+import com.haedcom.access.domain.repo.OrganizacionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheWarmupTest {
+
+    private static final UUID ORG_A = UUID.randomUUID();
+    private static final UUID ORG_B = UUID.randomUUID();
+    private static final UUID AREA_1 = UUID.randomUUID();
+    private static final UUID AREA_2 = UUID.randomUUID();
+
+    private OrganizacionRepository orgRepo;
+    private AreaRepository areaRepo;
+    private TenantZoneProvider zoneProvider;
+    private ReglaAccesoIndexProvider indexProvider;
+    private DeviceSnapshotCache deviceCache;
+    private CatalogoMotivos catalogo;
+
+    @BeforeEach
+    void setUp() {
+        orgRepo = mock(OrganizacionRepository.class);
+        areaRepo = mock(AreaRepository.class);
+        zoneProvider = mock(TenantZoneProvider.class);
+        indexProvider = mock(ReglaAccesoIndexProvider.class);
+        deviceCache = mock(DeviceSnapshotCache.class);
+        catalogo = mock(CatalogoMotivos.class);
+        when(catalogo.isLoaded()).thenReturn(true);
+        when(orgRepo.listIdsByEstado("ACTIVO")).thenReturn(List.of(ORG_A, ORG_B));
+        when(areaRepo.listIdsByOrganizacion(ORG_A)).thenReturn(List.of(AREA_1, AREA_2));
+        when(areaRepo.listIdsByOrganizacion(ORG_B)).thenReturn(List.of());
+    }
+
+    @Test
+    void ejecutar_deberiaCargarZonasIndicesYDispositivosDeCadaOrganizacion() {
+        CacheWarmup warmup = warmup(Duration.ofSeconds(10));
+        assertThat(warmup.estado().terminado()).isFalse();
+
+        warmup.ejecutar();
+
+        assertThat(warmup.estado()).isEqualTo(CacheWarmup.Estado.COMPLETO);
+        assertThat(warmup.organizaciones()).isEqualTo(2);
+        verify(zoneProvider).zoneFor(eq(ORG_A), isNull());
+        verify(zoneProvider).zoneFor(ORG_A, AREA_1);
+        verify(zoneProvider).zoneFor(ORG_A, AREA_2);
+        verify(indexProvider).indexFor(eq(ORG_A), eq(AREA_1), any());
+        verify(indexProvider).indexFor(eq(ORG_A), eq(AREA_2), any());
+        verify(deviceCache).precargar(ORG_A);
+        verify(deviceCache).precargar(ORG_B);
+        verify(catalogo, never()).recargar();
+    }
+
+    @Test
+    void ejecutar_conOrganizacionFallida_deberiaTerminarIgual() {
+        when(areaRepo.listIdsByOrganizacion(ORG_B)).thenThrow(new IllegalStateException("db"));
+        CacheWarmup warmup = warmup(Duration.ofSeconds(10));
+
+        warmup.ejecutar();
+
+        assertThat(warmup.estado()).isEqualTo(CacheWarmup.Estado.COMPLETO);
+        assertThat(warmup.fallidas()).isEqualTo(1);
+        verify(deviceCache).precargar(ORG_A);
+    }
+
+    @Test
+    void ejecutar_alVencerElTimeout_deberiaQuedarListoPorTimeout() {
+        CountDownLatch nunca = new CountDownLatch(1);
+        when(deviceCache.precargar(ORG_B)).thenAnswer(inv -> {
+            nunca.await();
+            return 0;
+        });
+        CacheWarmup warmup = warmup(Duration.ofMillis(100));
+
+        warmup.ejecutar();
+
+        assertThat(warmup.estado()).isEqualTo(CacheWarmup.Estado.TIMEOUT);
+        assertThat(warmup.estado().terminado()).isTrue();
+    }
+
+    private CacheWarmup warmup(Duration timeout) {
+        return new CacheWarmup(orgRepo, areaRepo, zoneProvider, indexProvider, deviceCache,
+                catalogo, new SimpleMeterRegistry(), true, 2, timeout, "ACTIVO");
+    }
+}
@@ -0,0 +1,68 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.model.CatalogoMotivoDecision;
+import com.haedcom.access.domain.repo.CatalogoMotivoDecisionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogoMotivosTest {
+
+    private CatalogoMotivoDecisionRepository repo;
+    private CatalogoMotivos catalogo;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(CatalogoMotivoDecisionRepository.class);
+        catalogo = new CatalogoMotivos(repo, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void contiene_trasCargar_noDeberiaConsultarLaBaseDeDatos() {
+        when(repo.listAll()).thenReturn(List.of(CatalogoMotivoDecision.MOTIVO_POLICY_ERROR,
+                new CatalogoMotivoDecision("SIN_DESCRIPCION", null)));
+
+        assertThat(catalogo.recargar()).isEqualTo(2);
+        for (int i = 0; i < 10; i++) {
+            assertThat(catalogo.contiene("POLICY_ERROR")).isTrue();
+            assertThat(catalogo.contiene("INEXISTENTE")).isFalse();
+        }
+        assertThat(catalogo.contiene(null)).isFalse();
+        assertThat(catalogo.descripcion("SIN_DESCRIPCION")).isEmpty();
+
+        verify(repo, times(1)).listAll();
+    }
+
+    @Test
+    void contiene_cargaInicialFallida_deberiaReintentarConLimite() {
+        when(repo.listAll()).thenThrow(new IllegalStateException("db caída"));
+
+        assertThat(catalogo.contiene("POLICY_ERROR")).isFalse();
+        assertThat(catalogo.contiene("POLICY_ERROR")).isFalse();
+        assertThat(catalogo.isLoaded()).isFalse();
+
+        // un solo intento dentro de la ventana de reintento
+        verify(repo, times(1)).listAll();
+    }
+
+    @Test
+    void recargar_deberiaReemplazarElSnapshotCompleto() {
+        when(repo.listAll())
+                .thenReturn(List.of(new CatalogoMotivoDecision("A", "a")))
+                .thenReturn(List.of(new CatalogoMotivoDecision("B", "b")));
+
+        catalogo.recargar();
+        catalogo.recargar();
+
+        assertThat(catalogo.contiene("A")).isFalse();
+        assertThat(catalogo.contiene("B")).isTrue();
+        assertThat(catalogo.size()).isEqualTo(1);
+    }
+}
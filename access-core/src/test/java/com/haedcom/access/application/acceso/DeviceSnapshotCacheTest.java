@@ -0,0 +1,93 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.model.Dispositivo;
+import com.haedcom.access.domain.repo.DispositivoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DeviceSnapshotCacheTest {
+
+    private final UUID orgId = UUID.randomUUID();
+    private final UUID idDispositivo = UUID.randomUUID();
+
+    private DispositivoRepository repo;
+    private SimpleMeterRegistry registry;
+    private DeviceSnapshotCache cache;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(DispositivoRepository.class);
+        registry = new SimpleMeterRegistry();
+        cache = new DeviceSnapshotCache(repo, Clock.systemUTC(), registry, true,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_segundaLectura_deberiaServirseDesdeCache() {
+        when(repo.findByIdAndOrganizacion(idDispositivo, orgId))
+                .thenReturn(Optional.of(dispositivo("Torniquete 1")));
+
+        assertThat(cache.get(orgId, idDispositivo)).get()
+                .satisfies(s -> assertThat(s.nombre()).isEqualTo("Torniquete 1"));
+        assertThat(cache.get(orgId, idDispositivo)).isPresent();
+
+        verify(repo, times(1)).findByIdAndOrganizacion(idDispositivo, orgId);
+        assertThat(registry.get("access_device_snapshot_cache_hit_ratio").gauge().value())
+                .isEqualTo(0.5d);
+    }
+
+    @Test
+    void invalidate_deberiaForzarRecarga() {
+        when(repo.findByIdAndOrganizacion(idDispositivo, orgId))
+                .thenReturn(Optional.of(dispositivo("Antes")))
+                .thenReturn(Optional.of(dispositivo("Despues")));
+
+        cache.get(orgId, idDispositivo);
+        cache.invalidate(orgId, idDispositivo);
+
+        assertThat(cache.get(orgId, idDispositivo).map(s -> s.nombre())).contains("Despues");
+    }
+
+    @Test
+    void get_cargaCruzadaConInvalidacion_noDeberiaQuedarEnCache() {
+        when(repo.findByIdAndOrganizacion(idDispositivo, orgId)).thenAnswer(inv -> {
+            // el cambio hace commit mientras se leía la versión anterior
+            cache.invalidate(orgId, idDispositivo);
+            return Optional.of(dispositivo("Antes"));
+        });
+
+        cache.get(orgId, idDispositivo);
+        cache.get(orgId, idDispositivo);
+
+        verify(repo, times(2)).findByIdAndOrganizacion(idDispositivo, orgId);
+    }
+
+    @Test
+    void get_dispositivoInexistente_noDeberiaCachearse() {
+        when(repo.findByIdAndOrganizacion(idDispositivo, orgId)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(orgId, idDispositivo)).isEmpty();
+        assertThat(cache.get(orgId, idDispositivo)).isEmpty();
+
+        verify(repo, times(2)).findByIdAndOrganizacion(idDispositivo, orgId);
+    }
+
+    private Dispositivo dispositivo(String nombre) {
+        Dispositivo d = new Dispositivo();
+        d.setIdDispositivo(idDispositivo);
+        d.assignTenant(orgId);
+        d.setNombre(nombre);
+        d.setEstadoActivo(true);
+        return d;
+    }
+}
@@ -0,0 +1,165 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.model.IntentoAcceso;
+import com.haedcom.access.domain.repo.ClaveIdempotenciaView;
+import com.haedcom.access.domain.repo.IntentoAccesoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+class IdempotenciaCacheTest {
+
+    private final UUID orgId = UUID.randomUUID();
+
+    private IntentoAccesoRepository repo;
+    private TransactionSynchronizationRegistry tx;
+    private SimpleMeterRegistry registry;
+    private IdempotenciaCache cache;
+    private AtomicInteger consultas;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(IntentoAccesoRepository.class);
+        tx = mock(TransactionSynchronizationRegistry.class);
+        when(tx.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        registry = new SimpleMeterRegistry();
+        cache = new IdempotenciaCache(repo, tx,
+                Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC), registry,
+                true, 1_000, 0.01, 100, Duration.ofMinutes(10), Duration.ofHours(24), 10_000);
+        consultas = new AtomicInteger();
+    }
+
+    @Test
+    void buscar_antesDePrecargar_deberiaConsultarSiempreLaBaseDeDatos() {
+        Optional<RegistrarIntentoResult> r = cache.buscar(orgId, "K-1", this::sinResultado);
+
+        assertThat(r).isEmpty();
+        assertThat(consultas).hasValue(1);
+        assertThat(lookups("cold_miss")).isEqualTo(1d);
+    }
+
+    @Test
+    void buscar_claveNuevaTrasPrecargar_deberiaOmitirElSelect() {
+        when(repo.streamClavesIdempotenciaDesde(any(), anyInt()))
+                .thenReturn(Stream.of(new ClaveIdempotenciaView(orgId, "K-1")));
+        cache.precargar();
+
+        assertThat(cache.isWarm()).isTrue();
+        assertThat(cache.buscar(orgId, "K-2", this::sinResultado)).isEmpty();
+        assertThat(cache.buscar(UUID.randomUUID(), "K-1", this::sinResultado)).isEmpty();
+        assertThat(consultas).hasValue(0);
+        assertThat(lookups("bloom_negative")).isEqualTo(2d);
+
+        RegistrarIntentoResult original = resultado();
+        assertThat(cache.buscar(orgId, "K-1", () -> conResultado(original))).contains(original);
+        assertThat(consultas).hasValue(1);
+        assertThat(lookups("db_hit")).isEqualTo(1d);
+
+        // el hit en base de datos queda en el LRU
+        assertThat(cache.buscar(orgId, "K-1", this::sinResultado)).contains(original);
+        assertThat(consultas).hasValue(1);
+        assertThat(lookups("lru_hit")).isEqualTo(1d);
+    }
+
+    @Test
+    void alEscribir_deberiaLlenarElLruSoloSiLaTransaccionHaceCommit() {
+        when(repo.streamClavesIdempotenciaDesde(any(), anyInt())).thenReturn(Stream.empty());
+        cache.precargar();
+        when(tx.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        ArgumentCaptor<Synchronization> sync = ArgumentCaptor.forClass(Synchronization.class);
+
+        RegistrarIntentoResult commit = resultado();
+        cache.alEscribir(List.of(pendiente("K-OK", commit)));
+        cache.alEscribir(List.of(pendiente("K-RB", resultado())));
+        verify(tx, times(2)).registerInterposedSynchronization(sync.capture());
+
+        // antes del commit: el filtro ya conoce la clave, el LRU todavía no
+        assertThat(cache.buscar(orgId, "K-OK", this::sinResultado)).isEmpty();
+        assertThat(lookups("false_positive")).isEqualTo(1d);
+
+        sync.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        sync.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertThat(cache.buscar(orgId, "K-OK", this::sinResultado)).contains(commit);
+        assertThat(cache.buscar(orgId, "K-RB", this::sinResultado)).isEmpty();
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void precargar_trasUnaRotacion_noDeberiaPerderLasClavesEscritasEnVivo() {
+        for (int i = 0; i < 1_500; i++) {
+            cache.alEscribir(List.of(pendiente("W-" + i, resultado())));
+        }
+        when(repo.streamClavesIdempotenciaDesde(any(), anyInt()))
+                .thenReturn(Stream.of(new ClaveIdempotenciaView(orgId, "K-PRE")));
+        cache.precargar();
+
+        // W-0 ya salió del LRU y quedó en la generación rotada: el filtro debe seguir conociéndola
+        assertThat(cache.buscar(orgId, "W-0", this::sinResultado)).isEmpty();
+        assertThat(cache.buscar(orgId, "K-PRE", this::sinResultado)).isEmpty();
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void bloom_noDeberiaTenerFalsosNegativosYRespetarLaTasaObjetivo() {
+        IdempotenciaBloomFilter f = new IdempotenciaBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            f.put("IN-" + i);
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(f.mightContain("IN-" + i)).isTrue();
+            if (f.mightContain("OUT-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertThat(falsosPositivos).isLessThan(200);
+    }
+
+    private Optional<RegistrarIntentoResult> sinResultado() {
+        consultas.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private Optional<RegistrarIntentoResult> conResultado(RegistrarIntentoResult r) {
+        consultas.incrementAndGet();
+        return Optional.of(r);
+    }
+
+    private IntentoPendiente pendiente(String clave, RegistrarIntentoResult r) {
+        return new IntentoPendiente(orgId, clave, new IntentoAcceso(), null, null, List.of(), r);
+    }
+
+    private static RegistrarIntentoResult resultado() {
+        return new RegistrarIntentoResult(UUID.randomUUID(), TipoResultadoDecision.PERMITIR,
+                UUID.randomUUID(), null, null, null);
+    }
+
+    private double lookups(String result) {
+        return registry.get("access_idempotency_lookup_total").tag("result", result).counter()
+                .count();
+    }
+}
@@ -0,0 +1,173 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.application.acceso.AccesoService.DecisionBorde;
+import com.haedcom.access.application.acceso.AccesoService.EvaluacionIntento;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.ReconciliarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.application.acceso.IntentoBatchService.ResultadoIntentoLote;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.model.IntentoAcceso;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.NotFoundException;
+
+class IntentoBatchServiceTest {
+
+    private final UUID orgId = UUID.randomUUID();
+
+    private AccesoService accesoService;
+    private IntentoBatchService batch;
+
+    @BeforeEach
+    void setup() {
+        accesoService = mock(AccesoService.class);
+        batch = new IntentoBatchService(accesoService, new SimpleMeterRegistry(), 2, 5);
+        when(accesoService.prepararLote(eq(orgId), anyList())).thenAnswer(inv -> {
+            List<RegistrarIntentoRequest> reqs = inv.getArgument(1);
+            List<EvaluacionIntento> out = new ArrayList<>();
+            for (RegistrarIntentoRequest r : reqs) {
+                out.add(r.claveIdempotencia().startsWith("404")
+                        ? new EvaluacionIntento(null, new NotFoundException("Dispositivo"))
+                        : new EvaluacionIntento(pendiente(r.claveIdempotencia()), null));
+            }
+            return out;
+        });
+        when(accesoService.prepararIntento(eq(orgId), any()))
+                .thenAnswer(inv -> pendiente(inv.<RegistrarIntentoRequest>getArgument(1)
+                        .claveIdempotencia()));
+    }
+
+    @Test
+    void registrar_deberiaResponderEnOrdenYDeduplicarPorClave() {
+        List<ResultadoIntentoLote> out = batch.registrar(orgId,
+                Arrays.asList(req("A"), req("B"), req("A"), null, req("404-C"), req("D")));
+
+        assertThat(out).extracting(ResultadoIntentoLote::indice).containsExactly(0, 1, 2, 3, 4,
+                5);
+        assertThat(out).extracting(ResultadoIntentoLote::codigo).containsExactly("OK", "OK",
+                "IDEMPOTENT", "BAD_REQUEST", "NOT_FOUND", "BATCH_LIMIT_EXCEEDED");
+        assertThat(out.get(2).resultado()).isEqualTo(out.get(0).resultado());
+        assertThat(out.get(4).status()).isEqualTo(404);
+
+        // chunks de 2: {A,B}, {A(repetida),null}, {404-C}
+        verify(accesoService, times(2)).prepararLote(eq(orgId), anyList());
+        verify(accesoService, times(1)).persistirLote(anyList());
+    }
+
+    @Test
+    void registrar_conflictoEnElChunk_deberiaReintentarPorIntentoYRecuperarElOriginal() {
+        RegistrarIntentoResult original = resultado();
+        doAnswer(inv -> {
+            List<IntentoPendiente> lote = inv.getArgument(0);
+            if (lote.stream().anyMatch(p -> p.claveIdempotencia().equals("OTRO-NODO"))) {
+                throw new IllegalStateException(
+                        "duplicate key value violates unique constraint \"ux_intento_idempotencia_org\"");
+            }
+            return null;
+        }).when(accesoService).persistirLote(anyList());
+        when(accesoService.resultadoExistente(eq(orgId), any()))
+                .thenReturn(Optional.of(original));
+
+        List<ResultadoIntentoLote> out =
+                batch.registrar(orgId, List.of(req("OTRO-NODO"), req("NUEVA")));
+
+        assertThat(out).extracting(ResultadoIntentoLote::codigo).containsExactly("IDEMPOTENT",
+                "OK");
+        assertThat(out.get(0).resultado()).isEqualTo(original);
+        // lote + uno por intento
+        verify(accesoService, times(3)).persistirLote(anyList());
+    }
+
+    @Test
+    void registrar_intentoQueRompeElChunk_deberiaGuardarLosDemasReevaluados() {
+        List<List<IntentoPendiente>> escritos = new ArrayList<>();
+        doAnswer(inv -> {
+            List<IntentoPendiente> lote = inv.getArgument(0);
+            if (lote.stream().anyMatch(p -> p.claveIdempotencia().equals("MALA"))) {
+                throw new IllegalStateException("value too long for type character varying");
+            }
+            escritos.add(lote);
+            return null;
+        }).when(accesoService).persistirLote(anyList());
+
+        List<ResultadoIntentoLote> out = batch.registrar(orgId, List.of(req("MALA"), req("BUENA")));
+
+        assertThat(out).extracting(ResultadoIntentoLote::codigo)
+                .containsExactly("INTERNAL_ERROR", "OK");
+        // cada intento se evalúa de nuevo: no se reutiliza la entidad del chunk que hizo rollback
+        verify(accesoService, times(2)).prepararIntento(eq(orgId), any());
+        assertThat(escritos).hasSize(1);
+        assertThat(escritos.get(0)).singleElement()
+                .satisfies(p -> assertThat(p.claveIdempotencia()).isEqualTo("BUENA"))
+                .satisfies(p -> assertThat(p.resultado()).isEqualTo(out.get(1).resultado()));
+    }
+
+    @Test
+    void registrar_reevaluacionConClaveYaRegistrada_deberiaResponderIdempotente() {
+        RegistrarIntentoResult original = resultado();
+        doAnswer(inv -> {
+            throw new IllegalStateException("connection reset");
+        }).when(accesoService).persistirLote(anyList());
+        when(accesoService.prepararIntento(eq(orgId), any())).thenReturn(new IntentoPendiente(
+                orgId, "A", null, null, null, List.of(), original));
+
+        List<ResultadoIntentoLote> out = batch.registrar(orgId, List.of(req("A")));
+
+        assertThat(out).extracting(ResultadoIntentoLote::codigo).containsExactly("IDEMPOTENT");
+        assertThat(out.get(0).resultado()).isEqualTo(original);
+        verify(accesoService, times(1)).persistirLote(anyList());
+    }
+
+    @Test
+    void reconciliar_deberiaEvaluarConLaDecisionDelGateway() {
+        DecisionBorde borde = new DecisionBorde(TipoResultadoDecision.PERMITIR, "ALLOW_DEFAULT",
+                null, "v1", null);
+        when(accesoService.prepararReconciliacion(eq(orgId), anyList(), anyList()))
+                .thenAnswer(inv -> {
+                    List<RegistrarIntentoRequest> reqs = inv.getArgument(1);
+                    return reqs.stream().map(r -> new EvaluacionIntento(
+                            pendiente(r.claveIdempotencia()), null)).toList();
+                });
+
+        List<ResultadoIntentoLote> out = batch.reconciliar(orgId,
+                List.of(new ReconciliarIntentoRequest(UUID.randomUUID(), null, null, null, null,
+                        null, "A", null, null, borde)));
+
+        assertThat(out).extracting(ResultadoIntentoLote::codigo).containsExactly("OK");
+        verify(accesoService).prepararReconciliacion(eq(orgId), anyList(),
+                eq(List.of(borde)));
+        verify(accesoService, times(0)).prepararLote(any(), anyList());
+    }
+
+    private RegistrarIntentoRequest req(String clave) {
+        return new RegistrarIntentoRequest(UUID.randomUUID(), null, null, null, null, null, clave,
+                null, null);
+    }
+
+    private IntentoPendiente pendiente(String clave) {
+        return new IntentoPendiente(orgId, clave, new IntentoAcceso(), null, null, List.of(),
+                resultado());
+    }
+
+    private static RegistrarIntentoResult resultado() {
+        return new RegistrarIntentoResult(UUID.randomUUID(), TipoResultadoDecision.PERMITIR,
+                UUID.randomUUID(), null, null, null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.haedcom.access.application.acceso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.application.acceso.AccesoService.IntentoPendiente;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoRequest;
+import com.haedcom.access.application.acceso.AccesoService.RegistrarIntentoResult;
+import com.haedcom.access.domain.enums.TipoResultadoDecision;
+import com.haedcom.access.domain.model.DecisionAcceso;
+import com.haedcom.access.domain.model.IntentoAcceso;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IntentoGroupCommitWriterTest {
+
+    private final UUID orgId = UUID.randomUUID();
+
+    private AccesoService accesoService;
+    private List<List<IntentoPendiente>> lotes;
+    private List<RegistrarIntentoRequest> reevaluados;
+    private ExecutorService executor;
+    private IntentoGroupCommitWriter writer;
+
+    @BeforeEach
+    void setup() {
+        accesoService = mock(AccesoService.class);
+        lotes = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            List<IntentoPendiente> lote = inv.getArgument(0);
+            lotes.add(new ArrayList<>(lote));
+            if (lote.stream().anyMatch(p -> p.claveIdempotencia().startsWith("BAD"))) {
+                throw new IllegalStateException("duplicate key");
+            }
+            return null;
+        }).when(accesoService).persistirLote(anyList());
+        reevaluados = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            RegistrarIntentoRequest req = inv.getArgument(1);
+            reevaluados.add(req);
+            if (req.claveIdempotencia().startsWith("BAD")) {
+                throw new IllegalStateException("duplicate key");
+            }
+            return pendiente(req.claveIdempotencia()).resultado();
+        }).when(accesoService).registrarIntento(eq(orgId), any());
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        writer = new IntentoGroupCommitWriter(accesoService, new SimpleMeterRegistry(), executor,
+                true, 50, 200, 1000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_variosIntentosDentroDelLinger_deberiaPersistirEnUnSoloLote() throws Exception {
+        List<CompletableFuture<RegistrarIntentoResult>> futures = new ArrayList<>();
+        List<IntentoPendiente> pendientes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IntentoPendiente p = pendiente("K" + i);
+            pendientes.add(p);
+            futures.add(writer.submit(request(p), p));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(futures.get(i).get(2, TimeUnit.SECONDS))
+                    .isEqualTo(pendientes.get(i).resultado());
+        }
+        assertThat(lotes).hasSize(1);
+        assertThat(lotes.get(0)).hasSize(5);
+    }
+
+    @Test
+    void submit_mismaClaveEnVuelo_deberiaCompartirResultadoSinSegundaEscritura() throws Exception {
+        IntentoPendiente p = pendiente("DUP");
+        CompletableFuture<RegistrarIntentoResult> f1 = writer.submit(request(p), p);
+        IntentoPendiente reintento = pendiente("DUP");
+        CompletableFuture<RegistrarIntentoResult> f2 = writer.submit(request(reintento), reintento);
+
+        assertThat(f2).isSameAs(f1);
+        assertThat(f1.get(2, TimeUnit.SECONDS)).isEqualTo(p.resultado());
+        verify(accesoService, times(1)).persistirLote(anyList());
+    }
+
+    @Test
+    void submit_loteConIntentoInvalido_deberiaReevaluarUnoAUnoYFallarSoloEse() throws Exception {
+        CompletableFuture<RegistrarIntentoResult> ok1 = submit("A");
+        CompletableFuture<RegistrarIntentoResult> bad = submit("BAD-1");
+        CompletableFuture<RegistrarIntentoResult> ok2 = submit("B");
+
+        assertThat(ok1.get(2, TimeUnit.SECONDS)).isNotNull();
+        assertThat(ok2.get(2, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> bad.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        // 1 lote fallido; cada intento se evalúa de nuevo en su propia transacción, sin volver a
+        // persistir las entidades del lote
+        assertThat(lotes).hasSize(1);
+        assertThat(lotes.get(0)).hasSize(3);
+        assertThat(reevaluados).extracting(RegistrarIntentoRequest::claveIdempotencia)
+                .containsExactly("A", "BAD-1", "B");
+    }
+
+    private CompletableFuture<RegistrarIntentoResult> submit(String clave) {
+        IntentoPendiente p = pendiente(clave);
+        return writer.submit(request(p), p);
+    }
+
+    private static RegistrarIntentoRequest request(IntentoPendiente p) {
+        return new RegistrarIntentoRequest(null, null, null, null, null, null,
+                p.claveIdempotencia(), null, null);
+    }
+
+    private IntentoPendiente pendiente(String clave) {
+        IntentoAcceso intento = new IntentoAcceso();
+        intento.setIdIntento(UUID.randomUUID());
+        intento.setClaveIdempotencia(clave);
+        DecisionAcceso decision = new DecisionAcceso();
+        decision.setIdDecision(UUID.randomUUID());
+        decision.setResultado(TipoResultadoDecision.PERMITIR);
+        return new IntentoPendiente(orgId, clave, intento, decision, null, List.of(),
+                RegistrarIntentoResult.from(intento, decision, null));
+    }
+}
@@ -0,0 +1,180 @@
+package com.haedcom.access.application.acceso.decision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.enums.TipoAccionAcceso;
+import com.haedcom.access.domain.enums.TipoDireccionPaso;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.model.ReglaAcceso;
+
+class CompiledReglaIndexTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+    private static final UUID AREA = UUID.randomUUID();
+    private static final UUID DEVICE = UUID.randomUUID();
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 10, 12, 0, 0, 0,
+            ZoneOffset.UTC);
+
+    private static ReglaAcceso regla(UUID device, TipoDireccionPaso dir,
+            TipoMetodoAutenticacion metodo, TipoAccionAcceso accion, Integer prioridad) {
+        return ReglaAcceso.crear(ORG, AREA, TipoSujetoAcceso.RESIDENTE, device, dir, metodo, accion,
+                null, null, null, null, prioridad, null);
+    }
+
+    private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+    private static CompiledReglaIndex.Entry match(CompiledReglaIndex idx) {
+        return match(idx, NOW.toInstant(), null);
+    }
+
+    private static CompiledReglaIndex.Entry match(CompiledReglaIndex idx, Instant at,
+            ZoneId zone) {
+        return idx.match(DEVICE, TipoDireccionPaso.ENTRADA, TipoMetodoAutenticacion.TARJETA,
+                at.toEpochMilli(), zone);
+    }
+
+    private static CompiledReglaIndex ventana(LocalTime desde, LocalTime hasta) {
+        ReglaAcceso r = regla(null, null, null, TipoAccionAcceso.PERMITIR, 100);
+        r.setDesdeHoraLocal(desde);
+        r.setHastaHoraLocal(hasta);
+        return CompiledReglaIndex.compile(List.of(r));
+    }
+
+    @Test
+    void compile_sinReglas_deberiaRetornarVacio() {
+        assertThat(CompiledReglaIndex.compile(null).isEmpty()).isTrue();
+        assertThat(CompiledReglaIndex.compile(List.of()).isEmpty()).isTrue();
+        assertThat(match(CompiledReglaIndex.compile(List.of()))).isNull();
+    }
+
+    @Test
+    void match_mayorPrioridad_deberiaGanar() {
+        ReglaAcceso baja = regla(DEVICE, TipoDireccionPaso.ENTRADA, null, TipoAccionAcceso.PERMITIR,
+                10);
+        ReglaAcceso alta = regla(null, null, null, TipoAccionAcceso.DENEGAR, 200);
+
+        CompiledReglaIndex idx = CompiledReglaIndex.compile(List.of(baja, alta));
+
+        assertThat(match(idx).idRegla()).isEqualTo(alta.getIdRegla());
+    }
+
+    @Test
+    void match_mismaPrioridad_deberiaGanarLaMasEspecifica() {
+        ReglaAcceso general = regla(null, null, null, TipoAccionAcceso.DENEGAR, 100);
+        ReglaAcceso especifica = regla(DEVICE, TipoDireccionPaso.ENTRADA,
+                TipoMetodoAutenticacion.TARJETA, TipoAccionAcceso.PERMITIR, 100);
+
+        CompiledReglaIndex idx = CompiledReglaIndex.compile(List.of(general, especifica));
+
+        CompiledReglaIndex.Entry e = match(idx);
+        assertThat(e.idRegla()).isEqualTo(especifica.getIdRegla());
+        assertThat(e.especificidad()).isEqualTo(3);
+        assertThat(e.accion()).isEqualTo(TipoAccionAcceso.PERMITIR);
+    }
+
+    @Test
+    void match_criteriosQueNoCoinciden_deberianDescartarse() {
+        ReglaAcceso otroDispositivo = regla(UUID.randomUUID(), null, null,
+                TipoAccionAcceso.PERMITIR, 300);
+        ReglaAcceso salida = regla(null, TipoDireccionPaso.SALIDA, null, TipoAccionAcceso.PERMITIR,
+                300);
+        ReglaAcceso rostro = regla(null, null, TipoMetodoAutenticacion.ROSTRO,
+                TipoAccionAcceso.PERMITIR, 300);
+
+        CompiledReglaIndex idx = CompiledReglaIndex.compile(List.of(otroDispositivo, salida, rostro));
+
+        assertThat(idx.size()).isEqualTo(3);
+        assertThat(match(idx)).isNull();
+    }
+
+    @Test
+    void match_fueraDeVigencia_noDeberiaAplicar() {
+        ReglaAcceso vencida = regla(null, null, null, TipoAccionAcceso.PERMITIR, 100);
+        vencida.setValidoHastaUtc(NOW.minusDays(1));
+        ReglaAcceso futura = regla(null, null, null, TipoAccionAcceso.PERMITIR, 100);
+        futura.setValidoDesdeUtc(NOW.plusDays(1));
+
+        CompiledReglaIndex idx = CompiledReglaIndex.compile(List.of(vencida, futura));
+
+        assertThat(match(idx)).isNull();
+    }
+
+    @Test
+    void match_ventanaQueCruzaMedianoche_deberiaEvaluarAmbosLados() {
+        CompiledReglaIndex idx = ventana(LocalTime.of(22, 0), LocalTime.of(6, 0));
+
+        assertThat(idx.hasLocalWindows()).isTrue();
+        assertThat(match(idx, utc("2025-03-10T23:30:00Z"), ZoneOffset.UTC)).isNotNull();
+        assertThat(match(idx, utc("2025-03-11T05:59:59Z"), ZoneOffset.UTC)).isNotNull();
+        assertThat(match(idx, utc("2025-03-11T06:00:00.999Z"), ZoneOffset.UTC)).isNotNull();
+        assertThat(match(idx, utc("2025-03-11T06:00:01Z"), ZoneOffset.UTC)).isNull();
+        assertThat(match(idx, utc("2025-03-11T12:00:00Z"), ZoneOffset.UTC)).isNull();
+        assertThat(match(idx, utc("2025-03-11T22:00:00Z"), ZoneOffset.UTC)).isNotNull();
+        // sin zona resuelta, las reglas con ventana no aplican
+        assertThat(match(idx)).isNull();
+    }
+
+    @Test
+    void match_ventanaEnZonaDelArea_deberiaUsarLaHoraLocal() {
+        CompiledReglaIndex idx = ventana(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        // 08:00 en Madrid (CET, UTC+1) son las 07:00 UTC
+        assertThat(match(idx, utc("2025-03-10T06:59:59Z"), MADRID)).isNull();
+        assertThat(match(idx, utc("2025-03-10T07:00:00Z"), MADRID)).isNotNull();
+        // días siguientes con la misma instancia: la tabla se recalcula por día (y tras el cambio
+        // de hora, UTC+2)
+        assertThat(match(idx, utc("2025-03-11T17:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-03-31T06:30:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-03-31T16:00:01Z"), MADRID)).isNull();
+    }
+
+    @Test
+    void match_desdeEnHoraInexistente_deberiaAbrirEnLaTransicion() {
+        // 2025-03-30 en Madrid: 02:00 CET salta a 03:00 CEST (01:00 UTC)
+        CompiledReglaIndex idx = ventana(LocalTime.of(2, 30), LocalTime.of(4, 0));
+
+        assertThat(match(idx, utc("2025-03-30T00:59:59Z"), MADRID)).isNull();
+        assertThat(match(idx, utc("2025-03-30T01:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-03-30T02:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-03-30T02:00:01Z"), MADRID)).isNull();
+    }
+
+    @Test
+    void match_ventanaEnHoraRepetida_deberiaCubrirAmbasPasadas() {
+        // 2025-10-26 en Madrid: 03:00 CEST vuelve a 02:00 CET (01:00 UTC); 02:15-02:45 ocurre dos
+        // veces
+        CompiledReglaIndex idx = ventana(LocalTime.of(2, 15), LocalTime.of(2, 45));
+
+        assertThat(match(idx, utc("2025-10-26T00:14:59Z"), MADRID)).isNull();
+        assertThat(match(idx, utc("2025-10-26T00:15:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-26T01:30:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-26T01:45:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-26T01:45:01Z"), MADRID)).isNull();
+    }
+
+    @Test
+    void match_ventanaNocturnaEnDiaConCambioDeHora_deberiaRespetarLosOffsets() {
+        // 23:00-01:00 alrededor del 2025-10-26 en Madrid: antes de medianoche es UTC+2, el cierre
+        // del día siguiente ya es UTC+1
+        CompiledReglaIndex idx = ventana(LocalTime.of(23, 0), LocalTime.of(1, 0));
+
+        assertThat(match(idx, utc("2025-10-25T20:59:59Z"), MADRID)).isNull();
+        assertThat(match(idx, utc("2025-10-25T21:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-25T23:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-25T23:00:01Z"), MADRID)).isNull();
+        assertThat(match(idx, utc("2025-10-26T22:00:00Z"), MADRID)).isNotNull();
+        assertThat(match(idx, utc("2025-10-26T21:59:59Z"), MADRID)).isNull();
+    }
+
+    private static Instant utc(String s) {
+        return Instant.parse(s);
+    }
+}
@@ -0,0 +1,65 @@
+package com.haedcom.access.application.acceso.decision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.repo.ReglaAccesoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReglaCandidatesCacheInvalidatorTest {
+
+    private static final UUID ORG_A = UUID.randomUUID();
+    private static final UUID ORG_B = UUID.randomUUID();
+    private static final UUID AREA = UUID.randomUUID();
+    private static final TipoSujetoAcceso TIPO = TipoSujetoAcceso.RESIDENTE;
+
+    private ReglaAccesoRepository repo;
+    private ReglaAccesoCandidatesProvider candidates;
+    private ReglaAccesoIndexProvider indexProvider;
+    private SimpleMeterRegistry registry;
+    private ReglaCandidatesCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(ReglaAccesoRepository.class);
+        when(repo.findActiveRulesBase(any(), any(), any())).thenReturn(List.of());
+        registry = new SimpleMeterRegistry();
+        candidates = new ReglaAccesoCandidatesProvider(repo, Clock.systemUTC(), registry,
+                Duration.ofMinutes(30), Duration.ZERO);
+        indexProvider = new ReglaAccesoIndexProvider(candidates, Clock.systemUTC(), registry,
+                Duration.ofMinutes(30));
+        invalidator = new ReglaCandidatesCacheInvalidator(candidates, indexProvider, registry);
+    }
+
+    @Test
+    void invalidateOrg_deberiaDescartarSoloLasEntradasDelTenant() {
+        indexProvider.indexFor(ORG_A, AREA, TIPO);
+        indexProvider.indexFor(ORG_B, AREA, TIPO);
+
+        invalidator.invalidateOrg(ORG_A);
+
+        // el tenant invalidado recompila desde la base de datos; el otro sigue con su índice
+        // y su cache
+        indexProvider.indexFor(ORG_A, AREA, TIPO);
+        indexProvider.indexFor(ORG_B, AREA, TIPO);
+        candidates.activeRulesBase(ORG_B, AREA, TIPO);
+        verify(repo, times(2)).findActiveRulesBase(eq(ORG_A), eq(AREA), eq(TIPO));
+        verify(repo, times(1)).findActiveRulesBase(eq(ORG_B), eq(AREA), eq(TIPO));
+
+        assertThat(registry.get("access_regla_cache_invalidations_total").tag("scope", "org")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("access_regla_cache_invalidations_total").tag("scope", "all")
+                .counter().count()).isZero();
+    }
+}
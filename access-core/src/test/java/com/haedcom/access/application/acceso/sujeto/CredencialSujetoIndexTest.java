@@ -0,0 +1,84 @@
+package com.haedcom.access.application.acceso.sujeto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+
+class CredencialSujetoIndexTest {
+
+    @Test
+    void resolve_documentoCalificadoOSoloNumero_deberiaResolver() {
+        CredencialSujetoIndex idx = new CredencialSujetoIndex();
+        UUID id = UUID.randomUUID();
+        idx.put(TipoSujetoAcceso.RESIDENTE, id, TipoDocumentoIdentidad.CC, " 1020AB ");
+
+        assertThat(idx.resolve("CC:1020AB").idSujeto()).isEqualTo(id);
+        assertThat(idx.resolve("  cc: 1020ab ").idSujeto()).isEqualTo(id);
+        assertThat(idx.resolve("1020ab").idSujeto()).isEqualTo(id);
+        assertThat(idx.resolve("CE:1020AB")).isNull();
+        assertThat(idx.resolve("XX:1020AB")).isNull();
+        assertThat(idx.resolve("   ")).isNull();
+        assertThat(idx.resolve(null)).isNull();
+    }
+
+    @Test
+    void resolve_mismoNumeroConDistintoTipo_soloNumero_deberiaSerAmbiguo() {
+        CredencialSujetoIndex idx = new CredencialSujetoIndex();
+        idx.put(TipoSujetoAcceso.RESIDENTE, UUID.randomUUID(), TipoDocumentoIdentidad.CC, "77");
+        idx.put(TipoSujetoAcceso.VISITANTE, UUID.randomUUID(), TipoDocumentoIdentidad.PA, "77");
+
+        assertThat(idx.resolve("77")).isNull();
+        assertThat(idx.resolve("PA:77").tipoSujeto()).isEqualTo(TipoSujetoAcceso.VISITANTE);
+    }
+
+    @Test
+    void resolve_residenteYVisitanteConMismoDocumento_deberiaPreferirResidente() {
+        CredencialSujetoIndex idx = new CredencialSujetoIndex();
+        idx.put(TipoSujetoAcceso.VISITANTE, UUID.randomUUID(), TipoDocumentoIdentidad.CC, "5");
+        UUID residente = UUID.randomUUID();
+        idx.put(TipoSujetoAcceso.RESIDENTE, residente, TipoDocumentoIdentidad.CC, "5");
+
+        assertThat(idx.resolve("CC:5").idSujeto()).isEqualTo(residente);
+    }
+
+    @Test
+    void put_cambioDeDocumento_deberiaReemplazarEntradaAnterior() {
+        CredencialSujetoIndex idx = new CredencialSujetoIndex();
+        UUID id = UUID.randomUUID();
+        idx.put(TipoSujetoAcceso.RESIDENTE, id, TipoDocumentoIdentidad.CC, "1");
+        idx.put(TipoSujetoAcceso.RESIDENTE, id, TipoDocumentoIdentidad.CC, "2");
+
+        assertThat(idx.resolve("CC:1")).isNull();
+        assertThat(idx.resolve("CC:2").idSujeto()).isEqualTo(id);
+        assertThat(idx.size()).isEqualTo(1);
+    }
+
+    @Test
+    void remove_conCrecimientoYColisiones_deberiaMantenerElRestoResoluble() {
+        CredencialSujetoIndex idx = new CredencialSujetoIndex();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            idx.put(TipoSujetoAcceso.RESIDENTE, id, TipoDocumentoIdentidad.CC, "D" + i);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            idx.remove(ids.get(i));
+        }
+        idx.remove(UUID.randomUUID());
+
+        assertThat(idx.size()).isEqualTo(250);
+        for (int i = 0; i < 500; i++) {
+            CredencialSujetoIndex.Entry e = idx.resolve("CC:D" + i);
+            if (i % 2 == 0) {
+                assertThat(e).isNull();
+            } else {
+                assertThat(e.idSujeto()).isEqualTo(ids.get(i));
+            }
+        }
+    }
+}
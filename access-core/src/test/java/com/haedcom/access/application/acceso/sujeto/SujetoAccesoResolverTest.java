@@ -0,0 +1,83 @@
+package com.haedcom.access.application.acceso.sujeto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.enums.EstadoResidente;
+import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoMetodoAutenticacion;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.model.Residente;
+import com.haedcom.access.domain.repo.ResidenteRepository;
+import com.haedcom.access.domain.repo.VisitanteCredencialView;
+import com.haedcom.access.domain.repo.VisitantePreautorizadoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SujetoAccesoResolverTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+    private static final Instant AHORA = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final ResidenteRepository residenteRepo = mock(ResidenteRepository.class);
+    private final VisitantePreautorizadoRepository visitanteRepo =
+            mock(VisitantePreautorizadoRepository.class);
+    private final SujetoAccesoResolver resolver = new SujetoAccesoResolver(residenteRepo,
+            visitanteRepo, Clock.fixed(AHORA, ZoneOffset.UTC), new SimpleMeterRegistry(),
+            List.of(TipoMetodoAutenticacion.TARJETA));
+
+    @Test
+    void refresh_antesDeLaCargaInicial_deberiaAplicarseDespuesDePublicarla() {
+        UUID id = UUID.randomUUID();
+        Residente r = mock(Residente.class);
+        when(r.getEstado()).thenReturn(EstadoResidente.ACTIVO);
+        when(r.getTipoDocumento()).thenReturn(TipoDocumentoIdentidad.CC);
+        when(r.getNumeroDocumento()).thenReturn("55");
+        when(residenteRepo.findByIdAndOrganizacion(id, ORG)).thenReturn(Optional.of(r));
+        when(residenteRepo.listCredencialesActivas()).thenReturn(List.of());
+        when(visitanteRepo.listCredenciales(any(OffsetDateTime.class))).thenReturn(List.of());
+
+        resolver.refresh(ORG, TipoSujetoAcceso.RESIDENTE, id);
+        resolver.loadAll();
+
+        assertThat(resolver.resolveTipo(ORG, TipoMetodoAutenticacion.TARJETA, "CC:55"))
+                .isEqualTo(TipoSujetoAcceso.RESIDENTE);
+    }
+
+    @Test
+    void resolve_visitante_deberiaRespetarVentanasYMetodo() {
+        UUID vigente = UUID.randomUUID();
+        UUID vencido = UUID.randomUUID();
+        OffsetDateTime t = AHORA.atOffset(ZoneOffset.UTC);
+        when(residenteRepo.listCredencialesActivas()).thenReturn(List.of());
+        when(visitanteRepo.listCredenciales(any(OffsetDateTime.class))).thenReturn(List.of(
+                fila(vigente, "10", t.plusDays(1), t.plusDays(2)),
+                fila(vigente, "10", t.minusHours(1), t.plusHours(1)),
+                fila(vencido, "20", null, null)));
+
+        resolver.loadAll();
+
+        assertThat(resolver.resolveTipo(ORG, TipoMetodoAutenticacion.TARJETA, "CC:10"))
+                .isEqualTo(TipoSujetoAcceso.VISITANTE);
+        assertThat(resolver.resolveTipo(ORG, TipoMetodoAutenticacion.PIN, "CC:10"))
+                .isEqualTo(TipoSujetoAcceso.DESCONOCIDO);
+        assertThat(resolver.resolveTipo(ORG, TipoMetodoAutenticacion.TARJETA, "CC:20"))
+                .isEqualTo(TipoSujetoAcceso.DESCONOCIDO);
+        assertThat(resolver.credenciales(ORG)).extracting(CredencialSujetoIndex.Entry::idSujeto)
+                .containsExactly(vigente);
+    }
+
+    private static VisitanteCredencialView fila(UUID id, String numero, OffsetDateTime desde,
+            OffsetDateTime hasta) {
+        return new VisitanteCredencialView(ORG, id, TipoDocumentoIdentidad.CC, numero, desde,
+                hasta, true);
+    }
+}
@@ -0,0 +1,51 @@
+package com.haedcom.access.application.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditBufferTest {
+
+    @Test
+    void offer_bufferLleno_deberiaDescartarYContar() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditBuffer buffer = new AuditBuffer(mock(AuditIngestService.class), registry, 2, 10, 1);
+
+        assertThat(buffer.offer("a")).isTrue();
+        assertThat(buffer.offer("b")).isTrue();
+        assertThat(buffer.offer("c")).isFalse();
+
+        assertThat(registry.get("audit_buffer_dropped_total").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("audit_buffer_backpressure_total").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("audit_buffer_queue_depth").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void drain_deberiaEscribirEnLotesYContarDuplicados() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditIngestService ingest = mock(AuditIngestService.class);
+        List<Integer> sizes = new ArrayList<>();
+        when(ingest.ingestBatch(anyList())).thenAnswer(inv -> {
+            List<?> batch = inv.getArgument(0);
+            sizes.add(batch.size());
+            return batch.size() - 1; // un duplicado por lote
+        });
+        AuditBuffer buffer = new AuditBuffer(ingest, registry, 100, 4, 0);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer("ev" + i);
+        }
+
+        buffer.drain();
+
+        assertThat(sizes).containsExactly(4, 4, 2);
+        assertThat(registry.get("audit_buffer_written_total").counter().count()).isEqualTo(7.0);
+        assertThat(registry.get("audit_buffer_deduped_total").counter().count()).isEqualTo(3.0);
+        assertThat(registry.get("audit_buffer_queue_depth").gauge().value()).isZero();
+    }
+}
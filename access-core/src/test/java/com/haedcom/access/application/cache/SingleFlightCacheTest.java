@@ -0,0 +1,236 @@
+package com.haedcom.access.application.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RelojManual reloj = new RelojManual();
+    private final List<Runnable> refrescos = new ArrayList<>();
+
+    @Test
+    void get_conMissesConcurrentes_deberiaCargarUnaSolaVez() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        SingleFlightCache<String, Integer> cache = cache(k -> {
+            cargas.incrementAndGet();
+            await(liberar);
+            return 42;
+        });
+
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> fs = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                fs.add(vt.submit(() -> cache.get("area")));
+            }
+            while (requests("coalesced") + requests("miss") < 50) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+            for (Future<Integer> f : fs) {
+                assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        }
+
+        assertThat(cargas).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("coalesced")).isEqualTo(49);
+        assertThat(registry.get("access_cache_coalesced_wait_seconds").timer().count())
+                .isEqualTo(49);
+    }
+
+    @Test
+    void get_conCargaFallida_deberiaPropagarElErrorYReintentar() {
+        AtomicInteger cargas = new AtomicInteger();
+        SingleFlightCache<String, Integer> cache = cache(k -> {
+            if (cargas.incrementAndGet() == 1) {
+                throw new IllegalStateException("db caída");
+            }
+            return 7;
+        });
+
+        assertThatThrownBy(() -> cache.get("k")).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("k")).isEqualTo(7);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_conErrorEnLaCarga_noDeberiaBloquearAQuienesEsperan() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        SingleFlightCache<String, Integer> cache = cache(k -> {
+            if (cargas.incrementAndGet() == 1) {
+                await(liberar);
+                throw new AssertionError("loader roto");
+            }
+            return 7;
+        });
+
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> primero = vt.submit(() -> cache.get("k"));
+            while (requests("miss") < 1) {
+                Thread.sleep(5);
+            }
+            Future<Integer> esperando = vt.submit(() -> cache.get("k"));
+            while (requests("coalesced") < 1) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+
+            assertThatThrownBy(() -> primero.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AssertionError.class);
+            assertThatThrownBy(() -> esperando.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(AssertionError.class);
+        }
+        assertThat(cache.get("k")).isEqualTo(7);
+    }
+
+    @Test
+    void refresco_conError_deberiaPermitirUnNuevoRefresco() {
+        AtomicInteger version = new AtomicInteger();
+        SingleFlightCache<String, Integer> cache = cache(k -> {
+            if (version.incrementAndGet() == 2) {
+                throw new AssertionError("loader roto");
+            }
+            return version.get();
+        });
+
+        cache.get("k");
+        reloj.avanzar(Duration.ofSeconds(10));
+        cache.get("k");
+        assertThatThrownBy(() -> refrescos.remove(0).run()).isInstanceOf(AssertionError.class);
+
+        assertThat(cache.get("k")).isEqualTo(1);
+        assertThat(refrescos).hasSize(1);
+        refrescos.remove(0).run();
+        assertThat(cache.get("k")).isEqualTo(3);
+    }
+
+    @Test
+    void get_pasadoRefreshAfter_deberiaRefrescarEnSegundoPlanoSinVencer() {
+        AtomicInteger version = new AtomicInteger();
+        SingleFlightCache<String, Integer> cache = cache(k -> version.incrementAndGet());
+
+        assertThat(cache.get("k")).isEqualTo(1);
+        reloj.avanzar(Duration.ofSeconds(9));
+        assertThat(cache.get("k")).isEqualTo(1);
+        assertThat(refrescos).isEmpty();
+
+        reloj.avanzar(Duration.ofSeconds(1));
+        // sirve el valor anterior y programa un solo refresco aunque haya varias lecturas
+        assertThat(cache.get("k")).isEqualTo(1);
+        assertThat(cache.get("k")).isEqualTo(1);
+        assertThat(refrescos).hasSize(1);
+
+        refrescos.remove(0).run();
+        assertThat(cache.get("k")).isEqualTo(2);
+
+        // leída seguido no vence nunca: todo lo posterior es hit
+        for (int i = 0; i < 5; i++) {
+            reloj.avanzar(Duration.ofSeconds(10));
+            cache.get("k");
+            refrescos.remove(0).run();
+        }
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(registry.get("access_cache_refresh_total").tag("result", "ok").counter()
+                .count()).isEqualTo(6);
+    }
+
+    @Test
+    void refresco_cruzadoConInvalidacion_noDeberiaPublicarse() {
+        AtomicInteger version = new AtomicInteger();
+        SingleFlightCache<String, Integer> cache = cache(k -> version.incrementAndGet());
+
+        cache.get("k");
+        reloj.avanzar(Duration.ofSeconds(10));
+        cache.get("k");
+        cache.invalidateIf(k -> k.equals("k"));
+        refrescos.remove(0).run();
+
+        // el refresco (versión 2) se descarta: el miss siguiente carga de nuevo
+        assertThat(cache.get("k")).isEqualTo(3);
+    }
+
+    @Test
+    void get_vencida_deberiaCargarDeNuevo() {
+        AtomicInteger version = new AtomicInteger();
+        SingleFlightCache<String, Integer> cache = cache(k -> version.incrementAndGet());
+
+        cache.get("k");
+        reloj.avanzar(Duration.ofSeconds(30));
+
+        assertThat(cache.get("k")).isEqualTo(2);
+        assertThat(refrescos).isEmpty();
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void get_sinRefreshAfter_noDeberiaRefrescar() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>("test", k -> 1,
+                Duration.ofSeconds(30), Duration.ZERO, refrescos::add, reloj, registry);
+
+        cache.get("k");
+        reloj.avanzar(Duration.ofSeconds(29));
+        cache.get("k");
+
+        assertThat(refrescos).isEmpty();
+    }
+
+    private SingleFlightCache<String, Integer> cache(Function<String, Integer> loader) {
+        return new SingleFlightCache<>("test", loader, Duration.ofSeconds(30),
+                Duration.ofSeconds(10), refrescos::add, reloj, registry);
+    }
+
+    private double requests(String result) {
+        return registry.get("access_cache_requests_total").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RelojManual extends Clock {
+
+        private volatile Instant ahora = Instant.parse("2025-03-01T12:00:00Z");
+
+        void avanzar(Duration d) {
+            ahora = ahora.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
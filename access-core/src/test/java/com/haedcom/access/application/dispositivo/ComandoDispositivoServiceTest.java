@@ -0,0 +1,155 @@
+package com.haedcom.access.application.dispositivo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLote;
+import com.haedcom.access.application.dispositivo.dto.ResultadoComandoLoteItem;
+import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
+import com.haedcom.access.domain.events.ComandoDispositivoEjecutado;
+import com.haedcom.access.domain.events.DomainEventPublisher;
+import com.haedcom.access.domain.model.ComandoDispositivo;
+import com.haedcom.access.domain.model.IntentoAcceso;
+import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.WebApplicationException;
+
+class ComandoDispositivoServiceTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+
+    private ComandoDispositivoRepository repo;
+    private DomainEventPublisher publisher;
+    private ComandoDispositivoService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(ComandoDispositivoRepository.class);
+        publisher = mock(DomainEventPublisher.class);
+        service = new ComandoDispositivoService(repo, publisher,
+                Clock.fixed(Instant.parse("2025-03-01T12:00:00Z"), ZoneOffset.UTC), 3);
+    }
+
+    @Test
+    void confirmarOFallarLote_deberiaResolverCadaItemEnSuPosicion() {
+        ComandoDispositivo enviado = comando(EstadoComandoDispositivo.ENVIADO);
+        ComandoDispositivo cerrado = comando(EstadoComandoDispositivo.EJECUTADO_OK);
+        UUID inexistente = UUID.randomUUID();
+        when(repo.listByIdsAndOrgWithIntento(eq(ORG), anyCollection()))
+                .thenReturn(List.of(enviado, cerrado));
+
+        List<ResultadoComandoLote> r = service.confirmarOFallarLote(ORG, Arrays.asList(
+                ok(enviado.getIdComando()),
+                ok(cerrado.getIdComando()),
+                null,
+                item(cerrado.getIdComando(), EstadoComandoDispositivo.TIMEOUT),
+                ok(inexistente)));
+
+        assertThat(r).extracting(ResultadoComandoLote::codigo).containsExactly("OK",
+                "IDEMPOTENT", "BAD_REQUEST", "BATCH_LIMIT_EXCEEDED", "BATCH_LIMIT_EXCEEDED");
+        assertThat(r).extracting(ResultadoComandoLote::status).containsExactly(200, 200, 400, 413,
+                413);
+        assertThat(enviado.getEstado()).isEqualTo(EstadoComandoDispositivo.EJECUTADO_OK);
+        verify(publisher, times(1)).publish(any(ComandoDispositivoEjecutado.class));
+        verify(repo).setJdbcBatchSize(1);
+        verify(repo).flush();
+    }
+
+    @Test
+    void confirmarOFallarLote_deberiaAplicarRepetidosEnOrdenYSerIdempotente() {
+        service = new ComandoDispositivoService(repo, publisher, Clock.systemUTC(), 1000);
+        ComandoDispositivo enviado = comando(EstadoComandoDispositivo.ENVIADO);
+        UUID inexistente = UUID.randomUUID();
+        when(repo.listByIdsAndOrgWithIntento(eq(ORG), anyCollection()))
+                .thenReturn(List.of(enviado));
+
+        List<ResultadoComandoLote> r = service.confirmarOFallarLote(ORG, List.of(
+                item(enviado.getIdComando(), EstadoComandoDispositivo.EJECUTADO_ERROR),
+                ok(enviado.getIdComando()),
+                item(enviado.getIdComando(), EstadoComandoDispositivo.EJECUTADO_ERROR),
+                ok(inexistente)));
+
+        // EJECUTADO_ERROR sin codigoError ni detalleError es inválido: el primer resultado válido
+        // es el OK
+        assertThat(r).extracting(ResultadoComandoLote::codigo).containsExactly("BAD_REQUEST",
+                "OK", "BAD_REQUEST", "NOT_FOUND");
+
+        ArgumentCaptor<ComandoDispositivoEjecutado> ev =
+                ArgumentCaptor.forClass(ComandoDispositivoEjecutado.class);
+        verify(publisher).publish(ev.capture());
+        assertThat(ev.getValue().idComando()).isEqualTo(enviado.getIdComando());
+
+        List<ResultadoComandoLote> reintento =
+                service.confirmarOFallarLote(ORG, List.of(ok(enviado.getIdComando()),
+                        new ResultadoComandoLoteItem(enviado.getIdComando(),
+                                EstadoComandoDispositivo.EJECUTADO_ERROR, "E1", null, null,
+                                null)));
+
+        assertThat(reintento).extracting(ResultadoComandoLote::codigo)
+                .containsExactly("IDEMPOTENT", "IGNORED");
+        verify(publisher, times(1)).publish(any(ComandoDispositivoEjecutado.class));
+        verify(repo, times(1)).flush();
+    }
+
+    @Test
+    void confirmarOFallarLote_sinItemsValidos_noDeberiaEscribir() {
+        List<ResultadoComandoLote> r = service.confirmarOFallarLote(ORG,
+                List.of(new ResultadoComandoLoteItem(null, EstadoComandoDispositivo.EJECUTADO_OK,
+                        null, null, null, null)));
+
+        assertThat(r).singleElement().satisfies(x -> assertThat(x.status()).isEqualTo(400));
+        verify(publisher, never()).publish(any());
+        verify(repo, never()).flush();
+    }
+
+    @Test
+    void confirmarOFallar_vencidoEnParalelo_deberiaResponder409SinPublicar() {
+        ComandoDispositivo enviado = comando(EstadoComandoDispositivo.ENVIADO);
+        when(repo.findByIdAndOrgWithIntento(ORG, enviado.getIdComando()))
+                .thenReturn(Optional.of(enviado));
+        doThrow(new OptimisticLockException()).when(repo).flush();
+
+        assertThatThrownBy(() -> service.confirmarOFallar(ORG, enviado.getIdComando(),
+                ok(enviado.getIdComando()).toRequest()))
+                .isInstanceOfSatisfying(WebApplicationException.class,
+                        e -> assertThat(e.getResponse().getStatus()).isEqualTo(409));
+        verify(publisher, never()).publish(any());
+    }
+
+    private static ComandoDispositivo comando(EstadoComandoDispositivo estado) {
+        IntentoAcceso intento = new IntentoAcceso();
+        intento.setIdIntento(UUID.randomUUID());
+        ComandoDispositivo c = new ComandoDispositivo();
+        c.setIdComando(UUID.randomUUID());
+        c.setIdDispositivo(UUID.randomUUID());
+        c.setIntento(intento);
+        c.setEstado(estado);
+        return c;
+    }
+
+    private static ResultadoComandoLoteItem ok(UUID idComando) {
+        return item(idComando, EstadoComandoDispositivo.EJECUTADO_OK);
+    }
+
+    private static ResultadoComandoLoteItem item(UUID idComando, EstadoComandoDispositivo estado) {
+        return new ResultadoComandoLoteItem(idComando, estado, null, null, null, null);
+    }
+}
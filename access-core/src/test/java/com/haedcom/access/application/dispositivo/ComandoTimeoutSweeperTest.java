@@ -0,0 +1,133 @@
+package com.haedcom.access.application.dispositivo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.enums.EstadoComandoDispositivo;
+import com.haedcom.access.domain.events.ComandoDispositivoEjecutado;
+import com.haedcom.access.domain.events.ComandoDispositivoEmitido;
+import com.haedcom.access.domain.repo.ComandoAbiertoView;
+import com.haedcom.access.domain.repo.ComandoDispositivoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ComandoTimeoutSweeperTest {
+
+    private static final Instant T0 = Instant.parse("2025-03-01T12:00:00Z");
+
+    private final RelojManual reloj = new RelojManual();
+    private ComandoDispositivoService service;
+    private ComandoDispositivoRepository repo;
+    private ComandoTimeoutSweeper sweeper;
+    private final List<List<UUID>> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = mock(ComandoDispositivoService.class);
+        repo = mock(ComandoDispositivoRepository.class);
+        when(service.marcarTimeout(anyCollection())).thenAnswer(inv -> {
+            List<UUID> lote = List.copyOf(inv.getArgument(0));
+            lotes.add(lote);
+            return lote.size();
+        });
+        sweeper = new ComandoTimeoutSweeper(service, repo, reloj, new SimpleMeterRegistry(), true,
+                Duration.ofSeconds(30), Duration.ofMillis(250), 2, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void barrer_deberiaVencerSoloLosComandosSinResultadoEnLotes() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID confirmado = UUID.randomUUID();
+        for (UUID id : List.of(a, b, c, confirmado)) {
+            sweeper.onEmitido(emitido(id, T0));
+        }
+        sweeper.onEjecutado(new ComandoDispositivoEjecutado(UUID.randomUUID(), UUID.randomUUID(),
+                confirmado, UUID.randomUUID(), UUID.randomUUID(),
+                EstadoComandoDispositivo.EJECUTADO_OK, OffsetDateTime.now(reloj), null, null,
+                null));
+
+        reloj.avanzar(Duration.ofSeconds(29));
+        sweeper.barrer();
+        verify(service, never()).marcarTimeout(anyCollection());
+
+        reloj.avanzar(Duration.ofSeconds(1));
+        sweeper.barrer();
+        assertThat(lotes).hasSize(2);
+        assertThat(lotes.stream().flatMap(List::stream)).containsExactlyInAnyOrder(a, b, c);
+        assertThat(sweeper.pendientes()).isZero();
+    }
+
+    @Test
+    void reconstruir_deberiaVencerEnElPrimerTickLosComandosYaVencidos() {
+        UUID viejo = UUID.randomUUID();
+        UUID reciente = UUID.randomUUID();
+        when(repo.streamAbiertos()).thenReturn(Stream.of(
+                new ComandoAbiertoView(viejo, T0.minusSeconds(120).atOffset(ZoneOffset.UTC)),
+                new ComandoAbiertoView(reciente, T0.minusSeconds(10).atOffset(ZoneOffset.UTC))));
+
+        sweeper.reconstruir();
+        sweeper.barrer();
+
+        assertThat(lotes).containsExactly(List.of(viejo));
+        assertThat(sweeper.pendientes()).isEqualTo(1);
+    }
+
+    @Test
+    void barrer_conFalloDelLote_deberiaReprogramarlo() {
+        UUID id = UUID.randomUUID();
+        sweeper.onEmitido(emitido(id, T0));
+        doThrow(new IllegalStateException("db")).when(service).marcarTimeout(anyCollection());
+
+        reloj.avanzar(Duration.ofSeconds(30));
+        sweeper.barrer();
+
+        assertThat(sweeper.pendientes()).isEqualTo(1);
+    }
+
+    private static ComandoDispositivoEmitido emitido(UUID idComando, Instant enviado) {
+        return new ComandoDispositivoEmitido(UUID.randomUUID(), idComando, UUID.randomUUID(),
+                UUID.randomUUID(), null, null, EstadoComandoDispositivo.ENVIADO, "k",
+                enviado.atOffset(ZoneOffset.UTC), "dev-1");
+    }
+
+    private static final class RelojManual extends Clock {
+
+        private Instant ahora = T0;
+
+        void avanzar(Duration d) {
+            ahora = ahora.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.haedcom.access.application.dispositivo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    void avanzar_deberiaVencerCadaClaveEnSuTickSinAdelantarse() {
+        long t0 = 1_700_000_000_000L;
+        TimingWheel<String> rueda = new TimingWheel<>(TICK, t0);
+        // niveles 0, 1, 2 y más allá del rango del nivel 0 con cascada intermedia
+        long[] vencimientos = {t0 + 150, t0 + 30_000, t0 + 7_000_000, t0 + 25_599, t0 + 25_601};
+        for (int i = 0; i < vencimientos.length; i++) {
+            rueda.programar("k" + i, vencimientos[i]);
+        }
+
+        List<String> vencidos = new ArrayList<>();
+        for (long t = t0; t <= t0 + 7_000_000 + TICK; t += TICK) {
+            for (String k : rueda.avanzar(t)) {
+                long vence = vencimientos[Integer.parseInt(k.substring(1))];
+                assertThat(t).as(k).isGreaterThanOrEqualTo(vence).isLessThan(vence + TICK);
+                vencidos.add(k);
+            }
+        }
+        assertThat(vencidos).containsExactly("k0", "k3", "k4", "k1", "k2");
+        assertThat(rueda.size()).isZero();
+    }
+
+    @Test
+    void cancelarYReprogramar_deberianReemplazarElVencimiento() {
+        TimingWheel<String> rueda = new TimingWheel<>(TICK, 0);
+        rueda.programar("a", 500);
+        rueda.programar("b", 500);
+        rueda.programar("b", 2_000);
+        assertThat(rueda.cancelar("a")).isTrue();
+        assertThat(rueda.cancelar("a")).isFalse();
+
+        assertThat(rueda.avanzar(1_000)).isEmpty();
+        assertThat(rueda.avanzar(2_000)).containsExactly("b");
+    }
+
+    @Test
+    void programar_conVencimientoPasado_deberiaSalirEnElSiguienteAvance() {
+        TimingWheel<String> rueda = new TimingWheel<>(TICK, 10_000);
+        rueda.programar("viejo", 1_000);
+
+        assertThat(rueda.avanzar(10_000)).containsExactly("viejo");
+        assertThat(rueda.size()).isZero();
+    }
+}
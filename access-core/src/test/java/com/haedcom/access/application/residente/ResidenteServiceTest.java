@@ -11,6 +11,9 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +28,9 @@ import com.haedcom.access.api.residente.dto.ResidenteResponse;
 import com.haedcom.access.api.residente.dto.ResidenteUpsertRequest;
 import com.haedcom.access.domain.enums.EstadoResidente;
 import com.haedcom.access.domain.enums.TipoDocumentoIdentidad;
+import com.haedcom.access.domain.enums.TipoSujetoAcceso;
+import com.haedcom.access.domain.events.DomainEventPublisher;
+import com.haedcom.access.domain.events.SujetoAccesoChanged;
 import com.haedcom.access.domain.model.Organizacion;
 import com.haedcom.access.domain.model.Residente;
 import com.haedcom.access.domain.repo.OrganizacionRepository;
@@ -37,13 +43,17 @@ class ResidenteServiceTest {
 
         private ResidenteRepository residenteRepo;
         private OrganizacionRepository orgRepo;
+        private DomainEventPublisher eventPublisher;
         private ResidenteService service;
 
         @BeforeEach
         void setup() {
                 residenteRepo = mock(ResidenteRepository.class);
                 orgRepo = mock(OrganizacionRepository.class);
-                service = new ResidenteService(residenteRepo, orgRepo);
+                eventPublisher = mock(DomainEventPublisher.class);
+                service = new ResidenteService(residenteRepo, orgRepo, eventPublisher,
+                                Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"),
+                                                ZoneOffset.UTC));
         }
 
         private Organizacion org(UUID id) {
@@ -410,6 +420,16 @@ class ResidenteServiceTest {
                 verify(residenteRepo).delete(existente);
                 verifyNoMoreInteractions(residenteRepo);
                 verifyNoInteractions(orgRepo);
+
+                ArgumentCaptor<Object> ev = ArgumentCaptor.forClass(Object.class);
+                verify(eventPublisher).publish(ev.capture());
+                assertThat(ev.getValue()).isInstanceOfSatisfying(SujetoAccesoChanged.class, e -> {
+                        assertThat(e.orgId()).isEqualTo(orgId);
+                        assertThat(e.idSujeto()).isEqualTo(residenteId);
+                        assertThat(e.tipoSujeto()).isEqualTo(TipoSujetoAcceso.RESIDENTE);
+                        assertThat(e.changeType())
+                                        .isEqualTo(SujetoAccesoChanged.ChangeType.DELETED);
+                });
         }
 
         // -------------------------
@@ -0,0 +1,64 @@
+package com.haedcom.access.domain.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class DomainEventMetadataTest {
+
+    /** Evento no tipado con la forma histórica (compatibilidad por reflexión). */
+    public record LegacyEvent(UUID orgId, UUID idDecision, UUID idRegla) {
+    }
+
+    public record SinOrg(UUID idComando) {
+    }
+
+    @Test
+    void of_eventoTipado_deberiaUsarContratoSinReflexion() {
+        UUID org = UUID.randomUUID();
+        UUID comando = UUID.randomUUID();
+        ComandoDispositivoConfirmado ev = new ComandoDispositivoConfirmado(org, comando,
+                UUID.randomUUID(), UUID.randomUUID(), OffsetDateTime.now(), null);
+
+        DomainEventMetadata meta = DomainEventMetadata.of(ev);
+
+        assertThat(meta.isTyped()).isTrue();
+        assertThat(meta).isSameAs(DomainEventMetadata.of(ComandoDispositivoConfirmado.class));
+        assertThat(meta.eventType()).isEqualTo(ComandoDispositivoConfirmado.class.getName());
+        assertThat(meta.orgId(ev)).isEqualTo(org);
+        assertThat(meta.aggregateType(ev)).isEqualTo("ComandoDispositivo");
+        assertThat(meta.aggregateId(ev)).isEqualTo(comando.toString());
+    }
+
+    @Test
+    void of_eventoNoTipado_deberiaAplicarHeuristicaHistorica() {
+        UUID org = UUID.randomUUID();
+        UUID regla = UUID.randomUUID();
+        LegacyEvent ev = new LegacyEvent(org, null, regla);
+
+        DomainEventMetadata meta = DomainEventMetadata.of(ev);
+
+        assertThat(meta.isTyped()).isFalse();
+        assertThat(meta.orgId(ev)).isEqualTo(org);
+        assertThat(meta.aggregateType(ev)).isEqualTo("DecisionAcceso");
+        // idDecision null -> siguiente candidato
+        assertThat(meta.aggregateId(ev)).isEqualTo(regla.toString());
+    }
+
+    @Test
+    void orgId_eventoSinOrgId_deberiaLanzarIllegalArgument() {
+        SinOrg ev = new SinOrg(UUID.randomUUID());
+
+        assertThatThrownBy(() -> DomainEventMetadata.of(ev).orgId(ev))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void preload_deberiaResolverTodosLosEventosConocidosComoTipados() {
+        assertThat(DomainEventMetadata.preload()).isEqualTo(11);
+        DomainEventMetadata.KNOWN_EVENTS
+                .forEach(c -> assertThat(DomainEventMetadata.of(c).isTyped()).isTrue());
+    }
+}
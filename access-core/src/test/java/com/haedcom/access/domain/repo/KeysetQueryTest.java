@@ -0,0 +1,71 @@
+package com.haedcom.access.domain.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class KeysetQueryTest {
+
+    private record Fila(UUID id, String nombre, OffsetDateTime actualizado) {
+    }
+
+    private static final KeysetQuery<Fila> KEYSET = new KeysetQuery<>("f.id", Fila::id,
+            Map.of("nombre", KeysetQuery.texto("f.nombre", Fila::nombre), "actualizado",
+                    KeysetQuery.instante("f.actualizado", Fila::actualizado)),
+            "actualizado", false);
+
+    @Test
+    void orden_deberiaAplicarWhitelistYDefaults() {
+        assertThat(KEYSET.orden(null, null)).isEqualTo(new KeysetQuery.Orden("actualizado", false));
+        assertThat(KEYSET.orden(" nombre ", "ASC"))
+                .isEqualTo(new KeysetQuery.Orden("nombre", true));
+        assertThat(KEYSET.orden("password; drop table", "x"))
+                .isEqualTo(new KeysetQuery.Orden("actualizado", false));
+    }
+
+    @Test
+    void append_primeraPagina_deberiaOrdenarPorCampoEId() {
+        StringBuilder jpql = new StringBuilder("select f from Fila f where f.org = :orgId");
+        Map<String, Object> params = new HashMap<>();
+
+        KEYSET.append(jpql, params, KEYSET.orden("nombre", "asc"), null);
+
+        assertThat(jpql).hasToString(
+                "select f from Fila f where f.org = :orgId order by f.nombre asc, f.id asc");
+        assertThat(params).isEmpty();
+    }
+
+    @Test
+    void append_conKeyset_deberiaContinuarDespuesDeLaUltimaFila() {
+        Fila ultima = new Fila(UUID.randomUUID(), "Ana",
+                OffsetDateTime.parse("2025-03-10T12:00:00.123456Z"));
+        KeysetQuery.Orden orden = KEYSET.orden(null, null);
+        Keyset after = KEYSET.keysetOf(ultima, orden);
+
+        StringBuilder jpql = new StringBuilder("select f from Fila f where f.org = :orgId");
+        Map<String, Object> params = new HashMap<>();
+        KEYSET.append(jpql, params, orden, after);
+
+        assertThat(jpql).hasToString("select f from Fila f where f.org = :orgId"
+                + " and (f.actualizado, f.id) < (:ksValor, :ksId)"
+                + " order by f.actualizado desc, f.id desc");
+        assertThat(params).containsEntry("ksValor", ultima.actualizado())
+                .containsEntry("ksId", ultima.id());
+    }
+
+    @Test
+    void append_conKeysetDeOtroOrden_deberiaRechazarlo() {
+        Keyset deNombre = new Keyset("nombre", true, "Ana", UUID.randomUUID());
+        Keyset valorInvalido = new Keyset("actualizado", false, "ayer", UUID.randomUUID());
+        KeysetQuery.Orden orden = KEYSET.orden(null, null);
+
+        assertThatThrownBy(() -> KEYSET.append(new StringBuilder(), new HashMap<>(), orden,
+                deNombre)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KEYSET.append(new StringBuilder(), new HashMap<>(), orden,
+                valorInvalido)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
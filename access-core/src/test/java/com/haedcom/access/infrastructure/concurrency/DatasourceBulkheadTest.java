@@ -0,0 +1,88 @@
+package com.haedcom.access.infrastructure.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.HttpHeaders;
+
+class DatasourceBulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_enWorkerThread_noDeberiaTomarPermiso() {
+        DatasourceBulkhead bulkhead = bulkhead(1, Duration.ofMillis(10));
+
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(bulkhead.acquire()).isFalse();
+        assertThat(bulkhead.available()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_enVirtualThreads_deberiaAcotarLaConcurrenciaAlPool() throws Exception {
+        DatasourceBulkhead bulkhead = bulkhead(4, Duration.ofSeconds(10));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> fs = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                fs.add(vt.submit(() -> {
+                    start.await();
+                    assertThat(bulkhead.acquire()).isTrue();
+                    try {
+                        max.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        inFlight.decrementAndGet();
+                    } finally {
+                        bulkhead.release();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : fs) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(max.get()).isBetween(1, 4);
+        assertThat(bulkhead.available()).isEqualTo(4);
+    }
+
+    @Test
+    void acquire_sinPermisoEnElTimeout_deberiaResponder503ConRetryAfter() throws Exception {
+        DatasourceBulkhead bulkhead = bulkhead(1, Duration.ofMillis(50));
+
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThat(vt.submit(bulkhead::acquire).get()).isTrue();
+
+            Future<Boolean> segundo = vt.submit(bulkhead::acquire);
+            assertThatThrownBy(segundo::get).hasCauseInstanceOf(ServiceUnavailableException.class)
+                    .cause().satisfies(e -> {
+                        ServiceUnavailableException sue = (ServiceUnavailableException) e;
+                        assertThat(sue.getResponse().getStatus()).isEqualTo(503);
+                        assertThat(sue.getResponse().getHeaderString(HttpHeaders.RETRY_AFTER))
+                                .isEqualTo("1");
+                    });
+        }
+        assertThat(registry.get("vthread_bulkhead_rejected_total").counter().count())
+                .isEqualTo(1d);
+    }
+
+    private DatasourceBulkhead bulkhead(int poolSize, Duration timeout) {
+        return new DatasourceBulkhead(registry, true, 0, poolSize, timeout);
+    }
+}
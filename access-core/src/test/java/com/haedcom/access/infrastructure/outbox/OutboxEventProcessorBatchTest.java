@@ -0,0 +1,55 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.events.OutboxEventSender;
+import com.haedcom.access.domain.events.OutboxSendException;
+import com.haedcom.access.domain.model.OutboxEvent;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxEventProcessorBatchTest {
+
+    @Test
+    void sendBatch_deberiaClasificarAckErrorYTimeoutPorEvento() {
+        OutboxEvent ok = event();
+        OutboxEvent ko = event();
+        OutboxEvent hung = event();
+
+        OutboxEventSender sender = mock(OutboxEventSender.class);
+        when(sender.sendAsync(ok)).thenReturn(CompletableFuture.completedFuture(null));
+        when(sender.sendAsync(ko)).thenReturn(CompletableFuture.failedFuture(
+                OutboxSendException.unknown("boom", null, false, "RECORD_TOO_LARGE")));
+        when(sender.sendAsync(hung)).thenReturn(new CompletableFuture<>());
+
+        InstanceIdProvider ids = mock(InstanceIdProvider.class);
+        when(ids.get()).thenReturn("node-1");
+        OutboxEventProcessor processor = new OutboxEventProcessor(mock(OutboxEventRepository.class),
+                sender, Clock.systemUTC(), new SimpleMeterRegistry(), ids, 300);
+
+        OutboxEventProcessor.BatchOutcome out =
+                processor.sendBatch(List.of(ok, ko, hung), Duration.ofMillis(100));
+
+        assertThat(out.publishedIds()).containsExactly(ok.getIdEvento());
+        assertThat(out.failures()).containsOnlyKeys(ko.getIdEvento(), hung.getIdEvento());
+        assertThat(out.failures().get(ko.getIdEvento()).getErrorCode())
+                .isEqualTo("RECORD_TOO_LARGE");
+        assertThat(out.failures().get(ko.getIdEvento()).isRetryable()).isFalse();
+        assertThat(out.failures().get(hung.getIdEvento()).getErrorCode())
+                .isEqualTo("ACK_TIMEOUT");
+        assertThat(out.failures().get(hung.getIdEvento()).isRetryable()).isTrue();
+    }
+
+    private static OutboxEvent event() {
+        OutboxEvent e = new OutboxEvent();
+        e.setIdEvento(UUID.randomUUID());
+        return e;
+    }
+}
@@ -0,0 +1,93 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxRetentionJobTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-03-20T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void runOnce_tablaParticionada_deberiaDesacoplarSoloVencidasSinEventosVivos() {
+        OutboxEventRepository repo = mock(OutboxEventRepository.class);
+        when(repo.isPartitioned()).thenReturn(true);
+        when(repo.tryAdvisoryXactLock(anyLong())).thenReturn(true);
+        LocalDate d10 = LocalDate.of(2026, 3, 10);
+        LocalDate d11 = LocalDate.of(2026, 3, 11);
+        LocalDate d12 = LocalDate.of(2026, 3, 12);
+        LocalDate d13 = LocalDate.of(2026, 3, 13);
+        when(repo.listDailyPartitions()).thenReturn(List.of(d10, d11, d12, d13));
+        when(repo.countNotPublishedInPartition(d11)).thenReturn(2L);
+
+        job(repo).runOnce();
+
+        // Corte: 2026-03-13T10:00Z -> vencidas [10,11), [11,12), [12,13)
+        verify(repo).detachDailyPartition(d10, true);
+        verify(repo, never()).detachDailyPartition(eq(d11), anyBoolean());
+        verify(repo).detachDailyPartition(d12, true);
+        verify(repo, never()).detachDailyPartition(eq(d13), anyBoolean());
+        verify(repo, times(4)).createDailyPartition(any());
+        verify(repo).createDailyPartition(LocalDate.of(2026, 3, 23));
+        verify(repo, never()).deletePublishedBefore(any(), anyInt());
+    }
+
+    @Test
+    void runOnce_particionRetenida_deberiaReportarseUnaSolaVezYPodarLaDefault() {
+        OutboxEventRepository repo = mock(OutboxEventRepository.class);
+        when(repo.isPartitioned()).thenReturn(true);
+        when(repo.tryAdvisoryXactLock(anyLong())).thenReturn(true);
+        LocalDate d10 = LocalDate.of(2026, 3, 10);
+        when(repo.listDailyPartitions()).thenReturn(List.of(d10));
+        when(repo.countNotPublishedInPartition(d10)).thenReturn(1L);
+        when(repo.deletePublishedInDefaultPartition(any(), eq(100))).thenReturn(100, 3, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OutboxRetentionJob job = job(repo, registry);
+
+        job.runOnce();
+        job.runOnce();
+
+        verify(repo, never()).detachDailyPartition(any(), anyBoolean());
+        assertThat(registry.get("outbox_retention_partitions_blocked_total").counter().count())
+                .isEqualTo(1d);
+        verify(repo, times(3)).deletePublishedInDefaultPartition(any(), eq(100));
+    }
+
+    @Test
+    void runOnce_tablaSimple_deberiaBorrarPorLotesHastaLoteIncompleto() {
+        OutboxEventRepository repo = mock(OutboxEventRepository.class);
+        when(repo.isPartitioned()).thenReturn(false);
+        when(repo.deletePublishedBefore(any(), eq(100))).thenReturn(100, 100, 7);
+
+        job(repo).runOnce();
+
+        verify(repo, times(3)).deletePublishedBefore(any(), eq(100));
+        verify(repo, never()).detachDailyPartition(any(), anyBoolean());
+    }
+
+    private OutboxRetentionJob job(OutboxEventRepository repo) {
+        return job(repo, new SimpleMeterRegistry());
+    }
+
+    private OutboxRetentionJob job(OutboxEventRepository repo, SimpleMeterRegistry registry) {
+        return new OutboxRetentionJob(repo, mock(OutboxFailedArchiver.class), clock, registry,
+                true, Duration.ofDays(7), 100, 3, true, false, Duration.ofDays(30));
+    }
+}
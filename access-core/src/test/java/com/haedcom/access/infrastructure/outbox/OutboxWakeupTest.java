@@ -0,0 +1,76 @@
+package com.haedcom.access.infrastructure.outbox;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.haedcom.access.domain.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+class OutboxWakeupTest {
+
+    private OutboxDispatcher dispatcher;
+    private OutboxEventRepository repo;
+    private TransactionSynchronizationRegistry tx;
+    private OutboxWakeup wakeup;
+
+    @BeforeEach
+    void setup() {
+        dispatcher = mock(OutboxDispatcher.class);
+        when(dispatcher.batchSize()).thenReturn(50);
+        repo = mock(OutboxEventRepository.class);
+        tx = mock(TransactionSynchronizationRegistry.class);
+        InstanceIdProvider ids = mock(InstanceIdProvider.class);
+        when(ids.get()).thenReturn("node-1");
+
+        wakeup = new OutboxWakeup(dispatcher, repo, tx, ids, new SimpleMeterRegistry(), true,
+                true, "outbox_event", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wakeup.shutdown();
+    }
+
+    @Test
+    void onOutboxWrite_commit_deberiaNotificarYDespacharUnaVez() {
+        when(tx.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        ArgumentCaptor<Synchronization> sync = ArgumentCaptor.forClass(Synchronization.class);
+
+        wakeup.onOutboxWrite();
+        when(tx.getResource(any())).thenReturn(Boolean.TRUE);
+        wakeup.onOutboxWrite();
+
+        verify(tx, times(1)).registerInterposedSynchronization(sync.capture());
+        verify(repo, times(1)).notifyChannel(eq("outbox_event"), eq("node-1"));
+        verify(dispatcher, never()).dispatchPending();
+
+        sync.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        verify(dispatcher, timeout(2000).times(1)).dispatchPending();
+    }
+
+    @Test
+    void onOutboxWrite_rollback_noDeberiaDespachar() {
+        when(tx.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        ArgumentCaptor<Synchronization> sync = ArgumentCaptor.forClass(Synchronization.class);
+
+        wakeup.onOutboxWrite();
+        verify(tx).registerInterposedSynchronization(sync.capture());
+        sync.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        verify(dispatcher, after(200).never()).dispatchPending();
+    }
+}
@@ -0,0 +1,170 @@
+package com.haedcom.access.shared.ventana;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Ventanas horarias locales de un conjunto de reglas, precalculadas como instantes UTC (epoch
+ * millis) para un día local de una zona.
+ *
+ * <p>
+ * Se calcula una vez por {@code (zona, día local)}: mientras el instante del intento caiga dentro
+ * del mismo día, evaluar la ventana de una regla son dos comparaciones de {@code long}, sin
+ * convertir el instante a hora local.
+ * </p>
+ *
+ * <h2>Representación</h2>
+ * <ul>
+ * <li>Cada regla tiene un intervalo semiabierto {@code [abre, cierra)} en epoch millis. El fin de
+ * la ventana es inclusivo al segundo: {@code hasta} = 18:00:00 cierra en 18:00:01.</li>
+ * <li>Sin ventana: {@code [Long.MIN_VALUE, Long.MAX_VALUE)}. Solo {@code desde}: hasta el fin del
+ * día; solo {@code hasta}: desde el inicio del día.</li>
+ * <li>Ventana que cruza medianoche ({@code desde > hasta}): dentro de un día son dos tramos, así que
+ * se guarda el hueco {@code [hasta + 1s, desde)} invertido (la regla aplica fuera de él).</li>
+ * </ul>
+ *
+ * <h2>Cambios de horario (DST)</h2>
+ * <p>
+ * Los límites se resuelven con {@link ZoneRules}, tomando la primera vez que el reloj local llega a
+ * la hora indicada:
+ * </p>
+ * <ul>
+ * <li>Hora inexistente (salto hacia adelante): el límite es el instante de la transición; una
+ * ventana desde 02:30 en un día que salta de 02:00 a 03:00 abre a las 03:00.</li>
+ * <li>Hora repetida (atraso): la apertura usa la primera ocurrencia y el cierre la última, de modo
+ * que la ventana es un único intervalo continuo que cubre ambas pasadas.</li>
+ * </ul>
+ *
+ * <p>
+ * La instancia es inmutable y se publica sin sincronización. La usan el motor del core
+ * ({@code CompiledReglaIndex}) y el del gateway ({@code PoliticaCompilada}), normalmente a través
+ * de {@link VentanasReglas}: ambos abren y cierran las ventanas en los mismos instantes.
+ * </p>
+ */
+public final class VentanasLocalesDia {
+
+    /** Límite de ventana no informado. */
+    public static final int SIN_LIMITE = -1;
+    private static final int SEGUNDOS_DIA = 86_400;
+
+    private final ZoneId zone;
+    private final long inicioDiaMillis;
+    private final long finDiaMillis;
+    private final long[] abre;
+    private final long[] cierra;
+    private final boolean[] invertida;
+
+    private VentanasLocalesDia(ZoneId zone, long inicioDiaMillis, long finDiaMillis, int n) {
+        this.zone = zone;
+        this.inicioDiaMillis = inicioDiaMillis;
+        this.finDiaMillis = finDiaMillis;
+        this.abre = new long[n];
+        this.cierra = new long[n];
+        this.invertida = new boolean[n];
+    }
+
+    /**
+     * Tabla para cuando no se pudo resolver la zona: las reglas con ventana no aplican en ningún
+     * instante y las demás aplican siempre.
+     *
+     * @param desde inicio de ventana por regla (segundo del día; {@code -1} = sin límite)
+     * @param hasta fin de ventana por regla (segundo del día; {@code -1} = sin límite)
+     */
+    public static VentanasLocalesDia sinZona(int[] desde, int[] hasta) {
+        VentanasLocalesDia v =
+                new VentanasLocalesDia(null, Long.MIN_VALUE, Long.MAX_VALUE, desde.length);
+        for (int i = 0; i < desde.length; i++) {
+            boolean sinVentana = desde[i] == SIN_LIMITE && hasta[i] == SIN_LIMITE;
+            v.abre[i] = sinVentana ? Long.MIN_VALUE : 0L;
+            v.cierra[i] = sinVentana ? Long.MAX_VALUE : 0L;
+        }
+        return v;
+    }
+
+    /**
+     * Calcula la tabla del día local de {@code zone} que contiene {@code epochMillis}.
+     *
+     * @param zone zona del área (no null)
+     * @param epochMillis instante del intento
+     * @param desde inicio de ventana por regla (segundo del día; {@code -1} = sin límite)
+     * @param hasta fin de ventana por regla (segundo del día; {@code -1} = sin límite)
+     */
+    public static VentanasLocalesDia calcular(ZoneId zone, long epochMillis, int[] desde,
+            int[] hasta) {
+        ZoneRules rules = zone.getRules();
+        Instant instante = Instant.ofEpochMilli(epochMillis);
+        LocalDate dia = LocalDate.ofInstant(instante, zone);
+        long inicio = dia.atStartOfDay(zone).toInstant().toEpochMilli();
+        long fin = dia.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        VentanasLocalesDia v = new VentanasLocalesDia(zone, inicio, fin, desde.length);
+        for (int i = 0; i < desde.length; i++) {
+            int d = desde[i];
+            int h = hasta[i];
+            if (d == SIN_LIMITE && h == SIN_LIMITE) {
+                v.abre[i] = Long.MIN_VALUE;
+                v.cierra[i] = Long.MAX_VALUE;
+            } else if (h == SIN_LIMITE) {
+                v.abre[i] = apertura(rules, dia, d);
+                v.cierra[i] = fin;
+            } else if (d == SIN_LIMITE) {
+                v.abre[i] = inicio;
+                v.cierra[i] = cierre(rules, dia, h + 1);
+            } else if (d <= h) {
+                v.abre[i] = apertura(rules, dia, d);
+                v.cierra[i] = cierre(rules, dia, h + 1);
+            } else {
+                // cruza medianoche: aplica fuera del hueco [hasta + 1s, desde)
+                v.abre[i] = cierre(rules, dia, h + 1);
+                v.cierra[i] = apertura(rules, dia, d);
+                v.invertida[i] = true;
+            }
+        }
+        return v;
+    }
+
+    /**
+     * @return {@code true} si la tabla corresponde a la zona y al día local del instante
+     */
+    public boolean cubre(ZoneId zone, long epochMillis) {
+        return epochMillis >= inicioDiaMillis && epochMillis < finDiaMillis
+                && (this.zone == zone || (this.zone != null && this.zone.equals(zone)));
+    }
+
+    /**
+     * @param i posición de la regla (la misma que en {@code desde}/{@code hasta})
+     * @param epochMillis instante del intento (dentro del día de la tabla)
+     * @return {@code true} si la ventana de la regla está abierta
+     */
+    public boolean abierta(int i, long epochMillis) {
+        return (epochMillis >= abre[i] && epochMillis < cierra[i]) != invertida[i];
+    }
+
+    /** Primer instante en que el reloj local marca {@code segundo} en {@code dia}. */
+    private static long apertura(ZoneRules rules, LocalDate dia, int segundo) {
+        return instante(rules, dia, segundo, true);
+    }
+
+    /** Último instante en que el reloj local marca {@code segundo} en {@code dia}. */
+    private static long cierre(ZoneRules rules, LocalDate dia, int segundo) {
+        return instante(rules, dia, segundo, false);
+    }
+
+    private static long instante(ZoneRules rules, LocalDate dia, int segundo, boolean primero) {
+        // segundo == SEGUNDOS_DIA es la medianoche siguiente (hasta = 23:59:59)
+        LocalDateTime local = dia.atStartOfDay().plusSeconds(Math.min(segundo, SEGUNDOS_DIA));
+        List<ZoneOffset> offsets = rules.getValidOffsets(local);
+        if (offsets.isEmpty()) {
+            // hora inexistente: el reloj la salta en la transición
+            return rules.getTransition(local).getInstant().toEpochMilli();
+        }
+        // en un atraso, el primer offset (antes de la transición) da el instante más temprano
+        ZoneOffset offset = primero ? offsets.get(0) : offsets.get(offsets.size() - 1);
+        return local.toInstant(offset).toEpochMilli();
+    }
+}
@@ -0,0 +1,77 @@
+package com.haedcom.access.shared.ventana;
+
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Ventanas horarias locales de una lista ordenada de reglas, con la tabla
+ * {@link VentanasLocalesDia} del último día local usado.
+ *
+ * <p>
+ * {@link #para(ZoneId, long)} recalcula la tabla solo al cambiar de día (o de zona); dos
+ * evaluaciones concurrentes pueden calcularla a la vez, pero el resultado es el mismo. Es seguro
+ * para lectura concurrente.
+ * </p>
+ */
+public final class VentanasReglas {
+
+    private final int[] desde;
+    private final int[] hasta;
+    private final boolean hayVentanas;
+    private final VentanasLocalesDia sinZona;
+
+    /** Tabla del último día local evaluado (null hasta la primera evaluación con zona). */
+    private volatile VentanasLocalesDia actual;
+
+    /**
+     * @param desde inicio de ventana por regla (segundo del día; {@code -1} = sin límite)
+     * @param hasta fin de ventana por regla (segundo del día; {@code -1} = sin límite)
+     */
+    public VentanasReglas(int[] desde, int[] hasta) {
+        Objects.requireNonNull(desde, "desde es obligatorio");
+        Objects.requireNonNull(hasta, "hasta es obligatorio");
+        if (desde.length != hasta.length) {
+            throw new IllegalArgumentException("desde y hasta deben tener el mismo largo");
+        }
+        this.desde = desde.clone();
+        this.hasta = hasta.clone();
+        boolean v = false;
+        for (int i = 0; i < desde.length; i++) {
+            v |= desde[i] != VentanasLocalesDia.SIN_LIMITE
+                    || hasta[i] != VentanasLocalesDia.SIN_LIMITE;
+        }
+        this.hayVentanas = v;
+        this.sinZona = v ? VentanasLocalesDia.sinZona(this.desde, this.hasta) : null;
+    }
+
+    /**
+     * @return {@code true} si alguna regla tiene ventana; si no, no hace falta resolver la zona
+     */
+    public boolean hayVentanas() {
+        return hayVentanas;
+    }
+
+    /**
+     * Tabla del día local de {@code zone} que contiene el instante.
+     *
+     * @param zone zona del área; {@code null} si no se pudo resolver (las reglas con ventana no
+     *        aplican)
+     * @param epochMillis instante de evaluación
+     * @return tabla a consultar con {@link VentanasLocalesDia#abierta(int, long)}, o {@code null}
+     *         si ninguna regla tiene ventana
+     */
+    public VentanasLocalesDia para(ZoneId zone, long epochMillis) {
+        if (!hayVentanas) {
+            return null;
+        }
+        if (zone == null) {
+            return sinZona;
+        }
+        VentanasLocalesDia v = actual;
+        if (v == null || !v.cubre(zone, epochMillis)) {
+            v = VentanasLocalesDia.calcular(zone, epochMillis, desde, hasta);
+            actual = v;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,144 @@
+package com.haedcom.gateway.borde;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Políticas compiladas por tenant que usa la decisión local del gateway.
+ *
+ * <p>
+ * Lectura sin locks ({@link ConcurrentHashMap}); cada sincronización reemplaza la política
+ * completa del tenant. El snapshot recibido se guarda además en disco
+ * ({@code <dir>/politica-<orgId>.json}, escritura atómica) para que un gateway que reinicia con
+ * el core caído pueda seguir decidiendo con la última versión conocida.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.edge.dir} (default {@code edge-data}): directorio de snapshots y del
+ * diario.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_edge_policies} (gauge): tenants con política cargada.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class AlmacenPoliticas {
+
+    private static final Logger LOG = Logger.getLogger(AlmacenPoliticas.class);
+
+    private static final String PREFIJO = "politica-";
+    private static final String EXTENSION = ".json";
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+
+    private final ConcurrentHashMap<UUID, PoliticaCompilada> politicas = new ConcurrentHashMap<>();
+    /** Tenants que el gateway debe sincronizar (con o sin política cargada). */
+    private final Set<UUID> conocidos = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public AlmacenPoliticas(ObjectMapper objectMapper, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.gateway.edge.dir",
+                    defaultValue = "edge-data") String dir) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.dir = Path.of(dir);
+        registry.gaugeMapSize("gateway_edge_policies", Tags.empty(), politicas);
+    }
+
+    /**
+     * @return política del tenant o {@code null} si todavía no se sincronizó
+     */
+    public PoliticaCompilada buscar(UUID orgId) {
+        return (orgId != null) ? politicas.get(orgId) : null;
+    }
+
+    /**
+     * Registra un tenant para sincronizarlo.
+     *
+     * @return {@code true} si el tenant no era conocido
+     */
+    public boolean conocer(UUID orgId) {
+        return orgId != null && conocidos.add(orgId);
+    }
+
+    public Set<UUID> conocidos() {
+        return Set.copyOf(conocidos);
+    }
+
+    /**
+     * Reemplaza la política del tenant y la persiste.
+     *
+     * @param p snapshot recibido del core
+     */
+    public void actualizar(PoliticaBorde p) {
+        PoliticaCompilada compilada = PoliticaCompilada.compilar(p);
+        politicas.put(p.orgId(), compilada);
+        conocidos.add(p.orgId());
+        try {
+            guardar(p);
+        } catch (IOException e) {
+            LOG.warnf("AlmacenPoliticas - persist_failed orgId=%s error=%s", p.orgId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Carga los snapshots persistidos (al arrancar).
+     *
+     * @return políticas cargadas
+     */
+    public int cargarPersistidas() {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int n = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIJO + "*" + EXTENSION)) {
+            for (Path f : ds) {
+                try {
+                    PoliticaBorde p = objectMapper.readValue(f.toFile(), PoliticaBorde.class);
+                    politicas.put(p.orgId(), PoliticaCompilada.compilar(p));
+                    conocidos.add(p.orgId());
+                    n++;
+                } catch (IOException | RuntimeException e) {
+                    LOG.warnf("AlmacenPoliticas - load_failed file=%s error=%s", f,
+                            e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warnf("AlmacenPoliticas - load_failed dir=%s error=%s", dir, e.getMessage());
+        }
+        return n;
+    }
+
+    private void guardar(PoliticaBorde p) throws IOException {
+        Files.createDirectories(dir);
+        Path destino = dir.resolve(PREFIJO + p.orgId() + EXTENSION);
+        Path tmp = dir.resolve(PREFIJO + p.orgId() + EXTENSION + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), p);
+        try {
+            Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
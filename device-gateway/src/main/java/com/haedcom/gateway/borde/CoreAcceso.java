@@ -0,0 +1,77 @@
+package com.haedcom.gateway.borde;
+
+import java.util.Objects;
+import java.util.UUID;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import com.haedcom.gateway.core.AccesoCoreClient;
+import com.haedcom.gateway.core.IntentoRequest;
+import com.haedcom.gateway.core.IntentoResultado;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * Reenvío de intentos al core con timeout y circuit breaker.
+ *
+ * <p>
+ * El timeout acota lo que espera un dispositivo antes de que el gateway decida localmente; con el
+ * circuito abierto ni siquiera se intenta la llamada. Cuentan como fallo: timeout, error de red y
+ * 5xx ({@link CoreNoDisponibleException}). Un 4xx es una respuesta válida del core (request
+ * inválido, dispositivo inexistente) y no abre el circuito.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <p>
+ * Valores por defecto en las anotaciones; se pueden cambiar con las claves de MicroProfile Fault
+ * Tolerance, por ejemplo
+ * {@code quarkus.fault-tolerance."com.haedcom.gateway.borde.CoreAcceso/registrar".timeout.value}.
+ * </p>
+ */
+@ApplicationScoped
+public class CoreAcceso {
+
+    static final String CIRCUITO = "access-core";
+
+    private final AccesoCoreClient client;
+    private final CircuitBreakerMaintenance circuitos;
+
+    @Inject
+    public CoreAcceso(@RestClient AccesoCoreClient client, CircuitBreakerMaintenance circuitos) {
+        this.client = Objects.requireNonNull(client, "client es obligatorio");
+        this.circuitos = Objects.requireNonNull(circuitos, "circuitos es obligatorio");
+    }
+
+    /**
+     * Reenvía un intento al core.
+     *
+     * @throws WebApplicationException si el core respondió 4xx
+     * @throws CoreNoDisponibleException si respondió 5xx
+     */
+    @Timeout(1000)
+    @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 5000,
+            successThreshold = 2, skipOn = WebApplicationException.class)
+    @CircuitBreakerName(CIRCUITO)
+    public IntentoResultado registrar(UUID orgId, IntentoRequest req) {
+        try {
+            return client.registrarIntento(orgId, req);
+        } catch (WebApplicationException e) {
+            int status = e.getResponse().getStatus();
+            if (status >= 500) {
+                throw new CoreNoDisponibleException(status, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return {@code false} mientras el circuito está abierto
+     */
+    public boolean disponible() {
+        return circuitos.currentState(CIRCUITO) != CircuitBreakerState.OPEN;
+    }
+}
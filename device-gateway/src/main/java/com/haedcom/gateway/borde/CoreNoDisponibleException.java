@@ -0,0 +1,24 @@
+package com.haedcom.gateway.borde;
+
+/**
+ * El core respondió con un error del servidor (5xx).
+ *
+ * <p>
+ * Se distingue de la {@code WebApplicationException} original para que cuente como fallo en el
+ * circuit breaker de {@link CoreAcceso}; los 4xx siguen saliendo como
+ * {@code WebApplicationException} y no abren el circuito.
+ * </p>
+ */
+public class CoreNoDisponibleException extends RuntimeException {
+
+    private final int status;
+
+    public CoreNoDisponibleException(int status, Throwable cause) {
+        super("access-core respondió " + status, cause);
+        this.status = status;
+    }
+
+    public int status() {
+        return status;
+    }
+}
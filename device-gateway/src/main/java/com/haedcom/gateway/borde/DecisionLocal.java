@@ -0,0 +1,18 @@
+package com.haedcom.gateway.borde;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Decisión tomada por {@link MotorDecisionBorde} (equivalente a {@code DecisionOutput} del core).
+ *
+ * @param resultado {@code PERMITIR}, {@code DENEGAR}, {@code PENDIENTE} o {@code ERROR}
+ * @param codigoMotivo motivo (mismos códigos que {@code RuleBasedDecisionEngineV2})
+ * @param comando comando para el dispositivo (null si no aplica)
+ * @param mensaje mensaje para el dispositivo (opcional)
+ * @param idRegla regla ganadora (null si decidió una regla base)
+ * @param decididoEnUtc instante de la decisión
+ */
+public record DecisionLocal(String resultado, String codigoMotivo, String comando, String mensaje,
+        UUID idRegla, OffsetDateTime decididoEnUtc) {
+}
@@ -0,0 +1,244 @@
+package com.haedcom.gateway.borde;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.gateway.core.IntentoRequest;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Diario append-only de las decisiones tomadas en el gateway sin el core.
+ *
+ * <p>
+ * Cada decisión es una línea NDJSON ({@link Entrada}) con el intento original y la
+ * {@code DecisionBorde}, es decir, el mismo body que acepta la reconciliación interna del core
+ * ({@code POST /internal/.../accesos/reconciliacion}). {@link ReconciliadorBorde} lo reenvía
+ * cuando el core vuelve.
+ * </p>
+ *
+ * <h2>Archivos</h2>
+ * <ul>
+ * <li>{@code diario-actual.ndjson}: donde se escribe.</li>
+ * <li>{@link #rotar()} lo cierra y lo renombra a {@code diario-<millis>.pendiente}; el
+ * reconciliador procesa los pendientes en orden y los borra al terminar. Si el gateway cae a mitad
+ * de una reconciliación, el pendiente se vuelve a enviar (el core deduplica por
+ * {@code claveIdempotencia}).</li>
+ * <li>Al arrancar, un {@code diario-actual.ndjson} con datos se rota a pendiente.</li>
+ * </ul>
+ *
+ * <h2>Durabilidad</h2>
+ * <p>
+ * {@link #registrar} escribe en el page cache (sin {@code fsync}) para no sumar milisegundos a la
+ * decisión; el {@code force} se hace cada {@code fsync-every}. Una caída del host (no del proceso)
+ * puede perder las decisiones de esa ventana.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.edge.dir} (default {@code edge-data})</li>
+ * <li>{@code haedcom.gateway.edge.journal.fsync-every} (default {@code 200ms})</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class DiarioBorde {
+
+    private static final Logger LOG = Logger.getLogger(DiarioBorde.class);
+
+    private static final String ACTUAL = "diario-actual.ndjson";
+    private static final String PENDIENTE = ".pendiente";
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private FileChannel canal;
+    private long escritas;
+    private boolean sucio;
+
+    @Inject
+    public DiarioBorde(ObjectMapper objectMapper,
+            @ConfigProperty(name = "haedcom.gateway.edge.dir",
+                    defaultValue = "edge-data") String dir) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        this.dir = Path.of(dir);
+    }
+
+    void onStart(@Observes StartupEvent ev) throws IOException {
+        Path actual = dir.resolve(ACTUAL);
+        if (Files.exists(actual) && Files.size(actual) > 0) {
+            Files.move(actual, siguientePendiente());
+        }
+        synchronized (this) {
+            abrir();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        cerrar();
+    }
+
+    /**
+     * Agrega una decisión al diario.
+     *
+     * @param orgId tenant
+     * @param intento intento con {@code decisionBorde} informada
+     */
+    public void registrar(UUID orgId, IntentoRequest intento) {
+        byte[] linea;
+        try {
+            linea = objectMapper.writeValueAsBytes(new Entrada(orgId, intento));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(linea.length + 1).put(linea).put((byte) '\n').flip();
+        synchronized (this) {
+            try {
+                if (canal == null) {
+                    abrir();
+                }
+                while (buf.hasRemaining()) {
+                    canal.write(buf);
+                }
+                escritas++;
+                sucio = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Scheduled(every = "{haedcom.gateway.edge.journal.fsync-every:200ms}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void forzar() {
+        FileChannel c;
+        synchronized (this) {
+            if (!sucio || canal == null) {
+                return;
+            }
+            c = canal;
+            sucio = false;
+        }
+        // fuera del lock: registrar() no espera al fsync
+        try {
+            c.force(false);
+        } catch (ClosedChannelException e) {
+            // rotado o cerrado mientras tanto: ya se hizo force al cerrar
+        } catch (IOException e) {
+            LOG.warnf("DiarioBorde - fsync_failed error=%s", e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el archivo actual y lo deja pendiente de reconciliar (si tiene entradas).
+     *
+     * @return {@code true} si se rotó
+     */
+    public synchronized boolean rotar() {
+        if (escritas == 0 || canal == null) {
+            return false;
+        }
+        try {
+            canal.force(false);
+            canal.close();
+            canal = null;
+            Path destino = siguientePendiente();
+            Files.move(dir.resolve(ACTUAL), destino);
+            LOG.infof("DiarioBorde - rotated entries=%d file=%s", escritas, destino.getFileName());
+            escritas = 0;
+            sucio = false;
+            abrir();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return archivos pendientes de reconciliar, del más antiguo al más nuevo
+     */
+    public List<Path> pendientes() {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "diario-*" + PENDIENTE)) {
+            ds.forEach(out::add);
+        } catch (IOException e) {
+            LOG.warnf("DiarioBorde - list_failed dir=%s error=%s", dir, e.getMessage());
+        }
+        out.sort(null);
+        return out;
+    }
+
+    /**
+     * Lee un archivo pendiente; las líneas ilegibles se descartan con un warning.
+     */
+    public List<Entrada> leer(Path pendiente) throws IOException {
+        List<Entrada> out = new ArrayList<>();
+        for (String linea : Files.readAllLines(pendiente)) {
+            if (linea.isBlank()) {
+                continue;
+            }
+            try {
+                out.add(objectMapper.readValue(linea, Entrada.class));
+            } catch (IOException e) {
+                LOG.warnf("DiarioBorde - invalid_entry file=%s error=%s", pendiente.getFileName(),
+                        e.getMessage());
+            }
+        }
+        return out;
+    }
+
+    public void eliminar(Path pendiente) throws IOException {
+        Files.deleteIfExists(pendiente);
+    }
+
+    private Path siguientePendiente() {
+        return dir.resolve("diario-" + System.currentTimeMillis() + "-"
+                + secuencia.incrementAndGet() + PENDIENTE);
+    }
+
+    private void abrir() throws IOException {
+        Files.createDirectories(dir);
+        canal = FileChannel.open(dir.resolve(ACTUAL), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private synchronized void cerrar() {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.force(false);
+            canal.close();
+        } catch (IOException e) {
+            LOG.warnf("DiarioBorde - close_failed error=%s", e.getMessage());
+        }
+        canal = null;
+    }
+
+    /**
+     * Línea del diario.
+     *
+     * @param orgId tenant del intento
+     * @param intento intento con la decisión tomada en el gateway
+     */
+    public record Entrada(UUID orgId, IntentoRequest intento) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.haedcom.gateway.borde;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.jboss.logging.Logger;
+import com.haedcom.gateway.core.DecisionBorde;
+import com.haedcom.gateway.core.IntentoRequest;
+import com.haedcom.gateway.core.IntentoResultado;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Endpoint de intentos para los dispositivos: misma ruta y contrato que {@code AccesoResource} del
+ * core, al que se reenvía cada intento por {@link CoreAcceso}.
+ *
+ * <h2>Modo borde</h2>
+ * <p>
+ * Si el core no responde (timeout, red, 5xx o circuito abierto), el intento se decide con la
+ * política sincronizada del tenant ({@link MotorDecisionBorde}), se anota en {@link DiarioBorde}
+ * para reconciliarlo después y se responde con el header {@code X-Haedcom-Decision: borde}. Sin
+ * política del tenant se responde {@code 503}: el gateway nunca inventa una decisión.
+ * </p>
+ *
+ * <p>
+ * Si el core llegó a decidir antes del timeout, al reconciliar gana la decisión del core (mismo
+ * {@code claveIdempotencia}); por eso la clave es obligatoria en modo borde.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_edge_decisions_total{result=permitir|denegar|pendiente|error|no_policy|unknown_device}}</li>
+ * <li>{@code gateway_edge_decision_seconds}: evaluación local + escritura en el diario.</li>
+ * <li>{@code gateway_edge_journal_failed_total}</li>
+ * </ul>
+ */
+@ApplicationScoped
+@Path("/organizaciones/{orgId}/accesos/intentos")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class IntentoBordeResource {
+
+    private static final Logger LOG = Logger.getLogger(IntentoBordeResource.class);
+
+    static final String HEADER_DECISION = "X-Haedcom-Decision";
+    static final String DECISION_BORDE = "borde";
+    private static final String RETRY_AFTER_SEGUNDOS = "5";
+
+    private final CoreAcceso core;
+    private final AlmacenPoliticas almacen;
+    private final SincronizadorPoliticas sincronizador;
+    private final DiarioBorde diario;
+    private final MotorDecisionBorde motor;
+
+    private final Counter permitir;
+    private final Counter denegar;
+    private final Counter pendiente;
+    private final Counter error;
+    private final Counter noPolicy;
+    private final Counter unknownDevice;
+    private final Counter journalFailed;
+    private final Timer decision;
+
+    @Inject
+    public IntentoBordeResource(CoreAcceso core, AlmacenPoliticas almacen,
+            SincronizadorPoliticas sincronizador, DiarioBorde diario, MeterRegistry registry) {
+        this.core = Objects.requireNonNull(core, "core es obligatorio");
+        this.almacen = Objects.requireNonNull(almacen, "almacen es obligatorio");
+        this.sincronizador = Objects.requireNonNull(sincronizador, "sincronizador es obligatorio");
+        this.diario = Objects.requireNonNull(diario, "diario es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.motor = new MotorDecisionBorde(Clock.systemUTC());
+
+        this.permitir = decisions(registry, "permitir");
+        this.denegar = decisions(registry, "denegar");
+        this.pendiente = decisions(registry, "pendiente");
+        this.error = decisions(registry, "error");
+        this.noPolicy = decisions(registry, "no_policy");
+        this.unknownDevice = decisions(registry, "unknown_device");
+        this.journalFailed = Counter.builder("gateway_edge_journal_failed_total")
+                .register(registry);
+        this.decision = Timer.builder("gateway_edge_decision_seconds")
+                .publishPercentiles(0.5, 0.99).publishPercentileHistogram(true)
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100)).register(registry);
+    }
+
+    @POST
+    public Response registrarIntento(@PathParam("orgId") UUID orgId, IntentoRequest req) {
+        if (req == null) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (almacen.conocer(orgId)) {
+            sincronizador.solicitar(orgId);
+        }
+        try {
+            return Response.ok(core.registrar(orgId, req)).build();
+        } catch (WebApplicationException e) {
+            // 4xx del core: se devuelve tal cual al dispositivo
+            Response r = e.getResponse();
+            return Response.status(r.getStatus()).entity(cuerpo(r))
+                    .type(MediaType.APPLICATION_JSON).build();
+        } catch (RuntimeException e) {
+            // timeout, circuito abierto, ProcessingException o CoreNoDisponibleException
+            LOG.debugf("IntentoBordeResource - core_unavailable orgId=%s error=%s", orgId,
+                    e.toString());
+            return decidirLocal(orgId, req);
+        }
+    }
+
+    private Response decidirLocal(UUID orgId, IntentoRequest req) {
+        if (req.claveIdempotencia() == null || req.claveIdempotencia().isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        PoliticaCompilada politica = almacen.buscar(orgId);
+        if (politica == null) {
+            noPolicy.increment();
+            LOG.warnf("IntentoBordeResource - no_policy orgId=%s", orgId);
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS).build();
+        }
+
+        long t0 = System.nanoTime();
+        DecisionLocal d = motor.evaluar(politica, req);
+        if (d == null) {
+            unknownDevice.increment();
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        try {
+            diario.registrar(orgId, req.conDecisionBorde(d.decididoEnUtc(),
+                    new DecisionBorde(d.resultado(), d.codigoMotivo(), d.idRegla(),
+                            politica.version(), d.decididoEnUtc())));
+        } catch (RuntimeException e) {
+            // la puerta no espera al disco: se responde igual y se deja rastro
+            journalFailed.increment();
+            LOG.errorf(e, "IntentoBordeResource - journal_failed orgId=%s clave=%s", orgId,
+                    req.claveIdempotencia());
+        }
+        decision.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        contador(d.resultado()).increment();
+        LOG.debugf("IntentoBordeResource - edge_decision orgId=%s clave=%s resultado=%s"
+                + " motivo=%s version=%s", orgId, req.claveIdempotencia(), d.resultado(),
+                d.codigoMotivo(), politica.version());
+
+        return Response.ok(new IntentoResultado(null, d.resultado(), null, null, d.comando(), null))
+                .header(HEADER_DECISION, DECISION_BORDE).build();
+    }
+
+    private Counter contador(String resultado) {
+        return switch (resultado) {
+            case MotorDecisionBorde.PERMITIR -> permitir;
+            case MotorDecisionBorde.DENEGAR -> denegar;
+            case MotorDecisionBorde.PENDIENTE -> pendiente;
+            default -> error;
+        };
+    }
+
+    private static Object cuerpo(Response r) {
+        try {
+            return r.hasEntity() ? r.readEntity(String.class) : null;
+        } catch (ProcessingException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static Counter decisions(MeterRegistry registry, String result) {
+        return Counter.builder("gateway_edge_decisions_total").tag("result", result)
+                .register(registry);
+    }
+}
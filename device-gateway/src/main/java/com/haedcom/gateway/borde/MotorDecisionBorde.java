@@ -0,0 +1,140 @@
+package com.haedcom.gateway.borde;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import com.haedcom.access.shared.ventana.VentanasLocalesDia;
+import com.haedcom.gateway.borde.PoliticaBorde.DispositivoBorde;
+import com.haedcom.gateway.core.IntentoRequest;
+
+/**
+ * Motor de decisión local del gateway: réplica de {@code RuleBasedDecisionEngineV2} sobre una
+ * {@link PoliticaCompilada}.
+ *
+ * <h2>Reglas base (mismo orden que el core)</h2>
+ * <ul>
+ * <li>Faltan área, dirección o método, o el dispositivo no tiene área -> ERROR
+ * (POLICY_ERROR)</li>
+ * <li>Dispositivo inactivo -> DENEGAR (DEVICE_INACTIVE)</li>
+ * <li>Sujeto no reconocido -> DENEGAR (SUBJECT_UNKNOWN)</li>
+ * <li>Sin reglas para {@code (área, tipoSujeto)} -> PERMITIR (ALLOW)</li>
+ * <li>Reglas sin coincidencia -> DENEGAR (NO_MATCHING_RULE)</li>
+ * <li>Primera regla que aplica -> según su acción (RULE_MATCH_*)</li>
+ * </ul>
+ *
+ * <p>
+ * El orden de las reglas (prioridad, especificidad, actualización) lo calcula el core al exportar;
+ * aquí solo se recorre. No hay E/S: el costo es un lookup de credencial (una huella SHA-256 por tipo
+ * de documento probado) y el recorrido de las reglas del área. Las ventanas horarias se evalúan con
+ * {@code VentanasLocalesDia}, la misma implementación que el core (cambios de horario y ventanas
+ * que cruzan medianoche incluidos).
+ * </p>
+ */
+public class MotorDecisionBorde {
+
+    public static final String PERMITIR = "PERMITIR";
+    public static final String DENEGAR = "DENEGAR";
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String ERROR = "ERROR";
+
+    static final String MOTIVO_DEVICE_INACTIVE = "DEVICE_INACTIVE";
+    static final String MOTIVO_SUBJECT_UNKNOWN = "SUBJECT_UNKNOWN";
+    static final String MOTIVO_POLICY_ERROR = "POLICY_ERROR";
+    static final String MOTIVO_ALLOW_DEFAULT = "ALLOW";
+    static final String MOTIVO_NO_MATCHING_RULE = "NO_MATCHING_RULE";
+    static final String MOTIVO_RULE_ALLOW = "RULE_MATCH_ALLOW";
+    static final String MOTIVO_RULE_DENY = "RULE_MATCH_DENY";
+    static final String MOTIVO_RULE_REQUIRE_AUTH = "RULE_MATCH_REQUIRE_AUTH";
+    static final String MOTIVO_RULE_WAIT_CONTROL = "RULE_MATCH_WAIT_CONTROL";
+
+    private static final String ABRIR_PUERTA = "ABRIR_PUERTA";
+    private static final String NEGAR_CON_SENAL = "NEGAR_CON_SEÑAL";
+    private static final String MOSTRAR_MENSAJE = "MOSTRAR_MENSAJE";
+
+    private final Clock clock;
+
+    public MotorDecisionBorde(Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "clock es obligatorio");
+    }
+
+    /**
+     * Evalúa un intento.
+     *
+     * @param politica política del tenant
+     * @param req intento recibido del dispositivo
+     * @return decisión, o {@code null} si el dispositivo no pertenece al tenant (el core respondería
+     *         404)
+     */
+    public DecisionLocal evaluar(PoliticaCompilada politica, IntentoRequest req) {
+        Objects.requireNonNull(politica, "politica es obligatoria");
+        Objects.requireNonNull(req, "req es obligatorio");
+
+        DispositivoBorde dispositivo = politica.dispositivo(req.idDispositivo());
+        if (dispositivo == null) {
+            return null;
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+
+        if (req.idArea() == null || req.direccionPaso() == null
+                || req.metodoAutenticacion() == null) {
+            return new DecisionLocal(ERROR, MOTIVO_POLICY_ERROR, null, "Error en el acceso", null,
+                    now);
+        }
+        if (dispositivo.idArea() == null) {
+            return new DecisionLocal(ERROR, MOTIVO_POLICY_ERROR, null, "Error en el acceso", null,
+                    now);
+        }
+
+        if (!dispositivo.estadoActivo()) {
+            return deny(now, MOTIVO_DEVICE_INACTIVE, "Acceso denegado", null);
+        }
+
+        String tipoSujeto = politica.tipoSujeto(req.referenciaCredencial());
+        if (tipoSujeto == null) {
+            return deny(now, MOTIVO_SUBJECT_UNKNOWN, "Acceso denegado", null);
+        }
+
+        PoliticaCompilada.Area area = politica.area(req.idArea());
+        PoliticaCompilada.Regla[] reglas =
+                (area != null) ? area.reglas(tipoSujeto) : new PoliticaCompilada.Regla[0];
+        if (reglas.length == 0) {
+            return new DecisionLocal(PERMITIR, MOTIVO_ALLOW_DEFAULT, ABRIR_PUERTA, null, null, now);
+        }
+
+        long nowMillis = now.toInstant().toEpochMilli();
+        VentanasLocalesDia ventanas = area.ventanas(tipoSujeto).para(area.zona(), nowMillis);
+        for (int i = 0; i < reglas.length; i++) {
+            PoliticaCompilada.Regla r = reglas[i];
+            if (r.aplica(dispositivo.idDispositivo(), req.direccionPaso(),
+                    req.metodoAutenticacion(), nowMillis)
+                    && (ventanas == null || ventanas.abierta(i, nowMillis))) {
+                return desdeRegla(now, r);
+            }
+        }
+        return deny(now, MOTIVO_NO_MATCHING_RULE, "Acceso denegado", null);
+    }
+
+    private static DecisionLocal desdeRegla(OffsetDateTime now, PoliticaCompilada.Regla r) {
+        String msg = r.mensaje;
+        return switch (r.accion) {
+            case "PERMITIR" -> new DecisionLocal(PERMITIR, MOTIVO_RULE_ALLOW, ABRIR_PUERTA, msg,
+                    r.idRegla, now);
+            case "DENEGAR" -> deny(now, MOTIVO_RULE_DENY, msg != null ? msg : "Acceso denegado",
+                    r.idRegla);
+            case "REQUIERE_AUTENTICACION" -> new DecisionLocal(PENDIENTE,
+                    MOTIVO_RULE_REQUIRE_AUTH, MOSTRAR_MENSAJE,
+                    msg != null ? msg : "Se requiere autenticación adicional", r.idRegla, now);
+            case "CONTROL_REQUIERE_ESPERA" -> new DecisionLocal(PENDIENTE,
+                    MOTIVO_RULE_WAIT_CONTROL, MOSTRAR_MENSAJE,
+                    msg != null ? msg : "Espere autorización", r.idRegla, now);
+            default -> new DecisionLocal(ERROR, MOTIVO_POLICY_ERROR, null, "Error en el acceso",
+                    r.idRegla, now);
+        };
+    }
+
+    private static DecisionLocal deny(OffsetDateTime now, String motivo, String msg,
+            UUID idRegla) {
+        return new DecisionLocal(DENEGAR, motivo, NEGAR_CON_SENAL, msg, idRegla, now);
+    }
+}
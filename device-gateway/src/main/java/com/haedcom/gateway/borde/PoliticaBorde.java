@@ -0,0 +1,45 @@
+package com.haedcom.gateway.borde;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Snapshot de política de un tenant tal como lo exporta {@code access-core} (copia del contrato de
+ * {@code com.haedcom.access.application.acceso.borde.PoliticaBorde}; los enums viajan como
+ * {@code String}).
+ *
+ * <p>
+ * Es el formato de transporte y de persistencia local; para decidir se compila a
+ * {@link PoliticaCompilada}.
+ * </p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PoliticaBorde(UUID orgId, String version, OffsetDateTime generadoEnUtc,
+        List<DispositivoBorde> dispositivos, List<AreaBorde> areas, List<String> tiposDocumento,
+        List<CredencialBorde> credenciales) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record DispositivoBorde(UUID idDispositivo, UUID idArea, String identificadorExterno,
+            boolean estadoActivo) {
+    }
+
+    /**
+     * @param reglas reglas por tipo de sujeto, ya en orden de evaluación
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record AreaBorde(UUID idArea, String zona, Map<String, List<ReglaBorde>> reglas) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ReglaBorde(UUID idRegla, String accion, String mensaje, UUID idDispositivo,
+            String direccionPaso, String metodoAutenticacion, Long validoDesdeMillis,
+            Long validoHastaMillis, Integer desdeSegundo, Integer hastaSegundo) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record CredencialBorde(String huella, String tipoSujeto) {
+    }
+}
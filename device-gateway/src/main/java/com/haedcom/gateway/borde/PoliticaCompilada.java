@@ -0,0 +1,306 @@
+package com.haedcom.gateway.borde;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import com.haedcom.gateway.borde.PoliticaBorde.AreaBorde;
+import com.haedcom.gateway.borde.PoliticaBorde.CredencialBorde;
+import com.haedcom.gateway.borde.PoliticaBorde.DispositivoBorde;
+import com.haedcom.access.shared.ventana.VentanasLocalesDia;
+import com.haedcom.access.shared.ventana.VentanasReglas;
+import com.haedcom.gateway.borde.PoliticaBorde.ReglaBorde;
+
+/**
+ * {@link PoliticaBorde} lista para evaluar: mapas por id y reglas en arreglos ya ordenados.
+ *
+ * <p>
+ * Inmutable; {@link AlmacenPoliticas} la reemplaza entera al sincronizar, así que un intento
+ * siempre se evalúa contra una única versión.
+ * </p>
+ *
+ * <h2>Credenciales</h2>
+ * <p>
+ * La referencia recibida se resuelve con el mismo formato que {@code CredencialSujetoIndex} del
+ * core ({@code "CC:123"} o solo {@code "123"}, sin distinguir mayúsculas; un número que existe con
+ * más de un tipo de documento es ambiguo y no se resuelve) y se busca por su
+ * {@link #huella(UUID, String, String)}.
+ * </p>
+ */
+public final class PoliticaCompilada {
+
+    private static final Regla[] SIN_REGLAS = new Regla[0];
+
+    private final UUID orgId;
+    private final String version;
+    private final Map<UUID, DispositivoBorde> dispositivos;
+    private final Map<UUID, Area> areas;
+    private final List<String> tiposDocumento;
+    private final Map<String, String> sujetoPorHuella;
+
+    private PoliticaCompilada(UUID orgId, String version, Map<UUID, DispositivoBorde> dispositivos,
+            Map<UUID, Area> areas, List<String> tiposDocumento,
+            Map<String, String> sujetoPorHuella) {
+        this.orgId = orgId;
+        this.version = version;
+        this.dispositivos = dispositivos;
+        this.areas = areas;
+        this.tiposDocumento = tiposDocumento;
+        this.sujetoPorHuella = sujetoPorHuella;
+    }
+
+    /**
+     * Compila el snapshot recibido del core.
+     *
+     * @param p snapshot (con {@code orgId} y {@code version})
+     * @return política compilada
+     */
+    public static PoliticaCompilada compilar(PoliticaBorde p) {
+        Objects.requireNonNull(p, "politica es obligatoria");
+        Objects.requireNonNull(p.orgId(), "orgId es obligatorio");
+
+        Map<UUID, DispositivoBorde> ds = new HashMap<>();
+        if (p.dispositivos() != null) {
+            for (DispositivoBorde d : p.dispositivos()) {
+                ds.put(d.idDispositivo(), d);
+            }
+        }
+
+        Map<UUID, Area> as = new HashMap<>();
+        if (p.areas() != null) {
+            for (AreaBorde a : p.areas()) {
+                as.put(a.idArea(), Area.compilar(a));
+            }
+        }
+
+        Map<String, String> creds = new HashMap<>();
+        if (p.credenciales() != null) {
+            for (CredencialBorde c : p.credenciales()) {
+                creds.put(c.huella(), c.tipoSujeto());
+            }
+        }
+
+        List<String> tipos = (p.tiposDocumento() != null) ? List.copyOf(p.tiposDocumento())
+                : List.of();
+        return new PoliticaCompilada(p.orgId(), p.version(), Map.copyOf(ds), Map.copyOf(as),
+                tipos, Map.copyOf(creds));
+    }
+
+    public UUID orgId() {
+        return orgId;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /**
+     * @return dispositivo del tenant o {@code null} si no está en el snapshot
+     */
+    public DispositivoBorde dispositivo(UUID idDispositivo) {
+        return (idDispositivo != null) ? dispositivos.get(idDispositivo) : null;
+    }
+
+    /**
+     * @return área o {@code null} si no está en el snapshot (sin reglas)
+     */
+    Area area(UUID idArea) {
+        return (idArea != null) ? areas.get(idArea) : null;
+    }
+
+    /**
+     * Tipo de sujeto de una referencia de credencial.
+     *
+     * @param referencia referencia del dispositivo (puede ser null)
+     * @return {@code RESIDENTE}/{@code VISITANTE}, o {@code null} si no se reconoce
+     */
+    public String tipoSujeto(String referencia) {
+        if (referencia == null) {
+            return null;
+        }
+        String ref = referencia.strip();
+        if (ref.isEmpty()) {
+            return null;
+        }
+
+        int colon = ref.indexOf(':');
+        if (colon > 0) {
+            String tipo = ref.substring(0, colon).stripTrailing();
+            String numero = ref.substring(colon + 1).stripLeading();
+            String conocido = tipoConocido(tipo);
+            if (conocido == null || numero.isEmpty()) {
+                return null;
+            }
+            return sujetoPorHuella.get(huella(orgId, conocido, numero));
+        }
+
+        String encontrado = null;
+        for (String tipo : tiposDocumento) {
+            String t = sujetoPorHuella.get(huella(orgId, tipo, ref));
+            if (t != null) {
+                if (encontrado != null) {
+                    return null; // ambiguo: mismo número con distintos tipos de documento
+                }
+                encontrado = t;
+            }
+        }
+        return encontrado;
+    }
+
+    private String tipoConocido(String tipo) {
+        for (String t : tiposDocumento) {
+            if (t.equalsIgnoreCase(tipo)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Huella de un documento, igual a {@code PoliticaBorde.huella} del core:
+     * {@code base64url(sha256(orgId "|" TIPO ":" NUMERO))} con el número en mayúsculas carácter a
+     * carácter.
+     */
+    static String huella(UUID orgId, String tipo, String numero) {
+        String n = numero.trim();
+        StringBuilder sb = new StringBuilder(48 + n.length());
+        sb.append(orgId).append('|').append(tipo).append(':');
+        for (int i = 0; i < n.length(); i++) {
+            sb.append(Character.toUpperCase(n.charAt(i)));
+        }
+        try {
+            byte[] h = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(h);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Área compilada: zona, reglas por tipo de sujeto y sus ventanas horarias
+     * ({@link VentanasReglas}, la misma evaluación que {@code CompiledReglaIndex} del core).
+     */
+    static final class Area {
+
+        private static final VentanasReglas SIN_VENTANAS =
+                new VentanasReglas(new int[0], new int[0]);
+
+        private final ZoneId zona;
+        private final Map<String, Regla[]> reglas;
+        private final Map<String, VentanasReglas> ventanas;
+
+        private Area(ZoneId zona, Map<String, Regla[]> reglas,
+                Map<String, VentanasReglas> ventanas) {
+            this.zona = zona;
+            this.reglas = reglas;
+            this.ventanas = ventanas;
+        }
+
+        static Area compilar(AreaBorde a) {
+            ZoneId zona;
+            try {
+                zona = (a.zona() != null) ? ZoneId.of(a.zona()) : null;
+            } catch (DateTimeException e) {
+                zona = null;
+            }
+            Map<String, Regla[]> rs = new HashMap<>();
+            Map<String, VentanasReglas> ventanas = new HashMap<>();
+            if (a.reglas() != null) {
+                a.reglas().forEach((tipo, lista) -> {
+                    // como CompiledReglaIndex.compile: las reglas sin acción se descartan
+                    List<ReglaBorde> conAccion =
+                            lista.stream().filter(r -> r.accion() != null).toList();
+                    Regla[] arr = new Regla[conAccion.size()];
+                    int[] desde = new int[arr.length];
+                    int[] hasta = new int[arr.length];
+                    for (int i = 0; i < arr.length; i++) {
+                        ReglaBorde r = conAccion.get(i);
+                        arr[i] = new Regla(r);
+                        desde[i] = segundo(r.desdeSegundo());
+                        hasta[i] = segundo(r.hastaSegundo());
+                    }
+                    rs.put(tipo, arr);
+                    ventanas.put(tipo, new VentanasReglas(desde, hasta));
+                });
+            }
+            return new Area(zona, Map.copyOf(rs), Map.copyOf(ventanas));
+        }
+
+        /**
+         * @return zona del área, o {@code null} si el core envió una zona inválida
+         */
+        ZoneId zona() {
+            return zona;
+        }
+
+        Regla[] reglas(String tipoSujeto) {
+            Regla[] r = reglas.get(tipoSujeto);
+            return (r != null) ? r : SIN_REGLAS;
+        }
+
+        /**
+         * @return ventanas de {@link #reglas(String)}, en las mismas posiciones
+         */
+        VentanasReglas ventanas(String tipoSujeto) {
+            VentanasReglas v = ventanas.get(tipoSujeto);
+            return (v != null) ? v : SIN_VENTANAS;
+        }
+
+        private static int segundo(Integer s) {
+            return (s != null) ? s : VentanasLocalesDia.SIN_LIMITE;
+        }
+    }
+
+    /**
+     * Regla compilada; {@code null} en un criterio = cualquiera (igual que
+     * {@code CompiledReglaIndex.Entry}).
+     */
+    static final class Regla {
+
+        final UUID idRegla;
+        final String accion;
+        final String mensaje;
+        final UUID idDispositivo;
+        final String direccionPaso;
+        final String metodoAutenticacion;
+        final long validoDesdeMillis;
+        final long validoHastaMillis;
+
+        Regla(ReglaBorde r) {
+            this.idRegla = r.idRegla();
+            this.accion = r.accion();
+            this.mensaje = r.mensaje();
+            this.idDispositivo = r.idDispositivo();
+            this.direccionPaso = r.direccionPaso();
+            this.metodoAutenticacion = r.metodoAutenticacion();
+            this.validoDesdeMillis =
+                    r.validoDesdeMillis() != null ? r.validoDesdeMillis() : Long.MIN_VALUE;
+            this.validoHastaMillis =
+                    r.validoHastaMillis() != null ? r.validoHastaMillis() : Long.MAX_VALUE;
+        }
+
+        /**
+         * Criterios salvo la ventana horaria, que se consulta en {@link Area#ventanas(String)}.
+         */
+        boolean aplica(UUID dispositivo, String direccion, String metodo, long nowMillis) {
+            if (idDispositivo != null && !idDispositivo.equals(dispositivo)) {
+                return false;
+            }
+            if (direccionPaso != null && !direccionPaso.equals(direccion)) {
+                return false;
+            }
+            if (metodoAutenticacion != null && !metodoAutenticacion.equals(metodo)) {
+                return false;
+            }
+            return nowMillis >= validoDesdeMillis && nowMillis <= validoHastaMillis;
+        }
+    }
+}
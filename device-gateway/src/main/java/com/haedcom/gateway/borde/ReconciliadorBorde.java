@@ -0,0 +1,176 @@
+package com.haedcom.gateway.borde;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+import com.haedcom.gateway.core.AccesoCoreClient;
+import com.haedcom.gateway.core.IntentoRequest;
+import com.haedcom.gateway.core.ResultadoIntentoLote;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reenvía al core las decisiones de {@link DiarioBorde} por
+ * {@code POST /internal/organizaciones/{orgId}/accesos/reconciliacion}.
+ *
+ * <p>
+ * El core registra cada intento con la decisión del gateway (sin emitir comando: la puerta ya se
+ * abrió o no) y cuenta las divergencias contra su propio motor. Un intento que el core ya tenía
+ * (misma {@code claveIdempotencia}) conserva la decisión original, así que reenviar un archivo
+ * completo tras un fallo es seguro.
+ * </p>
+ *
+ * <h2>Por resultado del lote</h2>
+ * <ul>
+ * <li>{@code 200}: reconciliado.</li>
+ * <li>{@code 4xx}: el core lo rechaza (dispositivo borrado, request inválido); se descarta con un
+ * warning.</li>
+ * <li>{@code 5xx}: se vuelve a anotar en el diario para la próxima pasada.</li>
+ * <li>Fallo del lote completo: se corta la pasada y el archivo queda pendiente.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.edge.reconcile-every} (default {@code 15s})</li>
+ * <li>{@code haedcom.gateway.edge.reconcile-batch} (default {@code 200})</li>
+ * <li>{@code haedcom.gateway.core-token}: secreto compartido con el core
+ * ({@code haedcom.access.gateway.token}); sin él el core rechaza la reconciliación con
+ * {@code 403}.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_edge_reconciled_total{result=ok|rejected|retry}}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ReconciliadorBorde {
+
+    private static final Logger LOG = Logger.getLogger(ReconciliadorBorde.class);
+
+    private final AccesoCoreClient client;
+    private final CoreAcceso core;
+    private final DiarioBorde diario;
+    private final int lote;
+    private final String token;
+
+    private final Counter ok;
+    private final Counter rejected;
+    private final Counter retry;
+
+    @Inject
+    public ReconciliadorBorde(@RestClient AccesoCoreClient client, CoreAcceso core,
+            DiarioBorde diario, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.gateway.edge.reconcile-batch",
+                    defaultValue = "200") int lote,
+            @ConfigProperty(name = "haedcom.gateway.core-token") Optional<String> token) {
+        this.client = Objects.requireNonNull(client, "client es obligatorio");
+        this.core = Objects.requireNonNull(core, "core es obligatorio");
+        this.diario = Objects.requireNonNull(diario, "diario es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.lote = Math.max(1, lote);
+        this.token = token.orElse(null);
+
+        this.ok = reconciled(registry, "ok");
+        this.rejected = reconciled(registry, "rejected");
+        this.retry = reconciled(registry, "retry");
+    }
+
+    @Scheduled(every = "{haedcom.gateway.edge.reconcile-every:15s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconciliar() {
+        if (!core.disponible()) {
+            return;
+        }
+        diario.rotar();
+        for (Path archivo : diario.pendientes()) {
+            if (!reconciliar(archivo)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} si el core falló y hay que esperar a la próxima pasada
+     */
+    boolean reconciliar(Path archivo) {
+        Map<UUID, List<IntentoRequest>> porOrg = new LinkedHashMap<>();
+        try {
+            for (DiarioBorde.Entrada e : diario.leer(archivo)) {
+                porOrg.computeIfAbsent(e.orgId(), k -> new ArrayList<>()).add(e.intento());
+            }
+        } catch (IOException e) {
+            LOG.warnf("ReconciliadorBorde - read_failed file=%s error=%s", archivo.getFileName(),
+                    e.getMessage());
+            return false;
+        }
+
+        Map<UUID, List<IntentoRequest>> reintentar = new LinkedHashMap<>();
+        for (Map.Entry<UUID, List<IntentoRequest>> org : porOrg.entrySet()) {
+            List<IntentoRequest> intentos = org.getValue();
+            for (int from = 0; from < intentos.size(); from += lote) {
+                List<IntentoRequest> chunk =
+                        intentos.subList(from, Math.min(intentos.size(), from + lote));
+                List<ResultadoIntentoLote> resultados;
+                try {
+                    resultados = client.reconciliar(org.getKey(), token, chunk);
+                } catch (RuntimeException e) {
+                    LOG.warnf("ReconciliadorBorde - batch_failed orgId=%s file=%s error=%s",
+                            org.getKey(), archivo.getFileName(), e.getMessage());
+                    return false;
+                }
+                clasificar(org.getKey(), chunk, resultados, reintentar);
+            }
+        }
+
+        // los 5xx pasan al diario actual antes de borrar el archivo: nada se pierde entre medio
+        reintentar.forEach((orgId, intentos) -> intentos.forEach(i -> diario.registrar(orgId, i)));
+        try {
+            diario.eliminar(archivo);
+        } catch (IOException e) {
+            LOG.warnf("ReconciliadorBorde - delete_failed file=%s error=%s",
+                    archivo.getFileName(), e.getMessage());
+            return false;
+        }
+        LOG.infof("ReconciliadorBorde - reconciled file=%s orgs=%d", archivo.getFileName(),
+                porOrg.size());
+        return true;
+    }
+
+    private void clasificar(UUID orgId, List<IntentoRequest> chunk,
+            List<ResultadoIntentoLote> resultados, Map<UUID, List<IntentoRequest>> reintentar) {
+        for (ResultadoIntentoLote r : resultados) {
+            if (r.indice() < 0 || r.indice() >= chunk.size()) {
+                continue;
+            }
+            if (r.status() < 400) {
+                ok.increment();
+            } else if (r.status() < 500) {
+                rejected.increment();
+                LOG.warnf("ReconciliadorBorde - rejected orgId=%s clave=%s status=%d codigo=%s",
+                        orgId, r.claveIdempotencia(), r.status(), r.codigo());
+            } else {
+                retry.increment();
+                reintentar.computeIfAbsent(orgId, k -> new ArrayList<>())
+                        .add(chunk.get(r.indice()));
+            }
+        }
+    }
+
+    private static Counter reconciled(MeterRegistry registry, String result) {
+        return Counter.builder("gateway_edge_reconciled_total").tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,160 @@
+package com.haedcom.gateway.borde;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+import com.haedcom.gateway.core.AccesoCoreClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Mantiene {@link AlmacenPoliticas} al día con {@code GET /internal/organizaciones/{orgId}/
+ * politica-borde} del core.
+ *
+ * <h2>Cuándo se sincroniza un tenant</h2>
+ * <ul>
+ * <li>Al arrancar: los tenants de {@code haedcom.gateway.edge.orgs} y los que tienen snapshot en
+ * disco.</li>
+ * <li>Al ver por primera vez un intento del tenant.</li>
+ * <li>Al recibir un cambio de política por el outbox ({@code CambiosPoliticaKafkaConsumer}). Se
+ * difiere hasta el siguiente {@code sync-pending-every} para agrupar ráfagas de cambios y dar
+ * tiempo a que los nodos del core apliquen la invalidación.</li>
+ * <li>Periódicamente ({@code sync-every}), como red de seguridad si se pierde un evento.</li>
+ * </ul>
+ *
+ * <p>
+ * Cada pedido envía la versión vigente como {@code If-None-Match}: si no cambió, el core responde
+ * {@code 304} sin cuerpo. Un fallo deja la política anterior en uso.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.edge.orgs} (opcional): tenants a sincronizar desde el arranque.</li>
+ * <li>{@code haedcom.gateway.edge.sync-every} (default {@code 60s})</li>
+ * <li>{@code haedcom.gateway.edge.sync-pending-every} (default {@code 2s})</li>
+ * <li>{@code haedcom.gateway.core-token}: secreto compartido con el core
+ * ({@code haedcom.access.gateway.token}); sin él el core responde {@code 403}.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_edge_policy_sync_total{result=updated|not_modified|failed}}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class SincronizadorPoliticas {
+
+    private static final Logger LOG = Logger.getLogger(SincronizadorPoliticas.class);
+
+    private final AccesoCoreClient client;
+    private final AlmacenPoliticas almacen;
+    private final List<UUID> orgsIniciales;
+    private final String token;
+
+    private final Set<UUID> pendientes = ConcurrentHashMap.newKeySet();
+
+    private final Counter updated;
+    private final Counter notModified;
+    private final Counter failed;
+
+    @Inject
+    public SincronizadorPoliticas(@RestClient AccesoCoreClient client, AlmacenPoliticas almacen,
+            MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.gateway.edge.orgs") Optional<List<UUID>> orgs,
+            @ConfigProperty(name = "haedcom.gateway.core-token") Optional<String> token) {
+        this.client = Objects.requireNonNull(client, "client es obligatorio");
+        this.almacen = Objects.requireNonNull(almacen, "almacen es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.orgsIniciales = orgs.orElse(List.of());
+        this.token = token.orElse(null);
+
+        this.updated = sync(registry, "updated");
+        this.notModified = sync(registry, "not_modified");
+        this.failed = sync(registry, "failed");
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        int cargadas = almacen.cargarPersistidas();
+        orgsIniciales.forEach(almacen::conocer);
+        pendientes.addAll(almacen.conocidos());
+        LOG.infof("SincronizadorPoliticas - start persisted=%d orgs=%d", cargadas,
+                pendientes.size());
+    }
+
+    /**
+     * Pide sincronizar un tenant en la próxima pasada de pendientes.
+     */
+    public void solicitar(UUID orgId) {
+        if (orgId != null) {
+            almacen.conocer(orgId);
+            pendientes.add(orgId);
+        }
+    }
+
+    /**
+     * Pide sincronizar todos los tenants conocidos.
+     */
+    public void solicitarTodos() {
+        pendientes.addAll(almacen.conocidos());
+    }
+
+    @Scheduled(every = "{haedcom.gateway.edge.sync-pending-every:2s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sincronizarPendientes() {
+        for (UUID orgId : List.copyOf(pendientes)) {
+            pendientes.remove(orgId);
+            sincronizar(orgId);
+        }
+    }
+
+    @Scheduled(every = "{haedcom.gateway.edge.sync-every:60s}",
+            delayed = "{haedcom.gateway.edge.sync-every:60s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sincronizarTodos() {
+        for (UUID orgId : almacen.conocidos()) {
+            sincronizar(orgId);
+        }
+    }
+
+    /**
+     * Sincroniza un tenant (un fallo solo se registra: sigue la política anterior).
+     */
+    void sincronizar(UUID orgId) {
+        PoliticaCompilada actual = almacen.buscar(orgId);
+        String etag = (actual != null && actual.version() != null)
+                ? "\"" + actual.version() + "\""
+                : null;
+        try (Response r = client.politica(orgId, token, etag)) {
+            if (r.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                notModified.increment();
+                return;
+            }
+            PoliticaBorde p = r.readEntity(PoliticaBorde.class);
+            almacen.actualizar(p);
+            updated.increment();
+            LOG.infof("SincronizadorPoliticas - updated orgId=%s version=%s devices=%d", orgId,
+                    p.version(), p.dispositivos() != null ? p.dispositivos().size() : 0);
+        } catch (RuntimeException e) {
+            failed.increment();
+            LOG.warnf("SincronizadorPoliticas - failed orgId=%s version=%s error=%s", orgId,
+                    actual != null ? actual.version() : null, e.getMessage());
+        }
+    }
+
+    private static Counter sync(MeterRegistry registry, String result) {
+        return Counter.builder("gateway_edge_policy_sync_total").tag("result", result)
+                .register(registry);
+    }
+}
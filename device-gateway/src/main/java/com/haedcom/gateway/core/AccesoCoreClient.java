@@ -0,0 +1,61 @@
+package com.haedcom.gateway.core;
+
+import java.util.List;
+import java.util.UUID;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Cliente de {@code AccesoResource}, {@code ReconciliacionBordeResource} y
+ * {@code PoliticaBordeResource} de {@code access-core}.
+ *
+ * <p>
+ * Bloqueante: lo usan el reenvío de intentos (hilo worker del request) y los jobs de
+ * sincronización y reconciliación. La URL base es {@code quarkus.rest-client.access-core.url}.
+ * </p>
+ */
+@RegisterRestClient(configKey = "access-core")
+@Path("/")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public interface AccesoCoreClient {
+
+    @POST
+    @Path("/organizaciones/{orgId}/accesos/intentos")
+    IntentoResultado registrarIntento(@PathParam("orgId") UUID orgId, IntentoRequest req);
+
+    @POST
+    @Path("/organizaciones/{orgId}/accesos/intentos/lote")
+    List<ResultadoIntentoLote> registrarLote(@PathParam("orgId") UUID orgId,
+            List<IntentoRequest> reqs);
+
+    /**
+     * Reconciliación de intentos decididos en el gateway ({@code ReconciliacionBordeResource}):
+     * cada intento lleva {@code decisionBorde}. {@code token} es
+     * {@code haedcom.gateway.core-token}.
+     */
+    @POST
+    @Path("/internal/organizaciones/{orgId}/accesos/reconciliacion")
+    List<ResultadoIntentoLote> reconciliar(@PathParam("orgId") UUID orgId,
+            @HeaderParam("X-Gateway-Token") String token, List<IntentoRequest> reqs);
+
+    /**
+     * Snapshot de política del tenant ({@code PoliticaBordeResource}): {@code 200} con cuerpo y
+     * {@code ETag}, o {@code 304} si {@code ifNoneMatch} es la versión vigente. {@code token} es
+     * {@code haedcom.gateway.core-token}.
+     */
+    @GET
+    @Path("/internal/organizaciones/{orgId}/politica-borde")
+    Response politica(@PathParam("orgId") UUID orgId,
+            @HeaderParam("X-Gateway-Token") String token,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
+}
@@ -0,0 +1,31 @@
+package com.haedcom.gateway.core;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Cliente de {@code ComandoCallbackResource} de {@code access-core}.
+ *
+ * <p>
+ * Asíncrono: el reporte no ocupa el hilo del WebSocket. La URL base es
+ * {@code quarkus.rest-client.access-core.url}.
+ * </p>
+ */
+@RegisterRestClient(configKey = "access-core")
+@Path("/organizaciones/{orgId}/comandos")
+public interface ComandoCallbackClient {
+
+    @POST
+    @Path("/{idComando}/resultado")
+    @Consumes(MediaType.APPLICATION_JSON)
+    CompletionStage<Void> registrarResultado(@PathParam("orgId") UUID orgId,
+            @PathParam("idComando") UUID idComando, @HeaderParam("X-Request-Id") String requestId,
+            ResultadoComandoRequest req);
+}
@@ -0,0 +1,11 @@
+package com.haedcom.gateway.core;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Decisión tomada por el gateway sin el core ({@code AccesoService.DecisionBorde}).
+ */
+public record DecisionBorde(String resultado, String codigoMotivo, UUID idRegla,
+        String versionPolitica, OffsetDateTime decididoEnUtc) {
+}
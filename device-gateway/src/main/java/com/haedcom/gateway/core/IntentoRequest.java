@@ -0,0 +1,32 @@
+package com.haedcom.gateway.core;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Body de {@code POST /organizaciones/{orgId}/accesos/intentos} en {@code access-core}
+ * ({@code AccesoService.RegistrarIntentoRequest}). El gateway lo recibe del dispositivo y lo
+ * reenvía sin cambios; {@code decisionBorde} solo se informa al reconciliar
+ * ({@code ReconciliarIntentoRequest}): el endpoint público lo rechaza, así que no se serializa en
+ * null.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntentoRequest(UUID idDispositivo, UUID idArea, String direccionPaso,
+        String metodoAutenticacion, String referenciaCredencial, JsonNode cargaCruda,
+        String claveIdempotencia, String idGatewaySolicitud, OffsetDateTime ocurridoEnUtc,
+        DecisionBorde decisionBorde) {
+
+    /**
+     * Copia para el diario: fija {@code ocurridoEnUtc} (el core lo tomaría como "ahora" al
+     * reconciliar) y la decisión tomada en el gateway.
+     */
+    public IntentoRequest conDecisionBorde(OffsetDateTime ocurrido, DecisionBorde decision) {
+        return new IntentoRequest(idDispositivo, idArea, direccionPaso, metodoAutenticacion,
+                referenciaCredencial, cargaCruda, claveIdempotencia, idGatewaySolicitud,
+                ocurridoEnUtc != null ? ocurridoEnUtc : ocurrido, decision);
+    }
+}
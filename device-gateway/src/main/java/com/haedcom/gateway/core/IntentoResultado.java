@@ -0,0 +1,14 @@
+package com.haedcom.gateway.core;
+
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Respuesta de {@code POST /organizaciones/{orgId}/accesos/intentos}
+ * ({@code AccesoService.RegistrarIntentoResult}). En una decisión local del gateway solo se
+ * informan {@code resultado} y {@code comandoEmitido}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record IntentoResultado(UUID idIntento, String resultado, UUID idDecision, UUID idComando,
+        String comandoEmitido, String estadoComando) {
+}
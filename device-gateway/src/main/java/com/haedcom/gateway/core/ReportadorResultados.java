@@ -0,0 +1,134 @@
+package com.haedcom.gateway.core;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * Reporta al core el estado de los comandos entregados por el gateway.
+ *
+ * <p>
+ * Cada reporte es un {@code POST} asíncrono a {@link ComandoCallbackClient}. El callback del core
+ * es idempotente por {@code (orgId, idComando, estado)}, así que los fallos transitorios (red, 5xx)
+ * se reintentan hasta {@code max-attempts} con backoff lineal; los 4xx no se reintentan (comando
+ * inexistente o request inválido).
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.report.max-attempts} (default {@code 3})</li>
+ * <li>{@code haedcom.gateway.report.backoff} (default {@code 200ms})</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_command_reports_total{result=ok|rejected|failed}}</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ReportadorResultados {
+
+    private static final Logger LOG = Logger.getLogger(ReportadorResultados.class);
+
+    /** Estado reportado cuando el gateway no pudo escribir el comando en el socket. */
+    public static final String ESTADO_ERROR = "EJECUTADO_ERROR";
+    public static final String ERROR_ENVIO = "GATEWAY_SEND_FAILED";
+
+    private final ComandoCallbackClient client;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final Counter ok;
+    private final Counter rejected;
+    private final Counter failed;
+
+    @Inject
+    public ReportadorResultados(@RestClient ComandoCallbackClient client, MeterRegistry registry,
+            @ConfigProperty(name = "haedcom.gateway.report.max-attempts",
+                    defaultValue = "3") int maxAttempts,
+            @ConfigProperty(name = "haedcom.gateway.report.backoff",
+                    defaultValue = "200ms") Duration backoff) {
+        this.client = Objects.requireNonNull(client, "client es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoff.toMillis());
+
+        this.ok = Counter.builder("gateway_command_reports_total").tag("result", "ok")
+                .register(registry);
+        this.rejected = Counter.builder("gateway_command_reports_total").tag("result", "rejected")
+                .register(registry);
+        this.failed = Counter.builder("gateway_command_reports_total").tag("result", "failed")
+                .register(registry);
+    }
+
+    /**
+     * Envía el reporte sin bloquear.
+     *
+     * @param orgId tenant del comando
+     * @param idComando comando reportado
+     * @param req estado y diagnóstico
+     * @return stage completado al terminar (nunca falla: los errores se registran)
+     */
+    public CompletionStage<Void> reportar(UUID orgId, UUID idComando,
+            ResultadoComandoRequest req) {
+        Objects.requireNonNull(orgId, "orgId es obligatorio");
+        Objects.requireNonNull(idComando, "idComando es obligatorio");
+        Objects.requireNonNull(req, "req es obligatorio");
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        intentar(orgId, idComando, req, 1, done);
+        return done;
+    }
+
+    private void intentar(UUID orgId, UUID idComando, ResultadoComandoRequest req, int attempt,
+            CompletableFuture<Void> done) {
+        CompletionStage<Void> call;
+        try {
+            call = client.registrarResultado(orgId, idComando, idComando.toString(), req);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((v, err) -> {
+            if (err == null) {
+                ok.increment();
+                LOG.debugf("ReportadorResultados - ok orgId=%s idComando=%s estado=%s", orgId,
+                        idComando, req.estado());
+                done.complete(null);
+                return;
+            }
+            Throwable cause = (err instanceof CompletionException && err.getCause() != null)
+                    ? err.getCause()
+                    : err;
+            int status = (cause instanceof WebApplicationException wae)
+                    ? wae.getResponse().getStatus()
+                    : 0;
+            if (status >= 400 && status < 500) {
+                rejected.increment();
+                LOG.warnf("ReportadorResultados - rejected orgId=%s idComando=%s estado=%s"
+                        + " status=%d", orgId, idComando, req.estado(), status);
+                done.complete(null);
+                return;
+            }
+            if (attempt >= maxAttempts) {
+                failed.increment();
+                LOG.errorf(cause, "ReportadorResultados - failed orgId=%s idComando=%s estado=%s"
+                        + " attempts=%d", orgId, idComando, req.estado(), attempt);
+                done.complete(null);
+                return;
+            }
+            CompletableFuture.delayedExecutor(backoffMillis * attempt, TimeUnit.MILLISECONDS)
+                    .execute(() -> intentar(orgId, idComando, req, attempt + 1, done));
+        });
+    }
+}
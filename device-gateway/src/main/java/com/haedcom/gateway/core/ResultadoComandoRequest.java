@@ -0,0 +1,11 @@
+package com.haedcom.gateway.core;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Body de {@code POST /organizaciones/{orgId}/comandos/{idComando}/resultado} en
+ * {@code access-core} ({@code ResultadoComandoRequest}).
+ */
+public record ResultadoComandoRequest(String estado, String codigoError, String detalleError,
+        OffsetDateTime ocurridoEnUtc, String idEjecucionExterna) {
+}
@@ -0,0 +1,12 @@
+package com.haedcom.gateway.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Resultado por intento de {@code POST /organizaciones/{orgId}/accesos/intentos/lote}
+ * ({@code IntentoBatchService.ResultadoIntentoLote}).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ResultadoIntentoLote(int indice, String claveIdempotencia, int status, String codigo,
+        String mensaje, IntentoResultado resultado) {
+}
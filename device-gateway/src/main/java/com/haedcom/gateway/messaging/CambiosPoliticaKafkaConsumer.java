@@ -0,0 +1,76 @@
+package com.haedcom.gateway.messaging;
+
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.gateway.borde.SincronizadorPoliticas;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Consumer de cambios de política: pide resincronizar la política de borde del tenant cuando el
+ * core publica un cambio que la afecta.
+ *
+ * <h2>Eventos</h2>
+ * <ul>
+ * <li>{@code ReglaAccesoPolicyChanged}, {@code DispositivoChanged}, {@code SujetoAccesoChanged}:
+ * resincroniza el tenant del envelope.</li>
+ * <li>{@code ReglaAccesoPolicyInvalidateAllRequested}: resincroniza el tenant del envelope (todos
+ * los tenants conocidos solo si el envelope no trae tenant).</li>
+ * </ul>
+ *
+ * <p>
+ * Solo se lee el envelope (no el payload): la sincronización trae el snapshot completo. Siempre se
+ * hace ACK; un evento perdido lo cubre la sincronización periódica.
+ * </p>
+ */
+@ApplicationScoped
+public class CambiosPoliticaKafkaConsumer {
+
+    private static final Logger LOG = Logger.getLogger(CambiosPoliticaKafkaConsumer.class);
+
+    private static final Set<String> EVT_TENANT =
+            Set.of("ReglaAccesoPolicyChanged", "DispositivoChanged", "SujetoAccesoChanged");
+    private static final String EVT_INVALIDATE_ALL = "ReglaAccesoPolicyInvalidateAllRequested";
+
+    private final SincronizadorPoliticas sincronizador;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public CambiosPoliticaKafkaConsumer(SincronizadorPoliticas sincronizador,
+            ObjectMapper objectMapper) {
+        this.sincronizador = Objects.requireNonNull(sincronizador, "sincronizador es obligatorio");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+    }
+
+    @Incoming("cambios-politica")
+    public Uni<Void> onMessage(Message<String> msg) {
+        try {
+            OutboxKafkaEnvelope env =
+                    objectMapper.readValue(msg.getPayload(), OutboxKafkaEnvelope.class);
+            String tipo = simpleTypeName(env.eventType());
+            if (EVT_INVALIDATE_ALL.equals(tipo) && env.orgId() == null) {
+                sincronizador.solicitarTodos();
+            } else if (EVT_INVALIDATE_ALL.equals(tipo)) {
+                sincronizador.solicitar(env.orgId());
+            } else if (EVT_TENANT.contains(tipo)) {
+                sincronizador.solicitar(env.orgId());
+            }
+        } catch (Exception e) {
+            LOG.warnf("edge_policy_event_failed error=%s", e.getMessage());
+        }
+        return Uni.createFrom().completionStage(msg.ack());
+    }
+
+    private static String simpleTypeName(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        int dot = eventType.lastIndexOf('.');
+        return dot >= 0 ? eventType.substring(dot + 1) : eventType;
+    }
+}
@@ -0,0 +1,16 @@
+package com.haedcom.gateway.messaging;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Evento {@code ComandoDispositivoEmitido} de {@code access-core}, con los campos que usa el
+ * gateway. {@code comando} y {@code estado} se reciben como texto: el gateway no interpreta el
+ * comando, solo lo entrega.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ComandoDispositivoEmitido(UUID orgId, UUID idComando, UUID idIntento,
+        UUID idDispositivo, String comando, String mensaje, String estado,
+        String claveIdempotencia, OffsetDateTime enviadoEnUtc, String identificadorExterno) {
+}
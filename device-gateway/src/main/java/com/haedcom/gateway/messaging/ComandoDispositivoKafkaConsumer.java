@@ -0,0 +1,187 @@
+package com.haedcom.gateway.messaging;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.gateway.core.ReportadorResultados;
+import com.haedcom.gateway.core.ResultadoComandoRequest;
+import com.haedcom.gateway.ws.ComandoPush;
+import com.haedcom.gateway.ws.ConexionDispositivo;
+import com.haedcom.gateway.ws.RegistroConexiones;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Consumer de comandos: entrega cada {@code ComandoDispositivoEmitido} del outbox del core a la
+ * conexión WebSocket del dispositivo.
+ *
+ * <h2>Enrutamiento</h2>
+ * <ul>
+ * <li>El comando se busca en {@link RegistroConexiones} por {@code identificadorExterno}. Cada
+ * instancia del gateway consume todos los comandos (group id propio) y entrega solo los de sus
+ * dispositivos conectados; los demás se ignoran. La conexión debe ser del mismo tenant que el
+ * comando (autenticado al conectar).</li>
+ * <li>Orden por dispositivo: el core publica con key {@code orgId}, así que los comandos de un
+ * dispositivo llegan en orden en una partición; {@link ConexionDispositivo} los envía de a uno en
+ * ese orden.</li>
+ * </ul>
+ *
+ * <h2>Política de ACK</h2>
+ * <p>
+ * El mensaje se confirma al encolarlo en la conexión (no se espera al socket): un dispositivo
+ * lento no frena la partición. Si el envío falla se reporta {@code EJECUTADO_ERROR} al core; si el
+ * dispositivo no está conectado, el comando queda a cargo del timeout del core. Eventos de otro
+ * tipo o inválidos: ACK y salir.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_commands_total{result=delivered|send_failed|not_connected|rejected|no_route}}</li>
+ * <li>{@code gateway_command_delivery_seconds}: desde el timestamp del record en Kafka hasta que
+ * el mensaje queda escrito en el socket.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ComandoDispositivoKafkaConsumer {
+
+    private static final Logger LOG = Logger.getLogger(ComandoDispositivoKafkaConsumer.class);
+
+    private static final String EVT_COMANDO_EMITIDO = "ComandoDispositivoEmitido";
+
+    private final RegistroConexiones registro;
+    private final ReportadorResultados reportador;
+    private final ObjectMapper objectMapper;
+
+    private final Counter delivered;
+    private final Counter sendFailed;
+    private final Counter notConnected;
+    private final Counter rejected;
+    private final Counter noRoute;
+    private final Timer delivery;
+
+    @Inject
+    public ComandoDispositivoKafkaConsumer(RegistroConexiones registro,
+            ReportadorResultados reportador, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.registro = Objects.requireNonNull(registro, "registro es obligatorio");
+        this.reportador = Objects.requireNonNull(reportador, "reportador es obligatorio");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        Objects.requireNonNull(registry, "registry es obligatorio");
+
+        this.delivered = commands(registry, "delivered");
+        this.sendFailed = commands(registry, "send_failed");
+        this.notConnected = commands(registry, "not_connected");
+        this.rejected = commands(registry, "rejected");
+        this.noRoute = commands(registry, "no_route");
+        this.delivery = Timer.builder("gateway_command_delivery_seconds")
+                .publishPercentiles(0.5, 0.99).publishPercentileHistogram(true)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10)).register(registry);
+    }
+
+    @Incoming("comandos-dispositivo")
+    public Uni<Void> onMessage(Message<String> msg) {
+        final IncomingKafkaRecordMetadata<?, ?> meta = (IncomingKafkaRecordMetadata<?, ?>) msg
+                .getMetadata(IncomingKafkaRecordMetadata.class).orElse(null);
+
+        try {
+            OutboxKafkaEnvelope env =
+                    objectMapper.readValue(msg.getPayload(), OutboxKafkaEnvelope.class);
+            if (!EVT_COMANDO_EMITIDO.equals(simpleTypeName(env.eventType()))) {
+                return ack(msg);
+            }
+            ComandoDispositivoEmitido ev =
+                    objectMapper.readValue(env.payload(), ComandoDispositivoEmitido.class);
+            entregar(ev, (meta != null) ? meta.getTimestamp() : null);
+
+        } catch (Exception e) {
+            LOG.warnf(e, "command_push_failed topic=%s partition=%s offset=%s",
+                    meta != null ? meta.getTopic() : null,
+                    meta != null ? meta.getPartition() : null,
+                    meta != null ? meta.getOffset() : null);
+        }
+        return ack(msg);
+    }
+
+    void entregar(ComandoDispositivoEmitido ev, Instant publicadoEn) throws Exception {
+        if (ev.identificadorExterno() == null || ev.idComando() == null) {
+            noRoute.increment();
+            LOG.debugf("command_push_no_route idComando=%s", ev.idComando());
+            return;
+        }
+        ConexionDispositivo conexion = registro.buscar(ev.identificadorExterno());
+        if (conexion == null) {
+            notConnected.increment();
+            LOG.debugf("command_push_not_connected device=%s idComando=%s",
+                    ev.identificadorExterno(), ev.idComando());
+            return;
+        }
+        if (!conexion.orgId().equals(ev.orgId())) {
+            // mismo identificador en otro tenant: no es este dispositivo
+            noRoute.increment();
+            LOG.warnf("command_push_tenant_mismatch device=%s idComando=%s",
+                    ev.identificadorExterno(), ev.idComando());
+            return;
+        }
+        conexion.emitido(ev.idComando());
+        String texto = objectMapper.writeValueAsString(ComandoPush.from(ev));
+        boolean encolado = conexion.enviar(texto, err -> {
+            if (err == null) {
+                delivered.increment();
+                if (publicadoEn != null) {
+                    delivery.record(
+                            Math.max(0, System.currentTimeMillis() - publicadoEn.toEpochMilli()),
+                            TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            sendFailed.increment();
+            LOG.warnf("command_push_send_failed device=%s idComando=%s error=%s",
+                    ev.identificadorExterno(), ev.idComando(), err.getMessage());
+            reportarFallo(ev, err);
+        });
+        if (!encolado) {
+            rejected.increment();
+            LOG.warnf("command_push_rejected device=%s idComando=%s pending=%d",
+                    ev.identificadorExterno(), ev.idComando(), conexion.pendientes());
+        }
+    }
+
+    private void reportarFallo(ComandoDispositivoEmitido ev, Throwable err) {
+        if (ev.orgId() == null) {
+            return;
+        }
+        String detalle = (err.getMessage() != null) ? err.getMessage() : err.getClass().getName();
+        if (detalle.length() > 250) {
+            detalle = detalle.substring(0, 250);
+        }
+        reportador.reportar(ev.orgId(), ev.idComando(),
+                new ResultadoComandoRequest(ReportadorResultados.ESTADO_ERROR,
+                        ReportadorResultados.ERROR_ENVIO, detalle, null, null));
+    }
+
+    private static Counter commands(MeterRegistry registry, String result) {
+        return Counter.builder("gateway_commands_total").tag("result", result).register(registry);
+    }
+
+    private static String simpleTypeName(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        int dot = eventType.lastIndexOf('.');
+        return dot >= 0 ? eventType.substring(dot + 1) : eventType;
+    }
+
+    private static Uni<Void> ack(Message<?> msg) {
+        return Uni.createFrom().completionStage(msg.ack());
+    }
+}
@@ -0,0 +1,18 @@
+package com.haedcom.gateway.messaging;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Envelope que {@code access-core} publica en Kafka desde el outbox (copia del contrato de
+ * {@code com.haedcom.access.infrastructure.messaging.OutboxKafkaEnvelope}).
+ *
+ * <p>
+ * {@code payload} es el JSON del evento de dominio; {@code eventType} su nombre simple.
+ * </p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OutboxKafkaEnvelope(UUID idEvento, UUID orgId, String eventType, String aggregateType,
+        String aggregateId, OffsetDateTime createdAtUtc, int attempts, String payload) {
+}
@@ -0,0 +1,123 @@
+package com.haedcom.gateway.ws;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Autenticación de la conexión WebSocket de un dispositivo con un token firmado por dispositivo.
+ *
+ * <p>
+ * Formato: {@code v1.<orgId>.<expiraEpochSegundos>.<firma>}, donde {@code firma} es
+ * {@code base64url(HMAC-SHA256(secreto, "v1|" identificadorExterno "|" orgId "|" expira))}. El
+ * token fija el dispositivo y su tenant: la conexión no aprende el tenant de los mensajes. Lo
+ * emite el aprovisionamiento del dispositivo con {@link #firmar}.
+ * </p>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.ws.device-secret}: secreto HMAC. Sin él se rechazan todas las
+ * conexiones.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class AutenticadorDispositivos {
+
+    private static final Logger LOG = Logger.getLogger(AutenticadorDispositivos.class);
+
+    private static final String VERSION = "v1";
+    private static final String HMAC = "HmacSHA256";
+
+    private final SecretKeySpec clave;
+    private final Clock clock;
+
+    @Inject
+    public AutenticadorDispositivos(
+            @ConfigProperty(name = "haedcom.gateway.ws.device-secret") Optional<String> secreto) {
+        this(secreto.filter(s -> !s.isBlank()).map(s -> s.getBytes(StandardCharsets.UTF_8))
+                .orElse(null), Clock.systemUTC());
+        if (clave == null) {
+            LOG.warn("AutenticadorDispositivos - device_secret_missing: se rechazan todas las"
+                    + " conexiones de dispositivos");
+        }
+    }
+
+    AutenticadorDispositivos(byte[] secreto, Clock clock) {
+        this.clave = (secreto != null) ? new SecretKeySpec(secreto, HMAC) : null;
+        this.clock = Objects.requireNonNull(clock, "clock es obligatorio");
+    }
+
+    /**
+     * Verifica el token de un dispositivo.
+     *
+     * @param identificadorExterno dispositivo de la URL de conexión
+     * @param token token presentado (puede ser null)
+     * @return tenant del dispositivo, o {@code null} si el token no es válido, expiró o no
+     *         corresponde al dispositivo
+     */
+    public UUID autenticar(String identificadorExterno, String token) {
+        if (clave == null || identificadorExterno == null || token == null) {
+            return null;
+        }
+        String[] partes = token.split("\\.", -1);
+        if (partes.length != 4 || !VERSION.equals(partes[0])) {
+            return null;
+        }
+        UUID orgId;
+        long expira;
+        try {
+            orgId = UUID.fromString(partes[1]);
+            expira = Long.parseLong(partes[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        byte[] esperada = firma(clave, identificadorExterno, orgId, expira);
+        byte[] recibida = partes[3].getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(esperada, recibida)) {
+            return null;
+        }
+        return clock.instant().getEpochSecond() < expira ? orgId : null;
+    }
+
+    /**
+     * Emite el token de un dispositivo (aprovisionamiento y tests).
+     *
+     * @param secreto secreto HMAC ({@code haedcom.gateway.ws.device-secret})
+     * @param identificadorExterno dispositivo
+     * @param orgId tenant del dispositivo
+     * @param expira vencimiento del token
+     * @return token a presentar al conectar
+     */
+    public static String firmar(byte[] secreto, String identificadorExterno, UUID orgId,
+            Instant expira) {
+        long exp = expira.getEpochSecond();
+        byte[] f = firma(new SecretKeySpec(secreto, HMAC), identificadorExterno, orgId, exp);
+        return VERSION + '.' + orgId + '.' + exp + '.' + new String(f, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] firma(SecretKeySpec clave, String identificadorExterno, UUID orgId,
+            long expira) {
+        String datos = VERSION + '|' + identificadorExterno + '|' + orgId + '|' + expira;
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(clave);
+            byte[] h = mac.doFinal(datos.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encode(h);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.haedcom.gateway.ws;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.haedcom.gateway.messaging.ComandoDispositivoEmitido;
+
+/**
+ * Mensaje que el gateway envía al dispositivo por WebSocket.
+ *
+ * <p>
+ * El dispositivo debe responder con un {@link ReporteComando} del mismo {@code idComando}
+ * ({@code RECIBIDO} al recibirlo y el estado final al ejecutarlo). {@code claveIdempotencia}
+ * permite al dispositivo descartar un comando repetido.
+ * </p>
+ */
+public record ComandoPush(String tipo, UUID orgId, UUID idComando, String comando, String mensaje,
+        String claveIdempotencia, OffsetDateTime enviadoEnUtc) {
+
+    public static final String TIPO = "COMANDO";
+
+    public static ComandoPush from(ComandoDispositivoEmitido ev) {
+        return new ComandoPush(TIPO, ev.orgId(), ev.idComando(), ev.comando(), ev.mensaje(),
+                ev.claveIdempotencia(), ev.enviadoEnUtc());
+    }
+}
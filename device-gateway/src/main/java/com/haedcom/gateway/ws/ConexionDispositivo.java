@@ -0,0 +1,209 @@
+package com.haedcom.gateway.ws;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Conexión WebSocket de un dispositivo, con envío en orden.
+ *
+ * <p>
+ * Los comandos de un dispositivo se envían de a uno: el siguiente sale cuando el transporte
+ * confirma el anterior. Así se preserva el orden por dispositivo sin bloquear al consumer de Kafka
+ * ni a los demás dispositivos (cada conexión tiene su propia cola).
+ * </p>
+ *
+ * <ul>
+ * <li>Cola sin locks ({@link ConcurrentLinkedQueue}) + un flag de envío en vuelo.</li>
+ * <li>A lo sumo {@code maxPendientes} comandos encolados; por encima, {@link #enviar} rechaza (el
+ * core marca el comando por timeout).</li>
+ * <li>Al cerrar, los envíos pendientes se completan con error.</li>
+ * <li>Recuerda los últimos {@value #MAX_EMITIDOS} comandos enviados sin estado final: el
+ * dispositivo solo puede reportar esos ({@link #reconocer}).</li>
+ * </ul>
+ */
+public final class ConexionDispositivo {
+
+    /** Envío asíncrono de texto sobre la conexión (en producción, la sesión WebSocket). */
+    public interface Transporte {
+
+        /**
+         * Envía {@code texto}; {@code alTerminar} recibe {@code null} si se entregó al socket o
+         * la causa del fallo.
+         */
+        void enviar(String texto, Consumer<Throwable> alTerminar);
+
+        void cerrar(String motivo);
+    }
+
+    static final int MAX_EMITIDOS = 1024;
+
+    private final String identificadorExterno;
+    private final UUID orgId;
+    private final Transporte transporte;
+    private final int maxPendientes;
+
+    private final ConcurrentLinkedQueue<Envio> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final AtomicBoolean enVuelo = new AtomicBoolean();
+    private volatile boolean cerrada;
+
+    /** Comandos enviados sin estado final, en orden de emisión (acotado a MAX_EMITIDOS). */
+    private final Map<UUID, Boolean> emitidos = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > MAX_EMITIDOS;
+        }
+    };
+
+    /**
+     * @param identificadorExterno dispositivo
+     * @param orgId tenant autenticado en el handshake ({@link AutenticadorDispositivos})
+     * @param transporte envío sobre la sesión
+     * @param maxPendientes comandos encolados como máximo
+     */
+    public ConexionDispositivo(String identificadorExterno, UUID orgId, Transporte transporte,
+            int maxPendientes) {
+        this.identificadorExterno =
+                Objects.requireNonNull(identificadorExterno, "identificadorExterno es obligatorio");
+        this.orgId = Objects.requireNonNull(orgId, "orgId es obligatorio");
+        this.transporte = Objects.requireNonNull(transporte, "transporte es obligatorio");
+        this.maxPendientes = Math.max(1, maxPendientes);
+    }
+
+    /**
+     * Registra un comando enviado al dispositivo; desde ese momento puede reportarlo.
+     */
+    public void emitido(UUID idComando) {
+        synchronized (emitidos) {
+            emitidos.put(Objects.requireNonNull(idComando, "idComando es obligatorio"),
+                    Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Valida que un reporte del dispositivo corresponda a un comando que se le envió.
+     *
+     * @param idComando comando reportado
+     * @param estadoFinal {@code true} si el reporte cierra el comando (se deja de aceptar)
+     * @return {@code false} si el comando no se emitió por esta conexión o ya se cerró
+     */
+    public boolean reconocer(UUID idComando, boolean estadoFinal) {
+        synchronized (emitidos) {
+            return estadoFinal ? emitidos.remove(idComando) != null
+                    : emitidos.containsKey(idComando);
+        }
+    }
+
+    /**
+     * Encola un mensaje para el dispositivo.
+     *
+     * @param texto mensaje serializado
+     * @param alEntregar callback con {@code null} (entregado) o la causa del fallo; se invoca en
+     *        el hilo que completa el envío
+     * @return {@code false} si la conexión está cerrada o la cola llena (no se invoca el callback)
+     */
+    public boolean enviar(String texto, Consumer<Throwable> alEntregar) {
+        Objects.requireNonNull(texto, "texto es obligatorio");
+        Objects.requireNonNull(alEntregar, "alEntregar es obligatorio");
+        if (cerrada) {
+            return false;
+        }
+        if (pendientes.incrementAndGet() > maxPendientes) {
+            pendientes.decrementAndGet();
+            return false;
+        }
+        cola.add(new Envio(texto, alEntregar));
+        drenar();
+        return true;
+    }
+
+    /**
+     * Cierra la conexión; los envíos encolados fallan con {@link IllegalStateException}.
+     *
+     * @param motivo motivo del cierre (reemplazo, shutdown, ...)
+     */
+    public void cerrar(String motivo) {
+        if (cerrada) {
+            return;
+        }
+        cerrada = true;
+        try {
+            transporte.cerrar(motivo);
+        } finally {
+            fallarPendientes();
+        }
+    }
+
+    /** Marca la conexión como cerrada por el otro extremo (sin cerrar el transporte). */
+    void cerrada() {
+        cerrada = true;
+        fallarPendientes();
+    }
+
+    private void drenar() {
+        while (!cola.isEmpty() && enVuelo.compareAndSet(false, true)) {
+            Envio e = cola.poll();
+            if (e == null) {
+                enVuelo.set(false);
+                continue;
+            }
+            if (cerrada) {
+                completar(e, new IllegalStateException("Conexión cerrada"));
+                enVuelo.set(false);
+                continue;
+            }
+            try {
+                transporte.enviar(e.texto(), err -> {
+                    completar(e, err);
+                    enVuelo.set(false);
+                    drenar();
+                });
+            } catch (RuntimeException ex) {
+                completar(e, ex);
+                enVuelo.set(false);
+                continue;
+            }
+            return;
+        }
+    }
+
+    private void fallarPendientes() {
+        Envio e;
+        while ((e = cola.poll()) != null) {
+            completar(e, new IllegalStateException("Conexión cerrada"));
+        }
+    }
+
+    private void completar(Envio e, Throwable err) {
+        pendientes.decrementAndGet();
+        e.alEntregar().accept(err);
+    }
+
+    public String identificadorExterno() {
+        return identificadorExterno;
+    }
+
+    public UUID orgId() {
+        return orgId;
+    }
+
+    public boolean abierta() {
+        return !cerrada;
+    }
+
+    /**
+     * @return envíos encolados o en vuelo
+     */
+    public int pendientes() {
+        return pendientes.get();
+    }
+
+    private record Envio(String texto, Consumer<Throwable> alEntregar) {
+    }
+}
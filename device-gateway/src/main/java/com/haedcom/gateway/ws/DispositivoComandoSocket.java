@@ -0,0 +1,207 @@
+package com.haedcom.gateway.ws;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haedcom.gateway.core.ReportadorResultados;
+import com.haedcom.gateway.core.ResultadoComandoRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.PathParam;
+import jakarta.websocket.server.ServerEndpoint;
+
+/**
+ * Endpoint WebSocket de los dispositivos:
+ * {@code /ws/dispositivos/{identificadorExterno}?token=<token>}.
+ *
+ * <ul>
+ * <li>Al conectar, el token se verifica con {@link AutenticadorDispositivos} antes de registrar
+ * nada: sin token válido para ese {@code identificadorExterno} la sesión se cierra con
+ * {@code VIOLATED_POLICY} y no reemplaza a la conexión vigente del dispositivo.</li>
+ * <li>Autenticada, la sesión se registra en {@link RegistroConexiones} (reemplaza a una conexión
+ * anterior del mismo dispositivo) con el tenant del token.</li>
+ * <li>El gateway envía {@link ComandoPush}; el dispositivo responde {@link ReporteComando}, que se
+ * reenvía al core con {@link ReportadorResultados} en el tenant de la conexión. Se descartan los
+ * reportes de comandos que no se enviaron por esta conexión.</li>
+ * </ul>
+ *
+ * <h2>Configuración</h2>
+ * <ul>
+ * <li>{@code haedcom.gateway.ws.max-pending} (default {@code 64}): comandos encolados por
+ * dispositivo.</li>
+ * <li>{@code haedcom.gateway.ws.device-secret}: ver {@link AutenticadorDispositivos}.</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_ws_rejected_total{reason}}: {@code unauthenticated},
+ * {@code unknown_command}, {@code tenant_mismatch}.</li>
+ * </ul>
+ */
+@ApplicationScoped
+@ServerEndpoint("/ws/dispositivos/{identificadorExterno}")
+public class DispositivoComandoSocket {
+
+    private static final Logger LOG = Logger.getLogger(DispositivoComandoSocket.class);
+
+    private static final String CONEXION = ConexionDispositivo.class.getName();
+    private static final String PARAM_TOKEN = "token";
+    private static final String ESTADO_RECIBIDO = "RECIBIDO";
+
+    private final RegistroConexiones registro;
+    private final ReportadorResultados reportador;
+    private final AutenticadorDispositivos autenticador;
+    private final ObjectMapper objectMapper;
+    private final int maxPendientes;
+
+    private final Counter unauthenticated;
+    private final Counter unknownCommand;
+    private final Counter tenantMismatch;
+
+    @Inject
+    public DispositivoComandoSocket(RegistroConexiones registro, ReportadorResultados reportador,
+            AutenticadorDispositivos autenticador, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "haedcom.gateway.ws.max-pending",
+                    defaultValue = "64") int maxPendientes) {
+        this.registro = Objects.requireNonNull(registro, "registro es obligatorio");
+        this.reportador = Objects.requireNonNull(reportador, "reportador es obligatorio");
+        this.autenticador = Objects.requireNonNull(autenticador, "autenticador es obligatorio");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper es obligatorio");
+        Objects.requireNonNull(meterRegistry, "meterRegistry es obligatorio");
+        this.maxPendientes = maxPendientes;
+
+        this.unauthenticated = rejected(meterRegistry, "unauthenticated");
+        this.unknownCommand = rejected(meterRegistry, "unknown_command");
+        this.tenantMismatch = rejected(meterRegistry, "tenant_mismatch");
+    }
+
+    @OnOpen
+    public void onOpen(Session session,
+            @PathParam("identificadorExterno") String identificadorExterno) {
+        List<String> tokens = session.getRequestParameterMap().get(PARAM_TOKEN);
+        UUID orgId = autenticador.autenticar(identificadorExterno,
+                (tokens != null && tokens.size() == 1) ? tokens.get(0) : null);
+        if (orgId == null) {
+            unauthenticated.increment();
+            LOG.warnf("DispositivoComandoSocket - unauthenticated device=%s session=%s",
+                    identificadorExterno, session.getId());
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY,
+                        "token inválido"));
+            } catch (IOException e) {
+                LOG.debugf("DispositivoComandoSocket - close_failed session=%s error=%s",
+                        session.getId(), e.getMessage());
+            }
+            return;
+        }
+        ConexionDispositivo conexion = new ConexionDispositivo(identificadorExterno, orgId,
+                new SesionTransporte(session), maxPendientes);
+        session.getUserProperties().put(CONEXION, conexion);
+        registro.registrar(conexion);
+        LOG.infof("DispositivoComandoSocket - open device=%s orgId=%s session=%s",
+                identificadorExterno, orgId, session.getId());
+    }
+
+    @OnClose
+    public void onClose(Session session, CloseReason reason) {
+        ConexionDispositivo conexion = conexion(session);
+        if (conexion != null) {
+            conexion.cerrada();
+            registro.remover(conexion);
+            LOG.infof("DispositivoComandoSocket - close device=%s reason=%s",
+                    conexion.identificadorExterno(), reason);
+        }
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        ConexionDispositivo conexion = conexion(session);
+        LOG.warnf(error, "DispositivoComandoSocket - error device=%s",
+                conexion != null ? conexion.identificadorExterno() : null);
+    }
+
+    @OnMessage
+    public void onMessage(Session session, String texto) {
+        ConexionDispositivo conexion = conexion(session);
+        if (conexion == null) {
+            return;
+        }
+        ReporteComando rep;
+        try {
+            rep = objectMapper.readValue(texto, ReporteComando.class);
+        } catch (IOException e) {
+            LOG.warnf("DispositivoComandoSocket - invalid_report device=%s error=%s",
+                    conexion.identificadorExterno(), e.getMessage());
+            return;
+        }
+        if (rep.idComando() == null || rep.estado() == null) {
+            LOG.warnf("DispositivoComandoSocket - incomplete_report device=%s idComando=%s",
+                    conexion.identificadorExterno(), rep.idComando());
+            return;
+        }
+        if (rep.orgId() != null && !rep.orgId().equals(conexion.orgId())) {
+            tenantMismatch.increment();
+            LOG.warnf("DispositivoComandoSocket - tenant_mismatch device=%s idComando=%s",
+                    conexion.identificadorExterno(), rep.idComando());
+            return;
+        }
+        if (!conexion.reconocer(rep.idComando(), !ESTADO_RECIBIDO.equals(rep.estado()))) {
+            unknownCommand.increment();
+            LOG.warnf("DispositivoComandoSocket - unknown_command device=%s idComando=%s",
+                    conexion.identificadorExterno(), rep.idComando());
+            return;
+        }
+        reportador.reportar(conexion.orgId(), rep.idComando(),
+                new ResultadoComandoRequest(rep.estado(), rep.codigoError(), rep.detalleError(),
+                        rep.ocurridoEnUtc(), rep.idEjecucionExterna()));
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("gateway_ws_rejected_total").tag("reason", reason)
+                .register(registry);
+    }
+
+    private static ConexionDispositivo conexion(Session session) {
+        return (ConexionDispositivo) session.getUserProperties().get(CONEXION);
+    }
+
+    /** {@link ConexionDispositivo.Transporte} sobre el envío asíncrono de la sesión. */
+    private static final class SesionTransporte implements ConexionDispositivo.Transporte {
+
+        private final Session session;
+
+        SesionTransporte(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void enviar(String texto, Consumer<Throwable> alTerminar) {
+            session.getAsyncRemote().sendText(texto,
+                    r -> alTerminar.accept(r.isOK() ? null : r.getException()));
+        }
+
+        @Override
+        public void cerrar(String motivo) {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, motivo));
+            } catch (IOException e) {
+                LOG.debugf("DispositivoComandoSocket - close_failed session=%s error=%s",
+                        session.getId(), e.getMessage());
+            }
+        }
+    }
+}
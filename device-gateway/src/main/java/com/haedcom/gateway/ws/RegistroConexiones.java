@@ -0,0 +1,85 @@
+package com.haedcom.gateway.ws;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jboss.logging.Logger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Registro de conexiones WebSocket activas de este gateway, por {@code identificadorExterno} del
+ * dispositivo.
+ *
+ * <p>
+ * {@link ConcurrentHashMap} sin locks en lectura: el consumer de comandos busca la conexión por
+ * cada mensaje. Un dispositivo tiene a lo sumo una conexión; si se reconecta, la nueva reemplaza a
+ * la anterior y la anterior se cierra. {@link #remover} solo quita la conexión indicada, para que
+ * el cierre tardío de una conexión reemplazada no borre a la vigente.
+ * </p>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ * <li>{@code gateway_ws_connections} (gauge)</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class RegistroConexiones {
+
+    private static final Logger LOG = Logger.getLogger(RegistroConexiones.class);
+
+    private final Map<String, ConexionDispositivo> conexiones = new ConcurrentHashMap<>();
+
+    @Inject
+    public RegistroConexiones(MeterRegistry registry) {
+        Objects.requireNonNull(registry, "registry es obligatorio");
+        registry.gaugeMapSize("gateway_ws_connections", Tags.empty(), conexiones);
+    }
+
+    /**
+     * Registra la conexión; si el dispositivo ya tenía otra, la cierra.
+     *
+     * <p>
+     * Solo recibe conexiones autenticadas ({@link DispositivoComandoSocket} cierra las demás antes
+     * de llegar aquí), así que una sesión sin token válido no desplaza a la vigente.
+     * </p>
+     */
+    public void registrar(ConexionDispositivo conexion) {
+        Objects.requireNonNull(conexion, "conexion es obligatoria");
+        ConexionDispositivo anterior = conexiones.put(conexion.identificadorExterno(), conexion);
+        if (anterior != null && anterior != conexion) {
+            LOG.infof("RegistroConexiones - replaced device=%s pending=%d",
+                    conexion.identificadorExterno(), anterior.pendientes());
+            anterior.cerrar("reemplazada por una nueva conexión");
+        }
+    }
+
+    /**
+     * Quita la conexión si sigue siendo la vigente del dispositivo.
+     */
+    public void remover(ConexionDispositivo conexion) {
+        if (conexion != null) {
+            conexiones.remove(conexion.identificadorExterno(), conexion);
+        }
+    }
+
+    /**
+     * @return conexión vigente del dispositivo, o {@code null} si no está conectado a este gateway
+     */
+    public ConexionDispositivo buscar(String identificadorExterno) {
+        return (identificadorExterno == null) ? null : conexiones.get(identificadorExterno);
+    }
+
+    public int size() {
+        return conexiones.size();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        conexiones.values().forEach(c -> c.cerrar("gateway detenido"));
+        conexiones.clear();
+    }
+}
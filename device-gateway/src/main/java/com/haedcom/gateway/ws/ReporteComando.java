@@ -0,0 +1,19 @@
+package com.haedcom.gateway.ws;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Mensaje del dispositivo al gateway con el estado de un comando.
+ *
+ * <p>
+ * {@code estado} es un {@code EstadoComandoDispositivo} del core ({@code RECIBIDO},
+ * {@code EJECUTADO_OK}, {@code EJECUTADO_ERROR}). El tenant es siempre el autenticado al conectar;
+ * {@code orgId} es opcional y, si se informa y no coincide, el reporte se descarta.
+ * </p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ReporteComando(UUID orgId, UUID idComando, String estado, String codigoError,
+        String detalleError, OffsetDateTime ocurridoEnUtc, String idEjecucionExterna) {
+}
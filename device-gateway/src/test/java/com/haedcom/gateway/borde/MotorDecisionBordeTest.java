@@ -0,0 +1,133 @@
+package com.haedcom.gateway.borde;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import com.haedcom.gateway.borde.PoliticaBorde.AreaBorde;
+import com.haedcom.gateway.borde.PoliticaBorde.CredencialBorde;
+import com.haedcom.gateway.borde.PoliticaBorde.DispositivoBorde;
+import com.haedcom.gateway.borde.PoliticaBorde.ReglaBorde;
+import com.haedcom.gateway.core.IntentoRequest;
+
+class MotorDecisionBordeTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+    private static final UUID AREA = UUID.randomUUID();
+    private static final UUID DISPOSITIVO = UUID.randomUUID();
+    private static final UUID INACTIVO = UUID.randomUUID();
+
+    // 2025-01-15T03:30Z = 22:30 del 14 en America/Bogota
+    private final MotorDecisionBorde motor = new MotorDecisionBorde(
+            Clock.fixed(Instant.parse("2025-01-15T03:30:00Z"), ZoneOffset.UTC));
+
+    @Test
+    void evaluar_conDispositivoDesconocidoOInactivo_deberiaNoDecidirODenegar() {
+        PoliticaCompilada p = politica(Map.of());
+
+        assertNull(motor.evaluar(p, intento(UUID.randomUUID(), "CC:100")));
+        DecisionLocal d = motor.evaluar(p, intento(INACTIVO, "CC:100"));
+        assertEquals(MotorDecisionBorde.DENEGAR, d.resultado());
+        assertEquals(MotorDecisionBorde.MOTIVO_DEVICE_INACTIVE, d.codigoMotivo());
+    }
+
+    @Test
+    void evaluar_conSujetoDesconocidoOAmbiguo_deberiaDenegar() {
+        PoliticaCompilada p = politica(Map.of());
+
+        assertEquals(MotorDecisionBorde.MOTIVO_SUBJECT_UNKNOWN,
+                motor.evaluar(p, intento(DISPOSITIVO, "CC:999")).codigoMotivo());
+        // "200" existe como CC y como TI
+        assertEquals(MotorDecisionBorde.MOTIVO_SUBJECT_UNKNOWN,
+                motor.evaluar(p, intento(DISPOSITIVO, "200")).codigoMotivo());
+        assertEquals(MotorDecisionBorde.MOTIVO_ALLOW_DEFAULT,
+                motor.evaluar(p, intento(DISPOSITIVO, " cc : 100 ")).codigoMotivo());
+        assertEquals(MotorDecisionBorde.MOTIVO_ALLOW_DEFAULT,
+                motor.evaluar(p, intento(DISPOSITIVO, "100")).codigoMotivo());
+    }
+
+    @Test
+    void evaluar_conReglas_deberiaAplicarLaPrimeraQueCoincide() {
+        UUID otroDispositivo = UUID.randomUUID();
+        UUID denegar = UUID.randomUUID();
+        UUID permitir = UUID.randomUUID();
+        PoliticaCompilada p = politica(Map.of("RESIDENTE", List.of(
+                regla(UUID.randomUUID(), "PERMITIR", otroDispositivo, null, null),
+                // 22:00-06:00 (cruza medianoche) en la zona del área
+                regla(denegar, "DENEGAR", null, 22 * 3600, 6 * 3600),
+                regla(permitir, "PERMITIR", null, null, null))));
+
+        DecisionLocal d = motor.evaluar(p, intento(DISPOSITIVO, "CC:100"));
+        assertEquals(MotorDecisionBorde.DENEGAR, d.resultado());
+        assertEquals(MotorDecisionBorde.MOTIVO_RULE_DENY, d.codigoMotivo());
+        assertEquals(denegar, d.idRegla());
+
+        MotorDecisionBorde mediodia = new MotorDecisionBorde(
+                Clock.fixed(Instant.parse("2025-01-15T17:00:00Z"), ZoneOffset.UTC));
+        d = mediodia.evaluar(p, intento(DISPOSITIVO, "CC:100"));
+        assertEquals(MotorDecisionBorde.PERMITIR, d.resultado());
+        assertEquals(permitir, d.idRegla());
+    }
+
+    @Test
+    void evaluar_enLaHoraRepetida_deberiaUsarLaMismaVentanaQueElCore() {
+        UUID denegar = UUID.randomUUID();
+        PoliticaCompilada p = politica("Europe/Madrid", Map.of("RESIDENTE", List.of(
+                regla(denegar, "DENEGAR", null, 2 * 3600 + 1800, 2 * 3600 + 2700),
+                regla(UUID.randomUUID(), "PERMITIR", null, null, null))));
+
+        // 2025-10-26T01:00Z = 02:00 CET, segunda pasada por la hora repetida: la ventana
+        // 02:30-02:45 es un único intervalo 00:30Z-01:45Z
+        MotorDecisionBorde atraso = new MotorDecisionBorde(
+                Clock.fixed(Instant.parse("2025-10-26T01:00:00Z"), ZoneOffset.UTC));
+        DecisionLocal d = atraso.evaluar(p, intento(DISPOSITIVO, "CC:100"));
+        assertEquals(denegar, d.idRegla());
+
+        MotorDecisionBorde despues = new MotorDecisionBorde(
+                Clock.fixed(Instant.parse("2025-10-26T01:46:00Z"), ZoneOffset.UTC));
+        assertEquals(MotorDecisionBorde.PERMITIR,
+                despues.evaluar(p, intento(DISPOSITIVO, "CC:100")).resultado());
+    }
+
+    @Test
+    void evaluar_sinReglaQueCoincida_deberiaDenegar() {
+        PoliticaCompilada p = politica(Map.of("VISITANTE",
+                List.of(regla(UUID.randomUUID(), "PERMITIR", UUID.randomUUID(), null, null))));
+
+        DecisionLocal d = motor.evaluar(p, intento(DISPOSITIVO, "TI:300"));
+        assertEquals(MotorDecisionBorde.DENEGAR, d.resultado());
+        assertEquals(MotorDecisionBorde.MOTIVO_NO_MATCHING_RULE, d.codigoMotivo());
+    }
+
+    private static PoliticaCompilada politica(Map<String, List<ReglaBorde>> reglas) {
+        return politica("America/Bogota", reglas);
+    }
+
+    private static PoliticaCompilada politica(String zona, Map<String, List<ReglaBorde>> reglas) {
+        return PoliticaCompilada.compilar(new PoliticaBorde(ORG, "v1", null,
+                List.of(new DispositivoBorde(DISPOSITIVO, AREA, "dev-1", true),
+                        new DispositivoBorde(INACTIVO, AREA, "dev-2", false)),
+                List.of(new AreaBorde(AREA, zona, reglas)), List.of("CC", "TI"),
+                List.of(credencial("CC", "100", "RESIDENTE"), credencial("CC", "200", "RESIDENTE"),
+                        credencial("TI", "200", "VISITANTE"), credencial("TI", "300", "VISITANTE"))));
+    }
+
+    private static CredencialBorde credencial(String tipo, String numero, String tipoSujeto) {
+        return new CredencialBorde(PoliticaCompilada.huella(ORG, tipo, numero), tipoSujeto);
+    }
+
+    private static ReglaBorde regla(UUID id, String accion, UUID dispositivo, Integer desde,
+            Integer hasta) {
+        return new ReglaBorde(id, accion, null, dispositivo, null, null, null, null, desde, hasta);
+    }
+
+    private static IntentoRequest intento(UUID dispositivo, String referencia) {
+        return new IntentoRequest(dispositivo, AREA, "ENTRADA", "DOCUMENTO", referencia, null,
+                "k-1", null, null, null);
+    }
+}
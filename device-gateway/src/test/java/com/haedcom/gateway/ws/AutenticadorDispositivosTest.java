@@ -0,0 +1,43 @@
+package com.haedcom.gateway.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AutenticadorDispositivosTest {
+
+    private static final byte[] SECRETO = "secreto-de-prueba".getBytes(StandardCharsets.UTF_8);
+    private static final Instant AHORA = Instant.parse("2026-01-01T00:00:00Z");
+    private static final UUID ORG = UUID.randomUUID();
+
+    private final AutenticadorDispositivos autenticador =
+            new AutenticadorDispositivos(SECRETO, Clock.fixed(AHORA, ZoneOffset.UTC));
+
+    @Test
+    void autenticar_conTokenDelDispositivo_deberiaDevolverSuTenant() {
+        String token = AutenticadorDispositivos.firmar(SECRETO, "dev-1", ORG,
+                AHORA.plusSeconds(60));
+
+        assertEquals(ORG, autenticador.autenticar("dev-1", token));
+    }
+
+    @Test
+    void autenticar_conTokenAjenoAlteradoOVencido_deberiaRechazar() {
+        String token = AutenticadorDispositivos.firmar(SECRETO, "dev-1", ORG,
+                AHORA.plusSeconds(60));
+        String otroTenant = token.replace(ORG.toString(), UUID.randomUUID().toString());
+        String vencido = AutenticadorDispositivos.firmar(SECRETO, "dev-1", ORG, AHORA);
+
+        assertNull(autenticador.autenticar("dev-2", token));
+        assertNull(autenticador.autenticar("dev-1", otroTenant));
+        assertNull(autenticador.autenticar("dev-1", vencido));
+        assertNull(autenticador.autenticar("dev-1", null));
+        assertNull(new AutenticadorDispositivos(null, Clock.systemUTC())
+                .autenticar("dev-1", token));
+    }
+}
@@ -0,0 +1,99 @@
+package com.haedcom.gateway.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class ConexionDispositivoTest {
+
+    private static final UUID ORG = UUID.randomUUID();
+
+    @Test
+    void enviar_conTransporteAsincrono_deberiaEntregarEnOrdenDeAUno() throws Exception {
+        ExecutorService io = Executors.newFixedThreadPool(4);
+        List<String> enviados = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger enVuelo = new AtomicInteger();
+        AtomicInteger maxEnVuelo = new AtomicInteger();
+        ConexionDispositivo conexion = new ConexionDispositivo("dev-1", ORG, new Transporte() {
+            @Override
+            public void enviar(String texto, Consumer<Throwable> alTerminar) {
+                maxEnVuelo.accumulateAndGet(enVuelo.incrementAndGet(), Math::max);
+                enviados.add(texto);
+                io.execute(() -> {
+                    enVuelo.decrementAndGet();
+                    alTerminar.accept(null);
+                });
+            }
+        }, 10_000);
+
+        int n = 2_000;
+        CountDownLatch entregados = new CountDownLatch(n);
+        for (int i = 0; i < n; i++) {
+            assertTrue(conexion.enviar("cmd-" + i, err -> entregados.countDown()));
+        }
+
+        assertTrue(entregados.await(10, TimeUnit.SECONDS));
+        io.shutdown();
+        assertEquals(1, maxEnVuelo.get());
+        for (int i = 0; i < n; i++) {
+            assertEquals("cmd-" + i, enviados.get(i));
+        }
+        assertEquals(0, conexion.pendientes());
+    }
+
+    @Test
+    void enviar_conColaLlenaOCerrada_deberiaRechazarYFallarLosPendientes() {
+        List<Throwable> resultados = new ArrayList<>();
+        ConexionDispositivo conexion = new ConexionDispositivo("dev-1", ORG, new Transporte() {
+            @Override
+            public void enviar(String texto, Consumer<Throwable> alTerminar) {
+                // nunca confirma: el primer envío queda en vuelo
+            }
+        }, 2);
+
+        assertTrue(conexion.enviar("a", resultados::add));
+        assertTrue(conexion.enviar("b", resultados::add));
+        assertFalse(conexion.enviar("c", resultados::add));
+
+        conexion.cerrar("test");
+
+        assertFalse(conexion.enviar("d", resultados::add));
+        assertEquals(1, resultados.size());
+        assertTrue(resultados.get(0) instanceof IllegalStateException);
+    }
+
+    private abstract static class Transporte implements ConexionDispositivo.Transporte {
+
+        @Override
+        public void cerrar(String motivo) {
+        }
+    }
+
+    @Test
+    void reconocer_deberiaAceptarSoloComandosEmitidosHastaSuEstadoFinal() {
+        ConexionDispositivo conexion = new ConexionDispositivo("dev-1", ORG, new Transporte() {
+            @Override
+            public void enviar(String texto, Consumer<Throwable> alTerminar) {
+                alTerminar.accept(null);
+            }
+        }, 4);
+        UUID emitido = UUID.randomUUID();
+        conexion.emitido(emitido);
+
+        assertFalse(conexion.reconocer(UUID.randomUUID(), false));
+        assertTrue(conexion.reconocer(emitido, false));
+        assertTrue(conexion.reconocer(emitido, true));
+        assertFalse(conexion.reconocer(emitido, true));
+    }
+}
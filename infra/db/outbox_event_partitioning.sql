@@ -0,0 +1,72 @@
+-- =====================================================================================
+-- outbox_event particionada por día (created_at_utc)
+--
+-- Convierte la tabla outbox_event generada por Hibernate en una tabla particionada por rango
+-- diario. Después de aplicarla, OutboxRetentionJob lo detecta automáticamente: crea las
+-- particiones futuras (outbox_event_pYYYYMMDD) y desacopla/elimina las vencidas en lugar de
+-- hacer DELETE fila a fila.
+--
+-- Notas:
+--   * La PK pasa a ser (id_evento, created_at_utc): PostgreSQL exige la clave de partición en la
+--     PK. id_evento sigue siendo un UUID aleatorio y la entidad JPA no cambia.
+--   * Solo se copian los eventos vivos (PENDING/FAILED) y los PUBLISHED dentro de la retención.
+--   * Las particiones de la migración se crean en esta transacción, antes de copiar filas: la
+--     DEFAULT está vacía. Después, el job crea cada partición en su propia transacción.
+--   * Ejecutar en ventana de mantenimiento con los dispatchers detenidos.
+--   * outbox_event_legacy se conserva; eliminarla manualmente al validar.
+-- =====================================================================================
+begin;
+
+alter table outbox_event rename to outbox_event_legacy;
+alter table outbox_event_legacy rename constraint outbox_event_pkey to outbox_event_legacy_pkey;
+alter index if exists ix_outbox_status rename to ix_outbox_legacy_status;
+alter index if exists ix_outbox_created rename to ix_outbox_legacy_created;
+alter index if exists ix_outbox_pending_next_created rename to ix_outbox_legacy_pending_next_created;
+
+create table outbox_event (like outbox_event_legacy including defaults including constraints)
+    partition by range (created_at_utc);
+
+alter table outbox_event add constraint outbox_event_pkey primary key (id_evento, created_at_utc);
+
+create index ix_outbox_status on outbox_event (status);
+create index ix_outbox_created on outbox_event (created_at_utc);
+create index ix_outbox_pending_next_created
+    on outbox_event (status, next_attempt_at_utc, created_at_utc);
+-- Índice parcial del claim: solo el backlog vivo, no crece con el histórico.
+create index ix_outbox_pending_ready
+    on outbox_event (created_at_utc)
+    where status = 'PENDING';
+
+-- Particiones diarias desde el evento vivo más viejo hasta hoy + 3 días.
+do $$
+declare
+    d date := coalesce((select min(created_at_utc at time zone 'utc')::date
+                          from outbox_event_legacy
+                         where status <> 'PUBLISHED'
+                            or published_at_utc >= (now() at time zone 'utc') - interval '7 days'),
+                       (now() at time zone 'utc')::date);
+begin
+    while d <= (now() at time zone 'utc')::date + 3 loop
+        execute format(
+            'create table if not exists %I partition of outbox_event for values from (%L) to (%L)',
+            'outbox_event_p' || to_char(d, 'YYYYMMDD'),
+            d::timestamp at time zone 'utc',
+            (d + 1)::timestamp at time zone 'utc');
+        d := d + 1;
+    end loop;
+end $$;
+
+-- Red de seguridad si el job no alcanzó a crear la partición del día. Al crear una partición
+-- diaria, el job mueve primero a ella las filas de su rango que hayan caído aquí (PostgreSQL no
+-- adjunta un rango con filas en la DEFAULT) y poda los PUBLISHED vencidos que queden.
+create table outbox_event_default partition of outbox_event default;
+
+insert into outbox_event
+select *
+  from outbox_event_legacy
+ where status <> 'PUBLISHED'
+    or published_at_utc >= (now() at time zone 'utc') - interval '7 days';
+
+commit;
+
+-- drop table outbox_event_legacy;